@@ -0,0 +1,78 @@
+package co.edu.uniquindio.bookyourstay.benchmarks;
+
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.persistencia.CodecsModelo;
+import co.edu.uniquindio.bookyourstay.persistencia.Coleccion;
+import co.edu.uniquindio.bookyourstay.persistencia.Durabilidad;
+import co.edu.uniquindio.bookyourstay.persistencia.MotorAlmacenamiento;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Escrituras confirmadas en el {@link MotorAlmacenamiento}: cada operación guarda una reserva
+ * existente (sobrescribe, así la compactación entra en juego) y espera su confirmación.
+ * Con durabilidad SINCRONA la diferencia entre 1 y 16 hilos muestra el efecto del group commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlmacenamientoBenchmark {
+
+    @Param({"SINCRONA", "DIFERIDA"})
+    public Durabilidad durabilidad;
+
+    private DatosSinteticos datos;
+    private Path directorio;
+    private MotorAlmacenamiento motor;
+    private Coleccion<Reserva> coleccion;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        datos = new GeneradorDatos(42).generar(1000, 1000, 10000, 0);
+        directorio = Files.createTempDirectory("bys-almacenamiento");
+        motor = MotorAlmacenamiento.abrir(directorio, durabilidad);
+        coleccion = motor.coleccion("reservas", CodecsModelo.reservas(datos.referencias()));
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        motor.close();
+        borrarDirectorio(directorio);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Reserva guardarUnHilo() {
+        return guardar();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Reserva guardarDieciseisHilos() {
+        return guardar();
+    }
+
+    private Reserva guardar() {
+        Reserva reserva = datos.reservas.get(ThreadLocalRandom.current().nextInt(datos.reservas.size()));
+        coleccion.guardar(reserva.getId(), reserva);
+        return reserva;
+    }
+
+    static void borrarDirectorio(Path directorio) throws IOException {
+        try (Stream<Path> rutas = Files.walk(directorio)) {
+            for (Path ruta : (Iterable<Path>) rutas.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(ruta);
+            }
+        }
+    }
+}
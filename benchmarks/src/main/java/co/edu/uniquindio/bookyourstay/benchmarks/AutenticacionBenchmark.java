@@ -0,0 +1,56 @@
+package co.edu.uniquindio.bookyourstay.benchmarks;
+
+import co.edu.uniquindio.bookyourstay.modelo.Usuario;
+import co.edu.uniquindio.bookyourstay.seguridad.CifradoContraseñas;
+import co.edu.uniquindio.bookyourstay.servicios.UsuarioServicio;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inicios de sesión por segundo con contraseñas PBKDF2 ({@link CifradoContraseñas}).
+ * {@code verificar} mide una verificación aislada para cada costo; {@code iniciarSesion} pasa por
+ * {@link UsuarioServicio#iniciarSesionAsync} con el costo configurado en la JVM
+ * ({@code -jvmArgs -Dbookyourstay.pbkdf2.iteraciones=N}), así que su techo es el grupo de verificación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AutenticacionBenchmark {
+    private static final String CONTRASEÑA = "clave-de-prueba-123";
+
+    @Param({"10000", "100000", "310000"})
+    public int iteraciones;
+
+    private String hash;
+    private UsuarioServicio servicio;
+    private String email;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        hash = CifradoContraseñas.generarHash(CONTRASEÑA, iteraciones);
+
+        servicio = UsuarioServicio.obtenerInstancia();
+        email = "benchmark" + System.nanoTime() + "@benchmark.co";
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Usuario Benchmark");
+        usuario.setEmail(email);
+        usuario.setCedula(String.valueOf(System.nanoTime() % 1_000_000_000L + 1_000_000_000L));
+        usuario.setContraseña(CONTRASEÑA);
+        servicio.registrarUsuario(usuario);
+    }
+
+    @Benchmark
+    public boolean verificar() {
+        return CifradoContraseñas.verificar(CONTRASEÑA, hash);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Usuario iniciarSesion() {
+        return servicio.iniciarSesionAsync(email, CONTRASEÑA).join();
+    }
+}
@@ -0,0 +1,56 @@
+package co.edu.uniquindio.bookyourstay.benchmarks;
+
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
+import co.edu.uniquindio.bookyourstay.servicios.AlojamientoServicio;
+import co.edu.uniquindio.bookyourstay.servicios.ReservaServicio;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de alojamientos disponibles ({@link AlojamientoServicio#buscarDisponibles}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusquedaBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int alojamientos;
+
+    private AlojamientoServicio alojamientoServicio;
+    private ReservaServicio reservaServicio;
+    private GeneradorDatos generador;
+    private LocalDate inicio;
+    private LocalDate fin;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        generador = new GeneradorDatos(7);
+        DatosSinteticos datos = generador.generar(1000, alojamientos, alojamientos * 5, 0);
+        datos.registrarEnGestor();
+
+        alojamientoServicio = AlojamientoServicio.obtenerInstancia();
+        reservaServicio = new ReservaServicio(datos.nuevoRepositorioReservas());
+        inicio = LocalDate.now().plusDays(10);
+        fin = inicio.plusDays(3);
+    }
+
+    @Benchmark
+    public List<Alojamiento> buscarPorCiudad() {
+        return alojamientoServicio.buscarDisponibles(generador.ciudadAleatoria(), inicio, fin,
+                1, null, reservaServicio);
+    }
+
+    @Benchmark
+    public List<Alojamiento> buscarConFiltros() {
+        return alojamientoServicio.buscarDisponibles(generador.ciudadAleatoria(), inicio, fin,
+                4, TipoAlojamiento.CASA, 100_000f, 800_000f, List.of("Wifi"), reservaServicio);
+    }
+}
@@ -0,0 +1,89 @@
+package co.edu.uniquindio.bookyourstay.benchmarks;
+
+import co.edu.uniquindio.bookyourstay.modelo.*;
+import co.edu.uniquindio.bookyourstay.persistencia.Referencias;
+import co.edu.uniquindio.bookyourstay.repositorios.AlojamientoRepositorio;
+import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
+import co.edu.uniquindio.bookyourstay.repositorios.ReseñaRepositorio;
+import co.edu.uniquindio.bookyourstay.singleton.GestorAlojamientos;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Conjunto de datos generado por {@link GeneradorDatos} y utilidades para cargarlo en los repositorios.
+ */
+public class DatosSinteticos {
+    public final Usuario propietario;
+    public final List<Cliente> clientes;
+    public final List<Alojamiento> alojamientos;
+    public final List<Reserva> reservas;
+    public final List<Reseña> reseñas;
+
+    DatosSinteticos(Usuario propietario, List<Cliente> clientes, List<Alojamiento> alojamientos,
+                    List<Reserva> reservas, List<Reseña> reseñas) {
+        this.propietario = propietario;
+        this.clientes = clientes;
+        this.alojamientos = alojamientos;
+        this.reservas = reservas;
+        this.reseñas = reseñas;
+    }
+
+    public AlojamientoRepositorio nuevoRepositorioAlojamientos() {
+        AlojamientoRepositorio repositorio = new AlojamientoRepositorio();
+        alojamientos.forEach(repositorio::guardarAlojamiento);
+        return repositorio;
+    }
+
+    public ReservaRepositorio nuevoRepositorioReservas() {
+        ReservaRepositorio repositorio = new ReservaRepositorio();
+        reservas.forEach(repositorio::guardarReserva);
+        return repositorio;
+    }
+
+    public ReseñaRepositorio nuevoRepositorioReseñas() {
+        ReseñaRepositorio repositorio = new ReseñaRepositorio();
+        reseñas.forEach(repositorio::guardar);
+        return repositorio;
+    }
+
+    /**
+     * @return Referencias que resuelven los IDs contra este conjunto de datos, para los codecs del almacenamiento
+     */
+    public Referencias referencias() {
+        Map<String, Usuario> usuarios = Stream.concat(Stream.of(propietario), clientes.stream())
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+        Map<String, Alojamiento> porIdAlojamiento = alojamientos.stream()
+                .collect(Collectors.toMap(Alojamiento::getId, Function.identity()));
+        Map<String, Reserva> porIdReserva = reservas.stream()
+                .collect(Collectors.toMap(Reserva::getId, Function.identity()));
+        return new Referencias() {
+            @Override
+            public Optional<Usuario> usuario(String id) {
+                return Optional.ofNullable(usuarios.get(id));
+            }
+
+            @Override
+            public Optional<Alojamiento> alojamiento(String id) {
+                return Optional.ofNullable(porIdAlojamiento.get(id));
+            }
+
+            @Override
+            public Optional<Reserva> reserva(String id) {
+                return Optional.ofNullable(porIdReserva.get(id));
+            }
+        };
+    }
+
+    /**
+     * Registra los alojamientos en el gestor global que usa la búsqueda
+     */
+    public void registrarEnGestor() {
+        GestorAlojamientos gestor = GestorAlojamientos.getInstancia();
+        alojamientos.forEach(gestor::agregarAlojamiento);
+    }
+}
@@ -0,0 +1,37 @@
+package co.edu.uniquindio.bookyourstay.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Punto de entrada de los benchmarks. Acepta los mismos argumentos que JMH y, si no se indica
+ * otra cosa, guarda los resultados en formato JSON para poder compararlos entre versiones.
+ */
+public class EjecutorBenchmarks {
+    private static final String ARCHIVO_RESULTADOS = "jmh-resultados.json";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions argumentos = new CommandLineOptions(args);
+        if (argumentos.shouldHelp() || argumentos.shouldList() || argumentos.shouldListWithParams()
+                || argumentos.shouldListProfilers() || argumentos.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder opciones = new OptionsBuilder().parent(argumentos);
+        if (!argumentos.getResultFormat().hasValue()) {
+            opciones.resultFormat(ResultFormatType.JSON);
+        }
+        if (!argumentos.getResult().hasValue()) {
+            opciones.result(ARCHIVO_RESULTADOS);
+        }
+        new Runner(opciones.build()).run();
+    }
+}
@@ -0,0 +1,45 @@
+package co.edu.uniquindio.bookyourstay.benchmarks;
+
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.servicios.EstadisticaServicio;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reportes del panel de administración ({@link EstadisticaServicio}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EstadisticasBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int reservas;
+
+    private EstadisticaServicio servicio;
+    private Year year;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        DatosSinteticos datos = new GeneradorDatos(3).generar(1000, Math.max(1, reservas / 20), reservas, 0);
+        servicio = new EstadisticaServicio(datos.nuevoRepositorioReservas(), datos.nuevoRepositorioAlojamientos());
+        year = Year.now();
+    }
+
+    @Benchmark
+    public Map<String, Object> generarReporteConsolidado() {
+        return servicio.generarReporteConsolidado(year);
+    }
+
+    @Benchmark
+    public List<Alojamiento> alojamientosMasPopulares() {
+        return servicio.obtenerAlojamientosMasPopulares(10);
+    }
+}
@@ -0,0 +1,180 @@
+package co.edu.uniquindio.bookyourstay.benchmarks;
+
+import co.edu.uniquindio.bookyourstay.modelo.*;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.RolUsuario;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCalificacion;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Genera datos sintéticos reproducibles (misma semilla, mismos datos) para los benchmarks.
+ * Las reservas de cada alojamiento se generan en rangos consecutivos que no se solapan,
+ * de modo que todas pueden guardarse en el repositorio.
+ */
+public class GeneradorDatos {
+    private static final String[] CIUDADES = {
+            "Armenia", "Bogotá", "Medellín", "Cali", "Barranquilla", "Cartagena", "Cúcuta", "Pereira",
+            "Manizales", "Santa Marta", "Bucaramanga", "Ibagué", "Villavicencio", "Pasto", "Montería",
+            "Neiva", "Popayán", "Salento", "Leticia", "San Andrés", "Tunja", "Valledupar", "Sincelejo",
+            "Riohacha", "Quibdó", "Florencia", "Yopal", "Girardot", "Filandia", "Jardín"
+    };
+    private static final String[] SERVICIOS = {
+            "Wifi", "Piscina", "Parqueadero", "Desayuno", "Aire acondicionado", "Toallas", "Cocina",
+            "Lavadora", "Mascotas", "Jacuzzi", "Gimnasio", "Vista al mar"
+    };
+    private static final String[] COMENTARIOS = {
+            "Excelente ubicación y muy buena atención del anfitrión",
+            "La habitación estaba limpia pero el ruido de la calle molestaba",
+            "Lugar acogedor, ideal para descansar en familia",
+            "El desayuno fue delicioso y el personal muy amable",
+            "No corresponde a las fotos, la piscina estaba cerrada",
+            "Muy buena relación calidad precio, volvería sin dudarlo"
+    };
+
+    private final Random aleatorio;
+
+    /**
+     * @param semilla Semilla del generador aleatorio
+     */
+    public GeneradorDatos(long semilla) {
+        this.aleatorio = new Random(semilla);
+    }
+
+    /**
+     * Genera un conjunto de datos con las cantidades indicadas
+     * @param usuarios Número de clientes
+     * @param alojamientos Número de alojamientos
+     * @param reservas Número de reservas
+     * @param reseñas Número de reseñas
+     * @return Datos generados
+     */
+    public DatosSinteticos generar(int usuarios, int alojamientos, int reservas, int reseñas) {
+        Usuario propietario = crearPropietario();
+
+        List<Cliente> clientes = new ArrayList<>(usuarios);
+        for (int i = 0; i < usuarios; i++) {
+            clientes.add(crearCliente(i));
+        }
+
+        List<Alojamiento> listaAlojamientos = new ArrayList<>(alojamientos);
+        for (int i = 0; i < alojamientos; i++) {
+            Alojamiento alojamiento = crearAlojamiento(i);
+            alojamiento.setPropietario(propietario);
+            listaAlojamientos.add(alojamiento);
+        }
+
+        LocalDate[] siguienteFechaLibre = new LocalDate[alojamientos];
+        List<Reserva> listaReservas = new ArrayList<>(reservas);
+        for (int i = 0; i < reservas && alojamientos > 0 && usuarios > 0; i++) {
+            int indice = aleatorio.nextInt(alojamientos);
+            LocalDate inicio = siguienteFechaLibre[indice] != null
+                    ? siguienteFechaLibre[indice]
+                    : LocalDate.now().minusDays(365).plusDays(aleatorio.nextInt(30));
+            LocalDate fin = inicio.plusDays(1 + aleatorio.nextInt(7));
+            siguienteFechaLibre[indice] = fin.plusDays(1 + aleatorio.nextInt(3));
+
+            listaReservas.add(crearReserva(i, clientes.get(aleatorio.nextInt(usuarios)),
+                    listaAlojamientos.get(indice), inicio, fin));
+        }
+
+        List<Reseña> listaReseñas = new ArrayList<>(reseñas);
+        for (int i = 0; i < reseñas && !listaReservas.isEmpty(); i++) {
+            Reserva reserva = listaReservas.get(aleatorio.nextInt(listaReservas.size()));
+            listaReseñas.add(crearReseña(i, reserva));
+        }
+
+        return new DatosSinteticos(propietario, clientes, listaAlojamientos, listaReservas, listaReseñas);
+    }
+
+    /**
+     * @return Una ciudad al azar del catálogo usado por el generador
+     */
+    public String ciudadAleatoria() {
+        return CIUDADES[aleatorio.nextInt(CIUDADES.length)];
+    }
+
+    private Usuario crearPropietario() {
+        Usuario propietario = new Usuario();
+        propietario.setId("PROP-000001");
+        propietario.setNombre("Propietario Benchmark");
+        propietario.setEmail("propietario@benchmark.co");
+        propietario.setCedula("1000000000");
+        propietario.setRol(RolUsuario.PROPIETARIO);
+        propietario.setActivo(true);
+        return propietario;
+    }
+
+    private Cliente crearCliente(int i) {
+        Cliente cliente = new Cliente();
+        cliente.setId(String.format("USR-%06d", i));
+        cliente.setNombre("Cliente " + i);
+        cliente.setEmail("cliente" + i + "@benchmark.co");
+        cliente.setCedula(String.valueOf(1_100_000_000L + i));
+        cliente.setContraseña("clave" + i);
+        cliente.setActivo(true);
+        cliente.getBilletera().recargarSaldo(1_000_000_000f, "Benchmark");
+        return cliente;
+    }
+
+    private Alojamiento crearAlojamiento(int i) {
+        String nombre = "Alojamiento " + i;
+        String ciudad = CIUDADES[aleatorio.nextInt(CIUDADES.length)];
+        int capacidad = 1 + aleatorio.nextInt(12);
+        float precio = 50_000 + aleatorio.nextInt(30) * 50_000;
+
+        Alojamiento alojamiento = switch (i % 3) {
+            case 0 -> new Casa(nombre, ciudad, "Casa sintética", capacidad, precio);
+            case 1 -> new Apartamento(nombre, ciudad, "Apartamento sintético", capacidad, precio);
+            default -> new Hotel(nombre, ciudad, "Hotel sintético", capacidad, precio);
+        };
+        alojamiento.setId(String.format("ALO-%06d", i));
+
+        List<String> servicios = new ArrayList<>();
+        for (String servicio : SERVICIOS) {
+            if (aleatorio.nextInt(3) == 0) {
+                servicios.add(servicio);
+            }
+        }
+        alojamiento.setServicios(servicios);
+        return alojamiento;
+    }
+
+    private Reserva crearReserva(int i, Cliente cliente, Alojamiento alojamiento, LocalDate inicio, LocalDate fin) {
+        int sorteo = aleatorio.nextInt(10);
+        EstadoReserva estado = sorteo == 0 ? EstadoReserva.CANCELADA
+                : sorteo < 4 ? EstadoReserva.COMPLETADA
+                : EstadoReserva.CONFIRMADA;
+        int noches = (int) inicio.until(fin).getDays();
+
+        return Reserva.builder()
+                .conId(String.format("RES-%08d", i))
+                .conCliente(cliente)
+                .conAlojamiento(alojamiento)
+                .conFechaInicio(inicio)
+                .conFechaFin(fin)
+                .conNumHuespedes(1)
+                .conEstado(estado)
+                .conTotalCentavos(alojamiento.getPrecioNocheCentavos() * noches)
+                .build();
+    }
+
+    private Reseña crearReseña(int i, Reserva reserva) {
+        return Reseña.builder()
+                .id(String.format("RSN-%07d", i))
+                .cliente(reserva.getCliente())
+                .alojamiento(reserva.getAlojamiento())
+                .reserva(reserva)
+                .calificacion(1 + aleatorio.nextInt(5))
+                .comentario(COMENTARIOS[aleatorio.nextInt(COMENTARIOS.length)])
+                .fecha(LocalDateTime.now().minusDays(aleatorio.nextInt(365)))
+                .fotos(new ArrayList<>())
+                .tipoCalificacion(TipoCalificacion.ESTANDAR)
+                .recomendaria(aleatorio.nextBoolean())
+                .build();
+    }
+}
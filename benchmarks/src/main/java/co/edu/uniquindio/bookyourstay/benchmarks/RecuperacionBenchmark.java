@@ -0,0 +1,66 @@
+package co.edu.uniquindio.bookyourstay.benchmarks;
+
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.persistencia.CodecsModelo;
+import co.edu.uniquindio.bookyourstay.persistencia.Coleccion;
+import co.edu.uniquindio.bookyourstay.persistencia.Durabilidad;
+import co.edu.uniquindio.bookyourstay.persistencia.MotorAlmacenamiento;
+import co.edu.uniquindio.bookyourstay.persistencia.Referencias;
+import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de arranque sobre un directorio con datos: recuperar los segmentos (recorrido y
+ * verificación de sumas) y reconstruir un {@link ReservaRepositorio} con sus calendarios.
+ * Los segmentos son pequeños para que la recuperación recorra varios sellados y el activo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecuperacionBenchmark {
+    private static final long TAMAÑO_SEGMENTO = 1 << 20;
+
+    @Param({"10000", "100000"})
+    public int reservas;
+
+    private Path directorio;
+    private Referencias referencias;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        DatosSinteticos datos = new GeneradorDatos(42).generar(1000, Math.max(1, reservas / 10), reservas, 0);
+        referencias = datos.referencias();
+        directorio = Files.createTempDirectory("bys-recuperacion");
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.DIFERIDA, TAMAÑO_SEGMENTO)) {
+            Coleccion<Reserva> coleccion = motor.coleccion("reservas", CodecsModelo.reservas(referencias));
+            datos.reservas.forEach(reserva -> coleccion.guardar(reserva.getId(), reserva));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        AlmacenamientoBenchmark.borrarDirectorio(directorio);
+    }
+
+    @Benchmark
+    public int abrir() {
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.DIFERIDA, TAMAÑO_SEGMENTO)) {
+            return motor.coleccion("reservas", CodecsModelo.reservas(referencias)).contar();
+        }
+    }
+
+    @Benchmark
+    public ReservaRepositorio abrirYCargarRepositorio() {
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.DIFERIDA, TAMAÑO_SEGMENTO)) {
+            return ReservaRepositorio.durable(motor.coleccion("reservas", CodecsModelo.reservas(referencias)));
+        }
+    }
+}
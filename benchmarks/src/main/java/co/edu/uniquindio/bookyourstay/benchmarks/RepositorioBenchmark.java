@@ -0,0 +1,78 @@
+package co.edu.uniquindio.bookyourstay.benchmarks;
+
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operaciones puntuales de {@link ReservaRepositorio}: búsqueda por ID, disponibilidad,
+ * actualización e inserción.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositorioBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int reservas;
+
+    private DatosSinteticos datos;
+    private ReservaRepositorio repositorio;
+    private Reserva nueva;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        datos = new GeneradorDatos(42).generar(1000, Math.max(1, reservas / 10), reservas, 0);
+        repositorio = datos.nuevoRepositorioReservas();
+
+        Alojamiento alojamiento = datos.alojamientos.get(0);
+        LocalDate inicio = LocalDate.now().plusYears(50);
+        nueva = Reserva.builder()
+                .conId("RES-BENCHMARK")
+                .conCliente(datos.clientes.get(0))
+                .conAlojamiento(alojamiento)
+                .conFechaInicio(inicio)
+                .conFechaFin(inicio.plusDays(2))
+                .conNumHuespedes(1)
+                .conEstado(EstadoReserva.CONFIRMADA)
+                .build();
+    }
+
+    @Benchmark
+    public Object buscarPorId() {
+        return repositorio.buscarPorId(reservaAleatoria().getId());
+    }
+
+    @Benchmark
+    public boolean estaDisponible() {
+        Reserva reserva = reservaAleatoria();
+        return repositorio.estaDisponible(reserva.getAlojamiento().getId(),
+                reserva.getFechaInicio(), reserva.getFechaFin());
+    }
+
+    @Benchmark
+    public Reserva actualizarReserva() {
+        Reserva reserva = reservaAleatoria();
+        repositorio.actualizarReserva(reserva);
+        return reserva;
+    }
+
+    @Benchmark
+    public boolean guardarYEliminarReserva() {
+        repositorio.guardarReserva(nueva);
+        return repositorio.eliminarReserva(nueva.getId());
+    }
+
+    private Reserva reservaAleatoria() {
+        return datos.reservas.get(ThreadLocalRandom.current().nextInt(datos.reservas.size()));
+    }
+}
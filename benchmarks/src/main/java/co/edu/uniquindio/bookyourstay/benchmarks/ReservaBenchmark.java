@@ -0,0 +1,65 @@
+package co.edu.uniquindio.bookyourstay.benchmarks;
+
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.Cliente;
+import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
+import co.edu.uniquindio.bookyourstay.servicios.ReservaServicio;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creación de reservas ({@link ReservaServicio#crearReserva}) sobre un repositorio precargado.
+ * Cada invocación reserva un rango distinto para que nunca se solapen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservaBenchmark {
+    private static final int DIAS_ENTRE_RESERVAS = 3;
+
+    @Param({"1000", "100000"})
+    public int reservas;
+
+    private DatosSinteticos datos;
+    private List<Alojamiento> alojamientos;
+    private Cliente cliente;
+    private ReservaServicio servicio;
+    private LocalDate base;
+    private long contador;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        datos = new GeneradorDatos(11).generar(1000, Math.max(1, reservas / 10), reservas, 0);
+        alojamientos = datos.alojamientos;
+        cliente = datos.clientes.get(0);
+    }
+
+    @Setup(Level.Iteration)
+    public void nuevoServicio() {
+        ReservaRepositorio repositorio = datos.nuevoRepositorioReservas();
+        servicio = new ReservaServicio(repositorio);
+        // Las reservas generadas terminan mucho antes de esta fecha
+        base = LocalDate.now().plusYears(30);
+        contador = 0;
+    }
+
+    @Benchmark
+    public void crearReserva(Blackhole bh) {
+        long n = contador++;
+        Alojamiento alojamiento = alojamientos.get((int) (n % alojamientos.size()));
+        LocalDate inicio = base.plusDays(n / alojamientos.size() * DIAS_ENTRE_RESERVAS);
+        try {
+            bh.consume(servicio.crearReserva(cliente, alojamiento, inicio, inicio.plusDays(1), 1));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // Un rechazo (por ejemplo un ID repetido) también es parte del costo medido
+            bh.consume(e);
+        }
+    }
+}
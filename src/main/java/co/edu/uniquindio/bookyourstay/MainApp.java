@@ -1,21 +1,38 @@
 package co.edu.uniquindio.bookyourstay;
 
+import co.edu.uniquindio.bookyourstay.persistencia.Durabilidad;
+import co.edu.uniquindio.bookyourstay.servicios.AlojamientoServicio;
+import co.edu.uniquindio.bookyourstay.servicios.PersistenciaServicio;
+import co.edu.uniquindio.bookyourstay.servicios.ReservaServicio;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.nio.file.Paths;
+
 public class MainApp extends Application {
+    private static final String DIRECTORIO_DATOS = "datos";
 
     @Override
     public void start(Stage primaryStage) throws Exception {
+        // Antes de cargar las vistas: los servicios eligen su repositorio al crearse
+        PersistenciaServicio.activar(Paths.get(DIRECTORIO_DATOS), Durabilidad.SINCRONA);
+        // Carga lo guardado: los alojamientos vuelven al gestor de búsqueda y las reservas a sus calendarios
+        AlojamientoServicio.obtenerInstancia();
+        ReservaServicio.obtenerInstancia();
         Parent root = FXMLLoader.load(getClass().getResource("/co/edu/uniquindio/bookyourstay/vistas/menu_principal.fxml"));
         primaryStage.setTitle("BookYourStay");
         primaryStage.setScene(new Scene(root, 400, 300));
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        PersistenciaServicio.cerrar();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,123 @@
+package co.edu.uniquindio.bookyourstay.controladores;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Lleva los resultados de las tareas en segundo plano al hilo de JavaFX.
+ * Las acciones se encolan y se ejecutan en lotes: un solo {@link Platform#runLater} vacía la cola,
+ * pero se detiene al agotar medio cuadro (8 ms) y deja el resto para el siguiente pulso,
+ * de modo que muchos resultados seguidos no congelan la interfaz.
+ */
+public final class EntregaFX {
+    private static final long PRESUPUESTO_NANOS = TimeUnit.MILLISECONDS.toNanos(8);
+    // Elementos que se agregan a una lista por acción, para repartir listas grandes entre cuadros
+    private static final int TAMAÑO_PARTE = 500;
+
+    private static final Queue<Runnable> PENDIENTES = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean PROGRAMADO = new AtomicBoolean();
+    // Reemplazo en curso de cada lista; las partes de un reemplazo anterior se descartan (solo hilo de JavaFX)
+    private static final Map<ObservableList<?>, Object> REEMPLAZOS = new IdentityHashMap<>();
+
+    private EntregaFX() {
+    }
+
+    /**
+     * Encola una acción para el hilo de JavaFX
+     * @param accion Acción que modifica la interfaz
+     */
+    public static void ejecutar(Runnable accion) {
+        PENDIENTES.add(accion);
+        programar();
+    }
+
+    /**
+     * Adapta un par de callbacks para {@link java.util.concurrent.CompletableFuture#whenComplete}:
+     * los ejecuta en el hilo de JavaFX, desenvuelve la CompletionException e ignora las tareas canceladas
+     * @param exito Recibe el resultado
+     * @param fallo Recibe la causa del error
+     */
+    public static <T> BiConsumer<T, Throwable> alTerminar(Consumer<? super T> exito, Consumer<Throwable> fallo) {
+        return (resultado, error) -> {
+            Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (causa instanceof CancellationException) {
+                return;
+            }
+            ejecutar(() -> {
+                if (causa != null) {
+                    fallo.accept(causa);
+                } else {
+                    exito.accept(resultado);
+                }
+            });
+        };
+    }
+
+    /**
+     * Reemplaza el contenido de una lista observable, agregando los elementos por partes.
+     * Se llama desde el hilo de JavaFX; un reemplazo posterior descarta las partes pendientes
+     * @param destino Lista de un control (tabla, lista)
+     * @param elementos Elementos nuevos
+     */
+    public static <T> void reemplazarPorPartes(ObservableList<T> destino, List<? extends T> elementos) {
+        int primera = Math.min(TAMAÑO_PARTE, elementos.size());
+        destino.setAll(elementos.subList(0, primera));
+        if (primera == elementos.size()) {
+            REEMPLAZOS.remove(destino);
+            return;
+        }
+
+        Object reemplazo = new Object();
+        REEMPLAZOS.put(destino, reemplazo);
+        for (int desde = primera; desde < elementos.size(); desde += TAMAÑO_PARTE) {
+            int hasta = Math.min(desde + TAMAÑO_PARTE, elementos.size());
+            List<? extends T> parte = elementos.subList(desde, hasta);
+            boolean ultima = hasta == elementos.size();
+            PENDIENTES.add(() -> {
+                if (REEMPLAZOS.get(destino) == reemplazo) {
+                    destino.addAll(parte);
+                    if (ultima) {
+                        REEMPLAZOS.remove(destino);
+                    }
+                }
+            });
+        }
+        programar();
+    }
+
+    private static void programar() {
+        if (PROGRAMADO.compareAndSet(false, true)) {
+            Platform.runLater(EntregaFX::vaciar);
+        }
+    }
+
+    private static void vaciar() {
+        // Se libera antes de ejecutar las acciones: si una abre un diálogo con showAndWait (un ciclo
+        // de eventos anidado), las entregas que lleguen mientras tanto se programan y se ejecutan
+        // dentro de ese ciclo en lugar de esperar a que se cierre el diálogo
+        PROGRAMADO.set(false);
+        long limite = System.nanoTime() + PRESUPUESTO_NANOS;
+        try {
+            Runnable accion;
+            while (System.nanoTime() < limite && (accion = PENDIENTES.poll()) != null) {
+                accion.run();
+            }
+        } finally {
+            if (!PENDIENTES.isEmpty()) {
+                programar();
+            }
+        }
+    }
+}
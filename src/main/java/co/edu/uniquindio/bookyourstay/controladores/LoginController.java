@@ -3,12 +3,14 @@ package co.edu.uniquindio.bookyourstay.controladores;
 import co.edu.uniquindio.bookyourstay.modelo.enums.RolUsuario;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import co.edu.uniquindio.bookyourstay.modelo.Usuario;
-import co.edu.uniquindio.bookyourstay.servicios.UsuarioServicio;
+import co.edu.uniquindio.bookyourstay.servicios.ServiciosAsync;
+import co.edu.uniquindio.bookyourstay.singleton.UsuarioActual;
 
 import java.io.IOException;
 
@@ -23,42 +25,85 @@ public class LoginController {
     @FXML
     private Label mensajeLabel;
 
-    // Usar el método estático para obtener la instancia
-    private final UsuarioServicio usuarioServicio = UsuarioServicio.obtenerInstancia();
+    private final ServiciosAsync servicios = ServiciosAsync.obtenerInstancia();
 
     @FXML
     private void iniciarSesion() {
         String correo = correoField.getText();
         String contrasena = contrasenaField.getText();
 
-        try {
-            Usuario usuario = usuarioServicio.autenticarUsuario(correo, contrasena);
+        // La verificación de la contraseña es costosa: se hace fuera del hilo de JavaFX
+        mensajeLabel.setText("Verificando...");
+        correoField.setDisable(true);
+        contrasenaField.setDisable(true);
+        servicios.iniciarSesion(correo, contrasena)
+                .whenComplete(EntregaFX.alTerminar(
+                        sesion -> {
+                            habilitarCampos();
+                            UsuarioActual.getInstancia().setSesion(sesion);
+                            abrirInicio(sesion.getUsuario());
+                        },
+                        error -> {
+                            habilitarCampos();
+                            mostrarError(error);
+                        }));
+    }
 
-            if (usuario == null) {
-                mensajeLabel.setText("Credenciales incorrectas.");
-                return;
-            }
+    private void habilitarCampos() {
+        correoField.setDisable(false);
+        contrasenaField.setDisable(false);
+        contrasenaField.clear();
+    }
 
-            RolUsuario rol = usuario.getRol();
+    private void mostrarError(Throwable error) {
+        if (error instanceof IllegalArgumentException || error instanceof IllegalStateException) {
+            mensajeLabel.setText(error.getMessage());
+        } else {
+            error.printStackTrace();
+            mensajeLabel.setText("Error al iniciar sesión.");
+        }
+    }
 
-            if (rol == null) {
-                mensajeLabel.setText("El usuario no tiene rol asignado.");
-                return;
-            }
+    private void abrirInicio(Usuario usuario) {
+        if (usuario == null) {
+            mensajeLabel.setText("Credenciales incorrectas.");
+            return;
+        }
 
-            // Limpiamos mensaje antes de cargar la vista
-            mensajeLabel.setText("");
+        RolUsuario rol = usuario.getRol();
 
-            switch (rol) {
-                case CLIENTE -> cargarVista("/co/edu/uniquindio/bookyourstay/vistas/cliente/cliente_inicio.fxml", "Inicio Cliente");
-                case PROPIETARIO -> cargarVista("/co/edu/uniquindio/bookyourstay/vistas/propietario/propietario_inicio.fxml", "Inicio Propietario");
-                case ADMINISTRADOR -> cargarVista("/co/edu/uniquindio/bookyourstay/vistas/administrador/admin_inicio.fxml", "Inicio Administrador");
-                default -> mensajeLabel.setText("Rol no reconocido.");
-            }
+        if (rol == null) {
+            mensajeLabel.setText("El usuario no tiene rol asignado.");
+            return;
+        }
 
-        } catch (Exception e) {
+        // Limpiamos mensaje antes de cargar la vista
+        mensajeLabel.setText("");
+
+        switch (rol) {
+            case CLIENTE -> cargarVista("/co/edu/uniquindio/bookyourstay/vistas/cliente/cliente_inicio.fxml", "Inicio Cliente");
+            case PROPIETARIO -> cargarVista("/co/edu/uniquindio/bookyourstay/vistas/propietario/propietario_inicio.fxml", "Inicio Propietario");
+            case ADMINISTRADOR -> cargarVista("/co/edu/uniquindio/bookyourstay/vistas/administrador/admin_inicio.fxml", "Inicio Administrador");
+            default -> mensajeLabel.setText("Rol no reconocido.");
+        }
+    }
+
+    /**
+     * Avisa que la sesión expiró y muestra el inicio de sesión en la ventana del nodo
+     * @param nodo Cualquier nodo de la vista actual
+     */
+    public static void volverPorSesionExpirada(Node nodo) {
+        UsuarioActual.getInstancia().setSesion(null);
+        Alert alerta = new Alert(Alert.AlertType.WARNING, UsuarioActual.SESION_EXPIRADA);
+        alerta.setHeaderText(null);
+        alerta.showAndWait();
+        try {
+            Parent root = FXMLLoader.load(LoginController.class.getResource("/co/edu/uniquindio/bookyourstay/vistas/login.fxml"));
+            Stage stage = (Stage) nodo.getScene().getWindow();
+            stage.setScene(new Scene(root));
+            stage.setTitle("BookYourStay");
+        } catch (IOException e) {
             e.printStackTrace();
-            mensajeLabel.setText("Error al iniciar sesión.");
         }
     }
 
@@ -0,0 +1,125 @@
+package co.edu.uniquindio.bookyourstay.controladores;
+
+import co.edu.uniquindio.bookyourstay.repositorios.Pagina;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Carga perezosa de una tabla por páginas: muestra la primera página y pide la siguiente cuando
+ * el usuario se acerca al final del desplazamiento, de modo que la tabla nunca recibe la lista completa.
+ * Las páginas se piden en segundo plano y se agregan en el hilo de JavaFX con {@link EntregaFX};
+ * {@link #reiniciar()} (por ejemplo, al cambiar un filtro) descarta las respuestas que sigan en camino.
+ * Solo se usa desde el hilo de JavaFX.
+ * @param <T> Tipo de fila
+ */
+public class PaginadorTabla<T> {
+    // Fracción del desplazamiento a partir de la cual se pide la página siguiente
+    private static final double UMBRAL_DESPLAZAMIENTO = 0.85;
+
+    private final ObservableList<T> filas = FXCollections.observableArrayList();
+    private final Function<String, CompletableFuture<Pagina<T>>> cargarPagina;
+    private final Consumer<Throwable> alFallar;
+    // Aumenta en cada reinicio; una respuesta de una generación anterior se ignora
+    private long generacion;
+    private String cursor;
+    private boolean hayMas = true;
+    private CompletableFuture<Pagina<T>> enCurso;
+
+    private PaginadorTabla(Function<String, CompletableFuture<Pagina<T>>> cargarPagina, Consumer<Throwable> alFallar) {
+        this.cargarPagina = cargarPagina;
+        this.alFallar = alFallar;
+    }
+
+    /**
+     * Crea el paginador y lo enlaza a la tabla; los oyentes se registran cuando ya está construido
+     * @param tabla Tabla cuyas filas administra el paginador
+     * @param cargarPagina Pide la página que sigue al cursor (null para la primera)
+     * @param alFallar Recibe el error si una página no se pudo cargar
+     * @return Paginador sin filas; {@link #reiniciar()} carga la primera página
+     */
+    public static <T> PaginadorTabla<T> crear(TableView<T> tabla, Function<String, CompletableFuture<Pagina<T>>> cargarPagina,
+                                              Consumer<Throwable> alFallar) {
+        PaginadorTabla<T> paginador = new PaginadorTabla<>(cargarPagina, alFallar);
+        tabla.setItems(paginador.filas);
+        // La barra de desplazamiento la crea la piel de la tabla, que se instala al mostrarla
+        tabla.skinProperty().addListener((obs, anterior, piel) -> {
+            if (piel != null) {
+                EntregaFX.ejecutar(() -> paginador.observarDesplazamiento(tabla));
+            }
+        });
+        if (tabla.getSkin() != null) {
+            paginador.observarDesplazamiento(tabla);
+        }
+        return paginador;
+    }
+
+    /**
+     * @return Filas cargadas hasta ahora; se pueden modificar (por ejemplo, quitar una fila eliminada)
+     */
+    public ObservableList<T> getFilas() {
+        return filas;
+    }
+
+    /**
+     * Vacía la tabla y carga de nuevo desde la primera página
+     */
+    public void reiniciar() {
+        generacion++;
+        if (enCurso != null) {
+            enCurso.cancel(true);
+            enCurso = null;
+        }
+        cursor = null;
+        hayMas = true;
+        filas.clear();
+        cargarSiguiente();
+    }
+
+    /**
+     * Pide la página siguiente si hay más y no hay otra en camino
+     */
+    public void cargarSiguiente() {
+        if (enCurso != null || !hayMas) {
+            return;
+        }
+        long solicitud = generacion;
+        enCurso = cargarPagina.apply(cursor);
+        enCurso.whenComplete(EntregaFX.alTerminar(
+                pagina -> {
+                    if (solicitud == generacion) {
+                        enCurso = null;
+                        cursor = pagina.siguienteCursor();
+                        hayMas = pagina.hayMas();
+                        filas.addAll(pagina.elementos());
+                    }
+                },
+                error -> {
+                    if (solicitud == generacion) {
+                        enCurso = null;
+                        hayMas = false;
+                        alFallar.accept(error);
+                    }
+                }));
+    }
+
+    private void observarDesplazamiento(TableView<T> tabla) {
+        for (Node nodo : tabla.lookupAll(".scroll-bar")) {
+            if (nodo instanceof ScrollBar barra && barra.getOrientation() == Orientation.VERTICAL) {
+                barra.valueProperty().addListener((obs, anterior, valor) -> {
+                    if (valor.doubleValue() >= barra.getMax() * UMBRAL_DESPLAZAMIENTO) {
+                        cargarSiguiente();
+                    }
+                });
+                return;
+            }
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package co.edu.uniquindio.bookyourstay.controladores.administrador;
 
+import co.edu.uniquindio.bookyourstay.controladores.PaginadorTabla;
 import co.edu.uniquindio.bookyourstay.modelo.Reseña;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import co.edu.uniquindio.bookyourstay.servicios.ReseñaServicio;
+import co.edu.uniquindio.bookyourstay.servicios.ServiciosAsync;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -19,6 +20,7 @@ import java.io.IOException;
 import java.util.Optional;
 
 public class GestionReseñasController {
+    private static final int TAMAÑO_PAGINA = 50;
 
     @FXML
     private TableView<Reseña> tablaReseñas;
@@ -37,8 +39,11 @@ public class GestionReseñasController {
     @FXML
     private TextField txtFiltro;
 
-    private ObservableList<Reseña> listaReseñas;
-    private ObservableList<Reseña> listaFiltrada;
+    private final ReseñaServicio reseñaServicio = ReseñaServicio.obtenerInstancia();
+    private final ServiciosAsync servicios = ServiciosAsync.obtenerInstancia();
+    private PaginadorTabla<Reseña> paginador;
+    // Consulta que usa el paginador; cambia con el filtro
+    private String consulta = "";
 
     @FXML
     public void initialize() {
@@ -58,18 +63,18 @@ public class GestionReseñasController {
         columnaCalificacion.setStyle("-fx-alignment: CENTER;");
     }
 
+    /**
+     * Carga las reseñas por páginas, de la más reciente a la más antigua; las siguientes se piden al desplazarse
+     */
     private void cargarReseñas() {
-        // Datos de ejemplo - en una aplicación real esto vendría de un servicio
-        listaReseñas = FXCollections.observableArrayList(
-                new Reseña("Juan Perez", "Casa Bonita", "Muy buen lugar, excelente atención", 5),
-                new Reseña("Ana Gómez", "Apartamento Central", "Limpio y cómodo, buena ubicación", 4),
-                new Reseña("Carlos Ruiz", "Hotel Sol", "Servicio regular, habitaciones pequeñas", 3),
-                new Reseña("María López", "Cabaña Montaña", "Vistas espectaculares pero wifi lento", 4),
-                new Reseña("Pedro Sánchez", "Loft Moderno", "Diseño increíble, falta algo de limpieza", 4)
-        );
-
-        listaFiltrada = FXCollections.observableArrayList(listaReseñas);
-        tablaReseñas.setItems(listaFiltrada);
+        paginador = PaginadorTabla.crear(tablaReseñas,
+                cursor -> {
+                    String actual = consulta;
+                    return servicios.ejecutar(() -> reseñaServicio.paginarModeracion(actual, cursor, TAMAÑO_PAGINA));
+                },
+                error -> mostrarAlerta("Error", "No se pudieron cargar las reseñas: " + error.getMessage(),
+                        Alert.AlertType.ERROR));
+        paginador.reiniciar();
     }
 
     private void configurarEventos() {
@@ -102,8 +107,8 @@ public class GestionReseñasController {
 
         Optional<ButtonType> resultado = confirmacion.showAndWait();
         if (resultado.isPresent() && resultado.get() == ButtonType.OK) {
-            listaReseñas.remove(seleccion);
-            filtrarReseñas(txtFiltro.getText());
+            reseñaServicio.eliminarReseña(seleccion.getId());
+            paginador.getFilas().remove(seleccion);
             mostrarAlerta("Éxito", "Reseña eliminada correctamente", Alert.AlertType.INFORMATION);
         }
     }
@@ -138,23 +143,17 @@ public class GestionReseñasController {
         }
     }
 
+    /**
+     * Filtra en el índice por comentario, cliente, alojamiento o calificación y vuelve a la primera página
+     */
     private void filtrarReseñas(String filtro) {
-        if (filtro == null || filtro.isEmpty()) {
-            listaFiltrada.setAll(listaReseñas);
-            return;
-        }
-
-        listaFiltrada.clear();
-        String lowerCaseFilter = filtro.toLowerCase();
-
-        for (Reseña reseña : listaReseñas) {
-            if (reseña.getNombreCliente().toLowerCase().contains(lowerCaseFilter) ||
-                    reseña.getNombreAlojamiento().toLowerCase().contains(lowerCaseFilter) ||
-                    reseña.getComentario().toLowerCase().contains(lowerCaseFilter) ||
-                    String.valueOf(reseña.getCalificacion()).contains(lowerCaseFilter)) {
-                listaFiltrada.add(reseña);
-            }
+        if (filtro == null || filtro.isBlank()) {
+            consulta = "";
+        } else {
+            // Mientras se escribe, la última palabra se busca por prefijo
+            consulta = Character.isWhitespace(filtro.charAt(filtro.length() - 1)) ? filtro : filtro + "*";
         }
+        paginador.reiniciar();
     }
 
     @FXML
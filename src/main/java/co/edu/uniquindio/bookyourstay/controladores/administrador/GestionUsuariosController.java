@@ -1,7 +1,11 @@
 package co.edu.uniquindio.bookyourstay.controladores.administrador;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import co.edu.uniquindio.bookyourstay.controladores.EntregaFX;
+import co.edu.uniquindio.bookyourstay.controladores.PaginadorTabla;
+import co.edu.uniquindio.bookyourstay.indices.Normalizacion;
+import co.edu.uniquindio.bookyourstay.modelo.Usuario;
+import co.edu.uniquindio.bookyourstay.repositorios.ConsultaPagina;
+import co.edu.uniquindio.bookyourstay.servicios.ServiciosAsync;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -27,8 +31,11 @@ public class GestionUsuariosController {
     @FXML private Button btnEditar;
     @FXML private TextField txtBusqueda;
 
-    private ObservableList<UsuarioTableModel> listaUsuarios;
-    private ObservableList<UsuarioTableModel> listaFiltrada;
+    private static final int TAMAÑO_PAGINA = 100;
+
+    private final ServiciosAsync servicios = ServiciosAsync.obtenerInstancia();
+    private PaginadorTabla<UsuarioTableModel> paginador;
+    private ConsultaPagina<Usuario> consulta = ConsultaPagina.de(TAMAÑO_PAGINA);
 
     @FXML
     private void initialize() {
@@ -49,16 +56,16 @@ public class GestionUsuariosController {
         colRol.setStyle("-fx-alignment: CENTER;");
     }
 
+    /**
+     * Carga los usuarios por páginas ordenados por nombre; las siguientes se piden al desplazarse
+     */
     private void cargarUsuarios() {
-        // Datos de ejemplo - en una aplicación real esto vendría de un servicio
-        listaUsuarios = FXCollections.observableArrayList(
-                new UsuarioTableModel("Juan Perez", "juan@ejemplo.com", "Cliente", true),
-                new UsuarioTableModel("Maria Gomez", "maria@ejemplo.com", "Propietario", true),
-                new UsuarioTableModel("Admin Sistema", "admin@bookyourstay.com", "Administrador", true)
-        );
-
-        listaFiltrada = FXCollections.observableArrayList(listaUsuarios);
-        tablaUsuarios.setItems(listaFiltrada);
+        paginador = PaginadorTabla.crear(tablaUsuarios,
+                cursor -> servicios.paginarUsuarios(consulta.despuesDe(cursor))
+                        .thenApply(pagina -> pagina.convertir(UsuarioTableModel::de)),
+                error -> mostrarAlerta("Error", "No se pudieron cargar los usuarios: " + error.getMessage(),
+                        Alert.AlertType.ERROR));
+        paginador.reiniciar();
     }
 
     private void configurarEventos() {
@@ -93,10 +100,16 @@ public class GestionUsuariosController {
 
         confirmacion.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                usuario.setActivo(!usuario.getActivo());
-                tablaUsuarios.refresh();
-                mostrarAlerta("Éxito", String.format("Usuario %s correctamente", usuario.getActivo() ? "reactivado" : "suspendido"),
-                        Alert.AlertType.INFORMATION);
+                // Se cambia en el servicio para que quede guardado; la fila se actualiza con el resultado
+                servicios.cambiarEstadoUsuario(usuario.getId(), !usuario.getActivo()).whenComplete(EntregaFX.alTerminar(
+                        actualizado -> {
+                            usuario.setActivo(actualizado.isActivo());
+                            tablaUsuarios.refresh();
+                            mostrarAlerta("Éxito", String.format("Usuario %s correctamente",
+                                    usuario.getActivo() ? "reactivado" : "suspendido"), Alert.AlertType.INFORMATION);
+                        },
+                        error -> mostrarAlerta("Error", "No se pudo cambiar el estado del usuario: " + error.getMessage(),
+                                Alert.AlertType.ERROR)));
             }
         });
     }
@@ -129,8 +142,7 @@ public class GestionUsuariosController {
 
         confirmacion.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                listaUsuarios.remove(usuario);
-                filtrarUsuarios(txtBusqueda.getText());
+                paginador.getFilas().remove(usuario);
                 mostrarAlerta("Éxito", "Usuario eliminado correctamente", Alert.AlertType.INFORMATION);
             }
         });
@@ -149,23 +161,24 @@ public class GestionUsuariosController {
         mostrarAlerta("Información", "Funcionalidad de edición en desarrollo", Alert.AlertType.INFORMATION);
     }
 
+    /**
+     * Reinicia la paginación con el filtro; el filtro se evalúa en el repositorio, así las páginas
+     * solo traen usuarios que coinciden
+     */
     private void filtrarUsuarios(String filtro) {
-        if (filtro == null || filtro.isEmpty()) {
-            listaFiltrada.setAll(listaUsuarios);
-            return;
+        String texto = Normalizacion.plegar(filtro);
+        consulta = ConsultaPagina.de(TAMAÑO_PAGINA);
+        if (!texto.isEmpty()) {
+            consulta = consulta.filtrando(usuario -> coincide(UsuarioTableModel.de(usuario), texto));
         }
+        paginador.reiniciar();
+    }
 
-        listaFiltrada.clear();
-        String lowerCaseFilter = filtro.toLowerCase();
-
-        for (UsuarioTableModel usuario : listaUsuarios) {
-            if (usuario.getNombre().toLowerCase().contains(lowerCaseFilter) ||
-                    usuario.getCorreo().toLowerCase().contains(lowerCaseFilter) ||
-                    usuario.getRol().toLowerCase().contains(lowerCaseFilter) ||
-                    (usuario.getActivo() ? "activo" : "inactivo").contains(lowerCaseFilter)) {
-                listaFiltrada.add(usuario);
-            }
-        }
+    private static boolean coincide(UsuarioTableModel usuario, String texto) {
+        return Normalizacion.plegar(usuario.getNombre()).contains(texto) ||
+                Normalizacion.plegar(usuario.getCorreo()).contains(texto) ||
+                Normalizacion.plegar(usuario.getRol()).contains(texto) ||
+                (usuario.getActivo() ? "activo" : "inactivo").contains(texto);
     }
 
     private void mostrarAlerta(String titulo, String mensaje, Alert.AlertType tipo) {
@@ -173,12 +186,13 @@ public class GestionUsuariosController {
         alert.setTitle(titulo);
         alert.setHeaderText(null);
         alert.setContentText(mensaje);
-        alert.showAndWait();
+        alert.show();
     }
 
 
     // Clase interna para representar datos de usuario en la tabla
     public static class UsuarioTableModel {
+        private String id;
         private String nombre;
         private String correo;
         private String rol;
@@ -191,7 +205,16 @@ public class GestionUsuariosController {
             this.activo = activo;
         }
 
+        static UsuarioTableModel de(Usuario usuario) {
+            UsuarioTableModel modelo = new UsuarioTableModel(usuario.getNombre(), usuario.getEmail(),
+                    usuario.getClass().getSimpleName(), usuario.isActivo());
+            modelo.id = usuario.getId();
+            return modelo;
+        }
+
         // Getters y setters
+        public String getId() { return id; }
+
         public String getNombre() { return nombre; }
         public void setNombre(String nombre) { this.nombre = nombre; }
 
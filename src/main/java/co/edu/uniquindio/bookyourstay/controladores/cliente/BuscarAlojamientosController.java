@@ -1,15 +1,15 @@
 package co.edu.uniquindio.bookyourstay.controladores.cliente;
 
+import co.edu.uniquindio.bookyourstay.controladores.EntregaFX;
+import co.edu.uniquindio.bookyourstay.controladores.LoginController;
 import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
 import co.edu.uniquindio.bookyourstay.modelo.Cliente;
 import co.edu.uniquindio.bookyourstay.modelo.Reserva;
 import co.edu.uniquindio.bookyourstay.modelo.Usuario;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
-import co.edu.uniquindio.bookyourstay.servicios.AlojamientoServicio;
-import co.edu.uniquindio.bookyourstay.servicios.ReservaServicio;
+import co.edu.uniquindio.bookyourstay.servicios.ServiciosAsync;
 import co.edu.uniquindio.bookyourstay.singleton.UsuarioActual;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -20,7 +20,6 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 public class BuscarAlojamientosController {
@@ -34,8 +33,8 @@ public class BuscarAlojamientosController {
     @FXML private Button btnReservar;
 
     private Alojamiento alojamientoSeleccionado;
-    private final AlojamientoServicio alojamientoServicio = AlojamientoServicio.obtenerInstancia();
-    private final ReservaServicio reservaServicio = ReservaServicio.obtenerInstancia();
+    // Las consultas corren fuera del hilo de JavaFX; los resultados vuelven con EntregaFX
+    private final ServiciosAsync servicios = ServiciosAsync.obtenerInstancia();
 
     @FXML
     public void initialize() {
@@ -53,76 +52,89 @@ public class BuscarAlojamientosController {
         // Listener para selección en la lista
         resultadosList.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
-                try {
-                    String nombreAlojamiento = newVal.split(" - ")[0];
-                    Alojamiento alojamiento = alojamientoServicio.buscarAlojamientoPorNombre(nombreAlojamiento);
-                    if (alojamiento != null) {
-                        this.alojamientoSeleccionado = alojamiento;
-                        btnReservar.setDisable(false);
-
-                        // Obtener el SpinnerValueFactory como IntegerSpinnerValueFactory
-                        SpinnerValueFactory<Integer> valueFactory = numHuespedesSpinner.getValueFactory();
-                        if (valueFactory instanceof SpinnerValueFactory.IntegerSpinnerValueFactory) {
-                            ((SpinnerValueFactory.IntegerSpinnerValueFactory) valueFactory)
-                                    .setMax(alojamientoSeleccionado.getCapacidadMax().get());
-                        }
-                    }
-                } catch (Exception e) {
-                    mostrarAlerta("Error", "No se pudo cargar el alojamiento seleccionado");
-                }
+                String nombreAlojamiento = newVal.split(" - ")[0];
+                servicios.buscarAlojamientoPorNombre(nombreAlojamiento).whenComplete(EntregaFX.alTerminar(
+                        this::seleccionarAlojamiento,
+                        error -> mostrarAlerta("Error", "No se pudo cargar el alojamiento seleccionado")));
             }
         });
+
+        // Búsqueda mientras se escribe la ciudad: cada tecla reemplaza la búsqueda anterior
+        ciudadField.textProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal != null && !newVal.isBlank() && fechasValidas()) {
+                ejecutarBusqueda(false);
+            }
+        });
+    }
+
+    private void seleccionarAlojamiento(Alojamiento alojamiento) {
+        if (alojamiento == null) {
+            return;
+        }
+        this.alojamientoSeleccionado = alojamiento;
+        btnReservar.setDisable(false);
+
+        // Obtener el SpinnerValueFactory como IntegerSpinnerValueFactory
+        SpinnerValueFactory<Integer> valueFactory = numHuespedesSpinner.getValueFactory();
+        if (valueFactory instanceof SpinnerValueFactory.IntegerSpinnerValueFactory) {
+            ((SpinnerValueFactory.IntegerSpinnerValueFactory) valueFactory)
+                    .setMax(alojamientoSeleccionado.getCapacidadMax());
+        }
     }
 
     @FXML
     private void buscar() {
-        String ciudad = ciudadField.getText();
-        LocalDate fechaInicio = fechaInicioPicker.getValue();
-        LocalDate fechaFin = fechaFinPicker.getValue();
-        String tipo = tipoAlojamientoCombo.getValue();
-
-        if (ciudad.isEmpty()) {
+        if (ciudadField.getText().isEmpty()) {
             mostrarAlerta("Error", "Debe ingresar una ciudad");
             return;
         }
 
         // Validación de fechas
-        if (fechaInicio == null || fechaFin == null || fechaInicio.isAfter(fechaFin)) {
+        if (!fechasValidas()) {
             mostrarAlerta("Error", "Las fechas ingresadas no son válidas");
             return;
         }
 
+        ejecutarBusqueda(true);
+    }
+
+    /**
+     * @param avisarSinResultados Si se muestra una alerta cuando no hay resultados (solo en la búsqueda explícita)
+     */
+    private void ejecutarBusqueda(boolean avisarSinResultados) {
+        TipoAlojamiento tipo;
         try {
-            List<Alojamiento> alojamientosDisponibles = alojamientoServicio.buscarDisponibles(
-                    ciudad,
-                    fechaInicio,
-                    fechaFin,
-                    1,
-                    tipo != null ? TipoAlojamiento.valueOf(tipo.toUpperCase()) : null,
-                    reservaServicio
-            );
-
-            if (alojamientosDisponibles.isEmpty()) {
-                mostrarAlerta("Información", "No se encontraron alojamientos disponibles con esos criterios");
-                resultadosList.getItems().clear();
-            } else {
-                // Mapear a Strings y crear ObservableList directamente
-                ObservableList<String> items = FXCollections.observableArrayList(
-                        alojamientosDisponibles.stream()
-                                .map(a -> String.format("%s - %s ($%.2f/noche)",
-                                        a.getNombre(),
-                                        a.getCiudad(),
-                                        a.getPrecioNoche().get())) // Asumiendo que es una DoubleProperty
-                                .collect(Collectors.toList())
-                );
-
-                resultadosList.setItems(items);
-            }
+            String seleccionado = tipoAlojamientoCombo.getValue();
+            tipo = seleccionado != null ? TipoAlojamiento.valueOf(seleccionado.toUpperCase()) : null;
         } catch (IllegalArgumentException e) {
             mostrarAlerta("Error", "Tipo de alojamiento no válido");
-        } catch (Exception e) {
-            mostrarAlerta("Error", "Ocurrió un error al buscar alojamientos: " + e.getMessage());
+            return;
         }
+
+        // El formato de las filas también se arma fuera del hilo de JavaFX
+        servicios.buscarDisponibles(ciudadField.getText(), fechaInicioPicker.getValue(), fechaFinPicker.getValue(), 1, tipo)
+                .thenApply(alojamientos -> alojamientos.stream()
+                        .map(a -> String.format("%s - %s ($%.2f/noche)",
+                                a.getNombre(),
+                                a.getCiudad(),
+                                a.getPrecioNoche()))
+                        .collect(Collectors.toList()))
+                .whenComplete(EntregaFX.alTerminar(
+                        items -> mostrarResultados(items, avisarSinResultados),
+                        error -> mostrarAlerta("Error", "Ocurrió un error al buscar alojamientos: " + error.getMessage())));
+    }
+
+    private void mostrarResultados(List<String> items, boolean avisarSinResultados) {
+        if (items.isEmpty() && avisarSinResultados) {
+            mostrarAlerta("Información", "No se encontraron alojamientos disponibles con esos criterios");
+        }
+        EntregaFX.reemplazarPorPartes(resultadosList.getItems(), items);
+    }
+
+    private boolean fechasValidas() {
+        LocalDate fechaInicio = fechaInicioPicker.getValue();
+        LocalDate fechaFin = fechaFinPicker.getValue();
+        return fechaInicio != null && fechaFin != null && !fechaInicio.isAfter(fechaFin);
     }
 
     @FXML
@@ -142,30 +154,35 @@ public class BuscarAlojamientosController {
             return;
         }
 
+        Usuario usuario;
         try {
-            Usuario usuario = UsuarioActual.getInstancia().getUsuario();
-
-            if (!(usuario instanceof Cliente)) {
-                mostrarAlerta("Error", "Solo los clientes pueden realizar reservas");
-                return;
-            }
-
-            Cliente cliente = (Cliente) usuario;
-
-            // Usar el método con parámetros individuales
-            Reserva reserva = reservaServicio.crearReserva(
-                    cliente,
-                    alojamientoSeleccionado,
-                    fechaInicioPicker.getValue(),
-                    fechaFinPicker.getValue(),
-                    numHuespedesSpinner.getValue()
-            );
-
-            mostrarAlerta("Éxito", "Reserva creada: " + reserva.getId());
-            limpiarCampos();
-        } catch (Exception e) {
-            mostrarAlerta("Error", e.getMessage());
+            usuario = UsuarioActual.getInstancia().getUsuario();
+        } catch (IllegalStateException e) {
+            LoginController.volverPorSesionExpirada(btnReservar);
+            return;
         }
+        if (!(usuario instanceof Cliente)) {
+            mostrarAlerta("Error", "Solo los clientes pueden realizar reservas");
+            return;
+        }
+
+        // Evita una segunda reserva mientras la primera está en curso
+        btnReservar.setDisable(true);
+        servicios.crearReserva(
+                        (Cliente) usuario,
+                        alojamientoSeleccionado,
+                        fechaInicioPicker.getValue(),
+                        fechaFinPicker.getValue(),
+                        numHuespedesSpinner.getValue())
+                .whenComplete(EntregaFX.alTerminar(
+                        reserva -> {
+                            mostrarAlerta("Éxito", "Reserva creada: " + reserva.getId());
+                            limpiarCampos();
+                        },
+                        error -> {
+                            btnReservar.setDisable(false);
+                            mostrarAlerta("Error", error.getMessage());
+                        }));
     }
 
     @FXML
@@ -195,6 +212,6 @@ public class BuscarAlojamientosController {
         alert.setTitle(titulo);
         alert.setHeaderText(null);
         alert.setContentText(mensaje);
-        alert.showAndWait();
+        alert.show();
     }
 }
\ No newline at end of file
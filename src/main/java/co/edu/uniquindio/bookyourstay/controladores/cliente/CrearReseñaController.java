@@ -8,6 +8,7 @@ import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCuenta;
 import co.edu.uniquindio.bookyourstay.servicios.AlojamientoServicio;
 import co.edu.uniquindio.bookyourstay.servicios.ReseñaServicio;
 import co.edu.uniquindio.bookyourstay.servicios.UsuarioServicio;
+import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -23,7 +24,8 @@ public class CrearReseñaController {
 
     private final UsuarioServicio usuarioServicio = UsuarioServicio.obtenerInstancia();
     private final AlojamientoServicio alojamientoServicio = AlojamientoServicio.obtenerInstancia();
-    private final ObservableList<Reseña> listaReseñas = ReseñaServicio.obtenerInstancia().getListaReseñas();
+    private final ObservableList<Reseña> listaReseñas =
+            FXCollections.observableArrayList(ReseñaServicio.obtenerInstancia().listarTodas());
 
     @FXML
     public void initialize() {
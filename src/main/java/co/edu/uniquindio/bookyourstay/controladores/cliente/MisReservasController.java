@@ -1,5 +1,9 @@
 package co.edu.uniquindio.bookyourstay.controladores.cliente;
 
+import co.edu.uniquindio.bookyourstay.controladores.EntregaFX;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.servicios.ServiciosAsync;
+import co.edu.uniquindio.bookyourstay.singleton.UsuarioActual;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -16,6 +20,8 @@ import javafx.stage.Stage;
 
 import javafx.event.ActionEvent;
 import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class MisReservasController {
 
@@ -50,12 +56,31 @@ public class MisReservasController {
         colFechaFin.setCellValueFactory(new PropertyValueFactory<>("fechaFin"));
         colEstado.setCellValueFactory(new PropertyValueFactory<>("estado"));
 
-        // Aquí debes cargar tus datos reales en listaReservas
-        // Ejemplo datos de prueba:
-        listaReservas.add(new ReservaDTO("Hotel Quindio", "2025-06-01", "2025-06-10", "Confirmada"));
-        listaReservas.add(new ReservaDTO("Casa del Lago", "2025-07-15", "2025-07-20", "Pendiente"));
-
         tablaReservas.setItems(listaReservas);
+        cargarReservas();
+    }
+
+    private void cargarReservas() {
+        lblInfo.setText("Cargando reservas...");
+        ServiciosAsync.obtenerInstancia().listarReservasSesion(UsuarioActual.getInstancia().getToken())
+                .thenApply(MisReservasController::aDTOs)
+                .whenComplete(EntregaFX.alTerminar(
+                        reservas -> {
+                            EntregaFX.reemplazarPorPartes(listaReservas, reservas);
+                            lblInfo.setText(reservas.isEmpty() ? "No tiene reservas." : "");
+                        },
+                        error -> lblInfo.setText(error instanceof IllegalStateException
+                                ? error.getMessage() : "No se pudieron cargar las reservas.")));
+    }
+
+    private static List<ReservaDTO> aDTOs(List<Reserva> reservas) {
+        return reservas.stream()
+                .map(r -> new ReservaDTO(
+                        r.getAlojamiento() != null ? r.getAlojamiento().getNombre() : "",
+                        String.valueOf(r.getFechaInicio()),
+                        String.valueOf(r.getFechaFin()),
+                        String.valueOf(r.getEstado())))
+                .collect(Collectors.toList());
     }
     @FXML
     public void regresar(ActionEvent event) {
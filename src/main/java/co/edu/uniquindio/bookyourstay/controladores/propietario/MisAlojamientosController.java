@@ -88,7 +88,8 @@ public class MisAlojamientosController {
 
         if (confirmacion.showAndWait().get() == ButtonType.OK) {
             // Eliminar el alojamiento
-            GestorAlojamientos.getInstancia().getAlojamientos().remove(indiceSeleccionado);
+            GestorAlojamientos gestor = GestorAlojamientos.getInstancia();
+            gestor.eliminarAlojamiento(gestor.getAlojamientos().get(indiceSeleccionado));
             cargarAlojamientos(); // Refrescar la lista
             mostrarAlerta("Alojamiento eliminado correctamente", Alert.AlertType.INFORMATION);
         }
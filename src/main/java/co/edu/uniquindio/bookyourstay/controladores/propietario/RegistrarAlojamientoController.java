@@ -1,6 +1,8 @@
 package co.edu.uniquindio.bookyourstay.controladores.propietario;
 
-import co.edu.uniquindio.bookyourstay.modelo.*;
+import co.edu.uniquindio.bookyourstay.controladores.LoginController;
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.Usuario;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
 import co.edu.uniquindio.bookyourstay.servicios.AlojamientoServicio;
 import co.edu.uniquindio.bookyourstay.singleton.GestorAlojamientos;
@@ -44,6 +46,11 @@ public class RegistrarAlojamientoController {
             int capacidadMax = Integer.parseInt(txtCapacidadMax.getText());
             float precioNoche = Float.parseFloat(txtPrecioNoche.getText());
             TipoAlojamiento tipo = TipoAlojamiento.valueOf(cmbTipoAlojamiento.getValue().toUpperCase());
+            // Antes de guardar nada: un alojamiento nuevo necesita al propietario de la sesión
+            Usuario propietario = UsuarioActual.getInstancia().getUsuario();
+            if (propietario == null) {
+                throw new IllegalStateException(UsuarioActual.SESION_EXPIRADA);
+            }
 
             if (indiceEdicion >= 0) {
                 // Modo edición
@@ -51,7 +58,7 @@ public class RegistrarAlojamientoController {
                 mostrarAlerta("Alojamiento actualizado correctamente", Alert.AlertType.INFORMATION);
             } else {
                 // Modo creación
-                crearNuevoAlojamiento(nombre, ciudad, descripcion, capacidadMax, precioNoche, tipo);
+                crearNuevoAlojamiento(nombre, ciudad, descripcion, capacidadMax, precioNoche, tipo, propietario);
                 mostrarAlerta("Alojamiento registrado correctamente", Alert.AlertType.INFORMATION);
             }
 
@@ -62,6 +69,12 @@ public class RegistrarAlojamientoController {
             mostrarAlerta("Los campos numéricos deben contener valores válidos", Alert.AlertType.ERROR);
         } catch (IllegalArgumentException e) {
             mostrarAlerta(e.getMessage(), Alert.AlertType.ERROR);
+        } catch (IllegalStateException e) {
+            if (UsuarioActual.SESION_EXPIRADA.equals(e.getMessage())) {
+                LoginController.volverPorSesionExpirada(btnCancelar);
+            } else {
+                mostrarAlerta(e.getMessage(), Alert.AlertType.ERROR);
+            }
         } catch (Exception e) {
             mostrarAlerta("Error inesperado: " + e.getMessage(), Alert.AlertType.ERROR);
         }
@@ -88,28 +101,14 @@ public class RegistrarAlojamientoController {
         alojamiento.setCapacidadMax(capacidadMax);
         alojamiento.setPrecioNoche(precioNoche);
         alojamiento.setTipo(tipo);
+        AlojamientoServicio.obtenerInstancia().actualizarAlojamiento(alojamiento.getId(), alojamiento);
     }
 
     private void crearNuevoAlojamiento(String nombre, String ciudad, String descripcion,
-                                       int capacidadMax, float precioNoche, TipoAlojamiento tipo) {
-        try {
-            // 1. Crear instancia específica
-            Alojamiento alojamiento = switch (tipo) {
-                case CASA -> new Casa(nombre, ciudad, descripcion, capacidadMax, precioNoche);
-                case APARTAMENTO -> new Apartamento(nombre, ciudad, descripcion, capacidadMax, precioNoche);
-                case HOTEL -> new Hotel(nombre, ciudad, descripcion, capacidadMax, precioNoche);
-            };
-
-            // 2. Añadir servicios básicos (opcional)
-            alojamiento.setServicios(List.of("Wifi", "Toallas", "Aire acondicionado"));
-
-            // 3. Guardar en el sistema
-            GestorAlojamientos.getInstancia().agregarAlojamiento(alojamiento);
-            AlojamientoServicio.obtenerInstancia()
-                    .actualizarAlojamiento(alojamiento.getId(), alojamiento); // Usa el método existente
-
-        } catch (Exception e) {
-        }
+                                       int capacidadMax, float precioNoche, TipoAlojamiento tipo, Usuario propietario) {
+        // El servicio lo guarda en el repositorio (y en disco) y lo registra en el gestor de búsqueda
+        AlojamientoServicio.obtenerInstancia().crearAlojamiento(tipo, nombre, ciudad, descripcion, precioNoche,
+                capacidadMax, List.of("Wifi", "Toallas", "Aire acondicionado"), propietario);
     }
 
     public void cargarDatosAlojamiento(Alojamiento alojamiento, int indice) {
@@ -1,13 +1,18 @@
 package co.edu.uniquindio.bookyourstay.controladores.propietario;
 
+import co.edu.uniquindio.bookyourstay.controladores.EntregaFX;
+import co.edu.uniquindio.bookyourstay.controladores.LoginController;
+import co.edu.uniquindio.bookyourstay.controladores.PaginadorTabla;
 import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
 import co.edu.uniquindio.bookyourstay.modelo.Cliente;
 import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.repositorios.ConsultaPagina;
+import co.edu.uniquindio.bookyourstay.repositorios.Pagina;
+import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
+import co.edu.uniquindio.bookyourstay.servicios.ServiciosAsync;
 import co.edu.uniquindio.bookyourstay.singleton.UsuarioActual;
-import co.edu.uniquindio.bookyourstay.singleton.GestorReservas;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -18,8 +23,8 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 
 public class VerReservasPropietarioController {
 
@@ -35,19 +40,49 @@ public class VerReservasPropietarioController {
     @FXML private Button btnCancelarReserva;
     @FXML private Button btnVolver;
 
+    private static final int TAMAÑO_PAGINA = 100;
+
+    private final ServiciosAsync servicios = ServiciosAsync.obtenerInstancia();
+    // Ciudades vistas en las reservas cargadas, para el filtro
+    private final TreeSet<String> ciudades = new TreeSet<>();
+    private PaginadorTabla<Reserva> paginador;
+    private ConsultaPagina<Reserva> consulta = ConsultaPagina.<Reserva>de(TAMAÑO_PAGINA)
+            .ordenadaPor(ReservaRepositorio.POR_FECHA_INICIO.invertida());
+
     @FXML
     public void initialize() {
         configurarColumnas();
         configurarFiltros();
-        cargarReservas();
+        paginador = PaginadorTabla.crear(tablaReservas,
+                this::cargarPagina,
+                error -> {
+                    if (UsuarioActual.SESION_EXPIRADA.equals(error.getMessage())) {
+                        LoginController.volverPorSesionExpirada(tablaReservas);
+                    } else {
+                        mostrarAlerta("Error al cargar reservas: " + error.getMessage(), AlertType.ERROR);
+                    }
+                });
+        paginador.getFilas().addListener(this::registrarCiudades);
+        paginador.reiniciar();
         configurarEventos();
     }
 
+    private CompletableFuture<Pagina<Reserva>> cargarPagina(String cursor) {
+        String propietarioId;
+        try {
+            propietarioId = UsuarioActual.getInstancia().getId();
+        } catch (IllegalStateException e) {
+            // La sesión expiró: se entrega como error de la página para volver al inicio de sesión
+            return CompletableFuture.failedFuture(e);
+        }
+        return servicios.paginarReservasPropietario(propietarioId, consulta.despuesDe(cursor));
+    }
+
     private void configurarColumnas() {
         // Configuración para la columna de Alojamiento
         colAlojamiento.setCellValueFactory(cellData -> {
             Alojamiento a = cellData.getValue().getAlojamiento();
-            return a != null ? a.nombreProperty() : new SimpleStringProperty("No asignado");
+            return new SimpleStringProperty(a != null ? a.getNombre() : "No asignado");
         });
 
         // Configuración para la columna de Ciudad
@@ -74,14 +109,7 @@ public class VerReservasPropietarioController {
     }
 
     private void configurarFiltros() {
-        Set<String> ciudades = GestorReservas.getInstancia()
-                .obtenerReservasPorPropietario(UsuarioActual.getInstancia().getId())
-                .stream()
-                .map(Reserva::getCiudadAlojamiento)
-                .collect(Collectors.toSet());
-
         comboFiltrarCiudad.getItems().add("Todas");
-        comboFiltrarCiudad.getItems().addAll(ciudades);
         comboFiltrarCiudad.getSelectionModel().selectFirst();
 
         comboFiltrarCiudad.valueProperty().addListener((obs, oldVal, newVal) -> {
@@ -89,19 +117,31 @@ public class VerReservasPropietarioController {
         });
     }
 
-    private void cargarReservas() {
-        ObservableList<Reserva> reservas = GestorReservas.getInstancia()
-                .obtenerReservasPorPropietario(UsuarioActual.getInstancia().getId());
-        tablaReservas.setItems(reservas);
+    /**
+     * Agrega al filtro las ciudades de las reservas que se van cargando
+     */
+    private void registrarCiudades(ListChangeListener.Change<? extends Reserva> cambio) {
+        while (cambio.next()) {
+            for (Reserva reserva : cambio.getAddedSubList()) {
+                String ciudad = reserva.getCiudadAlojamiento();
+                if (ciudad != null && ciudades.add(ciudad)) {
+                    // "Todas" ocupa la posición 0; las ciudades van ordenadas después
+                    comboFiltrarCiudad.getItems().add(ciudades.headSet(ciudad).size() + 1, ciudad);
+                }
+            }
+        }
     }
 
+    /**
+     * Reinicia la paginación con el filtro de ciudad; las páginas ya no traen las reservas de otras ciudades
+     */
     private void filtrarPorCiudad(String ciudad) {
-        if (ciudad == null || "Todas".equals(ciudad)) {
-            cargarReservas();
-        } else {
-            ObservableList<Reserva> filtradas = tablaReservas.getItems()
-                    .filtered(r -> r.getCiudadAlojamiento().equals(ciudad));
-            tablaReservas.setItems(filtradas);
+        consulta = ConsultaPagina.<Reserva>de(TAMAÑO_PAGINA).ordenadaPor(ReservaRepositorio.POR_FECHA_INICIO.invertida());
+        if (ciudad != null && !"Todas".equals(ciudad)) {
+            consulta = consulta.filtrando(r -> ciudad.equals(r.getCiudadAlojamiento()));
+        }
+        if (paginador != null) {
+            paginador.reiniciar();
         }
     }
 
@@ -120,7 +160,7 @@ public class VerReservasPropietarioController {
     // Resto de tus métodos (actualizarReservas, cancelarReserva, volver, etc.)
     @FXML
     private void actualizarReservas() {
-        cargarReservas();
+        paginador.reiniciar();
         mostrarAlerta("Lista de reservas actualizada", AlertType.INFORMATION);
     }
 
@@ -141,13 +181,13 @@ public class VerReservasPropietarioController {
         Optional<String> resultado = dialog.showAndWait();
 
         if (resultado.isPresent() && !resultado.get().isEmpty()) {
-            try {
-                GestorReservas.getInstancia().cancelarReserva(seleccionada, resultado.get());
-                cargarReservas();
-                mostrarAlerta("Reserva cancelada exitosamente", AlertType.INFORMATION);
-            } catch (Exception e) {
-                mostrarAlerta("Error al cancelar reserva: " + e.getMessage(), AlertType.ERROR);
-            }
+            servicios.cancelarReserva(seleccionada, resultado.get())
+                    .whenComplete(EntregaFX.alTerminar(
+                            cancelada -> {
+                                tablaReservas.refresh();
+                                mostrarAlerta("Reserva cancelada exitosamente", AlertType.INFORMATION);
+                            },
+                            error -> mostrarAlerta("Error al cancelar reserva: " + error.getMessage(), AlertType.ERROR)));
         } else {
             mostrarAlerta("Debe ingresar un motivo para cancelar la reserva", AlertType.WARNING);
         }
@@ -179,6 +219,6 @@ public class VerReservasPropietarioController {
         alert.setTitle("Mensaje del Sistema");
         alert.setHeaderText(null);
         alert.setContentText(mensaje);
-        alert.showAndWait();
+        alert.show();
     }
 }
\ No newline at end of file
@@ -2,8 +2,7 @@ package co.edu.uniquindio.bookyourstay.factory;
 
 import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
 import co.edu.uniquindio.bookyourstay.modelo.Hotel;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
 import java.util.List;
 
 public class HotelFactory implements AlojamientoFactory {
@@ -20,9 +19,9 @@ public class HotelFactory implements AlojamientoFactory {
         hotel.setDescripcion(descripcion);
         hotel.setPrecioNoche(precioNoche);
         hotel.setCapacidadMax(capacidadMax);
+        hotel.setTipo(TipoAlojamiento.HOTEL);
 
-        // Para servicios (ObservableList)
-        hotel.getServicios().setAll(FXCollections.observableArrayList(servicios));
+        hotel.setServicios(servicios);
 
         return hotel;
     }
@@ -0,0 +1,182 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.Dinero;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
+import co.edu.uniquindio.bookyourstay.repositorios.ObservadorReservas;
+
+import java.time.Month;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Estadísticas de reservas mantenidas de forma incremental a partir de los eventos del repositorio.
+ * Los contadores se agregan por separado por mes de inicio, por ciudad y por tipo de alojamiento,
+ * así que cada reporte lee solo los contadores que devuelve (12 meses, los tipos o las ciudades),
+ * sin importar cuántas reservas haya en el histórico.
+ * Para cada reserva se recuerda su aporte actual: un evento resta el aporte anterior y suma
+ * el nuevo, por lo que recibir dos veces el mismo evento no altera los totales.
+ */
+public class AcumuladorEstadisticas implements ObservadorReservas {
+    private final Map<String, Aporte> aportes = new HashMap<>();
+    private final Map<YearMonth, Contadores> porMes = new HashMap<>();
+    private final Map<String, Contadores> porCiudad = new HashMap<>();
+    private final Map<TipoAlojamiento, Contadores> porTipo = new EnumMap<>(TipoAlojamiento.class);
+    private final Map<String, Long> nochesCompletadasPorAlojamiento = new HashMap<>();
+
+    @Override
+    public void reservaCreada(Reserva reserva) {
+        registrar(reserva);
+    }
+
+    @Override
+    public void reservaActualizada(Reserva reserva) {
+        registrar(reserva);
+    }
+
+    @Override
+    public synchronized void reservaEliminada(Reserva reserva) {
+        Aporte anterior = aportes.remove(reserva.getId());
+        if (anterior != null) {
+            aplicar(anterior, -1);
+        }
+    }
+
+    /**
+     * @param year Año a consultar
+     * @return Suma de los totales de las reservas por mes de inicio
+     */
+    public synchronized Map<Month, Double> gananciasMensuales(Year year) {
+        Map<Month, Double> resultado = new HashMap<>();
+        for (Month mes : Month.values()) {
+            Contadores contadores = porMes.get(year.atMonth(mes));
+            if (contadores != null) {
+                resultado.put(mes, Dinero.aUnidades(contadores.gananciasCentavos));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * @param year Año a consultar
+     * @return Porcentaje de reservas canceladas por mes de inicio
+     */
+    public synchronized Map<Month, Double> tasaCancelacion(Year year) {
+        Map<Month, Double> resultado = new HashMap<>();
+        for (Month mes : Month.values()) {
+            Contadores contadores = porMes.get(year.atMonth(mes));
+            if (contadores != null) {
+                resultado.put(mes, contadores.canceladas * 100.0 / contadores.reservas);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * @return Suma de los totales de las reservas por tipo de alojamiento
+     */
+    public synchronized Map<TipoAlojamiento, Double> gananciasPorTipo() {
+        return aUnidades(porTipo, new EnumMap<>(TipoAlojamiento.class));
+    }
+
+    /**
+     * @return Suma de los totales de las reservas por ciudad del alojamiento
+     */
+    public synchronized Map<String, Double> gananciasPorCiudad() {
+        return aUnidades(porCiudad, new HashMap<>());
+    }
+
+    /**
+     * @return Número promedio de noches por reserva según el tipo de alojamiento
+     */
+    public synchronized Map<TipoAlojamiento, Double> promedioEstadia() {
+        Map<TipoAlojamiento, Double> resultado = new EnumMap<>(TipoAlojamiento.class);
+        porTipo.forEach((tipo, contadores) -> resultado.put(tipo, (double) contadores.noches / contadores.reservas));
+        return resultado;
+    }
+
+    /**
+     * @param alojamientoId ID del alojamiento
+     * @return Noches de las reservas completadas del alojamiento
+     */
+    public synchronized long nochesCompletadas(String alojamientoId) {
+        return nochesCompletadasPorAlojamiento.getOrDefault(alojamientoId, 0L);
+    }
+
+    private synchronized void registrar(Reserva reserva) {
+        Aporte nuevo = Aporte.de(reserva);
+        Aporte anterior = aportes.put(reserva.getId(), nuevo);
+        if (anterior != null) {
+            aplicar(anterior, -1);
+        }
+        aplicar(nuevo, 1);
+    }
+
+    private void aplicar(Aporte aporte, int signo) {
+        acumular(porMes, aporte.mes(), aporte, signo);
+        acumular(porCiudad, aporte.ciudad(), aporte, signo);
+        acumular(porTipo, aporte.tipo(), aporte, signo);
+
+        if (aporte.completada() && aporte.alojamientoId() != null) {
+            nochesCompletadasPorAlojamiento.merge(aporte.alojamientoId(), signo * aporte.noches(), Long::sum);
+        }
+    }
+
+    private static <K> void acumular(Map<K, Contadores> mapa, K clave, Aporte aporte, int signo) {
+        if (clave == null) {
+            return;
+        }
+        Contadores contadores = mapa.computeIfAbsent(clave, c -> new Contadores());
+        contadores.reservas += signo;
+        contadores.canceladas += aporte.cancelada() ? signo : 0;
+        contadores.gananciasCentavos += signo * aporte.totalCentavos();
+        contadores.noches += signo * aporte.noches();
+        // Sin reservas el contador se quita para que no aparezca en los reportes
+        if (contadores.reservas == 0) {
+            mapa.remove(clave);
+        }
+    }
+
+    private static <K> Map<K, Double> aUnidades(Map<K, Contadores> contadores, Map<K, Double> destino) {
+        contadores.forEach((clave, valor) -> destino.put(clave, Dinero.aUnidades(valor.gananciasCentavos)));
+        return destino;
+    }
+
+    private static TipoAlojamiento tipoDe(Alojamiento alojamiento) {
+        try {
+            return TipoAlojamiento.fromClass(alojamiento.getClass());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class Contadores {
+        long reservas;
+        long canceladas;
+        long gananciasCentavos;
+        long noches;
+    }
+
+    private record Aporte(YearMonth mes, String ciudad, TipoAlojamiento tipo, String alojamientoId,
+                          boolean cancelada, boolean completada, long totalCentavos, long noches) {
+        static Aporte de(Reserva reserva) {
+            Alojamiento alojamiento = reserva.getAlojamiento();
+            long noches = reserva.getFechaInicio() != null && reserva.getFechaFin() != null
+                    ? ChronoUnit.DAYS.between(reserva.getFechaInicio(), reserva.getFechaFin())
+                    : 0;
+            return new Aporte(
+                    reserva.getFechaInicio() != null ? YearMonth.from(reserva.getFechaInicio()) : null,
+                    alojamiento != null ? alojamiento.getCiudad() : null,
+                    alojamiento != null ? tipoDe(alojamiento) : null,
+                    alojamiento != null ? alojamiento.getId() : null,
+                    reserva.getEstado() == EstadoReserva.CANCELADA,
+                    reserva.getEstado() == EstadoReserva.COMPLETADA,
+                    reserva.getTotalCentavos(),
+                    noches);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Reseña;
+
+import java.util.*;
+
+/**
+ * Calificaciones agregadas por alojamiento, actualizadas en O(1) (más O(log n) del ranking)
+ * al crear, editar, verificar o eliminar una reseña.
+ * Para cada alojamiento se guardan cantidad, suma e histograma por estrellas, de todas las reseñas
+ * y de las verificadas. El ranking usa un promedio bayesiano con una media previa fija:
+ * {@code (peso * media + suma) / (peso + cantidad)}, de modo que un alojamiento con pocas reseñas
+ * no supera a uno con muchas solo por azar. Como la media previa no depende de los demás
+ * alojamientos, cada reseña reubica solo a su alojamiento en el conjunto ordenado y los K mejores
+ * se leen en O(K).
+ * Igual que en {@link AcumuladorEstadisticas}, se recuerda el aporte actual de cada reseña para
+ * poder restarlo cuando cambia.
+ */
+public class AgregadoCalificaciones {
+    public static final double MEDIA_PREVIA_POR_DEFECTO = 3.5;
+    public static final int PESO_PREVIO_POR_DEFECTO = 10;
+    private static final int ESTRELLAS = 5;
+
+    private final double mediaPrevia;
+    private final int pesoPrevio;
+    private final Map<String, Aporte> aportes = new HashMap<>();
+    private final Map<String, Contadores> contadores = new HashMap<>();
+    private final TreeSet<Contadores> ranking = new TreeSet<>(
+            Comparator.comparingDouble(Contadores::puntaje).reversed()
+                    .thenComparing(c -> c.alojamientoId));
+
+    public AgregadoCalificaciones() {
+        this(MEDIA_PREVIA_POR_DEFECTO, PESO_PREVIO_POR_DEFECTO);
+    }
+
+    /**
+     * @param mediaPrevia Calificación que se supone para un alojamiento sin reseñas
+     * @param pesoPrevio Número de reseñas "virtuales" con la media previa
+     */
+    public AgregadoCalificaciones(double mediaPrevia, int pesoPrevio) {
+        if (pesoPrevio < 0) {
+            throw new IllegalArgumentException("El peso previo no puede ser negativo");
+        }
+        this.mediaPrevia = mediaPrevia;
+        this.pesoPrevio = pesoPrevio;
+    }
+
+    /**
+     * Registra una reseña nueva o el estado actual de una existente
+     * @param reseña Reseña creada o modificada
+     */
+    public synchronized void registrar(Reseña reseña) {
+        Aporte nuevo = Aporte.de(reseña);
+        Aporte anterior = nuevo == null ? aportes.remove(reseña.getId()) : aportes.put(reseña.getId(), nuevo);
+        if (Objects.equals(nuevo, anterior)) {
+            return;
+        }
+        if (anterior != null) {
+            aplicar(anterior, -1);
+        }
+        if (nuevo != null) {
+            aplicar(nuevo, 1);
+        }
+    }
+
+    /**
+     * Quita el aporte de una reseña eliminada
+     * @param reseñaId ID de la reseña
+     */
+    public synchronized void quitar(String reseñaId) {
+        Aporte anterior = aportes.remove(reseñaId);
+        if (anterior != null) {
+            aplicar(anterior, -1);
+        }
+    }
+
+    /**
+     * @param alojamientoId ID del alojamiento
+     * @return Calificaciones agregadas del alojamiento (en cero si no tiene reseñas)
+     */
+    public synchronized Calificaciones de(String alojamientoId) {
+        Contadores c = contadores.get(alojamientoId);
+        if (c == null) {
+            return new Calificaciones(0, 0, new int[ESTRELLAS], 0, 0, mediaPrevia);
+        }
+        return new Calificaciones(c.cantidad, c.suma, c.histograma.clone(),
+                c.cantidadVerificadas, c.sumaVerificadas, c.puntaje());
+    }
+
+    /**
+     * @param limite Número máximo de alojamientos a retornar
+     * @return IDs de los alojamientos con reseñas de mayor a menor puntaje bayesiano
+     */
+    public synchronized List<String> mejores(int limite) {
+        List<String> resultado = new ArrayList<>(Math.max(0, Math.min(limite, ranking.size())));
+        for (Contadores c : ranking) {
+            if (resultado.size() >= limite) {
+                break;
+            }
+            resultado.add(c.alojamientoId);
+        }
+        return resultado;
+    }
+
+    private void aplicar(Aporte aporte, int signo) {
+        Contadores c = contadores.computeIfAbsent(aporte.alojamientoId(), Contadores::new);
+        // El orden del ranking depende del puntaje: se saca antes de modificarlo
+        ranking.remove(c);
+        c.cantidad += signo;
+        c.suma += (long) signo * aporte.calificacion();
+        c.histograma[aporte.calificacion() - 1] += signo;
+        if (aporte.verificada()) {
+            c.cantidadVerificadas += signo;
+            c.sumaVerificadas += (long) signo * aporte.calificacion();
+        }
+
+        if (c.cantidad > 0) {
+            ranking.add(c);
+        } else {
+            contadores.remove(aporte.alojamientoId());
+        }
+    }
+
+    /**
+     * Calificaciones de un alojamiento
+     * @param cantidad Número de reseñas
+     * @param suma Suma de las calificaciones
+     * @param histograma Reseñas por estrellas; la posición 0 corresponde a 1 estrella
+     * @param cantidadVerificadas Número de reseñas verificadas
+     * @param sumaVerificadas Suma de las calificaciones verificadas
+     * @param puntajeBayesiano Promedio ajustado con la media previa
+     */
+    public record Calificaciones(int cantidad, long suma, int[] histograma,
+                                 int cantidadVerificadas, long sumaVerificadas, double puntajeBayesiano) {
+        public double promedio() {
+            return cantidad == 0 ? 0 : (double) suma / cantidad;
+        }
+
+        public double promedioVerificadas() {
+            return cantidadVerificadas == 0 ? 0 : (double) sumaVerificadas / cantidadVerificadas;
+        }
+    }
+
+    private record Aporte(String alojamientoId, int calificacion, boolean verificada) {
+        static Aporte de(Reseña reseña) {
+            if (reseña.getAlojamiento() == null || reseña.getAlojamiento().getId() == null
+                    || reseña.getCalificacion() < 1 || reseña.getCalificacion() > ESTRELLAS) {
+                return null;
+            }
+            return new Aporte(reseña.getAlojamiento().getId(), reseña.getCalificacion(), reseña.isVerificada());
+        }
+    }
+
+    private final class Contadores {
+        final String alojamientoId;
+        final int[] histograma = new int[ESTRELLAS];
+        int cantidad;
+        long suma;
+        int cantidadVerificadas;
+        long sumaVerificadas;
+
+        Contadores(String alojamientoId) {
+            this.alojamientoId = alojamientoId;
+        }
+
+        double puntaje() {
+            return (pesoPrevio * mediaPrevia + suma) / (pesoPrevio + cantidad);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Calendario de ocupación de un alojamiento o habitación.
+ * Guarda las reservas activas como un conjunto ordenado de rangos que no se solapan,
+ * indexado por fecha de inicio, de modo que consultar si un rango está libre cuesta O(log n).
+ * Los rangos son semiabiertos [inicio, fin): se ocupan las noches y no el día de salida, así que
+ * un huésped puede llegar el mismo día en que otro se va, igual que {@link Reserva#haySolapamiento}.
+ * Una estadía sin noches ocupa su día de llegada.
+ * Cada rango se guarda con las fechas que tenía al registrarse y se busca por el ID de la reserva,
+ * de modo que cambiar las fechas de la reserva no deja ocupado el rango anterior.
+ * Las reservas que dejan de estar activas sin pasar por {@link #liberar} se descartan
+ * la siguiente vez que una consulta las encuentra.
+ * Todas las operaciones usan el monitor de la instancia, así que quien necesite combinar varias
+ * de forma atómica puede sincronizar sobre el propio calendario.
+ */
+public class CalendarioOcupacion {
+    private final TreeMap<LocalDate, Ocupacion> ocupados = new TreeMap<>();
+    private final Map<String, LocalDate> inicioPorReserva = new HashMap<>();
+
+    /**
+     * Verifica si el rango de fechas no se solapa con ninguna reserva activa
+     * @param fechaInicio Fecha de llegada
+     * @param fechaFin Fecha de salida, que no se ocupa
+     * @return true si el rango está libre
+     */
+    public synchronized boolean estaLibre(LocalDate fechaInicio, LocalDate fechaFin) {
+        // Como los rangos no se solapan, basta revisar el último que empieza antes de la salida consultada
+        Map.Entry<LocalDate, Ocupacion> anterior = ultimaActivaAntesDe(salida(fechaInicio, fechaFin));
+        return anterior == null || !anterior.getValue().fin().isAfter(fechaInicio);
+    }
+
+    /**
+     * Registra la reserva solo si sus fechas están libres; la verificación y el registro son atómicos
+     * Si la reserva ya estaba registrada se mueve a sus fechas actuales, como en {@link #reemplazar}
+     * @param reserva Reserva activa a registrar
+     * @return true si se registró, false si se solapa con otra reserva activa
+     */
+    public synchronized boolean reservarSiDisponible(Reserva reserva) {
+        if (inicioPorReserva.containsKey(reserva.getId())) {
+            return reemplazar(reserva, reserva);
+        }
+        if (!estaLibre(reserva.getFechaInicio(), reserva.getFechaFin())) {
+            return false;
+        }
+        registrar(new Ocupacion(reserva, reserva.getFechaInicio(), salida(reserva.getFechaInicio(), reserva.getFechaFin())));
+        return true;
+    }
+
+    /**
+     * Cambia las fechas registradas de una reserva de forma atómica: si las nuevas fechas
+     * no están libres se conservan las anteriores
+     * @param anterior Reserva tal como está registrada; puede ser la misma instancia ya modificada
+     * @param nueva Reserva con los datos actualizados; si no está activa solo se liberan las fechas
+     * @return true si se aplicó el cambio, false si las nuevas fechas se solapan con otra reserva
+     */
+    public synchronized boolean reemplazar(Reserva anterior, Reserva nueva) {
+        Ocupacion registrada = quitar(anterior.getId());
+        if (!nueva.estaActiva() || reservarSiDisponible(nueva)) {
+            return true;
+        }
+        if (registrada != null) {
+            registrar(registrada);
+        }
+        return false;
+    }
+
+    /**
+     * Libera las fechas que la reserva ocupaba al registrarse, aunque después haya cambiado
+     * @param reserva Reserva cancelada, completada o eliminada
+     * @return true si la reserva estaba registrada
+     */
+    public synchronized boolean liberar(Reserva reserva) {
+        return quitar(reserva.getId()) != null;
+    }
+
+    /**
+     * Elimina todas las reservas registradas
+     */
+    public synchronized void limpiar() {
+        ocupados.clear();
+        inicioPorReserva.clear();
+    }
+
+    /**
+     * @return Número de reservas registradas
+     */
+    public synchronized int contar() {
+        return ocupados.size();
+    }
+
+    /**
+     * @param fechaInicio Fecha de llegada
+     * @param fechaFin Fecha de salida
+     * @return Primer día que el rango deja libre: la salida, o el día siguiente a la llegada si no hay noches
+     */
+    public static LocalDate salida(LocalDate fechaInicio, LocalDate fechaFin) {
+        return fechaFin.isAfter(fechaInicio) ? fechaFin : fechaInicio.plusDays(1);
+    }
+
+    private void registrar(Ocupacion ocupacion) {
+        ocupados.put(ocupacion.inicio(), ocupacion);
+        inicioPorReserva.put(ocupacion.reserva().getId(), ocupacion.inicio());
+    }
+
+    private Ocupacion quitar(String reservaId) {
+        LocalDate inicio = inicioPorReserva.remove(reservaId);
+        return inicio == null ? null : ocupados.remove(inicio);
+    }
+
+    private Map.Entry<LocalDate, Ocupacion> ultimaActivaAntesDe(LocalDate fecha) {
+        Map.Entry<LocalDate, Ocupacion> entrada = ocupados.lowerEntry(fecha);
+        while (entrada != null && !entrada.getValue().reserva().estaActiva()) {
+            quitar(entrada.getValue().reserva().getId());
+            entrada = ocupados.lowerEntry(fecha);
+        }
+        return entrada;
+    }
+
+    private record Ocupacion(Reserva reserva, LocalDate inicio, LocalDate fin) {
+    }
+}
@@ -0,0 +1,255 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido para la búsqueda de alojamientos.
+ * Cada alojamiento recibe un número de documento y se registra en listas de postings
+ * (conjuntos de bits) por ciudad, tipo, capacidad, rango de precio y servicio, normalizados
+ * sin mayúsculas ni tildes. Una búsqueda intersecta los conjuntos de bits de los criterios
+ * y solo revisa los alojamientos que sobreviven a la intersección.
+ */
+public class IndiceBusqueda {
+    // Las capacidades mayores comparten el último grupo y se verifican al final
+    private static final int GRUPO_CAPACIDAD_MAXIMO = 16;
+
+    private final List<Alojamiento> documentos = new ArrayList<>();
+    private final List<Claves> clavesPorDocumento = new ArrayList<>();
+    private final Map<String, Integer> documentoPorId = new HashMap<>();
+    private final Deque<Integer> documentosLibres = new ArrayDeque<>();
+    private final BitSet vivos = new BitSet();
+
+    private final Map<String, BitSet> porCiudad = new HashMap<>();
+    private final Map<TipoAlojamiento, BitSet> porTipo = new EnumMap<>(TipoAlojamiento.class);
+    private final Map<Integer, BitSet> porCapacidad = new HashMap<>();
+    private final Map<Integer, BitSet> porRangoPrecio = new HashMap<>();
+    private final Map<String, BitSet> porServicio = new HashMap<>();
+
+    private final ReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    /**
+     * Indexa un alojamiento; si ya estaba indexado se reemplazan sus claves
+     * @param alojamiento Alojamiento a indexar
+     */
+    public void agregar(Alojamiento alojamiento) {
+        if (alojamiento == null || alojamiento.getId() == null) {
+            throw new IllegalArgumentException("El alojamiento y su ID no pueden ser nulos");
+        }
+
+        bloqueo.writeLock().lock();
+        try {
+            quitar(alojamiento.getId());
+
+            int documento = documentosLibres.isEmpty() ? documentos.size() : documentosLibres.pop();
+            Claves claves = Claves.de(alojamiento);
+            if (documento == documentos.size()) {
+                documentos.add(alojamiento);
+                clavesPorDocumento.add(claves);
+            } else {
+                documentos.set(documento, alojamiento);
+                clavesPorDocumento.set(documento, claves);
+            }
+            documentoPorId.put(alojamiento.getId(), documento);
+            vivos.set(documento);
+
+            postings(porCiudad, claves.ciudad()).set(documento);
+            if (claves.tipo() != null) {
+                postings(porTipo, claves.tipo()).set(documento);
+            }
+            postings(porCapacidad, claves.grupoCapacidad()).set(documento);
+            postings(porRangoPrecio, claves.rangoPrecio()).set(documento);
+            claves.servicios().forEach(servicio -> postings(porServicio, servicio).set(documento));
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vuelve a indexar un alojamiento cuyos datos cambiaron
+     * @param alojamiento Alojamiento modificado
+     */
+    public void actualizar(Alojamiento alojamiento) {
+        agregar(alojamiento);
+    }
+
+    /**
+     * Quita un alojamiento del índice
+     * @param id ID del alojamiento
+     * @return true si estaba indexado
+     */
+    public boolean eliminar(String id) {
+        bloqueo.writeLock().lock();
+        try {
+            return quitar(id);
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca alojamientos que cumplan todos los criterios indicados; los criterios nulos se ignoran
+     * @param ciudad Ciudad (sin distinguir mayúsculas ni tildes)
+     * @param tipo Tipo de alojamiento
+     * @param capacidadMinima Número mínimo de huéspedes que debe admitir
+     * @param precioMinimo Precio mínimo por noche
+     * @param precioMaximo Precio máximo por noche
+     * @param servicios Servicios que debe ofrecer
+     * @return Alojamientos que cumplen los criterios
+     */
+    public List<Alojamiento> buscar(String ciudad, TipoAlojamiento tipo, int capacidadMinima,
+                                    Float precioMinimo, Float precioMaximo, Collection<String> servicios) {
+        bloqueo.readLock().lock();
+        try {
+            BitSet candidatos;
+            if (ciudad != null && !ciudad.isBlank()) {
+                candidatos = copia(porCiudad.get(Normalizacion.plegar(ciudad)));
+            } else {
+                candidatos = (BitSet) vivos.clone();
+            }
+
+            if (tipo != null) {
+                intersectar(candidatos, porTipo.get(tipo));
+            }
+            if (capacidadMinima > 1) {
+                intersectar(candidatos, unir(porCapacidad, grupoCapacidad(capacidadMinima), GRUPO_CAPACIDAD_MAXIMO));
+            }
+            if (precioMinimo != null || precioMaximo != null) {
+                int desde = precioMinimo != null ? rangoPrecio(precioMinimo) : 0;
+                int hasta = precioMaximo != null ? rangoPrecio(precioMaximo) : Integer.SIZE;
+                intersectar(candidatos, unir(porRangoPrecio, desde, hasta));
+            }
+            if (servicios != null) {
+                for (String servicio : servicios) {
+                    intersectar(candidatos, porServicio.get(Normalizacion.plegar(servicio)));
+                }
+            }
+
+            // Los grupos de capacidad y precio son aproximados: se verifica el valor exacto
+            List<Alojamiento> resultado = new ArrayList<>();
+            for (int doc = candidatos.nextSetBit(0); doc >= 0; doc = candidatos.nextSetBit(doc + 1)) {
+                Claves claves = clavesPorDocumento.get(doc);
+                if (claves.capacidad() >= capacidadMinima
+                        && (precioMinimo == null || claves.precio() >= precioMinimo)
+                        && (precioMaximo == null || claves.precio() <= precioMaximo)) {
+                    resultado.add(documentos.get(doc));
+                }
+            }
+            return resultado;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Número de alojamientos indexados
+     */
+    public int contar() {
+        bloqueo.readLock().lock();
+        try {
+            return documentoPorId.size();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    private boolean quitar(String id) {
+        Integer documento = documentoPorId.remove(id);
+        if (documento == null) {
+            return false;
+        }
+
+        Claves claves = clavesPorDocumento.get(documento);
+        limpiar(porCiudad, claves.ciudad(), documento);
+        if (claves.tipo() != null) {
+            limpiar(porTipo, claves.tipo(), documento);
+        }
+        limpiar(porCapacidad, claves.grupoCapacidad(), documento);
+        limpiar(porRangoPrecio, claves.rangoPrecio(), documento);
+        claves.servicios().forEach(servicio -> limpiar(porServicio, servicio, documento));
+
+        vivos.clear(documento);
+        documentos.set(documento, null);
+        clavesPorDocumento.set(documento, null);
+        documentosLibres.push(documento);
+        return true;
+    }
+
+    private static <K> BitSet postings(Map<K, BitSet> indice, K clave) {
+        return indice.computeIfAbsent(clave, k -> new BitSet());
+    }
+
+    private static <K> void limpiar(Map<K, BitSet> indice, K clave, int documento) {
+        BitSet bits = indice.get(clave);
+        if (bits != null) {
+            bits.clear(documento);
+            if (bits.isEmpty()) {
+                indice.remove(clave);
+            }
+        }
+    }
+
+    private static BitSet copia(BitSet bits) {
+        return bits == null ? new BitSet() : (BitSet) bits.clone();
+    }
+
+    private static void intersectar(BitSet candidatos, BitSet bits) {
+        if (bits == null) {
+            candidatos.clear();
+        } else {
+            candidatos.and(bits);
+        }
+    }
+
+    private static BitSet unir(Map<Integer, BitSet> indice, int desde, int hasta) {
+        BitSet union = new BitSet();
+        for (int grupo = desde; grupo <= hasta; grupo++) {
+            BitSet bits = indice.get(grupo);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    private static int grupoCapacidad(int capacidad) {
+        return Math.max(0, Math.min(capacidad, GRUPO_CAPACIDAD_MAXIMO));
+    }
+
+    /**
+     * Rangos de precio logarítmicos: el rango k agrupa los precios en [2^(k-1), 2^k)
+     */
+    private static int rangoPrecio(float precio) {
+        if (precio < 1) {
+            return 0;
+        }
+        return Integer.SIZE - Integer.numberOfLeadingZeros((int) Math.min(precio, Integer.MAX_VALUE));
+    }
+
+    private record Claves(String ciudad, TipoAlojamiento tipo, int capacidad, float precio, Set<String> servicios) {
+        static Claves de(Alojamiento alojamiento) {
+            Set<String> servicios = new HashSet<>();
+            if (alojamiento.getServicios() != null) {
+                alojamiento.getServicios().forEach(servicio -> servicios.add(Normalizacion.plegar(servicio)));
+            }
+            return new Claves(
+                    Normalizacion.plegar(alojamiento.getCiudad()),
+                    alojamiento.getTipo(),
+                    alojamiento.getCapacidadMax(),
+                    alojamiento.getPrecioNoche(),
+                    servicios);
+        }
+
+        int grupoCapacidad() {
+            return IndiceBusqueda.grupoCapacidad(capacidad);
+        }
+
+        int rangoPrecio() {
+            return IndiceBusqueda.rangoPrecio(precio);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.Oferta;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de ofertas por alojamiento y por ventana de vigencia.
+ * Guarda, para cada alojamiento, las ofertas que lo incluyen explícitamente, y mantiene aparte
+ * el subconjunto cuyas fechas cubren el día actual. Ese subconjunto se avanza de un día al otro
+ * con {@link #avanzarA} usando las fechas de inicio y fin ordenadas, sin revisar todas las ofertas.
+ * Las condiciones que cambian en cualquier momento (activa, usos agotados) se verifican al consultar.
+ */
+public class IndiceOfertas {
+    private final Map<String, Oferta> ofertas = new HashMap<>();
+    private final Map<String, Ventana> ventanas = new HashMap<>();
+    private final Map<String, Set<String>> porAlojamiento = new HashMap<>();
+    private final TreeMap<LocalDate, Set<String>> porInicio = new TreeMap<>();
+    private final TreeMap<LocalDate, Set<String>> porFin = new TreeMap<>();
+
+    // Ofertas cuyas fechas cubren diaActual, en total y por alojamiento
+    private final Set<String> vigentes = new LinkedHashSet<>();
+    private final Map<String, Set<String>> vigentesPorAlojamiento = new HashMap<>();
+    private LocalDate diaActual = LocalDate.now();
+
+    private final ReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    /**
+     * Indexa una oferta; si ya estaba indexada se reemplazan sus fechas y alojamientos
+     * @param oferta Oferta a indexar
+     */
+    public void agregar(Oferta oferta) {
+        if (oferta == null || oferta.getId() == null) {
+            throw new IllegalArgumentException("La oferta y su ID no pueden ser nulos");
+        }
+
+        bloqueo.writeLock().lock();
+        try {
+            quitarSinBloqueo(oferta.getId());
+            Ventana ventana = Ventana.de(oferta);
+            String id = oferta.getId();
+            ofertas.put(id, oferta);
+            ventanas.put(id, ventana);
+            ventana.alojamientos().forEach(a -> porAlojamiento.computeIfAbsent(a, k -> new LinkedHashSet<>()).add(id));
+            if (ventana.inicio() != null && ventana.fin() != null) {
+                porInicio.computeIfAbsent(ventana.inicio(), k -> new HashSet<>()).add(id);
+                porFin.computeIfAbsent(ventana.fin(), k -> new HashSet<>()).add(id);
+                if (ventana.cubre(diaActual)) {
+                    activar(id, ventana);
+                }
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita una oferta del índice
+     * @param ofertaId ID de la oferta
+     */
+    public void quitar(String ofertaId) {
+        bloqueo.writeLock().lock();
+        try {
+            quitarSinBloqueo(ofertaId);
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mueve el día actual del índice. Avanzar un día solo toca las ofertas que empiezan
+     * o terminan en el intervalo recorrido; retroceder reconstruye el conjunto vigente
+     * @param hoy Nuevo día actual
+     */
+    public void avanzarA(LocalDate hoy) {
+        bloqueo.writeLock().lock();
+        try {
+            avanzarSinBloqueo(hoy);
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param hoy Día de la consulta
+     * @return Ofertas activas, con usos disponibles y cuyas fechas cubren el día
+     */
+    public List<Oferta> vigentes(LocalDate hoy) {
+        asegurarDia(hoy);
+        bloqueo.readLock().lock();
+        try {
+            return resolverVigentes(vigentes);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param alojamientoId ID del alojamiento
+     * @param hoy Día de la consulta
+     * @return Ofertas vigentes que incluyen al alojamiento
+     */
+    public List<Oferta> vigentesPara(String alojamientoId, LocalDate hoy) {
+        asegurarDia(hoy);
+        bloqueo.readLock().lock();
+        try {
+            return resolverVigentes(vigentesPorAlojamiento.getOrDefault(alojamientoId, Set.of()));
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param alojamientoId ID del alojamiento
+     * @return Todas las ofertas que incluyen al alojamiento, vigentes o no
+     */
+    public List<Oferta> todasPara(String alojamientoId) {
+        bloqueo.readLock().lock();
+        try {
+            List<Oferta> resultado = new ArrayList<>();
+            porAlojamiento.getOrDefault(alojamientoId, Set.of()).forEach(id -> resultado.add(ofertas.get(id)));
+            return resultado;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Día que el índice considera actual
+     */
+    public LocalDate getDiaActual() {
+        bloqueo.readLock().lock();
+        try {
+            return diaActual;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    private void asegurarDia(LocalDate hoy) {
+        // Normalmente el programador ya avanzó el día; esto cubre el caso de que no haya corrido aún
+        bloqueo.readLock().lock();
+        try {
+            if (hoy.equals(diaActual)) {
+                return;
+            }
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+        avanzarA(hoy);
+    }
+
+    private void avanzarSinBloqueo(LocalDate hoy) {
+        if (hoy.equals(diaActual)) {
+            return;
+        }
+        if (hoy.isBefore(diaActual)) {
+            vigentes.clear();
+            vigentesPorAlojamiento.clear();
+            ventanas.forEach((id, ventana) -> {
+                if (ventana.cubre(hoy)) {
+                    activar(id, ventana);
+                }
+            });
+        } else {
+            // Terminaron antes de hoy
+            porFin.headMap(hoy, false).tailMap(diaActual, true).values()
+                    .forEach(ids -> ids.forEach(this::desactivar));
+            // Empezaron después del día anterior y siguen vigentes hoy
+            porInicio.subMap(diaActual, false, hoy, true).values().forEach(ids -> ids.forEach(id -> {
+                Ventana ventana = ventanas.get(id);
+                if (ventana.cubre(hoy)) {
+                    activar(id, ventana);
+                }
+            }));
+        }
+        diaActual = hoy;
+    }
+
+    private void quitarSinBloqueo(String id) {
+        Ventana ventana = ventanas.remove(id);
+        if (ventana == null) {
+            return;
+        }
+        ofertas.remove(id);
+        desactivar(id, ventana);
+        ventana.alojamientos().forEach(a -> quitarDe(porAlojamiento, a, id));
+        if (ventana.inicio() != null && ventana.fin() != null) {
+            quitarDe(porInicio, ventana.inicio(), id);
+            quitarDe(porFin, ventana.fin(), id);
+        }
+    }
+
+    private void activar(String id, Ventana ventana) {
+        vigentes.add(id);
+        ventana.alojamientos().forEach(a -> vigentesPorAlojamiento.computeIfAbsent(a, k -> new LinkedHashSet<>()).add(id));
+    }
+
+    private void desactivar(String id) {
+        desactivar(id, ventanas.get(id));
+    }
+
+    private void desactivar(String id, Ventana ventana) {
+        if (vigentes.remove(id)) {
+            ventana.alojamientos().forEach(a -> quitarDe(vigentesPorAlojamiento, a, id));
+        }
+    }
+
+    private List<Oferta> resolverVigentes(Set<String> ids) {
+        List<Oferta> resultado = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Oferta oferta = ofertas.get(id);
+            if (oferta.isActiva() && (oferta.getMaximoUsos() == 0 || oferta.getUsosActuales() < oferta.getMaximoUsos())) {
+                resultado.add(oferta);
+            }
+        }
+        return resultado;
+    }
+
+    private static <K> void quitarDe(Map<K, Set<String>> mapa, K clave, String id) {
+        Set<String> ids = mapa.get(clave);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            mapa.remove(clave);
+        }
+    }
+
+    /**
+     * Datos de la oferta con los que se indexó, para poder desindexarla aunque la oferta cambie
+     */
+    private record Ventana(LocalDate inicio, LocalDate fin, Set<String> alojamientos) {
+        static Ventana de(Oferta oferta) {
+            Set<String> alojamientos = new LinkedHashSet<>();
+            if (oferta.getAlojamientosAplicables() != null) {
+                oferta.getAlojamientosAplicables().stream()
+                        .filter(Objects::nonNull)
+                        .map(Alojamiento::getId)
+                        .filter(Objects::nonNull)
+                        .forEach(alojamientos::add);
+            }
+            return new Ventana(oferta.getFechaInicio(), oferta.getFechaFin(), alojamientos);
+        }
+
+        boolean cubre(LocalDate dia) {
+            return inicio != null && fin != null && !dia.isBefore(inicio) && !dia.isAfter(fin);
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Reseña;
+import co.edu.uniquindio.bookyourstay.repositorios.Pagina;
+
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de texto completo sobre los comentarios de las reseñas.
+ * Los comentarios se parten en términos sin mayúsculas ni tildes, se descartan las palabras vacías
+ * y se reduce cada término a una raíz aproximada (plurales, género y "-mente"), de modo que
+ * "habitaciones limpias" encuentra "habitación limpia". Cada término guarda la lista ordenada de
+ * documentos que lo contienen; una consulta con varios términos intersecta las listas empezando por
+ * la más corta, y un término terminado en {@code *} busca por prefijo sobre las palabras tal como
+ * aparecen, sin reducirlas a raíz ("luce*" encuentra "luces", cuya raíz es "luz").
+ * Para moderar, los nombres del cliente y del alojamiento y la calificación se indexan como términos
+ * aparte (con un prefijo de campo que ninguna palabra tiene), y {@link #paginarModeracion} los
+ * consulta junto con el comentario.
+ * Los documentos nunca se renumeran al agregar: al editar o eliminar una reseña su documento
+ * queda muerto y se descarta al leer, y cuando los muertos superan a los vivos se reconstruye el índice.
+ */
+public class IndiceTextoReseñas {
+    private static final char COMODIN = '*';
+    // Prefijos de campo: las palabras solo tienen letras y dígitos, así que no chocan con los términos del comentario
+    private static final String CAMPO_NOMBRES = "@";
+    private static final String CAMPO_CALIFICACION = "#";
+    private static final char SEPARADOR_CURSOR = ':';
+    private static final int MINIMO_MUERTOS_COMPACTAR = 1024;
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "algo", "ante", "con", "como", "de", "del", "e", "el", "ella", "en", "era", "es",
+            "esa", "ese", "esta", "este", "esto", "fue", "ha", "hay", "la", "las", "le", "lo", "los", "me",
+            "mi", "muy", "nos", "o", "para", "pero", "por", "que", "se", "si", "sin", "su", "sus", "tan",
+            "te", "un", "una", "uno", "unos", "unas", "y", "ya");
+
+    private final List<Entrada> documentos = new ArrayList<>();
+    private final Map<String, Integer> documentoPorId = new HashMap<>();
+    private final BitSet vivos = new BitSet();
+    private final Map<String, Postings> terminos = new HashMap<>();
+    // Palabra plegada (con su prefijo de campo) -> raíz indexada, ordenada para recorrer las que comparten un prefijo
+    private final NavigableMap<String, String> formas = new TreeMap<>();
+    private int muertos;
+
+    private final ReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    /**
+     * Criterio de orden de los resultados
+     */
+    public enum Orden {
+        /** Las reseñas más recientes primero */
+        RECIENTES,
+        /** Las de mayor calificación primero; a igual calificación, las más recientes */
+        CALIFICACION
+    }
+
+    /**
+     * Indexa una reseña; si ya estaba indexada se reemplaza su documento
+     * @param reseña Reseña a indexar
+     */
+    public void agregar(Reseña reseña) {
+        if (reseña == null || reseña.getId() == null) {
+            throw new IllegalArgumentException("La reseña y su ID no pueden ser nulos");
+        }
+
+        bloqueo.writeLock().lock();
+        try {
+            quitar(reseña.getId());
+            indexar(Entrada.de(reseña));
+            if (muertos >= MINIMO_MUERTOS_COMPACTAR && muertos > documentoPorId.size()) {
+                compactar();
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vuelve a indexar una reseña cuyo comentario, calificación o fecha cambiaron
+     * @param reseña Reseña modificada
+     */
+    public void actualizar(Reseña reseña) {
+        agregar(reseña);
+    }
+
+    /**
+     * Quita una reseña del índice
+     * @param id ID de la reseña
+     * @return true si estaba indexada
+     */
+    public boolean eliminar(String id) {
+        bloqueo.writeLock().lock();
+        try {
+            return quitar(id);
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca las reseñas cuyo comentario contiene todos los términos de la consulta
+     * @param consulta Términos separados por espacios; los terminados en {@code *} se buscan por prefijo
+     * @param orden Orden de los resultados
+     * @param limite Número máximo de reseñas a retornar
+     * @return Reseñas encontradas, en el orden pedido (vacío si la consulta no tiene términos útiles)
+     */
+    public List<Reseña> buscar(String consulta, Orden orden, int limite) {
+        List<Termino> consultados = analizarConsulta(consulta);
+        if (consultados.isEmpty() || limite <= 0) {
+            return new ArrayList<>();
+        }
+
+        bloqueo.readLock().lock();
+        try {
+            // Se empieza por la lista exacta más corta y las demás solo filtran
+            Postings base = null;
+            List<Postings> exactos = new ArrayList<>();
+            List<BitSet> prefijos = new ArrayList<>();
+            for (Termino termino : consultados) {
+                if (termino.prefijo()) {
+                    BitSet union = unirPrefijo(termino.texto());
+                    if (union.isEmpty()) {
+                        return new ArrayList<>();
+                    }
+                    prefijos.add(union);
+                } else {
+                    Postings postings = terminos.get(termino.texto());
+                    if (postings == null) {
+                        return new ArrayList<>();
+                    }
+                    exactos.add(postings);
+                    if (base == null || postings.tamaño < base.tamaño) {
+                        base = postings;
+                    }
+                }
+            }
+
+            Comparator<Entrada> comparador = comparador(orden);
+            PriorityQueue<Entrada> mejores = new PriorityQueue<>(comparador.reversed());
+            if (base != null) {
+                for (int i = 0; i < base.tamaño; i++) {
+                    considerar(base.documentos[i], base, exactos, prefijos, comparador, limite, mejores);
+                }
+            } else {
+                BitSet candidatos = prefijos.get(0);
+                for (int doc = candidatos.nextSetBit(0); doc >= 0; doc = candidatos.nextSetBit(doc + 1)) {
+                    considerar(doc, null, exactos, prefijos, comparador, limite, mejores);
+                }
+            }
+
+            List<Entrada> ordenadas = new ArrayList<>(mejores);
+            ordenadas.sort(comparador);
+            List<Reseña> resultado = new ArrayList<>(ordenadas.size());
+            ordenadas.forEach(entrada -> resultado.add(entrada.reseña()));
+            return resultado;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Página de reseñas para moderar, de la más reciente a la más antigua. Cada término de la consulta
+     * debe aparecer en el comentario, en el nombre del cliente o del alojamiento, o ser la calificación;
+     * una consulta sin términos útiles pagina todas las reseñas
+     * @param consulta Términos separados por espacios; los terminados en {@code *} se buscan por prefijo
+     * @param cursor Cursor de la página anterior, o null para la primera
+     * @param tamaño Número máximo de reseñas de la página
+     * @return Página de reseñas con el cursor de la siguiente
+     * @throws IllegalArgumentException si el tamaño no es positivo o el cursor no es válido
+     */
+    public Pagina<Reseña> paginarModeracion(String consulta, String cursor, int tamaño) {
+        if (tamaño <= 0) {
+            throw new IllegalArgumentException("El tamaño de la página debe ser positivo");
+        }
+        Entrada desde = cursor == null ? null : Entrada.desdeCursor(cursor);
+        List<Termino> consultados = analizarConsulta(consulta);
+
+        bloqueo.readLock().lock();
+        try {
+            BitSet candidatos = (BitSet) vivos.clone();
+            for (Termino termino : consultados) {
+                candidatos.and(coincidenciasModeracion(termino));
+            }
+
+            Comparator<Entrada> comparador = comparador(Orden.RECIENTES);
+            // Se pide uno más para saber si hay otra página
+            PriorityQueue<Entrada> mejores = new PriorityQueue<>(comparador.reversed());
+            for (int doc = candidatos.nextSetBit(0); doc >= 0; doc = candidatos.nextSetBit(doc + 1)) {
+                Entrada entrada = documentos.get(doc);
+                if (desde == null || comparador.compare(entrada, desde) > 0) {
+                    conservar(entrada, comparador, tamaño + 1, mejores);
+                }
+            }
+
+            List<Entrada> ordenadas = new ArrayList<>(mejores);
+            ordenadas.sort(comparador);
+            String siguiente = null;
+            if (ordenadas.size() > tamaño) {
+                ordenadas = ordenadas.subList(0, tamaño);
+                siguiente = ordenadas.get(tamaño - 1).cursor();
+            }
+            List<Reseña> resultado = new ArrayList<>(ordenadas.size());
+            ordenadas.forEach(entrada -> resultado.add(entrada.reseña()));
+            return new Pagina<>(resultado, siguiente);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Número de reseñas indexadas
+     */
+    public int contar() {
+        bloqueo.readLock().lock();
+        try {
+            return documentoPorId.size();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Parte un texto en términos normalizados, sin palabras vacías y sin repetir
+     * @param texto Texto a analizar
+     * @return Términos en el orden en que aparecen
+     */
+    public static List<String> analizar(String texto) {
+        return new ArrayList<>(new LinkedHashSet<>(formasDe(texto).values()));
+    }
+
+    /**
+     * @param texto Texto a analizar
+     * @return Cada palabra plegada del texto, sin palabras vacías, con su raíz
+     */
+    private static Map<String, String> formasDe(String texto) {
+        Map<String, String> resultado = new LinkedHashMap<>();
+        for (String palabra : palabras(Normalizacion.plegar(texto))) {
+            if (!PALABRAS_VACIAS.contains(palabra)) {
+                resultado.computeIfAbsent(palabra, IndiceTextoReseñas::raiz);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Reduce una palabra plegada a una raíz aproximada: quita "-mente", el plural y la vocal final
+     * de género ("limpias" -> "limpi", "luces" -> "luz", "habitaciones" -> "habitacion")
+     * @param palabra Palabra en minúsculas y sin tildes
+     * @return Raíz de la palabra
+     */
+    static String raiz(String palabra) {
+        String p = palabra;
+        if (p.length() > 6 && p.endsWith("mente")) {
+            p = p.substring(0, p.length() - 5);
+        }
+        int n = p.length();
+        if (n > 4 && p.endsWith("ces") && esVocal(p.charAt(n - 4))) {
+            p = p.substring(0, n - 3) + "z";
+        } else if (n > 4 && p.endsWith("es") && !esVocal(p.charAt(n - 3))) {
+            p = p.substring(0, n - 2);
+        } else if (n > 3 && p.endsWith("s")) {
+            p = p.substring(0, n - 1);
+        }
+        n = p.length();
+        if (n > 4 && (p.endsWith("a") || p.endsWith("o") || p.endsWith("e"))) {
+            p = p.substring(0, n - 1);
+        }
+        return p;
+    }
+
+    private void considerar(int doc, Postings base, List<Postings> exactos, List<BitSet> prefijos,
+                            Comparator<Entrada> comparador, int limite, PriorityQueue<Entrada> mejores) {
+        if (!vivos.get(doc)) {
+            return;
+        }
+        for (Postings postings : exactos) {
+            if (postings != base && !postings.contiene(doc)) {
+                return;
+            }
+        }
+        for (BitSet prefijo : prefijos) {
+            if (!prefijo.get(doc)) {
+                return;
+            }
+        }
+
+        conservar(documentos.get(doc), comparador, limite, mejores);
+    }
+
+    private static void conservar(Entrada entrada, Comparator<Entrada> comparador, int limite,
+                                  PriorityQueue<Entrada> mejores) {
+        if (mejores.size() < limite) {
+            mejores.add(entrada);
+        } else if (comparador.compare(entrada, mejores.peek()) < 0) {
+            mejores.poll();
+            mejores.add(entrada);
+        }
+    }
+
+    private BitSet coincidenciasModeracion(Termino termino) {
+        BitSet union = new BitSet();
+        if (termino.prefijo()) {
+            union.or(unirPrefijo(termino.texto()));
+            union.or(unirPrefijo(CAMPO_NOMBRES + termino.texto()));
+        } else {
+            agregarDocumentos(union, terminos.get(termino.texto()));
+            agregarDocumentos(union, terminos.get(CAMPO_NOMBRES + termino.texto()));
+        }
+        agregarDocumentos(union, terminos.get(CAMPO_CALIFICACION + termino.texto()));
+        return union;
+    }
+
+    private BitSet unirPrefijo(String prefijo) {
+        BitSet union = new BitSet();
+        // Varias palabras pueden compartir raíz; unir la misma lista dos veces no cambia el resultado
+        for (String raiz : formas.subMap(prefijo, true, prefijo + Character.MAX_VALUE, true).values()) {
+            agregarDocumentos(union, terminos.get(raiz));
+        }
+        return union;
+    }
+
+    private static void agregarDocumentos(BitSet union, Postings postings) {
+        if (postings == null) {
+            return;
+        }
+        for (int i = 0; i < postings.tamaño; i++) {
+            union.set(postings.documentos[i]);
+        }
+    }
+
+    private void indexar(Entrada entrada) {
+        int documento = documentos.size();
+        documentos.add(entrada);
+        documentoPorId.put(entrada.reseña().getId(), documento);
+        vivos.set(documento);
+        for (String termino : entrada.terminos()) {
+            registrar(termino, documento);
+        }
+        for (String nombre : entrada.nombres()) {
+            registrar(CAMPO_NOMBRES + nombre, documento);
+        }
+        registrar(CAMPO_CALIFICACION + entrada.calificacion(), documento);
+        formas.putAll(entrada.formas());
+    }
+
+    private void registrar(String termino, int documento) {
+        Postings postings = terminos.get(termino);
+        if (postings == null) {
+            postings = new Postings();
+            terminos.put(termino, postings);
+        }
+        postings.agregar(documento);
+    }
+
+    private boolean quitar(String id) {
+        Integer documento = documentoPorId.remove(id);
+        if (documento == null) {
+            return false;
+        }
+        // Las listas de postings se limpian en la próxima compactación
+        vivos.clear(documento);
+        documentos.set(documento, null);
+        muertos++;
+        return true;
+    }
+
+    private void compactar() {
+        List<Entrada> activas = new ArrayList<>(documentoPorId.size());
+        for (int doc = vivos.nextSetBit(0); doc >= 0; doc = vivos.nextSetBit(doc + 1)) {
+            activas.add(documentos.get(doc));
+        }
+        documentos.clear();
+        documentoPorId.clear();
+        vivos.clear();
+        terminos.clear();
+        formas.clear();
+        muertos = 0;
+        activas.forEach(this::indexar);
+    }
+
+    private static Comparator<Entrada> comparador(Orden orden) {
+        Comparator<Entrada> recientes = Comparator.comparingLong(Entrada::fecha).reversed()
+                .thenComparing(Entrada::id);
+        if (orden == Orden.CALIFICACION) {
+            return Comparator.comparingInt(Entrada::calificacion).reversed().thenComparing(recientes);
+        }
+        return recientes;
+    }
+
+    private static List<Termino> analizarConsulta(String consulta) {
+        List<Termino> resultado = new ArrayList<>();
+        if (consulta == null) {
+            return resultado;
+        }
+        for (String fragmento : consulta.trim().split("\\s+")) {
+            boolean prefijo = fragmento.length() > 1 && fragmento.charAt(fragmento.length() - 1) == COMODIN;
+            List<String> palabras = palabras(Normalizacion.plegar(fragmento));
+            for (int i = 0; i < palabras.size(); i++) {
+                String palabra = palabras.get(i);
+                // El comodín solo afecta la última palabra del fragmento ("wi-fi*" -> "wi", "fi*")
+                boolean esPrefijo = prefijo && i == palabras.size() - 1;
+                if (esPrefijo || !PALABRAS_VACIAS.contains(palabra)) {
+                    // El prefijo se compara con las palabras sin reducir: su raíz podría no ser prefijo de ninguna
+                    resultado.add(new Termino(esPrefijo ? palabra : raiz(palabra), esPrefijo));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    private static List<String> palabras(String plegado) {
+        List<String> resultado = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= plegado.length(); i++) {
+            boolean letra = i < plegado.length() && Character.isLetterOrDigit(plegado.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                resultado.add(plegado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return resultado;
+    }
+
+    private static boolean esVocal(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+
+    private record Termino(String texto, boolean prefijo) {
+    }
+
+    /**
+     * Documento del índice; los nombres del cliente y del alojamiento se toman al indexar la reseña
+     */
+    private record Entrada(Reseña reseña, String id, List<String> terminos, List<String> nombres,
+                           Map<String, String> formas, long fecha, int calificacion) {
+        static Entrada de(Reseña reseña) {
+            long fecha = reseña.getFecha() != null ? reseña.getFecha().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+            Map<String, String> formas = new HashMap<>(formasDe(reseña.getComentario()));
+            Set<String> nombres = new LinkedHashSet<>();
+            for (String texto : new String[]{reseña.getNombreCliente(), reseña.getNombreAlojamiento()}) {
+                formasDe(texto).forEach((palabra, raiz) -> {
+                    formas.put(CAMPO_NOMBRES + palabra, CAMPO_NOMBRES + raiz);
+                    nombres.add(raiz);
+                });
+            }
+            return new Entrada(reseña, reseña.getId(), analizar(reseña.getComentario()), new ArrayList<>(nombres),
+                    formas, fecha, reseña.getCalificacion());
+        }
+
+        /**
+         * Posición de la última entrada de una página en el orden {@link Orden#RECIENTES}: fecha e ID
+         */
+        String cursor() {
+            return fecha + String.valueOf(SEPARADOR_CURSOR) + id;
+        }
+
+        /**
+         * @return Entrada sin reseña, con la fecha y el ID del cursor, para comparar
+         */
+        static Entrada desdeCursor(String cursor) {
+            int separador = cursor.indexOf(SEPARADOR_CURSOR);
+            try {
+                return new Entrada(null, cursor.substring(separador + 1), List.of(), List.of(), Map.of(),
+                        Long.parseLong(cursor.substring(0, separador)), 0);
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Cursor no válido: " + cursor, e);
+            }
+        }
+    }
+
+    /**
+     * Documentos que contienen un término, en orden creciente porque los documentos solo se agregan al final
+     */
+    private static final class Postings {
+        private int[] documentos = new int[4];
+        private int tamaño;
+
+        void agregar(int documento) {
+            if (tamaño == documentos.length) {
+                documentos = Arrays.copyOf(documentos, tamaño * 2);
+            }
+            documentos[tamaño++] = documento;
+        }
+
+        boolean contiene(int documento) {
+            return Arrays.binarySearch(documentos, 0, tamaño, documento) >= 0;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Habitacion;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoHabitacion;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Inventario diario de habitaciones de un hotel, por tipo de habitación.
+ * Para cada tipo se guarda, por día (epoch-day), cuántas habitaciones quedan libres y un conjunto
+ * de bits con las habitaciones ocupadas (el bit i es la i-ésima habitación del tipo). Los días sin
+ * reservas no se guardan y cuentan con todas las habitaciones libres.
+ * "Cuántas DOBLE quedan para estas noches" es el mínimo de los contadores del rango, y asignar una
+ * habitación es unir los bits del rango y tomar la primera libre. Se cuentan las noches del rango
+ * semiabierto [inicio, fin), igual que {@link CalendarioOcupacion}: el día de salida queda libre.
+ * Las habitaciones fuera de servicio conservan su posición en el inventario, pero no se cuentan como
+ * disponibles ni se asignan; como pueden cambiar de estado en cualquier momento, se revisan al consultar.
+ */
+public class InventarioHabitaciones {
+    private final Map<TipoHabitacion, Inventario> porTipo = new EnumMap<>(TipoHabitacion.class);
+    private final Map<String, Posicion> posicionPorNumero = new HashMap<>();
+    private final Map<String, Asignacion> asignacionPorReserva = new HashMap<>();
+
+    /**
+     * Agrega una habitación al inventario y registra sus reservas activas
+     * @param habitacion Habitación nueva
+     * @throws IllegalArgumentException si ya existe una habitación con el mismo número
+     */
+    public synchronized void agregar(Habitacion habitacion) {
+        if (habitacion == null || habitacion.getNumero() == null || habitacion.getTipo() == null) {
+            throw new IllegalArgumentException("La habitación, su número y su tipo no pueden ser nulos");
+        }
+        if (posicionPorNumero.containsKey(habitacion.getNumero())) {
+            throw new IllegalArgumentException("Ya existe una habitación con ese número");
+        }
+
+        Inventario inventario = porTipo.computeIfAbsent(habitacion.getTipo(), tipo -> new Inventario());
+        int indice = inventario.habitaciones.size();
+        inventario.habitaciones.add(habitacion);
+        posicionPorNumero.put(habitacion.getNumero(), new Posicion(habitacion.getTipo(), indice));
+        // Los días ya registrados tienen una habitación libre más
+        inventario.dias.values().forEach(dia -> dia.libres++);
+
+        if (habitacion.getReservas() != null) {
+            for (Reserva reserva : habitacion.getReservas()) {
+                if (reserva.estaActiva() && reserva.getId() != null) {
+                    ocupar(inventario, indice, reserva);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param numero Número de la habitación
+     * @return La habitación, o null si no existe
+     */
+    public synchronized Habitacion buscar(String numero) {
+        Posicion posicion = numero == null ? null : posicionPorNumero.get(numero);
+        return posicion == null ? null : porTipo.get(posicion.tipo()).habitaciones.get(posicion.indice());
+    }
+
+    /**
+     * @param numero Número de la habitación
+     * @return true si existe una habitación con ese número
+     */
+    public synchronized boolean existe(String numero) {
+        return numero != null && posicionPorNumero.containsKey(numero);
+    }
+
+    /**
+     * @param tipo Tipo de habitación
+     * @return Habitaciones del tipo, en el orden en que se agregaron
+     */
+    public synchronized List<Habitacion> listar(TipoHabitacion tipo) {
+        Inventario inventario = porTipo.get(tipo);
+        return inventario == null ? new ArrayList<>() : new ArrayList<>(inventario.habitaciones);
+    }
+
+    /**
+     * @return Tipos que tienen al menos una habitación
+     */
+    public synchronized List<TipoHabitacion> tipos() {
+        return new ArrayList<>(porTipo.keySet());
+    }
+
+    /**
+     * @return Número total de habitaciones
+     */
+    public synchronized int contar() {
+        return posicionPorNumero.size();
+    }
+
+    /**
+     * Habitaciones del tipo en servicio y libres en cada noche del rango (el mínimo de los contadores diarios)
+     * @param tipo Tipo de habitación
+     * @param fechaInicio Fecha de llegada
+     * @param fechaFin Fecha de salida, que no se ocupa
+     * @return Número de habitaciones disponibles
+     */
+    public synchronized int contarDisponibles(TipoHabitacion tipo, LocalDate fechaInicio, LocalDate fechaFin) {
+        validarRango(fechaInicio, fechaFin);
+        Inventario inventario = porTipo.get(tipo);
+        if (inventario == null) {
+            return 0;
+        }
+
+        long desde = fechaInicio.toEpochDay();
+        long hasta = ultimaNoche(fechaInicio, fechaFin);
+        BitSet fueraDeServicio = inventario.fueraDeServicio();
+        SortedMap<Long, Dia> rango = inventario.dias.subMap(desde, hasta + 1);
+        // Si algún día del rango no tiene reservas, ese día están libres todas las que están en servicio
+        int minimo = rango.size() < hasta - desde + 1
+                ? inventario.habitaciones.size() - fueraDeServicio.cardinality() : Integer.MAX_VALUE;
+        for (Dia dia : rango.values()) {
+            // Las fuera de servicio ocupadas ese día ya están descontadas de los libres
+            BitSet libresFuera = (BitSet) fueraDeServicio.clone();
+            libresFuera.andNot(dia.ocupadas);
+            minimo = Math.min(minimo, dia.libres - libresFuera.cardinality());
+        }
+        return minimo;
+    }
+
+    /**
+     * Habitaciones en servicio, libres durante todo el rango y con capacidad suficiente
+     * @param fechaInicio Fecha de llegada
+     * @param fechaFin Fecha de salida, que no se ocupa
+     * @param personas Número de huéspedes
+     * @return Habitaciones disponibles, agrupadas por tipo
+     */
+    public synchronized List<Habitacion> disponibles(LocalDate fechaInicio, LocalDate fechaFin, int personas) {
+        validarRango(fechaInicio, fechaFin);
+        List<Habitacion> resultado = new ArrayList<>();
+        for (Inventario inventario : porTipo.values()) {
+            BitSet ocupadas = inventario.ocupadas(fechaInicio.toEpochDay(), ultimaNoche(fechaInicio, fechaFin));
+            for (int i = ocupadas.nextClearBit(0); i < inventario.habitaciones.size(); i = ocupadas.nextClearBit(i + 1)) {
+                Habitacion habitacion = inventario.habitaciones.get(i);
+                if (habitacion.isDisponible() && habitacion.getCapacidad() >= personas) {
+                    resultado.add(habitacion);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Asigna a la reserva la primera habitación del tipo libre en todo el rango y descuenta
+     * el inventario de cada día; la consulta y el descuento son atómicos
+     * @param tipo Tipo de habitación
+     * @param reserva Reserva activa con sus fechas
+     * @return Habitación asignada
+     * @throws IllegalStateException si no hay una habitación del tipo libre en todas las fechas
+     */
+    public synchronized Habitacion reservar(TipoHabitacion tipo, Reserva reserva) {
+        if (reserva == null || reserva.getId() == null) {
+            throw new IllegalArgumentException("La reserva y su ID no pueden ser nulos");
+        }
+        validarRango(reserva.getFechaInicio(), reserva.getFechaFin());
+        if (asignacionPorReserva.containsKey(reserva.getId())) {
+            throw new IllegalStateException("La reserva ya tiene una habitación asignada");
+        }
+        Inventario inventario = porTipo.get(tipo);
+        if (inventario == null || contarDisponibles(tipo, reserva.getFechaInicio(), reserva.getFechaFin()) == 0) {
+            throw new IllegalStateException("No hay habitaciones " + tipo + " disponibles para esas fechas");
+        }
+
+        BitSet ocupadas = inventario.ocupadas(reserva.getFechaInicio().toEpochDay(),
+                ultimaNoche(reserva.getFechaInicio(), reserva.getFechaFin()));
+        for (int i = ocupadas.nextClearBit(0); i < inventario.habitaciones.size(); i = ocupadas.nextClearBit(i + 1)) {
+            Habitacion habitacion = inventario.habitaciones.get(i);
+            if (habitacion.isDisponible() && habitacion.estaDisponible(reserva.getFechaInicio(), reserva.getFechaFin())) {
+                habitacion.agregarReserva(reserva);
+                ocupar(inventario, i, reserva);
+                return habitacion;
+            }
+        }
+        // Quedan cupos por día, pero ninguna habitación está libre todas las noches
+        throw new IllegalStateException("No hay una habitación " + tipo + " libre durante toda la estadía");
+    }
+
+    /**
+     * Libera la habitación asignada a una reserva: devuelve las noches al inventario y quita la
+     * reserva del calendario de la habitación
+     * @param reserva Reserva cancelada, completada o eliminada
+     * @return La habitación que estaba asignada, o null si la reserva no tenía una
+     */
+    public synchronized Habitacion liberar(Reserva reserva) {
+        Asignacion asignacion = reserva == null ? null : asignacionPorReserva.remove(reserva.getId());
+        if (asignacion == null) {
+            return null;
+        }
+        Inventario inventario = porTipo.get(asignacion.tipo());
+        for (long dia = asignacion.desde(); dia <= asignacion.hasta(); dia++) {
+            Dia registro = inventario.dias.get(dia);
+            if (registro != null && registro.ocupadas.get(asignacion.indice())) {
+                registro.ocupadas.clear(asignacion.indice());
+                registro.libres++;
+                if (registro.ocupadas.isEmpty()) {
+                    inventario.dias.remove(dia);
+                }
+            }
+        }
+        Habitacion habitacion = inventario.habitaciones.get(asignacion.indice());
+        habitacion.quitarReserva(reserva);
+        return habitacion;
+    }
+
+    /**
+     * Vuelve a asignar a una reserva cargada del almacenamiento la habitación que tenía
+     * ({@link Reserva#getNumeroHabitacion()}) y descuenta sus noches si sigue activa
+     * @param reserva Reserva cargada
+     * @return La habitación, o null si la reserva no tenía una o la habitación ya no existe
+     */
+    public synchronized Habitacion restaurar(Reserva reserva) {
+        Posicion posicion = reserva.getNumeroHabitacion() == null ? null : posicionPorNumero.get(reserva.getNumeroHabitacion());
+        if (posicion == null) {
+            return null;
+        }
+        Inventario inventario = porTipo.get(posicion.tipo());
+        Habitacion habitacion = inventario.habitaciones.get(posicion.indice());
+        habitacion.restaurarReserva(reserva);
+        if (reserva.estaActiva() && reserva.getId() != null) {
+            ocupar(inventario, posicion.indice(), reserva);
+        }
+        return habitacion;
+    }
+
+    private void ocupar(Inventario inventario, int indice, Reserva reserva) {
+        long desde = reserva.getFechaInicio().toEpochDay();
+        long hasta = ultimaNoche(reserva.getFechaInicio(), reserva.getFechaFin());
+        for (long dia = desde; dia <= hasta; dia++) {
+            Dia registro = inventario.dias.computeIfAbsent(dia, d -> new Dia(inventario.habitaciones.size()));
+            if (!registro.ocupadas.get(indice)) {
+                registro.ocupadas.set(indice);
+                registro.libres--;
+            }
+        }
+        Habitacion habitacion = inventario.habitaciones.get(indice);
+        asignacionPorReserva.put(reserva.getId(), new Asignacion(habitacion.getTipo(), indice, desde, hasta));
+    }
+
+    private static long ultimaNoche(LocalDate fechaInicio, LocalDate fechaFin) {
+        return CalendarioOcupacion.salida(fechaInicio, fechaFin).toEpochDay() - 1;
+    }
+
+    private static void validarRango(LocalDate fechaInicio, LocalDate fechaFin) {
+        if (fechaInicio == null || fechaFin == null || fechaFin.isBefore(fechaInicio)) {
+            throw new IllegalArgumentException("El rango de fechas no es válido");
+        }
+    }
+
+    private record Posicion(TipoHabitacion tipo, int indice) {
+    }
+
+    private record Asignacion(TipoHabitacion tipo, int indice, long desde, long hasta) {
+    }
+
+    private static final class Inventario {
+        final List<Habitacion> habitaciones = new ArrayList<>();
+        final TreeMap<Long, Dia> dias = new TreeMap<>();
+
+        BitSet fueraDeServicio() {
+            BitSet fuera = new BitSet();
+            for (int i = 0; i < habitaciones.size(); i++) {
+                if (!habitaciones.get(i).isDisponible()) {
+                    fuera.set(i);
+                }
+            }
+            return fuera;
+        }
+
+        BitSet ocupadas(long desde, long hasta) {
+            BitSet union = new BitSet();
+            for (Dia dia : dias.subMap(desde, hasta + 1).values()) {
+                union.or(dia.ocupadas);
+            }
+            return union;
+        }
+    }
+
+    private static final class Dia {
+        final BitSet ocupadas = new BitSet();
+        int libres;
+
+        Dia(int habitaciones) {
+            this.libres = habitaciones;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utilidades para comparar texto sin distinguir mayúsculas ni tildes.
+ */
+public final class Normalizacion {
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+    private Normalizacion() {
+    }
+
+    /**
+     * Pliega un texto a minúsculas sin tildes ni espacios en los extremos ("Medellín " -> "medellin")
+     * @param texto Texto a normalizar
+     * @return Texto normalizado, o cadena vacía si es nulo
+     */
+    public static String plegar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        if (esAscii(texto)) {
+            // Sin tildes que quitar: se evita la descomposición y la expresión regular
+            return texto.trim().toLowerCase(Locale.ROOT);
+        }
+        String descompuesto = Normalizer.normalize(texto.trim(), Normalizer.Form.NFD);
+        return MARCAS_DIACRITICAS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean esAscii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
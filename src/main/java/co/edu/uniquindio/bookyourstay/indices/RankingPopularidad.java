@@ -0,0 +1,219 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.repositorios.ObservadorReservas;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Ranking de alojamientos por número de reservas, mantenido a partir de los eventos del repositorio.
+ * El conteo histórico se guarda en un conjunto ordenado, así que los K más populares se leen en O(K).
+ * Cada ventana de tiempo consultada (30, 90 o 365 días) guarda su propio conteo ordenado, que se
+ * actualiza con cada evento cuyo día cae dentro de ella y avanza con el calendario: al cambiar de día
+ * se restan las reservas del día que sale y se suman las del que entra, sin recorrer todos los alojamientos.
+ */
+public class RankingPopularidad implements ObservadorReservas {
+    // Ventanas distintas que se mantienen a la vez; la menos usada se descarta y se reconstruye si se vuelve a pedir
+    private static final int MAX_VENTANAS = 8;
+
+    private final Clock reloj;
+    private final Map<String, Registro> registros = new HashMap<>();
+    private final Clasificacion historico = new Clasificacion();
+    // Día de inicio (epoch-day) -> alojamiento -> reservas, para mover las ventanas
+    private final TreeMap<Long, Map<String, Integer>> porDia = new TreeMap<>();
+    private final Map<Integer, Ventana> ventanas = new LinkedHashMap<>(MAX_VENTANAS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Ventana> mayor) {
+            return size() > MAX_VENTANAS;
+        }
+    };
+
+    public RankingPopularidad() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param reloj Reloj que define el día actual de las ventanas
+     */
+    public RankingPopularidad(Clock reloj) {
+        this.reloj = reloj;
+    }
+
+    @Override
+    public void reservaCreada(Reserva reserva) {
+        registrar(reserva);
+    }
+
+    @Override
+    public void reservaActualizada(Reserva reserva) {
+        registrar(reserva);
+    }
+
+    @Override
+    public synchronized void reservaEliminada(Reserva reserva) {
+        Registro anterior = registros.remove(reserva.getId());
+        if (anterior != null) {
+            sumar(anterior, -1);
+        }
+    }
+
+    /**
+     * @param limite Número máximo de alojamientos a retornar
+     * @return IDs de los alojamientos con más reservas, de mayor a menor
+     */
+    public synchronized List<String> masPopulares(int limite) {
+        return historico.primeros(limite);
+    }
+
+    /**
+     * Ranking limitado a las reservas que inician entre hace {@code ultimosDias} días y hoy, ambos incluidos;
+     * las reservas que inician después de hoy no cuentan
+     * @param limite Número máximo de alojamientos a retornar
+     * @param ultimosDias Tamaño de la ventana (por ejemplo 30, 90 o 365)
+     * @return IDs de los alojamientos con más reservas en la ventana, de mayor a menor
+     */
+    public synchronized List<String> masPopulares(int limite, int ultimosDias) {
+        if (limite <= 0) {
+            return new ArrayList<>();
+        }
+
+        long hoy = LocalDate.now(reloj).toEpochDay();
+        Ventana ventana = ventanas.computeIfAbsent(ultimosDias, dias -> new Ventana());
+        ventana.mover(hoy - ultimosDias, hoy);
+        return ventana.clasificacion.primeros(limite);
+    }
+
+    /**
+     * @param alojamientoId ID del alojamiento
+     * @return Número total de reservas del alojamiento
+     */
+    public synchronized long reservasDe(String alojamientoId) {
+        return historico.total(alojamientoId);
+    }
+
+    private synchronized void registrar(Reserva reserva) {
+        if (reserva.getAlojamiento() == null || reserva.getFechaInicio() == null) {
+            return;
+        }
+
+        Registro nuevo = new Registro(reserva.getAlojamiento().getId(), reserva.getFechaInicio().toEpochDay());
+        Registro anterior = registros.put(reserva.getId(), nuevo);
+        if (nuevo.equals(anterior)) {
+            return;
+        }
+        if (anterior != null) {
+            sumar(anterior, -1);
+        }
+        sumar(nuevo, 1);
+    }
+
+    private void sumar(Registro registro, int delta) {
+        historico.ajustar(registro.alojamientoId(), delta);
+        Map<String, Integer> delDia = porDia.computeIfAbsent(registro.dia(), dia -> new HashMap<>());
+        if (delDia.merge(registro.alojamientoId(), delta, Integer::sum) == 0) {
+            delDia.remove(registro.alojamientoId());
+            if (delDia.isEmpty()) {
+                porDia.remove(registro.dia());
+            }
+        }
+        for (Ventana ventana : ventanas.values()) {
+            if (registro.dia() >= ventana.desde && registro.dia() <= ventana.hasta) {
+                ventana.clasificacion.ajustar(registro.alojamientoId(), delta);
+            }
+        }
+    }
+
+    private record Registro(String alojamientoId, long dia) {
+    }
+
+    /**
+     * Conteo de reservas de una ventana [desde, hasta] en días (epoch-day), ambos incluidos
+     */
+    private final class Ventana {
+        final Clasificacion clasificacion = new Clasificacion();
+        // Vacía al crearse: el primer movimiento la construye desde cero
+        long desde = Long.MAX_VALUE;
+        long hasta = Long.MIN_VALUE;
+
+        void mover(long nuevoDesde, long nuevoHasta) {
+            if (nuevoDesde > hasta || nuevoHasta < desde) {
+                // No comparte días con la ventana anterior
+                clasificacion.limpiar();
+                sumarDias(nuevoDesde, nuevoHasta, 1);
+            } else {
+                if (nuevoDesde > desde) {
+                    sumarDias(desde, nuevoDesde - 1, -1);
+                } else if (nuevoDesde < desde) {
+                    sumarDias(nuevoDesde, desde - 1, 1);
+                }
+                if (nuevoHasta > hasta) {
+                    sumarDias(hasta + 1, nuevoHasta, 1);
+                } else if (nuevoHasta < hasta) {
+                    sumarDias(nuevoHasta + 1, hasta, -1);
+                }
+            }
+            desde = nuevoDesde;
+            hasta = nuevoHasta;
+        }
+
+        private void sumarDias(long primero, long ultimo, int signo) {
+            for (Map<String, Integer> delDia : porDia.subMap(primero, true, ultimo, true).values()) {
+                delDia.forEach((alojamientoId, reservas) -> clasificacion.ajustar(alojamientoId, signo * reservas));
+            }
+        }
+    }
+
+    /**
+     * Totales por alojamiento con un conjunto ordenado de mayor a menor, desempatado por ID
+     */
+    private static final class Clasificacion {
+        final Map<String, Conteo> conteos = new HashMap<>();
+        final TreeSet<Conteo> ordenados = new TreeSet<>(
+                Comparator.comparingLong((Conteo c) -> c.total).reversed()
+                        .thenComparing(c -> c.alojamientoId));
+
+        void ajustar(String alojamientoId, long delta) {
+            Conteo conteo = conteos.computeIfAbsent(alojamientoId, Conteo::new);
+            // El orden del conjunto depende del total: se saca antes de modificarlo
+            ordenados.remove(conteo);
+            conteo.total += delta;
+            if (conteo.total > 0) {
+                ordenados.add(conteo);
+            } else {
+                conteos.remove(alojamientoId);
+            }
+        }
+
+        List<String> primeros(int limite) {
+            List<String> resultado = new ArrayList<>(Math.max(0, Math.min(limite, ordenados.size())));
+            for (Conteo conteo : ordenados) {
+                if (resultado.size() >= limite) {
+                    break;
+                }
+                resultado.add(conteo.alojamientoId);
+            }
+            return resultado;
+        }
+
+        long total(String alojamientoId) {
+            Conteo conteo = conteos.get(alojamientoId);
+            return conteo != null ? conteo.total : 0;
+        }
+
+        void limpiar() {
+            conteos.clear();
+            ordenados.clear();
+        }
+    }
+
+    private static final class Conteo {
+        final String alojamientoId;
+        long total;
+
+        Conteo(String alojamientoId) {
+            this.alojamientoId = alojamientoId;
+        }
+    }
+}
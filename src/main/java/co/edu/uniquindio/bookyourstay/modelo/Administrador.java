@@ -5,6 +5,7 @@ import co.edu.uniquindio.bookyourstay.factory.AlojamientoFactoryProvider;
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoOferta;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -99,11 +100,11 @@ public class Administrador extends Usuario {
     // Métodos de ayuda privados
 
     private String generarIdAlojamiento() {
-        return "ALO-" + System.currentTimeMillis();
+        return GeneradorIds.getInstancia().generar("ALO");
     }
 
     private String generarIdOferta() {
-        return "OF-" + System.currentTimeMillis();
+        return GeneradorIds.getInstancia().generar("OF");
     }
 
     private int calcularDiasOcupacion(Reserva reserva, LocalDate inicioPeriodo, LocalDate finPeriodo) {
@@ -116,11 +117,11 @@ public class Administrador extends Usuario {
     }
 
     private double calcularGanancias(Alojamiento alojamiento, LocalDate inicio, LocalDate fin) {
-        return alojamiento.getReservas().stream()
+        return Dinero.aUnidades(alojamiento.getReservas().stream()
                 .filter(r -> r.getEstado() == EstadoReserva.COMPLETADA)
                 .filter(r -> !r.getFechaFin().isBefore(inicio) && !r.getFechaInicio().isAfter(fin))
-                .mapToDouble(Reserva::getTotal)
-                .sum();
+                .mapToLong(Reserva::getTotalCentavos)
+                .sum());
     }
 
     // Clase interna para estadísticas
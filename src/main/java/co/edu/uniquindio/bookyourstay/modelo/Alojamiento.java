@@ -1,94 +1,117 @@
 package co.edu.uniquindio.bookyourstay.modelo;
 
+import co.edu.uniquindio.bookyourstay.indices.CalendarioOcupacion;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
-import javafx.beans.property.*;
-import javafx.collections.FXCollections;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.UUID;
 
 @Getter
 @Setter
 @NoArgsConstructor
 public abstract class Alojamiento {
-    // Propiedades observables
-    private final StringProperty id = new SimpleStringProperty();
-    private final StringProperty nombre = new SimpleStringProperty();
-    private final StringProperty ciudad = new SimpleStringProperty();
-    private final StringProperty descripcion = new SimpleStringProperty();
-    private final ObjectProperty<TipoAlojamiento> tipo = new SimpleObjectProperty<>();
-    private final FloatProperty precioNoche = new SimpleFloatProperty();
-    private final IntegerProperty capacidadMax = new SimpleIntegerProperty();
-    private final ListProperty<String> servicios = new SimpleListProperty<>(FXCollections.observableArrayList());
-    private final ListProperty<Reserva> reservas = new SimpleListProperty<>(FXCollections.observableArrayList());
-    private final ListProperty<Reseña> reseñas = new SimpleListProperty<>(FXCollections.observableArrayList());
-    private final FloatProperty calificacionPromedio = new SimpleFloatProperty();
-    private final BooleanProperty disponible = new SimpleBooleanProperty(true);
-
-    // Nueva propiedad para el propietario (Usuario)
-    private final ObjectProperty<Usuario> propietario = new SimpleObjectProperty<>();
-
-    // Métodos property() para JavaFX
-    public StringProperty idProperty() { return id; }
-    public StringProperty nombreProperty() { return nombre; }
-    public StringProperty ciudadProperty() { return ciudad; }
-    public StringProperty descripcionProperty() { return descripcion; }
-    public ObjectProperty<TipoAlojamiento> tipoProperty() { return tipo; }
-    public FloatProperty precioNocheProperty() { return precioNoche; }
-    public IntegerProperty capacidadMaxProperty() { return capacidadMax; }
-    public ListProperty<String> serviciosProperty() { return servicios; }
-    public ListProperty<Reserva> reservasProperty() { return reservas; }
-    public ListProperty<Reseña> reseñasProperty() { return reseñas; }
-    public FloatProperty calificacionPromedioProperty() { return calificacionPromedio; }
-    public BooleanProperty disponibleProperty() { return disponible; }
-    public ObjectProperty<Usuario> propietarioProperty() { return propietario; }
+    private String id;
+    private String nombre;
+    private String ciudad;
+    private String descripcion;
+    private TipoAlojamiento tipo;
+    // Precio por noche en centavos (ver Dinero)
+    private long precioNocheCentavos;
+    private int capacidadMax;
+    private List<String> servicios = new ArrayList<>();
+    @Setter(AccessLevel.NONE)
+    private List<Reserva> reservas = new ArrayList<>();
+    @Setter(AccessLevel.NONE)
+    private List<Reseña> reseñas = new ArrayList<>();
+    private float calificacionPromedio;
+    // Suma de las calificaciones de las reseñas ya contadas en el promedio
+    @Getter(AccessLevel.NONE)
+    private transient long sumaCalificaciones;
+    @Getter(AccessLevel.NONE)
+    private transient int reseñasSumadas;
+    private boolean disponible = true;
+    private Usuario propietario;
+
+    // Índice de las reservas activas para consultar disponibilidad sin recorrer la lista; es el mismo
+    // calendario que usa ReservaRepositorio, así que cancelar o cambiar fechas allí se ve aquí
+    private final transient CalendarioOcupacion calendario = new CalendarioOcupacion();
 
     // Métodos abstractos
-    public abstract float calcularCostoTotal(int numNoches);
+
+    /**
+     * @param numNoches Número de noches
+     * @return Costo total de la estadía en centavos
+     */
+    public abstract long calcularCostoTotal(int numNoches);
 
     // Métodos concretos
-    protected float calcularCostoBase(int numNoches) {
-        return precioNoche.get() * numNoches;
+
+    /**
+     * @param numNoches Número de noches
+     * @return Precio por noche multiplicado por las noches, en centavos
+     */
+    protected long calcularCostoBase(int numNoches) {
+        return Dinero.multiplicar(precioNocheCentavos, numNoches);
+    }
+
+    /**
+     * @return Precio por noche en unidades, para mostrar o filtrar en la interfaz
+     */
+    public float getPrecioNoche() {
+        return (float) Dinero.aUnidades(precioNocheCentavos);
+    }
+
+    /**
+     * @param precioNoche Precio por noche en unidades
+     */
+    public void setPrecioNoche(float precioNoche) {
+        this.precioNocheCentavos = Dinero.deUnidades(precioNoche);
     }
 
     public boolean estaDisponible(LocalDate fechaInicio, LocalDate fechaFin) {
-        if (!disponible.get()) return false;
+        if (!disponible) return false;
 
-        return reservas.stream()
-                .noneMatch(reserva -> reserva.estaActiva() &&
-                        reserva.haySolapamiento(fechaInicio, fechaFin));
+        return calendario.estaLibre(fechaInicio, fechaFin);
     }
 
     public void agregarReserva(Reserva reserva) {
-        if (!estaDisponible(reserva.getFechaInicio(), reserva.getFechaFin())) {
+        if (!disponible || (reserva.estaActiva() && !calendario.reservarSiDisponible(reserva))) {
             throw new IllegalStateException("El alojamiento no está disponible para las fechas solicitadas");
         }
         reservas.add(reserva);
     }
 
+    /**
+     * Vuelve a enlazar una reserva guardada al cargar el almacenamiento. No verifica la disponibilidad:
+     * ya se validó al crearla, y una reserva guardada no se puede rechazar al reiniciar.
+     * Si el repositorio ya la registró en el calendario, se conserva ese registro
+     * @param reserva Reserva del alojamiento
+     */
+    public void restaurarReserva(Reserva reserva) {
+        if (reserva.estaActiva()) {
+            calendario.reservarSiDisponible(reserva);
+        }
+        reservas.add(reserva);
+    }
+
     public void agregarReseña(Reseña reseña) {
         if (reseña.getCalificacion() < 1 || reseña.getCalificacion() > 5) {
             throw new IllegalArgumentException("La calificación debe estar entre 1 y 5 estrellas");
         }
 
-        reseñas.add(reseña);
-        actualizarCalificacionPromedio();
-    }
-
-    private void actualizarCalificacionPromedio() {
-        if (reseñas.isEmpty()) {
-            calificacionPromedio.set(0);
-            return;
+        if (reseñasSumadas != reseñas.size()) {
+            // Lista cargada o modificada por fuera: se vuelve a sumar una sola vez
+            sumaCalificaciones = reseñas.stream().mapToLong(Reseña::getCalificacion).sum();
         }
-
-        calificacionPromedio.set((float) reseñas.stream()
-                .mapToInt(Reseña::getCalificacion)
-                .average()
-                .orElse(0));
+        reseñas.add(reseña);
+        sumaCalificaciones += reseña.getCalificacion();
+        reseñasSumadas = reseñas.size();
+        calificacionPromedio = (float) sumaCalificaciones / reseñasSumadas;
     }
 
     public boolean tieneServicio(String servicio) {
@@ -101,27 +124,27 @@ public abstract class Alojamiento {
                 .toList();
     }
 
-    protected String generarId() {
-        if (id.get() == null) {
-            id.set("ALO-" + UUID.randomUUID().toString().substring(0, 8));
+    private String generarId() {
+        if (id == null) {
+            id = GeneradorIds.getInstancia().generar("ALO");
         }
-        return id.get();
+        return id;
     }
 
     public void validar() {
-        if (nombre.get() == null || nombre.get().isBlank()) {
+        if (nombre == null || nombre.isBlank()) {
             throw new IllegalArgumentException("El nombre del alojamiento es requerido");
         }
-        if (ciudad.get() == null || ciudad.get().isBlank()) {
+        if (ciudad == null || ciudad.isBlank()) {
             throw new IllegalArgumentException("La ciudad del alojamiento es requerida");
         }
-        if (precioNoche.get() <= 0) {
+        if (precioNocheCentavos <= 0) {
             throw new IllegalArgumentException("El precio por noche debe ser mayor a cero");
         }
-        if (capacidadMax.get() <= 0) {
+        if (capacidadMax <= 0) {
             throw new IllegalArgumentException("La capacidad máxima debe ser mayor a cero");
         }
-        if (propietario.get() == null) {
+        if (propietario == null) {
             throw new IllegalArgumentException("El alojamiento debe tener un propietario asignado");
         }
     }
@@ -129,75 +152,29 @@ public abstract class Alojamiento {
     @Override
     public String toString() {
         return String.format("%s - %s (%s) $%,.2f/noche",
-                nombre.get(), ciudad.get(), getClass().getSimpleName(), precioNoche.get());
+                nombre, ciudad, getClass().getSimpleName(), getPrecioNoche());
     }
 
     // Constructores
     public Alojamiento(String nombre, String ciudad, Usuario propietario, String descripcion,
                        TipoAlojamiento tipo, float precioNoche, int capacidadMax) {
         this();
-        this.nombre.set(nombre);
-        this.ciudad.set(ciudad);
-        this.propietario.set(propietario);
-        this.descripcion.set(descripcion);
-        this.tipo.set(tipo);
-        this.precioNoche.set(precioNoche);
-        this.capacidadMax.set(capacidadMax);
+        this.nombre = nombre;
+        this.ciudad = ciudad;
+        this.propietario = propietario;
+        this.descripcion = descripcion;
+        this.tipo = tipo;
+        // Se asignan los campos directamente: el constructor no llama métodos que una subclase pueda sobrescribir
+        this.precioNocheCentavos = Dinero.deUnidades(precioNoche);
+        this.capacidadMax = capacidadMax;
         generarId();
     }
 
-    // Métodos adicionales para el propietario
-    public Usuario getPropietario() {
-        return propietario.get();
-    }
-
-    public void setPropietario(Usuario propietario) {
-        this.propietario.set(propietario);
-    }
-
     public boolean esPropietario(Usuario usuario) {
-        return propietario.get() != null && propietario.get().equals(usuario);
-    }
-    public void setServicios(List<String> nuevosServicios) {
-        servicios.set(FXCollections.observableArrayList(nuevosServicios));
-    }
-    public String getId() {
-        return id.get();
-    }
-    public void setTipo(TipoAlojamiento tipo) {
-        this.tipo.set(tipo); // Usando la propiedad JavaFX
-    }
-    public String getNombre() {
-        return nombre.get(); // Devuelve el String, no el StringProperty
-    }
-
-    public String getCiudad() {
-        return ciudad.get();
-    }
-
-    public String getDescripcion() {
-        return descripcion.get();
-    }
-    public void setNombre(String nombre) {
-        this.nombre.set(nombre);
-    }
-
-    public void setCiudad(String ciudad) {
-        this.ciudad.set(ciudad);
-    }
-    public void setId(String id) {
-        this.id.set(id);
-    }
-
-    public void setDescripcion(String descripcion) {
-        this.descripcion.set(descripcion);
+        return propietario != null && propietario.equals(usuario);
     }
 
-    public void setPrecioNoche(float precioNoche) {
-        this.precioNoche.set(precioNoche);
-    }
-
-    public void setCapacidadMax(int capacidadMax) {
-        this.capacidadMax.set(capacidadMax);
+    public void setServicios(List<String> nuevosServicios) {
+        servicios = new ArrayList<>(nuevosServicios);
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,6 @@
 package co.edu.uniquindio.bookyourstay.modelo;
 
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
-import co.edu.uniquindio.bookyourstay.singleton.UsuarioActual;
 import lombok.Getter;
 import lombok.Setter;
 import java.util.List;
@@ -9,8 +8,8 @@ import java.util.List;
 @Getter
 @Setter
 public class Apartamento extends Alojamiento {
-    private static final float COSTO_MANTENIMIENTO = 30000; // Costo adicional por mantenimiento
-    private static final float DEPOSITO_SEGURIDAD = 100000; // Depósito reembolsable
+    private static final long COSTO_MANTENIMIENTO = Dinero.deUnidades(30000); // Costo adicional por mantenimiento
+    private static final long DEPOSITO_SEGURIDAD = Dinero.deUnidades(100000); // Depósito reembolsable
     private int numeroHabitaciones;
     private int numeroBanos;
     private boolean tieneBalcon;
@@ -19,7 +18,7 @@ public class Apartamento extends Alojamiento {
     private String normasConvivencia;
 
     @Override
-    public float calcularCostoTotal(int numNoches) {
+    public long calcularCostoTotal(int numNoches) {
         if (numNoches <= 0) {
             throw new IllegalArgumentException("El número de noches debe ser positivo");
         }
@@ -28,17 +27,17 @@ public class Apartamento extends Alojamiento {
 
     /**
      * Calcula el costo de limpieza adicional basado en el área del apartamento
-     * @return Costo de limpieza
+     * @return Costo de limpieza en centavos
      */
-    public float calcularCostoLimpieza() {
-        return area * 500; // $500 por m²
+    public long calcularCostoLimpieza() {
+        return Dinero.deUnidades(area * 500.0); // $500 por m²
     }
     public Apartamento(String nombre, String ciudad, String descripcion,
                        int capacidadMax, float precioNoche) {
         super(
                 nombre,
                 ciudad,
-                UsuarioActual.getInstancia().getUsuario(), // Propietario
+                null, // El propietario lo asigna quien crea el alojamiento
                 descripcion,
                 TipoAlojamiento.APARTAMENTO, // Tipo específico
                 precioNoche,
@@ -88,8 +87,8 @@ public class Apartamento extends Alojamiento {
                 tieneBalcon ? "Sí" : "No",
                 permiteMascotas ? "Permitidas" : "No permitidas",
                 getPrecioNoche(),
-                COSTO_MANTENIMIENTO,
-                DEPOSITO_SEGURIDAD,
+                Dinero.aUnidades(COSTO_MANTENIMIENTO),
+                Dinero.aUnidades(DEPOSITO_SEGURIDAD),
                 normasConvivencia,
                 String.join(", ", getServicios()),
                 getCalificacionPromedio()
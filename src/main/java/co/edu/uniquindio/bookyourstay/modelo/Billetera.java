@@ -1,29 +1,62 @@
 package co.edu.uniquindio.bookyourstay.modelo;
 
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoTransaccion;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * Billetera de un cliente. El saldo se guarda en centavos dentro de un {@link AtomicLong} y se
+ * actualiza con operaciones CAS, así que recargas y pagos concurrentes no necesitan candados.
+ * Las transferencias bloquean las dos billeteras siempre en el mismo orden (por número de cuenta)
+ * y el historial es de solo agregar.
+ */
 @Getter
 @Setter
 public class Billetera {
-    private float saldo;
+    @Setter(AccessLevel.NONE)
+    private AtomicLong saldoCentavos;
     private String numeroCuenta;
-    private List<Transaccion> historialTransacciones;
-    private boolean activa;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ConcurrentLinkedQueue<Transaccion> historialTransacciones;
+    private volatile boolean activa;
+    // Aumenta con cada movimiento: permite saber si una copia del saldo y el historial sigue vigente
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final transient AtomicLong version = new AtomicLong();
 
     public Billetera() {
-        this.saldo = 0;
+        this.saldoCentavos = new AtomicLong();
         this.numeroCuenta = generarNumeroCuenta();
-        this.historialTransacciones = new ArrayList<>();
+        this.historialTransacciones = new ConcurrentLinkedQueue<>();
         this.activa = true;
     }
 
+    /**
+     * Reconstruye una billetera guardada, sin registrar movimientos nuevos
+     * @param numeroCuenta Número de cuenta
+     * @param saldoCentavos Saldo en centavos
+     * @param activa Si la billetera está activa
+     * @param historial Movimientos en el orden en que ocurrieron
+     * @return Billetera con ese estado
+     */
+    public static Billetera restaurar(String numeroCuenta, long saldoCentavos, boolean activa, List<Transaccion> historial) {
+        Billetera billetera = new Billetera();
+        billetera.numeroCuenta = numeroCuenta;
+        billetera.saldoCentavos.set(saldoCentavos);
+        billetera.activa = activa;
+        billetera.historialTransacciones.addAll(historial);
+        return billetera;
+    }
+
     /**
      * Recarga saldo en la billetera
      * @param monto Cantidad a recargar (debe ser positivo)
@@ -31,13 +64,21 @@ public class Billetera {
      * @throws IllegalArgumentException Si el monto no es válido o la billetera está inactiva
      */
     public void recargarSaldo(float monto, String metodoPago) {
+        recargarCentavos(Dinero.deUnidades(monto), metodoPago);
+    }
+
+    /**
+     * Recarga saldo en la billetera
+     * @param centavos Cantidad a recargar en centavos (debe ser positiva)
+     * @param metodoPago Método de pago utilizado
+     * @throws IllegalArgumentException Si el monto no es válido o la billetera está inactiva
+     */
+    public void recargarCentavos(long centavos, String metodoPago) {
         validarBilleteraActiva();
-        if (monto <= 0) {
-            throw new IllegalArgumentException("El monto debe ser mayor a cero");
-        }
+        validarMonto(centavos);
 
-        this.saldo += monto;
-        registrarTransaccion("RECARGA", monto, "Recarga mediante " + metodoPago);
+        saldoCentavos.addAndGet(centavos);
+        registrarTransaccion("RECARGA", centavos, "Recarga mediante " + metodoPago);
     }
 
     /**
@@ -48,14 +89,22 @@ public class Billetera {
      * @throws IllegalArgumentException Si el monto no es válido
      */
     public boolean descontarSaldo(float monto, String concepto) {
+        return descontarCentavos(Dinero.deUnidades(monto), concepto);
+    }
+
+    /**
+     * Descuenta saldo de la billetera
+     * @param centavos Cantidad a descontar en centavos (debe ser positiva)
+     * @param concepto Descripción de la transacción
+     * @return true si el descuento fue exitoso, false si no hay saldo suficiente
+     * @throws IllegalArgumentException Si el monto no es válido
+     */
+    public boolean descontarCentavos(long centavos, String concepto) {
         validarBilleteraActiva();
-        if (monto <= 0) {
-            throw new IllegalArgumentException("El monto debe ser mayor a cero");
-        }
+        validarMonto(centavos);
 
-        if (saldo >= monto) {
-            this.saldo -= monto;
-            registrarTransaccion("PAGO", -monto, concepto);
+        if (retirar(centavos)) {
+            registrarTransaccion("PAGO", -centavos, concepto);
             return true;
         }
         return false;
@@ -76,19 +125,24 @@ public class Billetera {
         if (destino.equals(this)) {
             throw new IllegalArgumentException("No puede transferir a la misma billetera");
         }
-        if (monto <= 0) {
-            throw new IllegalArgumentException("El monto debe ser mayor a cero");
-        }
-        if (saldo < monto) {
-            throw new IllegalStateException("Saldo insuficiente para la transferencia");
-        }
-
-        this.saldo -= monto;
-        destino.saldo += monto;
+        long centavos = Dinero.deUnidades(monto);
+        validarMonto(centavos);
 
+        // Orden global de bloqueo para que dos transferencias cruzadas no se bloqueen mutuamente
+        boolean estaPrimero = numeroCuenta.compareTo(destino.numeroCuenta) < 0;
+        Billetera primera = estaPrimero ? this : destino;
+        Billetera segunda = estaPrimero ? destino : this;
         String referencia = generarReferencia();
-        registrarTransaccion("TRANSFERENCIA_ENVIADA", -monto, concepto + " | Ref: " + referencia);
-        destino.registrarTransaccion("TRANSFERENCIA_RECIBIDA", monto, concepto + " | Ref: " + referencia);
+        synchronized (primera) {
+            synchronized (segunda) {
+                if (!retirar(centavos)) {
+                    throw new IllegalStateException("Saldo insuficiente para la transferencia");
+                }
+                destino.saldoCentavos.addAndGet(centavos);
+                registrarTransaccion("TRANSFERENCIA_ENVIADA", -centavos, concepto + " | Ref: " + referencia);
+                destino.registrarTransaccion("TRANSFERENCIA_RECIBIDA", centavos, concepto + " | Ref: " + referencia);
+            }
+        }
     }
 
     /**
@@ -107,7 +161,29 @@ public class Billetera {
      * @return Saldo actual
      */
     public float consultarSaldo() {
-        return saldo;
+        return getSaldo();
+    }
+
+    /**
+     * @return Saldo actual en unidades monetarias
+     */
+    public float getSaldo() {
+        return (float) Dinero.aUnidades(saldoCentavos.get());
+    }
+
+    /**
+     * @param centavos Monto a cubrir en centavos
+     * @return true si el saldo alcanza para cubrirlo
+     */
+    public boolean tieneSaldoCentavos(long centavos) {
+        return saldoCentavos.get() >= centavos;
+    }
+
+    /**
+     * @return Saldo actual en centavos
+     */
+    public long getSaldoCentavos() {
+        return saldoCentavos.get();
     }
 
     /**
@@ -118,6 +194,13 @@ public class Billetera {
         return new ArrayList<>(historialTransacciones);
     }
 
+    /**
+     * @return Número que cambia cada vez que se registra un movimiento
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
     /**
      * Activa/desactiva la billetera
      * @param activa Estado deseado
@@ -129,11 +212,11 @@ public class Billetera {
 
     // Métodos privados de ayuda
 
-    private void registrarTransaccion(String tipo, float monto, String descripcion) {
+    private void registrarTransaccion(String tipo, long montoCentavos, String descripcion) {
         Transaccion transaccion = Transaccion.builder()
-                .id(UUID.randomUUID().toString())
+                .id(GeneradorIds.getInstancia().generar("TXN"))
                 .tipo(tipo)
-                .monto(monto)
+                .montoCentavos(montoCentavos)
                 .descripcion(descripcion)
                 .fecha(LocalDateTime.now())
                 .cuentaRelacionada(this.numeroCuenta)
@@ -141,6 +224,25 @@ public class Billetera {
                 .build();
 
         historialTransacciones.add(transaccion);
+        version.incrementAndGet();
+    }
+
+    // Descuenta con CAS; falla sin modificar el saldo si no alcanza
+    private boolean retirar(long centavos) {
+        long actual;
+        do {
+            actual = saldoCentavos.get();
+            if (actual < centavos) {
+                return false;
+            }
+        } while (!saldoCentavos.compareAndSet(actual, actual - centavos));
+        return true;
+    }
+
+    private static void validarMonto(long centavos) {
+        if (centavos <= 0) {
+            throw new IllegalArgumentException("El monto debe ser mayor a cero");
+        }
     }
 
     private void validarBilleteraActiva() {
@@ -150,18 +252,18 @@ public class Billetera {
     }
 
     private String generarNumeroCuenta() {
-        return "BWT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return GeneradorIds.getInstancia().generar("BWT");
     }
 
     private String generarReferencia() {
-        return "REF-" + System.currentTimeMillis();
+        return GeneradorIds.getInstancia().generar("REF");
     }
 
     @Override
     public String toString() {
-        return String.format("Billetera [Cuenta: %s, Saldo: $%,.2f, Estado: %s]",
+        return String.format("Billetera [Cuenta: %s, Saldo: %s, Estado: %s]",
                 numeroCuenta,
-                saldo,
+                Dinero.formatear(saldoCentavos.get()),
                 activa ? "Activa" : "Inactiva");
     }
 }
\ No newline at end of file
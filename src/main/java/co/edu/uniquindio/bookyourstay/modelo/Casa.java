@@ -1,7 +1,6 @@
 package co.edu.uniquindio.bookyourstay.modelo;
 
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
-import co.edu.uniquindio.bookyourstay.singleton.UsuarioActual;
 import lombok.Getter;
 import lombok.Setter;
 import java.util.List;
@@ -9,8 +8,8 @@ import java.util.List;
 @Getter
 @Setter
 public class Casa extends Alojamiento {
-    private static final float COSTO_ASEO = 50000; // Costo adicional por aseo
-    private static final float DEPOSITO_SEGURIDAD = 150000; // Depósito reembolsable
+    private static final long COSTO_ASEO = Dinero.deUnidades(50000); // Costo adicional por aseo
+    private static final long DEPOSITO_SEGURIDAD = Dinero.deUnidades(150000); // Depósito reembolsable
 
     // Atributos específicos de casas
     private int numeroHabitaciones;
@@ -24,10 +23,10 @@ public class Casa extends Alojamiento {
     private String normasExternas;
 
     @Override
-    public float calcularCostoTotal(int numNoches) {
+    public long calcularCostoTotal(int numNoches) {
         validarNumeroNoches(numNoches);
-        float costoBase = getPrecioNoche().get() * numNoches;
-        float costoServicios = calcularCostoServiciosAdicionales();
+        long costoBase = calcularCostoBase(numNoches);
+        long costoServicios = calcularCostoServiciosAdicionales();
         return costoBase + COSTO_ASEO + costoServicios + DEPOSITO_SEGURIDAD;
     }
     public Casa(String nombre, String ciudad, String descripcion,
@@ -35,7 +34,7 @@ public class Casa extends Alojamiento {
         super(
                 nombre,
                 ciudad,
-                UsuarioActual.getInstancia().getUsuario(), // Propietario (requerido)
+                null, // El propietario lo asigna quien crea el alojamiento
                 descripcion,
                 TipoAlojamiento.CASA, // Tipo fijo para casas
                 precioNoche,
@@ -50,13 +49,13 @@ public class Casa extends Alojamiento {
     /**
      * Calcula costos adicionales por servicios especiales
      */
-    private float calcularCostoServiciosAdicionales() {
-        float adicional = 0;
+    private long calcularCostoServiciosAdicionales() {
+        long adicional = 0;
         if (tienePiscina) {
-            adicional += 30000; // Mantenimiento de piscina
+            adicional += Dinero.deUnidades(30000); // Mantenimiento de piscina
         }
         if (permiteEventos) {
-            adicional += 70000; // Seguro para eventos
+            adicional += Dinero.deUnidades(70000); // Seguro para eventos
         }
         return adicional;
     }
@@ -93,8 +92,8 @@ public class Casa extends Alojamiento {
                 permiteEventos ? "Sí" : "No",
                 capacidadParqueadero,
                 getPrecioNoche(),
-                COSTO_ASEO,
-                DEPOSITO_SEGURIDAD,
+                Dinero.aUnidades(COSTO_ASEO),
+                Dinero.aUnidades(DEPOSITO_SEGURIDAD),
                 normasExternas,
                 String.join(", ", getServicios()),
                 getCalificacionPromedio()
@@ -107,7 +106,7 @@ public class Casa extends Alojamiento {
     public boolean cumpleRequisitos(boolean requierePiscina, boolean requiereEventos, int huespedes) {
         if (requierePiscina && !tienePiscina) return false;
         if (requiereEventos && !permiteEventos) return false;
-        return huespedes <= getCapacidadMax().get();
+        return huespedes <= getCapacidadMax();
     }
 
     @Override
@@ -2,6 +2,7 @@ package co.edu.uniquindio.bookyourstay.modelo;
 
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCuenta;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -9,7 +10,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Getter
@@ -39,13 +39,22 @@ public class Cliente extends Usuario {
         billetera.recargarSaldo(monto, metodoPago);
     }
 
+    public void recargarBilleteraCentavos(long centavos, String metodoPago) throws Exception {
+        validarCuentaActiva();
+        billetera.recargarCentavos(centavos, metodoPago);
+    }
+
     public boolean tieneSaldoSuficiente(float monto) {
-        return billetera.getSaldo() >= monto;
+        return billetera.tieneSaldoCentavos(Dinero.deUnidades(monto));
+    }
+
+    public boolean tieneSaldoSuficienteCentavos(long centavos) {
+        return billetera.tieneSaldoCentavos(centavos);
     }
 
-    public boolean pagarReserva(float monto, String concepto)throws Exception {
+    public boolean pagarReserva(long centavos, String concepto)throws Exception {
         validarCuentaActiva();
-        return billetera.descontarSaldo(monto, concepto);
+        return billetera.descontarCentavos(centavos, concepto);
     }
 
     public float consultarSaldo() {
@@ -69,26 +78,26 @@ public class Cliente extends Usuario {
             throw new Exception("El alojamiento no está disponible para las fechas seleccionadas");
         }
 
-        if (numHuespedes > alojamiento.getCapacidadMax().get()) {
+        if (numHuespedes > alojamiento.getCapacidadMax()) {
             throw new Exception("Número de huéspedes excede la capacidad del alojamiento");
         }
 
-        float costoTotal = alojamiento.calcularCostoTotal(
+        long costoTotal = alojamiento.calcularCostoTotal(
                 (int) fechaInicio.until(fechaFin).getDays()
         );
 
-        if (!tieneSaldoSuficiente(costoTotal)) {
+        if (!tieneSaldoSuficienteCentavos(costoTotal)) {
             throw new Exception("Saldo insuficiente en la billetera");
         }
 
         Reserva reserva = Reserva.builder()
-                .conId(UUID.randomUUID().toString())  // Usar conId en lugar de id
+                .conId(GeneradorIds.getInstancia().generar("RES"))
                 .conAlojamiento(alojamiento)
                 .conFechaInicio(fechaInicio)
                 .conFechaFin(fechaFin)
                 .conNumHuespedes(numHuespedes)
                 .conEstado(EstadoReserva.CONFIRMADA)
-                .conTotal(costoTotal)
+                .conTotalCentavos(costoTotal)
                 .build();
         if (pagarReserva(costoTotal, "Reserva " + reserva.getId())) {
             agregarReserva(reserva);
@@ -120,7 +129,7 @@ public class Cliente extends Usuario {
         }
 
         reserva.setEstado(EstadoReserva.CANCELADA);
-        billetera.recargarSaldo(reserva.getTotal() * 0.8f, "Reembolso cancelación");
+        billetera.recargarCentavos(Dinero.porcentaje(reserva.getTotalCentavos(), Factura.REEMBOLSO_PUNTOS_BASICOS), "Reembolso cancelación");
         return true;
     }
 
@@ -162,7 +171,7 @@ public class Cliente extends Usuario {
         }
 
         Reseña reseña = Reseña.builder()
-                .id(UUID.randomUUID().toString())
+                .id(GeneradorIds.getInstancia().generar("RESE"))
                 .cliente(this)
                 .alojamiento(alojamiento)
                 .reserva(reserva)
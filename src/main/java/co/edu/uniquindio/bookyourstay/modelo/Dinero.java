@@ -0,0 +1,90 @@
+package co.edu.uniquindio.bookyourstay.modelo;
+
+import java.math.BigDecimal;
+
+/**
+ * Operaciones sobre montos de dinero en punto fijo.
+ * Un monto es un {@code long} en centavos (escala {@value #ESCALA}), así que sumar, multiplicar
+ * y acumular no pierde precisión ni crea objetos. Los porcentajes se expresan en puntos básicos
+ * (1% = 100) y se redondean al centavo más cercano, alejándose de cero en los empates.
+ * La conversión a unidades ({@code float}/{@code double}) queda solo para la interfaz.
+ */
+public final class Dinero {
+    public static final int ESCALA = 100;
+    public static final int PUNTOS_BASICOS_POR_UNIDAD = 10_000;
+
+    private Dinero() {
+    }
+
+    /**
+     * @param unidades Monto en unidades (por ejemplo, pesos)
+     * @return Monto en centavos, redondeado al más cercano
+     */
+    public static long deUnidades(double unidades) {
+        return Math.round(unidades * ESCALA);
+    }
+
+    /**
+     * @param centavos Monto en centavos
+     * @return Monto en unidades, para mostrar
+     */
+    public static double aUnidades(long centavos) {
+        return (double) centavos / ESCALA;
+    }
+
+    /**
+     * @param porcentaje Porcentaje (por ejemplo 19.5)
+     * @return Porcentaje en puntos básicos (1950)
+     */
+    public static int puntosBasicos(double porcentaje) {
+        return (int) Math.round(porcentaje * 100);
+    }
+
+    /**
+     * @return centavos * cantidad
+     * @throws ArithmeticException si el resultado no cabe en un long
+     */
+    public static long multiplicar(long centavos, long cantidad) {
+        return Math.multiplyExact(centavos, cantidad);
+    }
+
+    /**
+     * @return a + b
+     * @throws ArithmeticException si el resultado no cabe en un long
+     */
+    public static long sumar(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Porción de un monto, por ejemplo el IVA o un descuento porcentual
+     * @param centavos Monto base
+     * @param puntosBasicos Porcentaje en puntos básicos
+     * @return Porción redondeada al centavo
+     */
+    public static long porcentaje(long centavos, int puntosBasicos) {
+        long producto = Math.multiplyExact(centavos, (long) puntosBasicos);
+        long mitad = PUNTOS_BASICOS_POR_UNIDAD / 2;
+        return producto >= 0
+                ? (producto + mitad) / PUNTOS_BASICOS_POR_UNIDAD
+                : -((-producto + mitad) / PUNTOS_BASICOS_POR_UNIDAD);
+    }
+
+    /**
+     * Resta un descuento sin dejar el monto en negativo
+     * @param centavos Monto original
+     * @param descuento Descuento en centavos
+     * @return Monto con el descuento, mínimo cero
+     */
+    public static long descontar(long centavos, long descuento) {
+        return Math.max(0, centavos - descuento);
+    }
+
+    /**
+     * @param centavos Monto en centavos
+     * @return Monto con formato {@code $1,234.56}, sin pasar por punto flotante
+     */
+    public static String formatear(long centavos) {
+        return String.format("$%,.2f", BigDecimal.valueOf(centavos, 2));
+    }
+}
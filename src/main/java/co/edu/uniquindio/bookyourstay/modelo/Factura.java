@@ -1,12 +1,12 @@
 package co.edu.uniquindio.bookyourstay.modelo;
 
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCuenta;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
 import lombok.*;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 @Getter
 @Setter
@@ -14,14 +14,21 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 public class Factura {
+    // Porcentajes en puntos básicos (ver Dinero)
+    public static final int IVA_PUNTOS_BASICOS = 1_900; // IVA colombiano (19%)
+    public static final int REEMBOLSO_PUNTOS_BASICOS = 8_000; // Se reembolsa el 80% al cancelar
+    private static final int DESCUENTO_TEMPORADA_BAJA = 1_000; // 10%
+    private static final int DESCUENTO_PREMIUM = 500; // 5% adicional
+
     private String id;
     private LocalDateTime fecha;
     private Reserva reserva;
     private Cliente cliente;
-    private float subtotal;
-    private float descuentos;
-    private float impuestos;
-    private float total;
+    // Montos en centavos (ver Dinero)
+    private long subtotalCentavos;
+    private long descuentosCentavos;
+    private long impuestosCentavos;
+    private long totalCentavos;
     private String metodoPago;
     private String estado; // PAGADA, PENDIENTE, CANCELADA
     private String codigoQR;
@@ -30,19 +37,26 @@ public class Factura {
      * Genera una factura completa a partir de una reserva
      */
     public static Factura generarFactura(Reserva reserva, String metodoPago) {
-        float subtotal = reserva.getAlojamiento().calcularCostoBase(reserva.getNumeroNoches());
-        float descuentos = calcularDescuentos(reserva);
-        float impuestos = calcularImpuestos(subtotal - descuentos);
+        return generarFactura(reserva, metodoPago, LocalDateTime.now());
+    }
+
+    /**
+     * Genera una factura con una fecha de emisión dada (por ejemplo, el cierre del mes en la facturación por lotes)
+     */
+    public static Factura generarFactura(Reserva reserva, String metodoPago, LocalDateTime fecha) {
+        long subtotal = reserva.getAlojamiento().calcularCostoBase(reserva.getNumeroNoches());
+        long descuentos = calcularDescuentos(reserva, subtotal);
+        long impuestos = calcularImpuestos(subtotal - descuentos);
 
         Factura factura = Factura.builder()
-                .id("FAC-" + UUID.randomUUID().toString().substring(0, 8))
-                .fecha(LocalDateTime.now())
+                .id(GeneradorIds.getInstancia().generar("FAC"))
+                .fecha(fecha)
                 .reserva(reserva)
                 .cliente(reserva.getCliente())
-                .subtotal(subtotal)
-                .descuentos(descuentos)
-                .impuestos(impuestos)
-                .total(subtotal - descuentos + impuestos)
+                .subtotalCentavos(subtotal)
+                .descuentosCentavos(descuentos)
+                .impuestosCentavos(impuestos)
+                .totalCentavos(subtotal - descuentos + impuestos)
                 .metodoPago(metodoPago)
                 .estado("PAGADA")
                 .build();
@@ -54,17 +68,17 @@ public class Factura {
     /**
      * Calcula descuentos aplicables a la reserva
      */
-    private static float calcularDescuentos(Reserva reserva) {
-        float descuento = 0;
+    private static long calcularDescuentos(Reserva reserva, long subtotal) {
+        long descuento = 0;
 
         // Descuento por temporada baja (ejemplo)
         if (esTemporadaBaja(reserva.getFechaInicio())) {
-            descuento += reserva.getSubtotal() * 0.1f; // 10% de descuento
+            descuento += Dinero.porcentaje(subtotal, DESCUENTO_TEMPORADA_BAJA);
         }
 
         // Descuento por cliente premium (ejemplo)
         if (reserva.getCliente().getTipoCuenta() == TipoCuenta.PREMIUM) {
-            descuento += reserva.getSubtotal() * 0.05f; // 5% adicional
+            descuento += Dinero.porcentaje(subtotal, DESCUENTO_PREMIUM);
         }
 
         return descuento;
@@ -73,9 +87,8 @@ public class Factura {
     /**
      * Calcula impuestos aplicables
      */
-    private static float calcularImpuestos(float baseImponible) {
-        // IVA colombiano (19%)
-        return baseImponible * 0.19f;
+    private static long calcularImpuestos(long baseImponible) {
+        return Dinero.porcentaje(baseImponible, IVA_PUNTOS_BASICOS);
     }
 
     /**
@@ -83,7 +96,7 @@ public class Factura {
      */
     private void generarCodigoQR() {
         // En una implementación real se generaría un código QR real
-        this.codigoQR = "QR_" + this.id + "_" + this.total;
+        this.codigoQR = "QR_" + this.id + "_" + this.totalCentavos;
     }
 
     /**
@@ -105,10 +118,10 @@ public class Factura {
                         "Cliente: %s (%s)\n" +
                         "Alojamiento: %s\n" +
                         "Periodo: %s a %s (%d noches)\n\n" +
-                        "Subtotal: $%,.2f\n" +
-                        "Descuentos: -$%,.2f\n" +
-                        "Impuestos (19%%): $%,.2f\n" +
-                        "TOTAL: $%,.2f\n\n" +
+                        "Subtotal: %s\n" +
+                        "Descuentos: -%s\n" +
+                        "Impuestos (19%%): %s\n" +
+                        "TOTAL: %s\n\n" +
                         "Método de pago: %s\n" +
                         "Estado: %s\n" +
                         "Código QR: %s",
@@ -120,10 +133,10 @@ public class Factura {
                 reserva.getFechaInicio(),
                 reserva.getFechaFin(),
                 reserva.getNumeroNoches(),
-                subtotal,
-                descuentos,
-                impuestos,
-                total,
+                Dinero.formatear(subtotalCentavos),
+                Dinero.formatear(descuentosCentavos),
+                Dinero.formatear(impuestosCentavos),
+                Dinero.formatear(totalCentavos),
                 metodoPago,
                 estado,
                 codigoQR
@@ -141,13 +154,13 @@ public class Factura {
         this.estado = "CANCELADA";
 
         if ("PAGADA".equals(estado)) {
-            float reembolso = total * 0.8f;
-            cliente.recargarBilletera(reembolso, "Reembolso factura " + id);
+            long reembolso = Dinero.porcentaje(totalCentavos, REEMBOLSO_PUNTOS_BASICOS);
+            cliente.recargarBilleteraCentavos(reembolso, "Reembolso factura " + id);
         }
     }
 
     @Override
     public String toString() {
-        return String.format("Factura #%s - %s - $%,.2f", id, estado, total);
+        return String.format("Factura #%s - %s - %s", id, estado, Dinero.formatear(totalCentavos));
     }
 }
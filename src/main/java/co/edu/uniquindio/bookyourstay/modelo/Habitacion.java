@@ -1,20 +1,21 @@
 package co.edu.uniquindio.bookyourstay.modelo;
 
+import co.edu.uniquindio.bookyourstay.indices.CalendarioOcupacion;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoHabitacion;
 import lombok.*;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Getter
 @Setter
-@AllArgsConstructor
-@Builder
 public class Habitacion {
     private String numero;
-    private float precio;
+    // Precio por noche en centavos (ver Dinero)
+    private long precioCentavos;
     private int capacidad;
     private String descripcion;
     private String imagenUrl;
@@ -23,41 +24,109 @@ public class Habitacion {
     private boolean disponible;
     private List<Reserva> reservas;
 
+    // Índice de las reservas activas para consultar disponibilidad sin recorrer la lista
+    @Getter(AccessLevel.NONE)
+    private final transient CalendarioOcupacion calendario = new CalendarioOcupacion();
+
     public Habitacion() {
         this.servicios = new ArrayList<>();
         this.reservas = new ArrayList<>();
         this.disponible = true;
     }
 
+    /**
+     * Constructor completo, también el del builder: las reservas activas se registran en el calendario
+     */
+    @Builder
+    public Habitacion(String numero, long precioCentavos, int capacidad, String descripcion, String imagenUrl,
+                      List<String> servicios, TipoHabitacion tipo, boolean disponible, List<Reserva> reservas) {
+        this.numero = numero;
+        this.precioCentavos = precioCentavos;
+        this.capacidad = capacidad;
+        this.descripcion = descripcion;
+        this.imagenUrl = imagenUrl;
+        this.servicios = servicios != null ? servicios : new ArrayList<>();
+        this.tipo = tipo;
+        this.disponible = disponible;
+        this.reservas = reservas != null ? reservas : new ArrayList<>();
+        registrarReservas();
+    }
+
     /**
      * Verifica la disponibilidad para un rango de fechas
      */
     public boolean estaDisponible(LocalDate fechaInicio, LocalDate fechaFin) {
         if (!disponible) return false;
 
-        return reservas.stream().noneMatch(reserva ->
-                reserva.estaActiva() && reserva.haySolapamiento(fechaInicio, fechaFin)
-        );
+        return calendario.estaLibre(fechaInicio, fechaFin);
     }
 
     /**
      * Agrega una reserva a la habitación
      */
     public void agregarReserva(Reserva reserva) {
-        if (!estaDisponible(reserva.getFechaInicio(), reserva.getFechaFin())) {
+        if (!disponible || (reserva.estaActiva() && !calendario.reservarSiDisponible(reserva))) {
             throw new IllegalStateException("La habitación no está disponible para esas fechas");
         }
         reservas.add(reserva);
     }
 
+    /**
+     * Vuelve a enlazar una reserva cargada del almacenamiento, sin validar de nuevo la disponibilidad
+     */
+    public void restaurarReserva(Reserva reserva) {
+        if (reserva.estaActiva()) {
+            calendario.reservarSiDisponible(reserva);
+        }
+        reservas.add(reserva);
+    }
+
+    /**
+     * Quita una reserva de la habitación y libera sus fechas
+     * @return true si la reserva estaba en la habitación
+     */
+    public boolean quitarReserva(Reserva reserva) {
+        calendario.liberar(reserva);
+        return reservas.removeIf(r -> r == reserva || Objects.equals(r.getId(), reserva.getId()));
+    }
+
+    /**
+     * Reemplaza las reservas de la habitación y reconstruye su calendario de ocupación
+     */
+    public void setReservas(List<Reserva> reservas) {
+        this.reservas = reservas;
+        registrarReservas();
+    }
+
+    private void registrarReservas() {
+        calendario.limpiar();
+        reservas.stream()
+                .filter(Reserva::estaActiva)
+                .forEach(calendario::reservarSiDisponible);
+    }
+
     /**
      * Calcula el costo total para una estadía
      */
-    public float calcularCostoTotal(int numNoches) {
+    public long calcularCostoTotal(int numNoches) {
         if (numNoches <= 0) {
             throw new IllegalArgumentException("El número de noches debe ser positivo");
         }
-        return precio * numNoches;
+        return Dinero.multiplicar(precioCentavos, numNoches);
+    }
+
+    /**
+     * @return Precio por noche en unidades, para mostrar
+     */
+    public float getPrecio() {
+        return (float) Dinero.aUnidades(precioCentavos);
+    }
+
+    /**
+     * @param precio Precio por noche en unidades
+     */
+    public void setPrecio(float precio) {
+        this.precioCentavos = Dinero.deUnidades(precio);
     }
 
     /**
@@ -90,7 +159,7 @@ public class Habitacion {
                 numero,
                 tipo.getDescripcion(),
                 capacidad,
-                precio,
+                getPrecio(),
                 String.join(", ", servicios),
                 descripcion
         );
@@ -99,6 +168,6 @@ public class Habitacion {
     @Override
     public String toString() {
         return String.format("Habitación %s - %s (%d pers.) $%,.2f/noche",
-                numero, tipo, capacidad, precio);
+                numero, tipo, capacidad, getPrecio());
     }
 }
\ No newline at end of file
@@ -1,20 +1,21 @@
 package co.edu.uniquindio.bookyourstay.modelo;
 
+import co.edu.uniquindio.bookyourstay.indices.InventarioHabitaciones;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoHabitacion;
-import co.edu.uniquindio.bookyourstay.singleton.UsuarioActual;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Getter
 @Setter
 public class Hotel extends Alojamiento {
-    private List<Habitacion> habitaciones;
+    @Setter(AccessLevel.NONE)
+    private List<Habitacion> habitaciones = new ArrayList<>();
     private int estrellas;
     private boolean tieneRestaurante;
     private boolean tieneBar;
@@ -24,22 +25,25 @@ public class Hotel extends Alojamiento {
     private String horarioCheckOut;
     private List<String> normasInternas;
 
+    // Inventario por tipo y día; se reconstruye si la lista de habitaciones se cargó por fuera
+    @Getter(AccessLevel.NONE)
+    private transient InventarioHabitaciones inventario = new InventarioHabitaciones();
+
     public Hotel() {
-        this.habitaciones = new ArrayList<>();
         this.normasInternas = new ArrayList<>();
     }
 
     @Override
-    public float calcularCostoTotal(int numNoches) {
+    public long calcularCostoTotal(int numNoches) {
         validarNumeroNoches(numNoches);
-        return getPrecioNoche().get() * numNoches;
+        return calcularCostoBase(numNoches);
     }
     public Hotel(String nombre, String ciudad, String descripcion,
                  int capacidadMax, float precioNoche) {
         super(
                 nombre,
                 ciudad,
-                UsuarioActual.getInstancia().getUsuario(), // Propietario
+                null, // El propietario lo asigna quien crea el alojamiento
                 descripcion,
                 TipoAlojamiento.HOTEL, // Tipo específico
                 precioNoche,
@@ -50,69 +54,99 @@ public class Hotel extends Alojamiento {
      * Agrega una nueva habitación al hotel
      */
     public void agregarHabitacion(Habitacion habitacion) {
-        if (existeHabitacion(habitacion.getNumero())) {
-            throw new IllegalArgumentException("Ya existe una habitación con ese número");
-        }
+        inventario().agregar(habitacion);
         habitaciones.add(habitacion);
     }
 
+    /**
+     * Reemplaza las habitaciones del hotel y reconstruye su inventario
+     */
+    public void setHabitaciones(List<Habitacion> habitaciones) {
+        this.habitaciones = habitaciones != null ? habitaciones : new ArrayList<>();
+        reconstruirInventario();
+    }
+
     /**
      * Busca una habitación por su número
      */
     public Habitacion buscarHabitacion(String numero) {
-        return habitaciones.stream()
-                .filter(h -> h.getNumero().equals(numero))
-                .findFirst()
-                .orElse(null);
+        return inventario().buscar(numero);
     }
 
     /**
      * Obtiene habitaciones disponibles para un rango de fechas
      */
     public List<Habitacion> obtenerHabitacionesDisponibles(LocalDate fechaInicio, LocalDate fechaFin, int personas) {
-        return habitaciones.stream()
-                .filter(h -> h.estaDisponible(fechaInicio, fechaFin))
-                .filter(h -> h.getCapacidad() >= personas)
-                .collect(Collectors.toList());
+        return inventario().disponibles(fechaInicio, fechaFin, personas);
+    }
+
+    /**
+     * Cuenta las habitaciones de un tipo libres en todas las noches del rango
+     */
+    public int contarHabitacionesDisponibles(TipoHabitacion tipo, LocalDate fechaInicio, LocalDate fechaFin) {
+        return inventario().contarDisponibles(tipo, fechaInicio, fechaFin);
+    }
+
+    /**
+     * Asigna una habitación del tipo a la reserva y la descuenta del inventario
+     * @return Habitación asignada
+     * @throws IllegalStateException si no hay habitaciones del tipo libres en esas fechas
+     */
+    public Habitacion reservarHabitacion(TipoHabitacion tipo, Reserva reserva) throws IllegalStateException {
+        Habitacion habitacion = inventario().reservar(tipo, reserva);
+        reserva.setNumeroHabitacion(habitacion.getNumero());
+        return habitacion;
+    }
+
+    /**
+     * Además del calendario del hotel, devuelve la reserva cargada a la habitación que tenía asignada
+     */
+    @Override
+    public void restaurarReserva(Reserva reserva) {
+        super.restaurarReserva(reserva);
+        inventario().restaurar(reserva);
+    }
+
+    /**
+     * Devuelve al inventario la habitación asignada a una reserva
+     * @return Habitación liberada, o null si la reserva no tenía una
+     */
+    public Habitacion liberarHabitacion(Reserva reserva) {
+        return inventario().liberar(reserva);
     }
 
     /**
      * Obtiene habitaciones por tipo
      */
     public List<Habitacion> obtenerHabitacionesPorTipo(TipoHabitacion tipo) {
-        return habitaciones.stream()
-                .filter(h -> h.getTipo() == tipo)
-                .collect(Collectors.toList());
+        return inventario().listar(tipo);
     }
 
     /**
-     * Calcula el precio promedio de las habitaciones
+     * Calcula el precio promedio de las habitaciones, en centavos
      */
-    public float calcularPrecioPromedio() {
+    public long calcularPrecioPromedio() {
         if (habitaciones.isEmpty()) return 0;
 
-        return (float) habitaciones.stream()
-                .mapToDouble(Habitacion::getPrecio)
-                .average()
-                .orElse(0);
+        long suma = 0;
+        for (Habitacion habitacion : habitaciones) {
+            suma = Dinero.sumar(suma, habitacion.getPrecioCentavos());
+        }
+        return Math.round((double) suma / habitaciones.size());
     }
 
     /**
      * Obtiene los tipos de habitación disponibles
      */
     public List<TipoHabitacion> obtenerTiposHabitacionDisponibles() {
-        return habitaciones.stream()
-                .map(Habitacion::getTipo)
-                .distinct()
-                .collect(Collectors.toList());
+        return inventario().tipos();
     }
 
     /**
      * Verifica si existe una habitación con el número dado
      */
     public boolean existeHabitacion(String numero) {
-        return habitaciones.stream()
-                .anyMatch(h -> h.getNumero().equals(numero));
+        return inventario().existe(numero);
     }
 
     /**
@@ -138,7 +172,7 @@ public class Hotel extends Alojamiento {
                 getCiudad(),
                 estrellas,
                 habitaciones.size(),
-                calcularPrecioPromedio(),
+                Dinero.aUnidades(calcularPrecioPromedio()),
                 tieneRestaurante ? "Sí" : "No",
                 tieneBar ? "Sí" : "No",
                 tieneGimnasio ? "Sí" : "No",
@@ -164,6 +198,19 @@ public class Hotel extends Alojamiento {
         }
     }
 
+    private synchronized InventarioHabitaciones inventario() {
+        if (inventario == null || inventario.contar() != habitaciones.size()) {
+            reconstruirInventario();
+        }
+        return inventario;
+    }
+
+    private synchronized void reconstruirInventario() {
+        InventarioHabitaciones nuevo = new InventarioHabitaciones();
+        habitaciones.forEach(nuevo::agregar);
+        inventario = nuevo;
+    }
+
     private void validarNumeroNoches(int numNoches) {
         if (numNoches <= 0) {
             throw new IllegalArgumentException("El número de noches debe ser positivo");
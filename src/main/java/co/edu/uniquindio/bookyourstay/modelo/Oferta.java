@@ -2,11 +2,12 @@ package co.edu.uniquindio.bookyourstay.modelo;
 
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoOferta;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoOferta;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
 import lombok.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.stream.Collectors;
 
 @Getter
@@ -15,6 +16,10 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 @Builder
 public class Oferta {
+    // Contador atómico sobre el propio campo: sin objetos extra por oferta y compatible con el builder
+    private static final AtomicIntegerFieldUpdater<Oferta> USOS =
+            AtomicIntegerFieldUpdater.newUpdater(Oferta.class, "usosActuales");
+
     private String id;
     private String nombre;
     private String descripcion;
@@ -25,7 +30,7 @@ public class Oferta {
     private boolean activa;
     private List<Alojamiento> alojamientosAplicables;
     private int maximoUsos;
-    private int usosActuales;
+    private volatile int usosActuales;
     private String codigoPromocional;
     private EstadoOferta estado;
 
@@ -34,7 +39,7 @@ public class Oferta {
      */
     public Oferta(String nombre, String descripcion, TipoOferta tipo, float valor,
                   LocalDate inicio, LocalDate fin, List<Alojamiento> alojamientos, int maxUsos) {
-        this.id = "OF-" + UUID.randomUUID().toString().substring(0, 8);
+        this.id = GeneradorIds.getInstancia().generar("OF");
         this.nombre = nombre;
         this.descripcion = descripcion;
         this.tipoOferta = tipo;
@@ -62,18 +67,43 @@ public class Oferta {
     /**
      * Aplica el descuento al precio original
      */
-    public float aplicarDescuento(float precioOriginal) throws IllegalStateException {
+    public long aplicarDescuento(long precioOriginalCentavos) throws IllegalStateException {
         if (!esVigente()) {
             throw new IllegalStateException("La oferta no está vigente");
         }
 
-        float precioConDescuento = switch (tipoOferta) {
-            case PORCENTAJE -> precioOriginal * (1 - (valor / 100));
-            case MONTO_FIJO -> Math.max(0, precioOriginal - valor);
+        if (!registrarUso()) {
+            throw new IllegalStateException("La oferta ha alcanzado su límite de usos");
+        }
+        return calcularPrecioConDescuento(precioOriginalCentavos);
+    }
+
+    /**
+     * Calcula el precio con descuento sin registrar un uso
+     * @param precioOriginalCentavos Precio en centavos
+     * @return Precio con descuento en centavos, nunca negativo
+     */
+    public long calcularPrecioConDescuento(long precioOriginalCentavos) {
+        return switch (tipoOferta) {
+            case PORCENTAJE -> precioOriginalCentavos
+                    - Dinero.porcentaje(precioOriginalCentavos, Dinero.puntosBasicos(valor));
+            case MONTO_FIJO -> Dinero.descontar(precioOriginalCentavos, Dinero.deUnidades(valor));
         };
+    }
 
-        usosActuales++;
-        return precioConDescuento;
+    /**
+     * Consume un uso de la oferta de forma atómica (CAS), sin superar nunca el máximo
+     * @return true si se registró el uso, false si la oferta ya estaba agotada
+     */
+    public boolean registrarUso() {
+        int actual;
+        do {
+            actual = usosActuales;
+            if (maximoUsos > 0 && actual >= maximoUsos) {
+                return false;
+            }
+        } while (!USOS.compareAndSet(this, actual, actual + 1));
+        return true;
     }
 
     /**
@@ -136,7 +166,7 @@ public class Oferta {
     // Métodos privados
     private String generarCodigoPromocional() {
         return "PROMO-" + nombre.substring(0, Math.min(3, nombre.length())).toUpperCase() +
-                "-" + id.substring(3, 7);
+                "-" + GeneradorIds.codigoCorto(id, 4);
     }
 
     @Override
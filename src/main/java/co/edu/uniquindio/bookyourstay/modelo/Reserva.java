@@ -1,100 +1,48 @@
 package co.edu.uniquindio.bookyourstay.modelo;
 
+import co.edu.uniquindio.bookyourstay.indices.CalendarioOcupacion;
 import co.edu.uniquindio.bookyourstay.modelo.build.ReservaBuilder;
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
-import javafx.beans.property.*;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
+import lombok.Getter;
+import lombok.Setter;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+@Getter
+@Setter
 public class Reserva {
-    private final StringProperty id = new SimpleStringProperty();
-    private final ObjectProperty<Alojamiento> alojamiento = new SimpleObjectProperty<>();
-    private final ObjectProperty<Cliente> cliente = new SimpleObjectProperty<>();
-    private final ObjectProperty<LocalDate> fechaInicio = new SimpleObjectProperty<>();
-    private final ObjectProperty<LocalDate> fechaFin = new SimpleObjectProperty<>();
-    private final ObjectProperty<EstadoReserva> estado = new SimpleObjectProperty<>();
-    private final StringProperty metodoPago = new SimpleStringProperty();
-    private final StringProperty codigoConfirmacion = new SimpleStringProperty();
-    private final ObjectProperty<LocalDateTime> fechaActualizacion = new SimpleObjectProperty<>();
-    private final StringProperty notasEspeciales = new SimpleStringProperty();
-    private final IntegerProperty numHuespedes = new SimpleIntegerProperty();
-    private final ListProperty<Huesped> huespedes = new SimpleListProperty<>(FXCollections.observableArrayList());
-    private final FloatProperty subtotal = new SimpleFloatProperty();
-    private final FloatProperty descuentos = new SimpleFloatProperty();
-    private final FloatProperty impuestos = new SimpleFloatProperty();
-    private final FloatProperty total = new SimpleFloatProperty();
-
-    // Getters y Setters para propiedades
-    public String getId() { return id.get(); }
-    public void setId(String value) { id.set(value); }
-    public StringProperty idProperty() { return id; }
-
-    public Alojamiento getAlojamiento() { return alojamiento.get(); }
-    public void setAlojamiento(Alojamiento value) { alojamiento.set(value); }
-    public ObjectProperty<Alojamiento> alojamientoProperty() { return alojamiento; }
-
-    public Cliente getCliente() { return cliente.get(); }
-    public void setCliente(Cliente value) { cliente.set(value); }
-    public ObjectProperty<Cliente> clienteProperty() { return cliente; }
-
-    public LocalDate getFechaInicio() { return fechaInicio.get(); }
-    public void setFechaInicio(LocalDate value) { fechaInicio.set(value); }
-    public ObjectProperty<LocalDate> fechaInicioProperty() { return fechaInicio; }
-
-    public LocalDate getFechaFin() { return fechaFin.get(); }
-    public void setFechaFin(LocalDate value) { fechaFin.set(value); }
-    public ObjectProperty<LocalDate> fechaFinProperty() { return fechaFin; }
-
-    public EstadoReserva getEstado() { return estado.get(); }
-    public void setEstado(EstadoReserva value) { estado.set(value); }
-    public ObjectProperty<EstadoReserva> estadoProperty() { return estado; }
-
-    public String getMetodoPago() { return metodoPago.get(); }
-    public void setMetodoPago(String value) { metodoPago.set(value); }
-    public StringProperty metodoPagoProperty() { return metodoPago; }
-
-    public String getCodigoConfirmacion() { return codigoConfirmacion.get(); }
-    public void setCodigoConfirmacion(String value) { codigoConfirmacion.set(value); }
-    public StringProperty codigoConfirmacionProperty() { return codigoConfirmacion; }
-
-    public LocalDateTime getFechaActualizacion() { return fechaActualizacion.get(); }
-    public void setFechaActualizacion(LocalDateTime value) { fechaActualizacion.set(value); }
-    public ObjectProperty<LocalDateTime> fechaActualizacionProperty() { return fechaActualizacion; }
-
-    public String getNotasEspeciales() { return notasEspeciales.get(); }
-    public void setNotasEspeciales(String value) { notasEspeciales.set(value); }
-    public StringProperty notasEspecialesProperty() { return notasEspeciales; }
-
-    public int getNumHuespedes() { return numHuespedes.get(); }
-    public void setNumHuespedes(int value) { numHuespedes.set(value); }
-    public IntegerProperty numHuespedesProperty() { return numHuespedes; }
-
-    public ObservableList<Huesped> getHuespedes() { return huespedes.get(); }
-    public void setHuespedes(ObservableList<Huesped> value) { huespedes.set(value); }
-    public ListProperty<Huesped> huespedesProperty() { return huespedes; }
-
-    public float getSubtotal() { return subtotal.get(); }
-    public void setSubtotal(float value) { subtotal.set(value); }
-    public FloatProperty subtotalProperty() { return subtotal; }
-
-    public float getDescuentos() { return descuentos.get(); }
-    public void setDescuentos(float value) { descuentos.set(value); }
-    public FloatProperty descuentosProperty() { return descuentos; }
-
-    public float getImpuestos() { return impuestos.get(); }
-    public void setImpuestos(float value) { impuestos.set(value); }
-    public FloatProperty impuestosProperty() { return impuestos; }
-
-    public float getTotal() { return total.get(); }
-    public void setTotal(float value) { total.set(value); }
-    public FloatProperty totalProperty() { return total; }
-
-    // Métodos de negocio (se mantienen iguales pero adaptados a las propiedades)
+    private String id;
+    private Alojamiento alojamiento;
+    private Cliente cliente;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private EstadoReserva estado;
+    private String metodoPago;
+    private String codigoConfirmacion;
+    private LocalDateTime fechaActualizacion;
+    private String notasEspeciales;
+    private int numHuespedes;
+    private List<Huesped> huespedes = new ArrayList<>();
+    // Habitación asignada en un hotel; null en casas y apartamentos
+    private String numeroHabitacion;
+    // Montos en centavos (ver Dinero)
+    private long subtotalCentavos;
+    private long descuentosCentavos;
+    private long impuestosCentavos;
+    private long totalCentavos;
+
+    // Métodos de negocio
+    /**
+     * Los rangos son semiabiertos [inicio, fin), como en {@link CalendarioOcupacion}:
+     * la salida de una estadía puede coincidir con la llegada de la otra
+     */
     public boolean haySolapamiento(LocalDate otraInicio, LocalDate otraFin) {
-        return !getFechaFin().isBefore(otraInicio) && !getFechaInicio().isAfter(otraFin);
+        return getFechaInicio().isBefore(CalendarioOcupacion.salida(otraInicio, otraFin))
+                && otraInicio.isBefore(CalendarioOcupacion.salida(getFechaInicio(), getFechaFin()));
     }
 
     public boolean estaActiva() {
@@ -102,7 +50,7 @@ public class Reserva {
     }
 
     public String getCiudadAlojamiento() {
-        return getAlojamiento() != null ? getAlojamiento().ciudadProperty().get() : "Sin alojamiento";
+        return getAlojamiento() != null ? getAlojamiento().getCiudad() : "Sin alojamiento";
     }
 
     public int getNumeroNoches() {
@@ -148,19 +96,22 @@ public class Reserva {
         if (getAlojamiento() == null) {
             throw new IllegalStateException("No hay alojamiento asociado a la reserva");
         }
-        setSubtotal(getAlojamiento().calcularCostoBase(getNumeroNoches()));
+        setSubtotalCentavos(getAlojamiento().calcularCostoBase(getNumeroNoches()));
     }
 
-    public void aplicarDescuentos(float descuento) {
-        setDescuentos(descuento);
+    /**
+     * @param descuentoCentavos Descuento total en centavos
+     */
+    public void aplicarDescuentos(long descuentoCentavos) {
+        setDescuentosCentavos(descuentoCentavos);
         calcularTotal();
     }
     public static ReservaBuilder builder() {
         return new ReservaBuilder();
     }
     private void calcularTotal() {
-        setImpuestos(getSubtotal() * 0.19f); // IVA colombiano 19%
-        setTotal(getSubtotal() - getDescuentos() + getImpuestos());
+        setImpuestosCentavos(Dinero.porcentaje(getSubtotalCentavos(), Factura.IVA_PUNTOS_BASICOS));
+        setTotalCentavos(getSubtotalCentavos() - getDescuentosCentavos() + getImpuestosCentavos());
     }
 
     public void validar() {
@@ -173,7 +124,7 @@ public class Reserva {
         if (getNumHuespedes() <= 0) {
             throw new IllegalArgumentException("El número de huéspedes debe ser positivo");
         }
-        if (getAlojamiento() != null && getNumHuespedes() > getAlojamiento().getCapacidadMax().get()) {
+        if (getAlojamiento() != null && getNumHuespedes() > getAlojamiento().getCapacidadMax()) {
             throw new IllegalArgumentException("El número de huéspedes excede la capacidad del alojamiento");
         }
     }
@@ -181,8 +132,8 @@ public class Reserva {
     public String generarResumen() {
         return String.format(
                 "Reserva #%s\nAlojamiento: %s\nCiudad: %s\nFecha: %s a %s (%d noches)\n" +
-                        "Huéspedes: %d\nEstado: %s\nSubtotal: $%,.2f\nDescuentos: $%,.2f\n" +
-                        "Impuestos: $%,.2f\nTotal: $%,.2f\nCódigo: %s",
+                        "Huéspedes: %d\nEstado: %s\nSubtotal: %s\nDescuentos: %s\n" +
+                        "Impuestos: %s\nTotal: %s\nCódigo: %s",
                 getId(),
                 getAlojamiento() != null ? getAlojamiento().getNombre() : "No asignado",
                 getCiudadAlojamiento(),
@@ -191,24 +142,27 @@ public class Reserva {
                 getNumeroNoches(),
                 getNumHuespedes(),
                 getEstado(),
-                getSubtotal(),
-                getDescuentos(),
-                getImpuestos(),
-                getTotal(),
+                Dinero.formatear(getSubtotalCentavos()),
+                Dinero.formatear(getDescuentosCentavos()),
+                Dinero.formatear(getImpuestosCentavos()),
+                Dinero.formatear(getTotalCentavos()),
                 getCodigoConfirmacion() != null ? getCodigoConfirmacion() : "Pendiente"
         );
     }
 
     private String generarCodigoConfirmacion() {
-        return "CONF-" + getId().substring(4, 8) + "-" +
+        return "CONF-" + GeneradorIds.codigoCorto(getId(), 4) + "-" +
                 getFechaInicio().getDayOfMonth() +
                 getFechaInicio().getMonthValue();
     }
 
-    public float calcularPrecioTotal() {
+    /**
+     * @return Total de la reserva en centavos
+     */
+    public long calcularPrecioTotal() {
         calcularSubtotal();
         calcularTotal();
-        return getTotal();
+        return getTotalCentavos();
     }
 
     @Override
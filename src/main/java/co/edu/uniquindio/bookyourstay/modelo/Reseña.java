@@ -2,11 +2,11 @@ package co.edu.uniquindio.bookyourstay.modelo;
 
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCalificacion;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
 import lombok.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 @Getter
 @Setter
@@ -29,7 +29,7 @@ public class Reseña {
     private LocalDateTime fechaRespuesta;
 
     public Reseña() {
-        this.id = "RESEÑA-" + UUID.randomUUID().toString().substring(0, 8);
+        this.id = GeneradorIds.getInstancia().generar("RESEÑA");
         this.fecha = LocalDateTime.now();
         this.verificada = false;
         this.fotos = new ArrayList<>();
@@ -1,10 +1,10 @@
 package co.edu.uniquindio.bookyourstay.modelo;
 
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoTransaccion;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
 import lombok.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 @Getter
 @Setter
@@ -14,7 +14,7 @@ import java.util.UUID;
 public class Transaccion {
     private String id;
     private String tipo; // RECARGA, PAGO, TRANSFERENCIA_ENVIADA, TRANSFERENCIA_RECIBIDA, REEMBOLSO
-    private float monto;
+    private long montoCentavos; // Ver Dinero
     private String descripcion;
     private LocalDateTime fecha;
     private String cuentaRelacionada;
@@ -24,10 +24,10 @@ public class Transaccion {
     private String codigoAutorizacion;
     private String dispositivoOrigen;
 
-    public Transaccion(String tipo, float monto, String descripcion, String cuentaRelacionada) {
-        this.id = "TXN-" + UUID.randomUUID().toString().substring(0, 8);
+    public Transaccion(String tipo, long montoCentavos, String descripcion, String cuentaRelacionada) {
+        this.id = GeneradorIds.getInstancia().generar("TXN");
         this.tipo = tipo;
-        this.monto = monto;
+        this.montoCentavos = montoCentavos;
         this.descripcion = descripcion;
         this.fecha = LocalDateTime.now();
         this.cuentaRelacionada = cuentaRelacionada;
@@ -42,7 +42,7 @@ public class Transaccion {
         if (tipo == null || tipo.isBlank()) {
             throw new IllegalArgumentException("El tipo de transacción es requerido");
         }
-        if (monto <= 0) {
+        if (montoCentavos <= 0) {
             throw new IllegalArgumentException("El monto debe ser positivo");
         }
         if (descripcion == null || descripcion.isBlank()) {
@@ -70,9 +70,9 @@ public class Transaccion {
         }
 
         return Transaccion.builder()
-                .id("TXN-" + UUID.randomUUID().toString().substring(0, 8))
+                .id(GeneradorIds.getInstancia().generar("TXN"))
                 .tipo("REVERSO")
-                .monto(-this.monto)
+                .montoCentavos(-this.montoCentavos)
                 .descripcion("Reverso de " + this.id + ": " + motivo)
                 .fecha(LocalDateTime.now())
                 .cuentaRelacionada(this.cuentaRelacionada)
@@ -91,7 +91,7 @@ public class Transaccion {
                 "Transacción #%s\n" +
                         "Tipo: %s\n" +
                         "Fecha: %s\n" +
-                        "Monto: $%,.2f\n" +
+                        "Monto: %s\n" +
                         "Estado: %s\n" +
                         "Cuenta: %s\n" +
                         "Método pago: %s\n" +
@@ -101,7 +101,7 @@ public class Transaccion {
                 id,
                 tipo,
                 fecha.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")),
-                monto,
+                Dinero.formatear(montoCentavos),
                 estado,
                 cuentaRelacionada,
                 metodoPago != null ? metodoPago : "N/A",
@@ -138,11 +138,11 @@ public class Transaccion {
 
     @Override
     public String toString() {
-        return String.format("[%s] %s %s $%,.2f - %s",
+        return String.format("[%s] %s %s %s - %s",
                 fecha.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
                 tipo,
                 estado.getIcono(),
-                monto,
+                Dinero.formatear(montoCentavos),
                 descripcion.length() > 20 ? descripcion.substring(0, 20) + "..." : descripcion);
     }
 }
@@ -2,9 +2,10 @@ package co.edu.uniquindio.bookyourstay.modelo;
 
 import co.edu.uniquindio.bookyourstay.modelo.enums.RolUsuario;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCuenta;
+import co.edu.uniquindio.bookyourstay.seguridad.CifradoContraseñas;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
 import lombok.*;
 import java.time.LocalDate;
-import java.util.UUID;
 
 @Getter
 @Setter
@@ -24,7 +25,7 @@ public class Usuario {
     private RolUsuario rol;
 
     public Usuario() {
-        this.id = "USR-" + UUID.randomUUID().toString().substring(0, 8);
+        this.id = GeneradorIds.getInstancia().generar("USR");
         this.fechaRegistro = LocalDate.now();
         this.activo = true;
         this.tipoCuenta = TipoCuenta.REGULAR;
@@ -69,13 +70,13 @@ public class Usuario {
      * Cambia la contraseña del usuario
      */
     public void cambiarContraseña(String contraseñaActual, String nuevaContraseña) {
-        if (!this.contraseña.equals(contraseñaActual)) {
+        if (!CifradoContraseñas.verificar(contraseñaActual, this.contraseña)) {
             throw new IllegalArgumentException("La contraseña actual no coincide");
         }
         if (nuevaContraseña == null || nuevaContraseña.length() < 8) {
             throw new IllegalArgumentException("La nueva contraseña debe tener al menos 8 caracteres");
         }
-        this.contraseña = nuevaContraseña;
+        this.contraseña = CifradoContraseñas.generarHash(nuevaContraseña);
     }
 
 
@@ -5,11 +5,10 @@ import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
 import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
 import co.edu.uniquindio.bookyourstay.modelo.Cliente;
 import co.edu.uniquindio.bookyourstay.modelo.Huesped;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 public class ReservaBuilder {
@@ -33,11 +32,12 @@ public class ReservaBuilder {
         reserva.setFechaActualizacion(base.getFechaActualizacion());
         reserva.setNotasEspeciales(base.getNotasEspeciales());
         reserva.setNumHuespedes(base.getNumHuespedes());
-        reserva.setHuespedes(FXCollections.observableArrayList(base.getHuespedes())); // evitar referencia directa
-        reserva.setSubtotal(base.getSubtotal());
-        reserva.setDescuentos(base.getDescuentos());
-        reserva.setImpuestos(base.getImpuestos());
-        reserva.setTotal(base.getTotal());
+        reserva.setHuespedes(new ArrayList<>(base.getHuespedes())); // evitar referencia directa
+        reserva.setNumeroHabitacion(base.getNumeroHabitacion());
+        reserva.setSubtotalCentavos(base.getSubtotalCentavos());
+        reserva.setDescuentosCentavos(base.getDescuentosCentavos());
+        reserva.setImpuestosCentavos(base.getImpuestosCentavos());
+        reserva.setTotalCentavos(base.getTotalCentavos());
         return this;
     }
 
@@ -97,27 +97,27 @@ public class ReservaBuilder {
     }
 
     public ReservaBuilder conHuespedes(List<Huesped> huespedes) {
-        reserva.setHuespedes(FXCollections.observableArrayList(huespedes));
+        reserva.setHuespedes(new ArrayList<>(huespedes));
         return this;
     }
 
-    public ReservaBuilder conSubtotal(float subtotal) {
-        reserva.setSubtotal(subtotal);
+    public ReservaBuilder conSubtotalCentavos(long subtotalCentavos) {
+        reserva.setSubtotalCentavos(subtotalCentavos);
         return this;
     }
 
-    public ReservaBuilder conDescuentos(float descuentos) {
-        reserva.setDescuentos(descuentos);
+    public ReservaBuilder conDescuentosCentavos(long descuentosCentavos) {
+        reserva.setDescuentosCentavos(descuentosCentavos);
         return this;
     }
 
-    public ReservaBuilder conImpuestos(float impuestos) {
-        reserva.setImpuestos(impuestos);
+    public ReservaBuilder conImpuestosCentavos(long impuestosCentavos) {
+        reserva.setImpuestosCentavos(impuestosCentavos);
         return this;
     }
 
-    public ReservaBuilder conTotal(float total) {
-        reserva.setTotal(total);
+    public ReservaBuilder conTotalCentavos(long totalCentavos) {
+        reserva.setTotalCentavos(totalCentavos);
         return this;
     }
 
@@ -0,0 +1,15 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+/**
+ * Convierte una entidad al formato binario de los registros y de vuelta.
+ * {@link #leer} debe consumir exactamente lo que escribió {@link #escribir}, en el mismo orden.
+ * @param <T> Tipo de entidad
+ */
+public interface Codec<T> {
+    void escribir(EscritorBinario salida, T elemento);
+
+    /**
+     * @throws IllegalStateException si el registro no se puede reconstruir (por ejemplo, una referencia que ya no existe)
+     */
+    T leer(LectorBinario entrada);
+}
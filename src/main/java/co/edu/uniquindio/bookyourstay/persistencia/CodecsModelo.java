@@ -0,0 +1,463 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+import co.edu.uniquindio.bookyourstay.modelo.*;
+import co.edu.uniquindio.bookyourstay.modelo.enums.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Codecs de las entidades del modelo para el {@link MotorAlmacenamiento}.
+ * Cada registro empieza con la versión del formato y, en las jerarquías, con una letra que indica
+ * la subclase. Las relaciones se guardan por ID y se resuelven con {@link Referencias} al cargar;
+ * las listas inversas (reservas y reseñas de un alojamiento o de un cliente) no se guardan: las
+ * reconstruyen al cargar {@code ReservaRepositorio.durable} y {@code ReseñaRepositorio.durable}.
+ */
+public final class CodecsModelo {
+    // 2: las reservas guardan al final el número de habitación asignada
+    private static final int VERSION = 2;
+
+    private CodecsModelo() {
+    }
+
+    public static Codec<Usuario> usuarios() {
+        return new Codec<>() {
+            @Override
+            public void escribir(EscritorBinario salida, Usuario usuario) {
+                salida.entero(VERSION);
+                salida.entero(usuario instanceof Cliente ? 'C' : usuario instanceof Administrador ? 'A' : 'U');
+                salida.texto(usuario.getId())
+                        .texto(usuario.getNombre())
+                        .texto(usuario.getEmail())
+                        .texto(usuario.getContraseña())
+                        .texto(usuario.getTelefono())
+                        .texto(usuario.getCedula())
+                        .fecha(usuario.getFechaRegistro())
+                        .booleano(usuario.isActivo())
+                        .enumeracion(usuario.getTipoCuenta())
+                        .texto(usuario.getDireccion())
+                        .texto(usuario.getFotoPerfilUrl())
+                        .enumeracion(usuario.getRol());
+                if (usuario instanceof Cliente cliente) {
+                    salida.fecha(cliente.getFechaNacimiento()).booleano(cliente.isCuentaActiva());
+                    escribirBilletera(salida, cliente.getBilletera());
+                }
+            }
+
+            @Override
+            public Usuario leer(LectorBinario entrada) {
+                verificarVersion(entrada);
+                char tipo = (char) entrada.entero();
+                Usuario usuario = switch (tipo) {
+                    case 'C' -> new Cliente();
+                    case 'A' -> new Administrador();
+                    case 'U' -> new Usuario();
+                    default -> throw new IllegalStateException("Tipo de usuario desconocido: " + tipo);
+                };
+                usuario.setId(entrada.texto());
+                usuario.setNombre(entrada.texto());
+                usuario.setEmail(entrada.texto());
+                usuario.setContraseña(entrada.texto());
+                usuario.setTelefono(entrada.texto());
+                usuario.setCedula(entrada.texto());
+                usuario.setFechaRegistro(entrada.fecha());
+                usuario.setActivo(entrada.booleano());
+                usuario.setTipoCuenta(entrada.enumeracion(TipoCuenta.class));
+                usuario.setDireccion(entrada.texto());
+                usuario.setFotoPerfilUrl(entrada.texto());
+                usuario.setRol(entrada.enumeracion(RolUsuario.class));
+                if (usuario instanceof Cliente cliente) {
+                    cliente.setFechaNacimiento(entrada.fecha());
+                    cliente.setCuentaActiva(entrada.booleano());
+                    cliente.setBilletera(leerBilletera(entrada));
+                }
+                return usuario;
+            }
+        };
+    }
+
+    public static Codec<Alojamiento> alojamientos(Referencias referencias) {
+        return new Codec<>() {
+            @Override
+            public void escribir(EscritorBinario salida, Alojamiento alojamiento) {
+                salida.entero(VERSION);
+                if (alojamiento instanceof Casa casa) {
+                    salida.entero('C');
+                    escribirBase(salida, alojamiento);
+                    salida.entero(casa.getNumeroHabitaciones())
+                            .entero(casa.getNumeroBanos())
+                            .decimal(casa.getAreaTerreno())
+                            .decimal(casa.getAreaConstruida())
+                            .booleano(casa.isTieneJardin())
+                            .booleano(casa.isTienePiscina())
+                            .booleano(casa.isPermiteEventos())
+                            .entero(casa.getCapacidadParqueadero())
+                            .texto(casa.getNormasExternas());
+                } else if (alojamiento instanceof Apartamento apartamento) {
+                    salida.entero('A');
+                    escribirBase(salida, alojamiento);
+                    salida.entero(apartamento.getNumeroHabitaciones())
+                            .entero(apartamento.getNumeroBanos())
+                            .booleano(apartamento.isTieneBalcon())
+                            .booleano(apartamento.isPermiteMascotas())
+                            .decimal(apartamento.getArea())
+                            .texto(apartamento.getNormasConvivencia());
+                } else if (alojamiento instanceof Hotel hotel) {
+                    salida.entero('H');
+                    escribirBase(salida, alojamiento);
+                    salida.entero(hotel.getEstrellas())
+                            .booleano(hotel.isTieneRestaurante())
+                            .booleano(hotel.isTieneBar())
+                            .booleano(hotel.isTieneGimnasio())
+                            .booleano(hotel.isTieneSpa())
+                            .texto(hotel.getHorarioCheckIn())
+                            .texto(hotel.getHorarioCheckOut())
+                            .textos(hotel.getNormasInternas())
+                            .lista(hotel.getHabitaciones(), CodecsModelo::escribirHabitacion);
+                } else {
+                    throw new IllegalArgumentException("Tipo de alojamiento no soportado: " + alojamiento.getClass().getSimpleName());
+                }
+            }
+
+            @Override
+            public Alojamiento leer(LectorBinario entrada) {
+                verificarVersion(entrada);
+                char tipo = (char) entrada.entero();
+                switch (tipo) {
+                    case 'C' -> {
+                        Casa casa = new Casa(null, null, null, 0, 0);
+                        leerBase(entrada, casa, referencias);
+                        casa.setNumeroHabitaciones(entrada.entero());
+                        casa.setNumeroBanos(entrada.entero());
+                        casa.setAreaTerreno(entrada.decimal());
+                        casa.setAreaConstruida(entrada.decimal());
+                        casa.setTieneJardin(entrada.booleano());
+                        casa.setTienePiscina(entrada.booleano());
+                        casa.setPermiteEventos(entrada.booleano());
+                        casa.setCapacidadParqueadero(entrada.entero());
+                        casa.setNormasExternas(entrada.texto());
+                        return casa;
+                    }
+                    case 'A' -> {
+                        Apartamento apartamento = new Apartamento(null, null, null, 0, 0);
+                        leerBase(entrada, apartamento, referencias);
+                        apartamento.setNumeroHabitaciones(entrada.entero());
+                        apartamento.setNumeroBanos(entrada.entero());
+                        apartamento.setTieneBalcon(entrada.booleano());
+                        apartamento.setPermiteMascotas(entrada.booleano());
+                        apartamento.setArea(entrada.decimal());
+                        apartamento.setNormasConvivencia(entrada.texto());
+                        return apartamento;
+                    }
+                    case 'H' -> {
+                        Hotel hotel = new Hotel();
+                        leerBase(entrada, hotel, referencias);
+                        hotel.setEstrellas(entrada.entero());
+                        hotel.setTieneRestaurante(entrada.booleano());
+                        hotel.setTieneBar(entrada.booleano());
+                        hotel.setTieneGimnasio(entrada.booleano());
+                        hotel.setTieneSpa(entrada.booleano());
+                        hotel.setHorarioCheckIn(entrada.texto());
+                        hotel.setHorarioCheckOut(entrada.texto());
+                        hotel.setNormasInternas(entrada.textos());
+                        hotel.setHabitaciones(entrada.lista(CodecsModelo::leerHabitacion));
+                        return hotel;
+                    }
+                    default -> throw new IllegalStateException("Tipo de alojamiento desconocido: " + tipo);
+                }
+            }
+        };
+    }
+
+    public static Codec<Reserva> reservas(Referencias referencias) {
+        return new Codec<>() {
+            @Override
+            public void escribir(EscritorBinario salida, Reserva reserva) {
+                salida.entero(VERSION)
+                        .texto(reserva.getId())
+                        .texto(reserva.getAlojamiento() == null ? null : reserva.getAlojamiento().getId())
+                        .texto(reserva.getCliente() == null ? null : reserva.getCliente().getId())
+                        .fecha(reserva.getFechaInicio())
+                        .fecha(reserva.getFechaFin())
+                        .enumeracion(reserva.getEstado())
+                        .texto(reserva.getMetodoPago())
+                        .texto(reserva.getCodigoConfirmacion())
+                        .fechaHora(reserva.getFechaActualizacion())
+                        .texto(reserva.getNotasEspeciales())
+                        .entero(reserva.getNumHuespedes())
+                        .lista(reserva.getHuespedes(), CodecsModelo::escribirHuesped)
+                        .largo(reserva.getSubtotalCentavos())
+                        .largo(reserva.getDescuentosCentavos())
+                        .largo(reserva.getImpuestosCentavos())
+                        .largo(reserva.getTotalCentavos())
+                        .texto(reserva.getNumeroHabitacion());
+            }
+
+            @Override
+            public Reserva leer(LectorBinario entrada) {
+                int version = verificarVersion(entrada);
+                Reserva reserva = new Reserva();
+                reserva.setId(entrada.texto());
+                reserva.setAlojamiento(resolver(entrada.texto(), referencias::alojamiento, "alojamiento"));
+                reserva.setCliente(resolverCliente(entrada.texto(), referencias));
+                reserva.setFechaInicio(entrada.fecha());
+                reserva.setFechaFin(entrada.fecha());
+                reserva.setEstado(entrada.enumeracion(EstadoReserva.class));
+                reserva.setMetodoPago(entrada.texto());
+                reserva.setCodigoConfirmacion(entrada.texto());
+                reserva.setFechaActualizacion(entrada.fechaHora());
+                reserva.setNotasEspeciales(entrada.texto());
+                reserva.setNumHuespedes(entrada.entero());
+                List<Huesped> huespedes = entrada.lista(CodecsModelo::leerHuesped);
+                reserva.setHuespedes(huespedes != null ? huespedes : new ArrayList<>());
+                reserva.setSubtotalCentavos(entrada.largo());
+                reserva.setDescuentosCentavos(entrada.largo());
+                reserva.setImpuestosCentavos(entrada.largo());
+                reserva.setTotalCentavos(entrada.largo());
+                if (version >= 2) {
+                    reserva.setNumeroHabitacion(entrada.texto());
+                }
+                return reserva;
+            }
+        };
+    }
+
+    public static Codec<Reseña> reseñas(Referencias referencias) {
+        return new Codec<>() {
+            @Override
+            public void escribir(EscritorBinario salida, Reseña reseña) {
+                salida.entero(VERSION)
+                        .texto(reseña.getId())
+                        .texto(reseña.getCliente() == null ? null : reseña.getCliente().getId())
+                        .texto(reseña.getAlojamiento() == null ? null : reseña.getAlojamiento().getId())
+                        .texto(reseña.getReserva() == null ? null : reseña.getReserva().getId())
+                        .entero(reseña.getCalificacion())
+                        .texto(reseña.getComentario())
+                        .fechaHora(reseña.getFecha())
+                        .booleano(reseña.isVerificada())
+                        .textos(reseña.getFotos())
+                        .enumeracion(reseña.getTipoCalificacion())
+                        .booleano(reseña.isRecomendaria())
+                        .texto(reseña.getRespuestaAdministrador())
+                        .fechaHora(reseña.getFechaRespuesta());
+            }
+
+            @Override
+            public Reseña leer(LectorBinario entrada) {
+                verificarVersion(entrada);
+                Reseña reseña = new Reseña();
+                reseña.setId(entrada.texto());
+                reseña.setCliente(resolverCliente(entrada.texto(), referencias));
+                reseña.setAlojamiento(resolver(entrada.texto(), referencias::alojamiento, "alojamiento"));
+                reseña.setReserva(resolver(entrada.texto(), referencias::reserva, "reserva"));
+                reseña.setCalificacion(entrada.entero());
+                reseña.setComentario(entrada.texto());
+                reseña.setFecha(entrada.fechaHora());
+                reseña.setVerificada(entrada.booleano());
+                List<String> fotos = entrada.textos();
+                reseña.setFotos(fotos != null ? fotos : new ArrayList<>());
+                reseña.setTipoCalificacion(entrada.enumeracion(TipoCalificacion.class));
+                reseña.setRecomendaria(entrada.booleano());
+                reseña.setRespuestaAdministrador(entrada.texto());
+                reseña.setFechaRespuesta(entrada.fechaHora());
+                return reseña;
+            }
+        };
+    }
+
+    public static Codec<Oferta> ofertas(Referencias referencias) {
+        return new Codec<>() {
+            @Override
+            public void escribir(EscritorBinario salida, Oferta oferta) {
+                List<String> alojamientos = oferta.getAlojamientosAplicables() == null ? null :
+                        oferta.getAlojamientosAplicables().stream().map(Alojamiento::getId).toList();
+                salida.entero(VERSION)
+                        .texto(oferta.getId())
+                        .texto(oferta.getNombre())
+                        .texto(oferta.getDescripcion())
+                        .enumeracion(oferta.getTipoOferta())
+                        .decimal(oferta.getValor())
+                        .fecha(oferta.getFechaInicio())
+                        .fecha(oferta.getFechaFin())
+                        .booleano(oferta.isActiva())
+                        .textos(alojamientos)
+                        .entero(oferta.getMaximoUsos())
+                        .entero(oferta.getUsosActuales())
+                        .texto(oferta.getCodigoPromocional())
+                        // El modelo solo expone si el estado es ACTIVA
+                        .booleano(oferta.getEstado());
+            }
+
+            @Override
+            public Oferta leer(LectorBinario entrada) {
+                verificarVersion(entrada);
+                Oferta oferta = new Oferta();
+                oferta.setId(entrada.texto());
+                oferta.setNombre(entrada.texto());
+                oferta.setDescripcion(entrada.texto());
+                oferta.setTipoOferta(entrada.enumeracion(TipoOferta.class));
+                oferta.setValor(entrada.decimal());
+                oferta.setFechaInicio(entrada.fecha());
+                oferta.setFechaFin(entrada.fecha());
+                oferta.setActiva(entrada.booleano());
+                List<String> ids = entrada.textos();
+                List<Alojamiento> alojamientos = new ArrayList<>();
+                if (ids != null) {
+                    // Un alojamiento eliminado deja de aplicar, pero la oferta se conserva
+                    ids.forEach(id -> referencias.alojamiento(id).ifPresent(alojamientos::add));
+                }
+                oferta.setAlojamientosAplicables(alojamientos);
+                oferta.setMaximoUsos(entrada.entero());
+                oferta.setUsosActuales(entrada.entero());
+                oferta.setCodigoPromocional(entrada.texto());
+                oferta.setEstado(entrada.booleano() ? EstadoOferta.ACTIVA : null);
+                return oferta;
+            }
+        };
+    }
+
+    private static void escribirBase(EscritorBinario salida, Alojamiento alojamiento) {
+        salida.texto(alojamiento.getId())
+                .texto(alojamiento.getNombre())
+                .texto(alojamiento.getCiudad())
+                .texto(alojamiento.getDescripcion())
+                .enumeracion(alojamiento.getTipo())
+                .largo(alojamiento.getPrecioNocheCentavos())
+                .entero(alojamiento.getCapacidadMax())
+                .textos(alojamiento.getServicios())
+                .decimal(alojamiento.getCalificacionPromedio())
+                .booleano(alojamiento.isDisponible())
+                .texto(alojamiento.getPropietario() == null ? null : alojamiento.getPropietario().getId());
+    }
+
+    private static void leerBase(LectorBinario entrada, Alojamiento alojamiento, Referencias referencias) {
+        alojamiento.setId(entrada.texto());
+        alojamiento.setNombre(entrada.texto());
+        alojamiento.setCiudad(entrada.texto());
+        alojamiento.setDescripcion(entrada.texto());
+        alojamiento.setTipo(entrada.enumeracion(TipoAlojamiento.class));
+        alojamiento.setPrecioNocheCentavos(entrada.largo());
+        alojamiento.setCapacidadMax(entrada.entero());
+        List<String> servicios = entrada.textos();
+        alojamiento.setServicios(servicios != null ? servicios : List.of());
+        alojamiento.setCalificacionPromedio(entrada.decimal());
+        alojamiento.setDisponible(entrada.booleano());
+        alojamiento.setPropietario(resolver(entrada.texto(), referencias::usuario, "propietario"));
+    }
+
+    private static void escribirHabitacion(EscritorBinario salida, Habitacion habitacion) {
+        salida.texto(habitacion.getNumero())
+                .largo(habitacion.getPrecioCentavos())
+                .entero(habitacion.getCapacidad())
+                .texto(habitacion.getDescripcion())
+                .texto(habitacion.getImagenUrl())
+                .textos(habitacion.getServicios())
+                .enumeracion(habitacion.getTipo())
+                .booleano(habitacion.isDisponible());
+    }
+
+    private static Habitacion leerHabitacion(LectorBinario entrada) {
+        Habitacion habitacion = new Habitacion();
+        habitacion.setNumero(entrada.texto());
+        habitacion.setPrecioCentavos(entrada.largo());
+        habitacion.setCapacidad(entrada.entero());
+        habitacion.setDescripcion(entrada.texto());
+        habitacion.setImagenUrl(entrada.texto());
+        List<String> servicios = entrada.textos();
+        habitacion.setServicios(servicios != null ? servicios : new ArrayList<>());
+        habitacion.setTipo(entrada.enumeracion(TipoHabitacion.class));
+        habitacion.setDisponible(entrada.booleano());
+        return habitacion;
+    }
+
+    private static void escribirHuesped(EscritorBinario salida, Huesped huesped) {
+        salida.texto(huesped.getNombreCompleto())
+                .texto(huesped.getTipoDocumento())
+                .texto(huesped.getNumeroDocumento())
+                .fecha(huesped.getFechaNacimiento())
+                .texto(huesped.getGenero())
+                .texto(huesped.getNacionalidad())
+                .texto(huesped.getContactoEmergencia())
+                .texto(huesped.getTelefonoEmergencia())
+                .texto(huesped.getNecesidadesEspeciales());
+    }
+
+    private static Huesped leerHuesped(LectorBinario entrada) {
+        return new Huesped(entrada.texto(), entrada.texto(), entrada.texto(), entrada.fecha(),
+                entrada.texto(), entrada.texto(), entrada.texto(), entrada.texto(), entrada.texto());
+    }
+
+    /**
+     * El historial se guarda completo: el saldo de la billetera se explica con sus movimientos
+     */
+    private static void escribirBilletera(EscritorBinario salida, Billetera billetera) {
+        salida.booleano(billetera != null);
+        if (billetera == null) {
+            return;
+        }
+        salida.texto(billetera.getNumeroCuenta())
+                .largo(billetera.getSaldoCentavos())
+                .booleano(billetera.isActiva())
+                .lista(billetera.obtenerHistorial(), CodecsModelo::escribirTransaccion);
+    }
+
+    private static Billetera leerBilletera(LectorBinario entrada) {
+        if (!entrada.booleano()) {
+            return null;
+        }
+        String numeroCuenta = entrada.texto();
+        long saldo = entrada.largo();
+        boolean activa = entrada.booleano();
+        List<Transaccion> historial = entrada.lista(CodecsModelo::leerTransaccion);
+        return Billetera.restaurar(numeroCuenta, saldo, activa, historial != null ? historial : List.of());
+    }
+
+    private static void escribirTransaccion(EscritorBinario salida, Transaccion transaccion) {
+        salida.texto(transaccion.getId())
+                .texto(transaccion.getTipo())
+                .largo(transaccion.getMontoCentavos())
+                .texto(transaccion.getDescripcion())
+                .fechaHora(transaccion.getFecha())
+                .texto(transaccion.getCuentaRelacionada())
+                .texto(transaccion.getMetodoPago())
+                .texto(transaccion.getReferencia())
+                .enumeracion(transaccion.getEstado())
+                .texto(transaccion.getCodigoAutorizacion())
+                .texto(transaccion.getDispositivoOrigen());
+    }
+
+    private static Transaccion leerTransaccion(LectorBinario entrada) {
+        return new Transaccion(entrada.texto(), entrada.texto(), entrada.largo(), entrada.texto(),
+                entrada.fechaHora(), entrada.texto(), entrada.texto(), entrada.texto(),
+                entrada.enumeracion(EstadoTransaccion.class), entrada.texto(), entrada.texto());
+    }
+
+    private static int verificarVersion(LectorBinario entrada) {
+        int version = entrada.entero();
+        if (version < 1 || version > VERSION) {
+            throw new IllegalStateException("Versión de registro no soportada: " + version);
+        }
+        return version;
+    }
+
+    private static Cliente resolverCliente(String id, Referencias referencias) {
+        Usuario usuario = resolver(id, referencias::usuario, "cliente");
+        if (usuario != null && !(usuario instanceof Cliente)) {
+            throw new IllegalStateException("El usuario " + id + " no es un cliente");
+        }
+        return (Cliente) usuario;
+    }
+
+    /**
+     * @return Entidad referenciada, o null si el registro no tenía referencia
+     * @throws IllegalStateException si la entidad referenciada ya no existe
+     */
+    private static <E> E resolver(String id, Function<String, Optional<? extends E>> buscar, String tipo) {
+        if (id == null) {
+            return null;
+        }
+        return buscar.apply(id).orElseThrow(() -> new IllegalStateException("No existe el " + tipo + " " + id));
+    }
+}
@@ -0,0 +1,114 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+import java.util.*;
+
+/**
+ * Colección de entidades de un tipo dentro de un {@link MotorAlmacenamiento}, con su {@link Codec}.
+ * Una escritura tiene dos pasos para poder usarla desde el monitor de un repositorio:
+ * {@link #agregarGuardado} o {@link #agregarEliminacion} agregan el registro al segmento (en el orden
+ * en que se llamen) y devuelven una marca, y {@link #confirmar} espera, ya fuera del monitor, a que
+ * la marca sea durable; así los escritores concurrentes comparten el mismo fsync.
+ * @param <T> Tipo de entidad
+ */
+public final class Coleccion<T> {
+    private static final int MAXIMO_FALLIDOS_INFORMADOS = 10;
+
+    private final MotorAlmacenamiento motor;
+    private final String nombre;
+    private final Codec<T> codec;
+
+    Coleccion(MotorAlmacenamiento motor, String nombre, Codec<T> codec) {
+        this.motor = motor;
+        this.nombre = nombre;
+        this.codec = codec;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Lee la última versión de cada entidad guardada
+     * @return Entidades en orden de ID; con los IDs de GeneradorIds es el orden de creación
+     * @throws IllegalStateException si algún registro no se puede reconstruir (por ejemplo, porque su
+     * alojamiento ya no existe). No se omite: el repositorio volvería a guardar sin él y la pérdida
+     * sería permanente. El mensaje lista los IDs afectados
+     */
+    public List<T> cargar() {
+        TreeMap<String, MotorAlmacenamiento.Ubicacion> ordenadas = new TreeMap<>(motor.ubicaciones(nombre));
+        List<T> elementos = new ArrayList<>(ordenadas.size());
+        List<String> fallidos = new ArrayList<>();
+        RuntimeException error = null;
+        for (Map.Entry<String, MotorAlmacenamiento.Ubicacion> entrada : ordenadas.entrySet()) {
+            try {
+                elementos.add(motor.leer(entrada.getValue(), codec));
+            } catch (RuntimeException e) {
+                fallidos.add(entrada.getKey());
+                if (error == null) {
+                    error = e;
+                } else if (error.getSuppressed().length < MAXIMO_FALLIDOS_INFORMADOS) {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw new IllegalStateException(String.format("No se pudieron cargar %d registros de %s: %s%s",
+                    fallidos.size(), nombre,
+                    String.join(", ", fallidos.subList(0, Math.min(fallidos.size(), MAXIMO_FALLIDOS_INFORMADOS))),
+                    fallidos.size() > MAXIMO_FALLIDOS_INFORMADOS ? ", ..." : ""), error);
+        }
+        return elementos;
+    }
+
+    /**
+     * @param id ID de la entidad
+     * @return Última versión guardada, leída del segmento
+     */
+    public Optional<T> buscar(String id) {
+        MotorAlmacenamiento.Ubicacion ubicacion = motor.ubicaciones(nombre).get(id);
+        return ubicacion == null ? Optional.empty() : Optional.of(motor.leer(ubicacion, codec));
+    }
+
+    public int contar() {
+        return motor.ubicaciones(nombre).size();
+    }
+
+    /**
+     * Guarda la entidad y espera según la {@link Durabilidad} del motor
+     */
+    public void guardar(String id, T elemento) {
+        confirmar(agregarGuardado(id, elemento));
+    }
+
+    /**
+     * Elimina la entidad y espera según la {@link Durabilidad} del motor
+     */
+    public void eliminar(String id) {
+        confirmar(agregarEliminacion(id));
+    }
+
+    /**
+     * Agrega la nueva versión de la entidad al segmento sin esperar el disco
+     * @return Marca para {@link #confirmar}
+     */
+    public long agregarGuardado(String id, T elemento) {
+        EscritorBinario registro = MotorAlmacenamiento.iniciarRegistro(nombre, id);
+        codec.escribir(registro, elemento);
+        return motor.poner(nombre, id, registro);
+    }
+
+    /**
+     * Agrega el borrado de la entidad al segmento sin esperar el disco
+     * @return Marca para {@link #confirmar}
+     */
+    public long agregarEliminacion(String id) {
+        return motor.borrar(nombre, id);
+    }
+
+    /**
+     * Espera a que lo agregado hasta la marca sea durable (con {@link Durabilidad#DIFERIDA} no espera)
+     */
+    public void confirmar(long marca) {
+        motor.confirmar(marca);
+    }
+}
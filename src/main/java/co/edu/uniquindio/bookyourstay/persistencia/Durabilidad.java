@@ -0,0 +1,17 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+/**
+ * Cuándo se considera terminada una escritura del {@link MotorAlmacenamiento}
+ */
+public enum Durabilidad {
+    /**
+     * La escritura vuelve cuando está en disco. Las escrituras concurrentes comparten un mismo fsync
+     * (group commit): mientras uno fuerza el archivo, los demás se acumulan y los cubre el siguiente
+     */
+    SINCRONA,
+    /**
+     * La escritura vuelve cuando el sistema operativo la recibió y el archivo se fuerza periódicamente;
+     * una caída de la máquina puede perder las escrituras del último intervalo, pero no dañar las anteriores
+     */
+    DIFERIDA
+}
@@ -0,0 +1,144 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.BiConsumer;
+
+/**
+ * Codifica valores en el formato binario compacto de los registros.
+ * Los enteros se escriben como varint en zigzag (1 byte para valores pequeños), los textos como
+ * longitud más UTF-8 y las fechas como días o segundos desde la época. Los valores que pueden ser
+ * nulos llevan la marca en la propia longitud, así un nulo ocupa un solo byte.
+ * Lo lee {@link LectorBinario} en el mismo orden.
+ */
+public final class EscritorBinario {
+    private byte[] datos;
+    private int tamaño;
+
+    public EscritorBinario() {
+        this(64);
+    }
+
+    EscritorBinario(int capacidad) {
+        this.datos = new byte[capacidad];
+    }
+
+    public EscritorBinario booleano(boolean valor) {
+        asegurar(1);
+        datos[tamaño++] = (byte) (valor ? 1 : 0);
+        return this;
+    }
+
+    public EscritorBinario entero(int valor) {
+        return largo(valor);
+    }
+
+    public EscritorBinario largo(long valor) {
+        return sinSigno((valor << 1) ^ (valor >> 63));
+    }
+
+    public EscritorBinario decimal(float valor) {
+        int bits = Float.floatToIntBits(valor);
+        asegurar(4);
+        datos[tamaño++] = (byte) (bits >>> 24);
+        datos[tamaño++] = (byte) (bits >>> 16);
+        datos[tamaño++] = (byte) (bits >>> 8);
+        datos[tamaño++] = (byte) bits;
+        return this;
+    }
+
+    /**
+     * @param valor Texto, puede ser nulo
+     */
+    public EscritorBinario texto(String valor) {
+        if (valor == null) {
+            return sinSigno(0);
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        sinSigno(bytes.length + 1L);
+        return bytes(bytes, 0, bytes.length);
+    }
+
+    public EscritorBinario enumeracion(Enum<?> valor) {
+        return texto(valor == null ? null : valor.name());
+    }
+
+    public EscritorBinario fecha(LocalDate valor) {
+        booleano(valor != null);
+        return valor == null ? this : largo(valor.toEpochDay());
+    }
+
+    public EscritorBinario fechaHora(LocalDateTime valor) {
+        booleano(valor != null);
+        return valor == null ? this : largo(valor.toEpochSecond(ZoneOffset.UTC)).entero(valor.getNano());
+    }
+
+    /**
+     * @param elementos Colección, puede ser nula
+     * @param escribir Escribe cada elemento
+     */
+    public <E> EscritorBinario lista(Collection<E> elementos, BiConsumer<EscritorBinario, E> escribir) {
+        if (elementos == null) {
+            return sinSigno(0);
+        }
+        sinSigno(elementos.size() + 1L);
+        for (E elemento : elementos) {
+            escribir.accept(this, elemento);
+        }
+        return this;
+    }
+
+    public EscritorBinario textos(Collection<String> valores) {
+        return lista(valores, EscritorBinario::texto);
+    }
+
+    EscritorBinario octeto(int valor) {
+        asegurar(1);
+        datos[tamaño++] = (byte) valor;
+        return this;
+    }
+
+    /**
+     * Deja espacio para una cabecera que se completa después
+     */
+    EscritorBinario reservar(int bytes) {
+        asegurar(bytes);
+        tamaño += bytes;
+        return this;
+    }
+
+    EscritorBinario bytes(byte[] origen, int desde, int longitud) {
+        asegurar(longitud);
+        System.arraycopy(origen, desde, datos, tamaño, longitud);
+        tamaño += longitud;
+        return this;
+    }
+
+    EscritorBinario sinSigno(long valor) {
+        asegurar(10);
+        while ((valor & ~0x7FL) != 0) {
+            datos[tamaño++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        datos[tamaño++] = (byte) valor;
+        return this;
+    }
+
+    int tamaño() {
+        return tamaño;
+    }
+
+    byte[] datos() {
+        return datos;
+    }
+
+    private void asegurar(int adicional) {
+        if (tamaño + adicional > datos.length) {
+            datos = Arrays.copyOf(datos, Math.max(datos.length * 2, tamaño + adicional));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Decodifica los valores escritos por {@link EscritorBinario}, en el mismo orden.
+ * Lee directamente del buffer del registro (que puede estar mapeado en memoria) sin copiarlo.
+ */
+public final class LectorBinario {
+    private final ByteBuffer buffer;
+
+    LectorBinario(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public boolean booleano() {
+        return buffer.get() != 0;
+    }
+
+    public int entero() {
+        return Math.toIntExact(largo());
+    }
+
+    public long largo() {
+        long valor = sinSigno();
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    public float decimal() {
+        return Float.intBitsToFloat(buffer.getInt());
+    }
+
+    public String texto() {
+        int longitud = longitudConNulo();
+        if (longitud < 0) {
+            return null;
+        }
+        String valor;
+        if (buffer.hasArray()) {
+            valor = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), longitud, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + longitud);
+        } else {
+            byte[] bytes = new byte[longitud];
+            buffer.get(bytes);
+            valor = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return valor;
+    }
+
+    public <E extends Enum<E>> E enumeracion(Class<E> tipo) {
+        String nombre = texto();
+        return nombre == null ? null : Enum.valueOf(tipo, nombre);
+    }
+
+    public LocalDate fecha() {
+        return booleano() ? LocalDate.ofEpochDay(largo()) : null;
+    }
+
+    public LocalDateTime fechaHora() {
+        return booleano() ? LocalDateTime.ofEpochSecond(largo(), entero(), ZoneOffset.UTC) : null;
+    }
+
+    /**
+     * @param leer Lee cada elemento
+     * @return Lista modificable, o null si se escribió una colección nula
+     */
+    public <E> List<E> lista(Function<LectorBinario, E> leer) {
+        int cantidad = longitudConNulo();
+        if (cantidad < 0) {
+            return null;
+        }
+        List<E> elementos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            elementos.add(leer.apply(this));
+        }
+        return elementos;
+    }
+
+    public List<String> textos() {
+        return lista(LectorBinario::texto);
+    }
+
+    long sinSigno() {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            byte b = buffer.get();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+        throw new IllegalStateException("Entero mal codificado en el registro");
+    }
+
+    /**
+     * @return Longitud escrita, o -1 si se marcó como nula
+     */
+    private int longitudConNulo() {
+        long valor = sinSigno();
+        // Cada byte de texto o elemento de lista ocupa al menos un byte: una longitud mayor es un registro dañado
+        if (valor - 1 > buffer.remaining()) {
+            throw new IllegalStateException("Longitud fuera de rango en el registro: " + (valor - 1));
+        }
+        return (int) valor - 1;
+    }
+}
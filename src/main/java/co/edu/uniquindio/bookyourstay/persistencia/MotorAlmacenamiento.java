@@ -0,0 +1,749 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * Motor de almacenamiento embebido con estructura de registro (log-structured) para los repositorios.
+ * Cada cambio se agrega al final del segmento activo como un registro binario:
+ * <pre>[longitud del cuerpo: int][CRC32C del cuerpo: int][tipo: byte][colección][ID][datos del codec]</pre>
+ * y un índice en memoria guarda, por colección e ID, dónde está la última versión. Al llegar al tamaño
+ * límite el segmento se sella (se fuerza a disco y se mapea en memoria) y se abre uno nuevo.
+ * <p>
+ * Al abrir se recorren los segmentos verificando el CRC de cada registro para reconstruir el índice:
+ * un final incompleto en el último segmento (una escritura cortada por una caída) se descarta, pero
+ * un registro dañado seguido de registros válidos, o cualquier daño en un segmento sellado, detiene la
+ * apertura con {@link IllegalStateException}: descartarlo borraría escrituras ya confirmadas.
+ * Un hilo en segundo plano compacta los segmentos sellados cuando más de la mitad de sus bytes son
+ * versiones viejas o borradas: copia los registros vigentes al segmento activo y solo después de
+ * forzarlos anota en el manifiesto desde qué segmento empieza el almacenamiento, así una caída a
+ * mitad de la compactación no pierde ni resucita datos.
+ * <p>
+ * Las escrituras se serializan en el monitor del motor, que solo cubre la llamada de escritura al
+ * sistema operativo; la espera del fsync ({@link Durabilidad#SINCRONA}) ocurre fuera de él y la
+ * comparten todos los escritores que llegaron mientras se forzaba el anterior.
+ * <p>
+ * Si un fsync falla no se sabe qué llegó al disco, así que el motor deja de aceptar escrituras.
+ * Los errores del mantenimiento en segundo plano se guardan y los lanza la siguiente llamada a
+ * {@link #sincronizar()} o {@link #close()}.
+ */
+public class MotorAlmacenamiento implements Closeable {
+    public static final long TAMAÑO_SEGMENTO = 16L * 1024 * 1024;
+    private static final int CABECERA_REGISTRO = 8;
+    private static final byte PONER = 1;
+    private static final byte BORRAR = 2;
+    // "BYSM"
+    private static final int MAGIA_MANIFIESTO = 0x4259534D;
+    private static final String MANIFIESTO = "manifiesto";
+    private static final Pattern NOMBRE_SEGMENTO = Pattern.compile("segmento-(\\d+)\\.dat");
+    private static final long INTERVALO_DIFERIDA_MILISEGUNDOS = 200;
+    private static final long INTERVALO_COMPACTACION_SEGUNDOS = 30;
+
+    // Un único hilo daemon fuerza y compacta todos los motores abiertos
+    private static final ScheduledExecutorService MANTENIMIENTO = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "mantenimiento-almacenamiento");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final Path directorio;
+    private final Durabilidad durabilidad;
+    private final long tamañoSegmento;
+    // Segmentos vigentes en orden; el último es el activo
+    private final List<Segmento> segmentos = new ArrayList<>();
+    // Colección -> ID -> registro con la última versión; se lee sin bloqueo
+    private final Map<String, Map<String, Ubicacion>> indice = new ConcurrentHashMap<>();
+    private final List<ScheduledFuture<?>> tareas = new ArrayList<>();
+    private final AtomicBoolean compactando = new AtomicBoolean();
+    // Primer error del mantenimiento en segundo plano que todavía no se ha informado
+    private final AtomicReference<RuntimeException> errorMantenimiento = new AtomicReference<>();
+    // Error de un fsync; desde entonces se rechazan las escrituras
+    private volatile UncheckedIOException falloDisco;
+    // Bytes del final incompleto del segmento activo que se descartaron al abrir
+    private long bytesDescartados;
+    private Segmento activo;
+    // Bytes agregados desde la apertura: marca lógica que cada escritura espera ver en disco
+    private long escrito;
+    private boolean cerrado;
+
+    // Coordinación del group commit; nunca se toma el monitor del motor mientras se tiene este candado
+    private final Object candadoDisco = new Object();
+    private long durable;
+    private boolean forzando;
+
+    private MotorAlmacenamiento(Path directorio, Durabilidad durabilidad, long tamañoSegmento) {
+        this.directorio = directorio;
+        this.durabilidad = durabilidad;
+        this.tamañoSegmento = tamañoSegmento;
+    }
+
+    /**
+     * Abre (o crea) el almacenamiento del directorio y recupera su contenido
+     * @param directorio Directorio de los segmentos
+     * @param durabilidad Cuándo se considera terminada una escritura
+     * @return Motor abierto
+     * @throws UncheckedIOException si no se pueden leer o crear los archivos
+     * @throws IllegalStateException si un segmento sellado o el manifiesto están dañados
+     */
+    public static MotorAlmacenamiento abrir(Path directorio, Durabilidad durabilidad) {
+        return abrir(directorio, durabilidad, TAMAÑO_SEGMENTO);
+    }
+
+    /**
+     * @param tamañoSegmento Tamaño a partir del cual se sella el segmento activo
+     * @see #abrir(Path, Durabilidad)
+     */
+    public static MotorAlmacenamiento abrir(Path directorio, Durabilidad durabilidad, long tamañoSegmento) {
+        if (tamañoSegmento < 4096 || tamañoSegmento > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("El tamaño de segmento debe estar entre 4 KiB y 2 GiB");
+        }
+        MotorAlmacenamiento motor = new MotorAlmacenamiento(directorio, durabilidad, tamañoSegmento);
+        try {
+            motor.recuperar();
+        } catch (IOException | RuntimeException e) {
+            RuntimeException error = e instanceof IOException io
+                    ? new UncheckedIOException("Error al abrir el almacenamiento en: " + directorio, io)
+                    : (RuntimeException) e;
+            IOException alCerrar = motor.cerrarSegmentos();
+            if (alCerrar != null) {
+                error.addSuppressed(alCerrar);
+            }
+            throw error;
+        }
+        motor.programarMantenimiento();
+        return motor;
+    }
+
+    /**
+     * @param nombre Nombre de la colección dentro del almacenamiento
+     * @param codec Formato de sus entidades
+     * @return Colección sobre este motor; varias instancias con el mismo nombre comparten los datos
+     */
+    public <T> Coleccion<T> coleccion(String nombre, Codec<T> codec) {
+        if (nombre == null || nombre.isBlank()) {
+            throw new IllegalArgumentException("El nombre de la colección es requerido");
+        }
+        return new Coleccion<>(this, nombre, codec);
+    }
+
+    public Durabilidad getDurabilidad() {
+        return durabilidad;
+    }
+
+    /**
+     * @return Bytes de una escritura incompleta que se descartaron del final del último segmento al
+     * abrir; distinto de cero solo si el proceso anterior terminó a mitad de una escritura
+     */
+    public synchronized long getBytesDescartados() {
+        return bytesDescartados;
+    }
+
+    /**
+     * Espera a que todo lo escrito hasta ahora esté en disco
+     * @throws IllegalStateException si falló una tarea de mantenimiento en segundo plano desde la última llamada
+     */
+    public void sincronizar() {
+        informarErrorMantenimiento();
+        forzarTodo();
+    }
+
+    /**
+     * Copia los registros vigentes de los segmentos sellados al segmento activo y borra los sellados.
+     * Los escritores solo esperan la copia de un registro a la vez
+     */
+    public void compactar() {
+        if (!compactando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Segmento> origen;
+            int base;
+            synchronized (this) {
+                if (cerrado || segmentos.size() < 2) {
+                    return;
+                }
+                origen = new ArrayList<>(segmentos.subList(0, segmentos.size() - 1));
+                base = activo.numero;
+            }
+            for (Segmento segmento : origen) {
+                if (!copiarVigentes(segmento)) {
+                    return;
+                }
+            }
+            // Los segmentos sellados durante la copia ya se forzaron al sellarse
+            Segmento destino;
+            synchronized (this) {
+                destino = activo;
+            }
+            destino.forzar();
+            escribirManifiesto(base);
+            synchronized (this) {
+                segmentos.removeAll(origen);
+            }
+            // El manifiesto ya excluye los segmentos copiados: si no se pueden borrar ahora, se borran al abrir
+            IOException noBorrados = null;
+            for (Segmento segmento : origen) {
+                try {
+                    Files.deleteIfExists(segmento.ruta);
+                } catch (IOException e) {
+                    if (noBorrados == null) {
+                        noBorrados = e;
+                    } else {
+                        noBorrados.addSuppressed(e);
+                    }
+                }
+            }
+            if (noBorrados != null) {
+                throw new UncheckedIOException("La compactación terminó, pero quedaron segmentos sin borrar en: "
+                        + directorio + "; se borrarán al volver a abrir", noBorrados);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al compactar el almacenamiento: " + directorio, e);
+        } finally {
+            compactando.set(false);
+        }
+    }
+
+    /**
+     * Fuerza a disco lo pendiente y cierra los archivos. Las escrituras posteriores fallan
+     * @throws UncheckedIOException si no se pudo forzar o cerrar algún archivo
+     * @throws IllegalStateException si falló una tarea de mantenimiento que no se había informado
+     */
+    @Override
+    public void close() {
+        IOException error = null;
+        synchronized (this) {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            tareas.forEach(tarea -> tarea.cancel(false));
+            try {
+                activo.forzar();
+            } catch (IOException e) {
+                error = e;
+            }
+            IOException alCerrar = cerrarSegmentos();
+            if (error == null) {
+                error = alCerrar;
+            } else if (alCerrar != null) {
+                error.addSuppressed(alCerrar);
+            }
+        }
+        synchronized (candadoDisco) {
+            candadoDisco.notifyAll();
+        }
+        if (error != null) {
+            throw new UncheckedIOException("Error al cerrar el almacenamiento: " + directorio, error);
+        }
+        informarErrorMantenimiento();
+    }
+
+    /**
+     * @return Registro nuevo de tipo PONER con la cabecera reservada; el codec escribe los datos a continuación
+     */
+    static EscritorBinario iniciarRegistro(String coleccion, String id) {
+        return iniciarRegistro(PONER, coleccion, id);
+    }
+
+    /**
+     * Agrega un registro iniciado con {@link #iniciarRegistro(String, String)}
+     * @return Marca para {@link #confirmar}
+     */
+    long poner(String coleccion, String id, EscritorBinario registro) {
+        return agregar(coleccion, id, registro, false);
+    }
+
+    long borrar(String coleccion, String id) {
+        return agregar(coleccion, id, iniciarRegistro(BORRAR, coleccion, id), true);
+    }
+
+    /**
+     * Con {@link Durabilidad#SINCRONA} espera a que la marca esté en disco; con {@link Durabilidad#DIFERIDA} vuelve enseguida
+     */
+    void confirmar(long marca) {
+        if (durabilidad == Durabilidad.SINCRONA) {
+            esperarDurable(marca);
+        }
+    }
+
+    Map<String, Ubicacion> ubicaciones(String coleccion) {
+        return indice.getOrDefault(coleccion, Map.of());
+    }
+
+    /**
+     * Lee y decodifica un registro verificando su CRC
+     */
+    <T> T leer(Ubicacion ubicacion, Codec<T> codec) {
+        ByteBuffer registro;
+        try {
+            registro = ubicacion.segmento().leer(ubicacion.posicion(), ubicacion.longitud());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el almacenamiento: " + directorio, e);
+        }
+        int longitud = ubicacion.longitud() - CABECERA_REGISTRO;
+        if (registro.getInt(0) != longitud || crc(registro.slice(CABECERA_REGISTRO, longitud)) != registro.getInt(4)) {
+            throw new IllegalStateException(String.format("Registro dañado en %s, posición %d",
+                    ubicacion.segmento().ruta.getFileName(), ubicacion.posicion()));
+        }
+        ByteBuffer cuerpo = registro.slice(CABECERA_REGISTRO, longitud);
+        LectorBinario lector = new LectorBinario(cuerpo);
+        cuerpo.get();
+        lector.texto();
+        lector.texto();
+        return codec.leer(lector);
+    }
+
+    private static EscritorBinario iniciarRegistro(byte tipo, String coleccion, String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("El ID no puede ser nulo");
+        }
+        return new EscritorBinario(128)
+                .reservar(CABECERA_REGISTRO)
+                .octeto(tipo)
+                .texto(coleccion)
+                .texto(id);
+    }
+
+    private long agregar(String coleccion, String id, EscritorBinario registro, boolean borrado) {
+        int total = registro.tamaño();
+        if (total > tamañoSegmento - Segmento.CABECERA) {
+            throw new IllegalArgumentException("El registro de " + coleccion + "/" + id + " supera el tamaño del segmento");
+        }
+        // La cabecera y el CRC se calculan fuera del monitor
+        ByteBuffer buffer = ByteBuffer.wrap(registro.datos(), 0, total);
+        buffer.putInt(0, total - CABECERA_REGISTRO)
+                .putInt(4, crc(buffer.slice(CABECERA_REGISTRO, total - CABECERA_REGISTRO)));
+        synchronized (this) {
+            if (cerrado) {
+                throw new IllegalStateException("El almacenamiento está cerrado");
+            }
+            if (falloDisco != null) {
+                throw new IllegalStateException("El almacenamiento no acepta escrituras después de un error al forzar a disco", falloDisco);
+            }
+            try {
+                Ubicacion ubicacion = anexar(buffer, total);
+                registrar(coleccion, id, borrado ? null : ubicacion);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error al escribir en el almacenamiento: " + directorio, e);
+            }
+            return escrito;
+        }
+    }
+
+    /**
+     * Escribe un registro completo al final del segmento activo, sellándolo antes si no cabe. Se llama bajo el monitor
+     */
+    private Ubicacion anexar(ByteBuffer registro, int total) throws IOException {
+        if (activo.tamaño + total > tamañoSegmento) {
+            activo.sellar();
+            activo = Segmento.crear(directorio, activo.numero + 1);
+            segmentos.add(activo);
+            sincronizarDirectorio();
+        }
+        long posicion = activo.tamaño;
+        activo.escribir(registro, posicion);
+        activo.tamaño += total;
+        escrito += total;
+        return new Ubicacion(activo, posicion, total);
+    }
+
+    /**
+     * Apunta el índice al registro nuevo (o lo quita si es un borrado) y ajusta los bytes vigentes de cada segmento
+     */
+    private void registrar(String coleccion, String id, Ubicacion nueva) {
+        Map<String, Ubicacion> ubicaciones = indice.computeIfAbsent(coleccion, c -> new ConcurrentHashMap<>());
+        Ubicacion anterior = nueva == null ? ubicaciones.remove(id) : ubicaciones.put(id, nueva);
+        if (anterior != null) {
+            anterior.segmento().vivos -= anterior.longitud();
+        }
+        if (nueva != null) {
+            nueva.segmento().vivos += nueva.longitud();
+        }
+    }
+
+    /**
+     * Espera a que la marca esté en disco. Si nadie está forzando el archivo, este hilo lo fuerza hasta
+     * lo escrito en ese momento (que cubre a todos los que esperan); si no, espera a que termine el otro.
+     * Una interrupción no corta la espera: la escritura ya es visible y el llamador debe saber si quedó en disco
+     */
+    private void esperarDurable(long marca) {
+        boolean interrumpido = false;
+        try {
+            while (true) {
+                synchronized (candadoDisco) {
+                    while (durable < marca && forzando) {
+                        try {
+                            candadoDisco.wait();
+                        } catch (InterruptedException e) {
+                            interrumpido = true;
+                        }
+                    }
+                    if (durable >= marca) {
+                        return;
+                    }
+                    // Reintentar el fsync podría dar éxito sin que los datos lleguen al disco
+                    if (falloDisco != null) {
+                        throw new IllegalStateException("No se puede confirmar la escritura: falló un fsync anterior", falloDisco);
+                    }
+                    forzando = true;
+                }
+                forzarLoEscrito();
+            }
+        } finally {
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void forzarLoEscrito() {
+        long hasta = -1;
+        try {
+            Segmento segmento;
+            long limite;
+            synchronized (this) {
+                segmento = activo;
+                limite = escrito;
+            }
+            // Si el segmento se sella o se cierra mientras tanto, sellarlo o cerrarlo ya lo forzó
+            segmento.forzar();
+            hasta = limite;
+        } catch (IOException e) {
+            falloDisco = new UncheckedIOException("Error al forzar el almacenamiento a disco: " + directorio, e);
+            throw falloDisco;
+        } finally {
+            synchronized (candadoDisco) {
+                forzando = false;
+                durable = Math.max(durable, hasta);
+                candadoDisco.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Copia al segmento activo los registros del segmento que siguen vigentes
+     * @return false si el motor se cerró a mitad de camino
+     */
+    private boolean copiarVigentes(Segmento segmento) throws IOException {
+        ByteBuffer contenido = segmento.contenido();
+        int posicion = Segmento.CABECERA;
+        while (posicion < contenido.limit()) {
+            int total = CABECERA_REGISTRO + contenido.getInt(posicion);
+            ByteBuffer cuerpo = contenido.slice(posicion + CABECERA_REGISTRO, total - CABECERA_REGISTRO);
+            byte tipo = cuerpo.get();
+            LectorBinario lector = new LectorBinario(cuerpo);
+            String coleccion = lector.texto();
+            String id = lector.texto();
+            if (tipo == PONER) {
+                Ubicacion original = new Ubicacion(segmento, posicion, total);
+                synchronized (this) {
+                    if (cerrado) {
+                        return false;
+                    }
+                    if (original.equals(ubicaciones(coleccion).get(id))) {
+                        registrar(coleccion, id, anexar(contenido.slice(posicion, total), total));
+                    }
+                }
+            }
+            posicion += total;
+        }
+        return true;
+    }
+
+    private synchronized boolean debeCompactar() {
+        if (cerrado || segmentos.size() < 3) {
+            return false;
+        }
+        long total = 0;
+        long vivos = 0;
+        for (Segmento segmento : segmentos.subList(0, segmentos.size() - 1)) {
+            total += segmento.tamaño - Segmento.CABECERA;
+            vivos += segmento.vivos;
+        }
+        return vivos * 2 < total;
+    }
+
+    private void recuperar() throws IOException {
+        Files.createDirectories(directorio);
+        int base = leerManifiesto();
+        TreeMap<Integer, Path> archivos = new TreeMap<>();
+        try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio, "segmento-*.dat")) {
+            for (Path ruta : contenido) {
+                Matcher nombre = NOMBRE_SEGMENTO.matcher(ruta.getFileName().toString());
+                if (nombre.matches()) {
+                    archivos.put(Integer.parseInt(nombre.group(1)), ruta);
+                }
+            }
+        }
+        // Los anteriores a la base ya se copiaron en una compactación que terminó
+        SortedMap<Integer, Path> compactados = archivos.headMap(base);
+        for (Path ruta : compactados.values()) {
+            Files.deleteIfExists(ruta);
+        }
+        compactados.clear();
+
+        for (Map.Entry<Integer, Path> archivo : archivos.entrySet()) {
+            if (archivo.getKey().equals(archivos.lastKey())) {
+                recuperarActivo(archivo.getValue(), archivo.getKey());
+            } else {
+                recuperarSellado(archivo.getValue(), archivo.getKey());
+            }
+        }
+        if (activo == null) {
+            activo = Segmento.crear(directorio, Math.max(base, 1));
+            segmentos.add(activo);
+            sincronizarDirectorio();
+        }
+    }
+
+    private void recuperarSellado(Path ruta, int numero) throws IOException {
+        MappedByteBuffer mapa;
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("El segmento " + ruta.getFileName() + " es demasiado grande");
+            }
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        Segmento segmento = Segmento.abrirSellado(ruta, numero, mapa);
+        segmentos.add(segmento);
+        int fin = recorrer(segmento, segmento.contenido());
+        if (fin != segmento.tamaño) {
+            throw new IllegalStateException(String.format("El segmento %s está dañado en la posición %d",
+                    ruta.getFileName(), Math.max(fin, 0)));
+        }
+    }
+
+    /**
+     * Recupera el último segmento. Si después del último registro válido no queda ningún registro
+     * válido, lo que sigue es una escritura que no terminó antes de una caída y se descarta. Si hay
+     * registros válidos más adelante el daño está en medio del archivo: descartar desde ahí borraría
+     * escrituras confirmadas, así que la apertura falla igual que con un segmento sellado
+     */
+    private void recuperarActivo(Path ruta, int numero) throws IOException {
+        Segmento segmento = Segmento.abrirActivo(ruta, numero);
+        activo = segmento;
+        segmentos.add(segmento);
+        if (segmento.tamaño > Integer.MAX_VALUE) {
+            throw new IllegalStateException("El segmento " + ruta.getFileName() + " es demasiado grande");
+        }
+        ByteBuffer contenido = segmento.leer(0, (int) segmento.tamaño);
+        int fin = recorrer(segmento, contenido);
+        if (fin < 0) {
+            if (segmento.tamaño >= Segmento.CABECERA) {
+                throw new IllegalStateException("El archivo " + ruta.getFileName() + " no es un segmento válido");
+            }
+            // La caída ocurrió al crear el segmento, antes de escribir su cabecera
+            segmento.truncar(0);
+            segmento.escribir(ByteBuffer.allocate(Segmento.CABECERA).putInt(Segmento.MAGIA).putInt(numero).flip(), 0);
+            segmento.tamaño = Segmento.CABECERA;
+        } else if (fin < segmento.tamaño) {
+            int siguiente = buscarRegistro(contenido, fin + 1);
+            if (siguiente >= 0) {
+                throw new IllegalStateException(String.format(
+                        "El segmento %s está dañado en la posición %d y tiene registros válidos desde la posición %d",
+                        ruta.getFileName(), fin, siguiente));
+            }
+            bytesDescartados = segmento.tamaño - fin;
+            segmento.truncar(fin);
+        }
+    }
+
+    /**
+     * Recorre los registros del segmento verificando su CRC y los aplica al índice
+     * @return Posición donde terminan los registros válidos, o -1 si la cabecera no es válida
+     */
+    private int recorrer(Segmento segmento, ByteBuffer contenido) {
+        if (contenido.limit() < Segmento.CABECERA || contenido.getInt(0) != Segmento.MAGIA
+                || contenido.getInt(4) != segmento.numero) {
+            return -1;
+        }
+        int posicion = Segmento.CABECERA;
+        while (esRegistro(contenido, posicion)) {
+            int longitud = contenido.getInt(posicion);
+            ByteBuffer cuerpo = contenido.slice(posicion + CABECERA_REGISTRO, longitud);
+            byte tipo = cuerpo.get();
+            String coleccion;
+            String id;
+            try {
+                LectorBinario lector = new LectorBinario(cuerpo);
+                coleccion = lector.texto();
+                id = lector.texto();
+            } catch (RuntimeException e) {
+                break;
+            }
+            if (coleccion == null || id == null) {
+                break;
+            }
+            int total = CABECERA_REGISTRO + longitud;
+            registrar(coleccion, id, tipo == PONER ? new Ubicacion(segmento, posicion, total) : null);
+            posicion += total;
+        }
+        return posicion;
+    }
+
+    /**
+     * @return Posición del primer registro válido desde {@code desde}, o -1 si no hay ninguno
+     */
+    private static int buscarRegistro(ByteBuffer contenido, int desde) {
+        for (int posicion = desde; contenido.limit() - posicion > CABECERA_REGISTRO; posicion++) {
+            if (esRegistro(contenido, posicion)) {
+                return posicion;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Verifica la longitud, el tipo y el CRC del registro que empezaría en la posición
+     */
+    private static boolean esRegistro(ByteBuffer contenido, int posicion) {
+        if (contenido.limit() - posicion < CABECERA_REGISTRO) {
+            return false;
+        }
+        int longitud = contenido.getInt(posicion);
+        // Una longitud cero es el relleno de ceros que deja un archivo extendido sin datos
+        if (longitud <= 0 || longitud > contenido.limit() - posicion - CABECERA_REGISTRO) {
+            return false;
+        }
+        byte tipo = contenido.get(posicion + CABECERA_REGISTRO);
+        return (tipo == PONER || tipo == BORRAR)
+                && crc(contenido.slice(posicion + CABECERA_REGISTRO, longitud)) == contenido.getInt(posicion + 4);
+    }
+
+    private int leerManifiesto() throws IOException {
+        Path ruta = directorio.resolve(MANIFIESTO);
+        if (!Files.exists(ruta)) {
+            return 0;
+        }
+        ByteBuffer contenido = ByteBuffer.wrap(Files.readAllBytes(ruta));
+        if (contenido.limit() != 12 || contenido.getInt(0) != MAGIA_MANIFIESTO
+                || crc(contenido.slice(0, 8)) != contenido.getInt(8)) {
+            throw new IllegalStateException("El manifiesto del almacenamiento está dañado: " + ruta);
+        }
+        return contenido.getInt(4);
+    }
+
+    /**
+     * Reemplaza el manifiesto de forma atómica: se escribe y fuerza un temporal y luego se renombra
+     */
+    private void escribirManifiesto(int base) throws IOException {
+        ByteBuffer contenido = ByteBuffer.allocate(12).putInt(MAGIA_MANIFIESTO).putInt(base);
+        contenido.putInt(crc(contenido.slice(0, 8))).flip();
+        Path temporal = directorio.resolve(MANIFIESTO + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (contenido.hasRemaining()) {
+                canal.write(contenido);
+            }
+            canal.force(true);
+        }
+        Files.move(temporal, directorio.resolve(MANIFIESTO),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        sincronizarDirectorio();
+    }
+
+    /**
+     * Hace durable la creación o el renombre de archivos del directorio donde el sistema lo permite
+     */
+    private void sincronizarDirectorio() {
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Algunos sistemas (Windows) no permiten abrir un directorio; ahí el renombre ya es durable
+        }
+    }
+
+    private void programarMantenimiento() {
+        if (durabilidad == Durabilidad.DIFERIDA) {
+            tareas.add(MANTENIMIENTO.scheduleWithFixedDelay(this::sincronizarPeriodicamente,
+                    INTERVALO_DIFERIDA_MILISEGUNDOS, INTERVALO_DIFERIDA_MILISEGUNDOS, TimeUnit.MILLISECONDS));
+        }
+        tareas.add(MANTENIMIENTO.scheduleWithFixedDelay(this::compactarSiConviene,
+                INTERVALO_COMPACTACION_SEGUNDOS, INTERVALO_COMPACTACION_SEGUNDOS, TimeUnit.SECONDS));
+    }
+
+    private void forzarTodo() {
+        long marca;
+        synchronized (this) {
+            marca = escrito;
+        }
+        esperarDurable(marca);
+    }
+
+    private void sincronizarPeriodicamente() {
+        try {
+            forzarTodo();
+        } catch (RuntimeException e) {
+            errorMantenimiento.compareAndSet(null, e);
+        }
+    }
+
+    private void compactarSiConviene() {
+        try {
+            if (debeCompactar()) {
+                compactar();
+            }
+        } catch (RuntimeException e) {
+            errorMantenimiento.compareAndSet(null, e);
+        }
+    }
+
+    private void informarErrorMantenimiento() {
+        RuntimeException error = errorMantenimiento.getAndSet(null);
+        if (error != null) {
+            throw new IllegalStateException("Falló el mantenimiento en segundo plano del almacenamiento: " + directorio, error);
+        }
+    }
+
+    /**
+     * @return Primer error al cerrar un segmento, con los demás como suprimidos, o null si todos se cerraron
+     */
+    private IOException cerrarSegmentos() {
+        IOException error = null;
+        for (Segmento segmento : segmentos) {
+            try {
+                segmento.cerrar();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        return error;
+    }
+
+    private static int crc(ByteBuffer datos) {
+        CRC32C crc = new CRC32C();
+        crc.update(datos);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Posición de un registro completo (cabecera incluida) dentro de un segmento
+     */
+    record Ubicacion(Segmento segmento, long posicion, int longitud) {
+    }
+}
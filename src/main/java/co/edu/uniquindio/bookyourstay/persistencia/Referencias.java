@@ -0,0 +1,20 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.Usuario;
+
+import java.util.Optional;
+
+/**
+ * Resuelve las referencias entre entidades al cargarlas. Los registros guardan solo el ID de las
+ * entidades relacionadas, de modo que al cargar se enlazan con las mismas instancias que ya tienen
+ * los demás repositorios en lugar de crear copias
+ */
+public interface Referencias {
+    Optional<Usuario> usuario(String id);
+
+    Optional<Alojamiento> alojamiento(String id);
+
+    Optional<Reserva> reserva(String id);
+}
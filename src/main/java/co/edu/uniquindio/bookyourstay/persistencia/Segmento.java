@@ -0,0 +1,216 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Archivo de segmento del {@link MotorAlmacenamiento}: una cabecera con la marca del formato y el
+ * número del segmento, seguida de registros. Solo el segmento activo recibe escrituras (siempre al
+ * final, en posiciones explícitas); al sellarlo se fuerza a disco, se mapea en memoria de solo
+ * lectura y se cierra su canal, así las lecturas de los segmentos sellados no hacen llamadas al sistema.
+ * El tamaño y los bytes vigentes los actualiza el motor bajo su monitor.
+ */
+final class Segmento {
+    // "BYS1"
+    static final int MAGIA = 0x42595331;
+    static final int CABECERA = 8;
+    private static final int REINTENTOS = 3;
+
+    final int numero;
+    final Path ruta;
+    // Canal de escritura; null cuando el segmento está sellado
+    private volatile FileChannel canal;
+    // Contenido mapeado; solo existe en los segmentos sellados
+    private volatile MappedByteBuffer mapa;
+    // Bytes escritos, incluida la cabecera
+    long tamaño;
+    // Bytes de los registros que siguen vigentes en el índice
+    long vivos;
+
+    private Segmento(int numero, Path ruta, FileChannel canal, MappedByteBuffer mapa, long tamaño) {
+        this.numero = numero;
+        this.ruta = ruta;
+        this.canal = canal;
+        this.mapa = mapa;
+        this.tamaño = tamaño;
+    }
+
+    static String nombre(int numero) {
+        return String.format("segmento-%06d.dat", numero);
+    }
+
+    /**
+     * Crea un segmento vacío con su cabecera
+     */
+    static Segmento crear(Path directorio, int numero) throws IOException {
+        Path ruta = directorio.resolve(nombre(numero));
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segmento segmento = new Segmento(numero, ruta, canal, null, CABECERA);
+        segmento.escribir(ByteBuffer.allocate(CABECERA).putInt(MAGIA).putInt(numero).flip(), 0);
+        return segmento;
+    }
+
+    /**
+     * Abre un segmento existente para seguir escribiendo al final
+     */
+    static Segmento abrirActivo(Path ruta, int numero) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segmento(numero, ruta, canal, null, canal.size());
+    }
+
+    static Segmento abrirSellado(Path ruta, int numero, MappedByteBuffer mapa) {
+        return new Segmento(numero, ruta, null, mapa, mapa.capacity());
+    }
+
+    /**
+     * Escribe todo el buffer desde la posición. Si una interrupción cierra el canal a mitad de camino
+     * se reabre y se vuelve a escribir: como la posición es explícita, repetir la escritura no duplica datos
+     */
+    void escribir(ByteBuffer datos, long posicion) throws IOException {
+        boolean interrumpido = false;
+        try {
+            for (int intento = 1; ; intento++) {
+                FileChannel actual = canal;
+                try {
+                    ByteBuffer pendiente = datos.duplicate();
+                    long destino = posicion;
+                    while (pendiente.hasRemaining()) {
+                        destino += actual.write(pendiente, destino);
+                    }
+                    return;
+                } catch (ClosedByInterruptException e) {
+                    interrumpido |= Thread.interrupted();
+                    if (intento == REINTENTOS) {
+                        throw e;
+                    }
+                    reabrir(actual);
+                }
+            }
+        } finally {
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Fuerza a disco lo escrito. Si el segmento se selló entretanto no hace nada: sellarlo ya lo forzó
+     */
+    void forzar() throws IOException {
+        boolean interrumpido = false;
+        try {
+            for (int intento = 1; ; intento++) {
+                FileChannel actual = canal;
+                if (actual == null) {
+                    return;
+                }
+                try {
+                    actual.force(false);
+                    return;
+                } catch (ClosedByInterruptException e) {
+                    interrumpido |= Thread.interrupted();
+                    if (intento == REINTENTOS) {
+                        throw e;
+                    }
+                    reabrir(actual);
+                } catch (ClosedChannelException e) {
+                    if (canal != null) {
+                        throw e;
+                    }
+                    return;
+                }
+            }
+        } finally {
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Fuerza el segmento a disco, lo mapea en memoria y cierra su canal de escritura
+     */
+    void sellar() throws IOException {
+        forzar();
+        FileChannel actual = canal;
+        mapa = actual.map(FileChannel.MapMode.READ_ONLY, 0, tamaño);
+        canal = null;
+        actual.close();
+    }
+
+    /**
+     * Descarta lo que haya después de {@code tamañoValido} y fuerza el cambio a disco
+     */
+    void truncar(long tamañoValido) throws IOException {
+        canal.truncate(tamañoValido);
+        canal.force(true);
+        tamaño = tamañoValido;
+    }
+
+    /**
+     * @return Buffer con los bytes pedidos; en un segmento sellado es una vista del mapa, sin copia
+     */
+    ByteBuffer leer(long posicion, int longitud) throws IOException {
+        MappedByteBuffer contenido = mapa;
+        if (contenido != null) {
+            return contenido.slice((int) posicion, longitud);
+        }
+        FileChannel actual = canal;
+        if (actual == null) {
+            return releer(posicion, longitud);
+        }
+        ByteBuffer destino = ByteBuffer.allocate(longitud);
+        try {
+            while (destino.hasRemaining()) {
+                if (actual.read(destino, posicion + destino.position()) < 0) {
+                    throw new EOFException("Fin inesperado del segmento " + ruta.getFileName());
+                }
+            }
+        } catch (ClosedChannelException e) {
+            if (canal != actual) {
+                return releer(posicion, longitud);
+            }
+            throw e;
+        }
+        return destino.flip();
+    }
+
+    /**
+     * Repite una lectura que encontró el canal cerrado: el segmento se selló o se reabrió entretanto
+     */
+    private ByteBuffer releer(long posicion, int longitud) throws IOException {
+        if (mapa == null && canal == null) {
+            throw new ClosedChannelException();
+        }
+        return leer(posicion, longitud);
+    }
+
+    /**
+     * @return Contenido completo del segmento sellado
+     */
+    ByteBuffer contenido() {
+        return mapa.duplicate();
+    }
+
+    void cerrar() throws IOException {
+        FileChannel actual = canal;
+        canal = null;
+        if (actual != null) {
+            actual.close();
+        }
+    }
+
+    private synchronized void reabrir(FileChannel cerrado) throws IOException {
+        if (canal == cerrado && !cerrado.isOpen()) {
+            canal = FileChannel.open(ruta, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import co.edu.uniquindio.bookyourstay.persistencia.Coleccion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Almacén en memoria usado por los repositorios, con lecturas sobre versiones inmutables (MVCC).
+ * Cada escritura construye una versión nueva a partir de la anterior con colecciones persistentes
+ * (un {@link MapaPersistente} por ID y un {@link ArbolPersistente} por orden de inserción), que
+ * copian solo O(log n) nodos y comparten el resto, y la publica en un campo volátil.
+ * Los lectores toman la versión vigente en O(1), sin bloqueo y sin copiar: una {@link Instantanea}
+ * no cambia aunque se escriba después, así un recorrido largo no detiene a los escritores ni
+ * ve cambios a medias. Las escrituras se serializan en el monitor del almacén.
+ * Cada elemento recibe un número de secuencia al insertarse, y se pueden registrar vistas ordenadas
+ * por una {@link ClaveOrden}: una consulta paginada salta directamente a la posición del cursor.
+ * Las claves de las vistas se leen al guardar o reemplazar un elemento.
+ * @param <T> Tipo de entidad almacenada
+ */
+public class AlmacenIndexado<T> {
+    private static final long SIN_REGISTRO = -1;
+
+    private final Function<T, String> obtenerId;
+    // Versión publicada; solo se reemplaza bajo el monitor del almacén
+    private volatile Version<T> version = Version.vacia();
+    // Colección durable donde se registra cada escritura; null si el almacén vive solo en memoria
+    private volatile Coleccion<T> coleccion;
+
+    /**
+     * @param obtenerId Función que extrae el ID (clave primaria) de la entidad
+     */
+    public AlmacenIndexado(Function<T, String> obtenerId) {
+        this.obtenerId = obtenerId;
+    }
+
+    /**
+     * Registra una vista ordenada para que las consultas paginadas por esa clave no recorran todo el almacén
+     * @param clave Clave de orden; la vista sirve en ambos sentidos
+     */
+    public synchronized void indexarOrden(ClaveOrden<T> clave) {
+        version = version.conVista(clave);
+    }
+
+    /**
+     * Desde ahora cada escritura también se agrega a la colección, antes de publicar la versión nueva
+     * (si falla el disco, la versión no cambia). La espera del fsync ocurre después de soltar el monitor,
+     * así los escritores concurrentes la comparten; los lectores pueden ver un cambio un instante antes
+     * de que su escritor reciba la confirmación del disco
+     * @param coleccion Colección durable; lo que ya estaba en el almacén no se vuelve a escribir
+     */
+    public synchronized void persistirEn(Coleccion<T> coleccion) {
+        this.coleccion = coleccion;
+    }
+
+    /**
+     * Agrega un elemento solo si no existe otro con el mismo ID
+     * @param elemento Elemento a agregar
+     * @return true si se agregó, false si ya existía uno con ese ID
+     */
+    public boolean agregarSiAusente(T elemento) {
+        String id = obtenerId.apply(elemento);
+        long marca;
+        synchronized (this) {
+            if (version.porId().obtener(id) != null) {
+                return false;
+            }
+            marca = registrarGuardado(id, elemento);
+            version = version.guardar(id, elemento);
+        }
+        confirmar(marca);
+        return true;
+    }
+
+    /**
+     * Agrega o reemplaza un elemento conservando su posición si ya existía
+     * @param elemento Elemento a guardar
+     */
+    public void guardar(T elemento) {
+        String id = obtenerId.apply(elemento);
+        long marca;
+        synchronized (this) {
+            marca = registrarGuardado(id, elemento);
+            version = version.guardar(id, elemento);
+        }
+        confirmar(marca);
+    }
+
+    /**
+     * Reemplaza el elemento con el mismo ID en su misma posición
+     * @param elemento Elemento con los datos actualizados
+     * @return true si se reemplazó, false si no existía
+     */
+    public boolean reemplazar(T elemento) {
+        String id = obtenerId.apply(elemento);
+        long marca;
+        synchronized (this) {
+            if (version.porId().obtener(id) == null) {
+                return false;
+            }
+            marca = registrarGuardado(id, elemento);
+            version = version.guardar(id, elemento);
+        }
+        confirmar(marca);
+        return true;
+    }
+
+    /**
+     * Elimina el elemento con el ID
+     * @param id ID del elemento a eliminar
+     * @return true si se eliminó, false si no existía
+     */
+    public boolean eliminar(String id) {
+        long marca;
+        synchronized (this) {
+            Version<T> nueva = version.quitar(id);
+            if (nueva == version) {
+                return false;
+            }
+            marca = registrarEliminacion(id);
+            version = nueva;
+        }
+        confirmar(marca);
+        return true;
+    }
+
+    /**
+     * Elimina los elementos que cumplen un criterio; los lectores ven todos los cambios a la vez
+     * @param criterio Predicado de eliminación
+     * @return true si se eliminó al menos un elemento
+     */
+    public boolean eliminarSi(Predicate<T> criterio) {
+        long marca = SIN_REGISTRO;
+        boolean eliminado;
+        synchronized (this) {
+            Version<T> anterior = version;
+            Version<T> nueva = anterior;
+            for (Iterator<Map.Entry<Long, Entrada<T>>> it = anterior.porSecuencia().recorrer(false); it.hasNext(); ) {
+                Entrada<T> entrada = it.next().getValue();
+                if (criterio.test(entrada.elemento())) {
+                    marca = registrarEliminacion(entrada.id());
+                    nueva = nueva.quitar(entrada.id());
+                }
+            }
+            version = nueva;
+            eliminado = nueva != anterior;
+        }
+        // La última marca cubre todos los borrados anteriores del lote
+        confirmar(marca);
+        return eliminado;
+    }
+
+    /**
+     * @return Vista inmutable y consistente del almacén en este momento, obtenida en O(1)
+     */
+    public Instantanea<T> instantanea() {
+        return new Instantanea<>(version);
+    }
+
+    /**
+     * Busca un elemento por su ID
+     * @param id ID a buscar
+     * @return Optional con el elemento si existe
+     */
+    public Optional<T> buscar(String id) {
+        return instantanea().buscar(id);
+    }
+
+    /**
+     * Verifica si existe un elemento con el ID
+     * @param id ID a verificar
+     * @return true si existe, false si no
+     */
+    public boolean existe(String id) {
+        return instantanea().existe(id);
+    }
+
+    /**
+     * @return Stream sobre los elementos de la versión actual, en orden de inserción
+     */
+    public Stream<T> stream() {
+        return instantanea().stream();
+    }
+
+    /**
+     * @return Lista inmutable de los elementos de la versión actual en orden de inserción; no se copia
+     */
+    public List<T> listar() {
+        return instantanea().listar();
+    }
+
+    /**
+     * @return Número de elementos almacenados
+     */
+    public int contar() {
+        return instantanea().contar();
+    }
+
+    /**
+     * Obtiene una página de elementos de la versión actual. Ver {@link Instantanea#paginar}
+     * @param consulta Filtro, orden, cursor y tamaño
+     * @return Página con hasta {@code tamaño} elementos y el cursor de la siguiente
+     */
+    public Pagina<T> paginar(ConsultaPagina<T> consulta) {
+        return instantanea().paginar(consulta);
+    }
+
+    /**
+     * Se llama bajo el monitor para que los registros queden en el mismo orden que las versiones
+     */
+    private long registrarGuardado(String id, T elemento) {
+        return coleccion == null ? SIN_REGISTRO : coleccion.agregarGuardado(id, elemento);
+    }
+
+    private long registrarEliminacion(String id) {
+        return coleccion == null ? SIN_REGISTRO : coleccion.agregarEliminacion(id);
+    }
+
+    private void confirmar(long marca) {
+        if (marca != SIN_REGISTRO) {
+            coleccion.confirmar(marca);
+        }
+    }
+
+    /**
+     * Estado del almacén en una versión. Todas sus lecturas ven los mismos datos
+     * @param <T> Tipo de entidad almacenada
+     */
+    public static final class Instantanea<T> {
+        private final Version<T> version;
+
+        private Instantanea(Version<T> version) {
+            this.version = version;
+        }
+
+        public Optional<T> buscar(String id) {
+            Entrada<T> entrada = version.porId().obtener(id);
+            return entrada == null ? Optional.empty() : Optional.of(entrada.elemento());
+        }
+
+        public boolean existe(String id) {
+            return version.porId().obtener(id) != null;
+        }
+
+        public int contar() {
+            return version.porId().tamaño();
+        }
+
+        /**
+         * @return Lista inmutable en orden de inserción; el acceso por posición es O(log n)
+         */
+        public List<T> listar() {
+            return new Lista<>(version.porSecuencia());
+        }
+
+        public Stream<T> stream() {
+            return listar().stream();
+        }
+
+        /**
+         * Obtiene una página de elementos. Con el orden de inserción o con una clave registrada en
+         * {@link AlmacenIndexado#indexarOrden} se salta al cursor en O(log n); con otra clave se
+         * seleccionan los primeros elementos sin ordenar todo el almacén
+         * @param consulta Filtro, orden, cursor y tamaño
+         * @return Página con hasta {@code tamaño} elementos y el cursor de la siguiente
+         * @throws IllegalArgumentException si el cursor no es válido o no corresponde al orden pedido
+         */
+        public Pagina<T> paginar(ConsultaPagina<T> consulta) {
+            ClaveOrden<T> orden = consulta.orden();
+            Posicion desde = consulta.cursor() == null ? null : Posicion.decodificar(consulta.cursor(), orden);
+            int vista = orden == null ? -1 : version.indiceVista(orden.getNombre());
+            if (orden != null && vista < 0) {
+                return paginarSinVista(consulta, orden, desde);
+            }
+
+            Iterator<? extends Map.Entry<?, Entrada<T>>> recorrido;
+            if (orden == null) {
+                recorrido = desde == null ? version.porSecuencia().recorrer(false)
+                        : version.porSecuencia().recorrerDespuesDe(desde.secuencia(), false);
+            } else {
+                ArbolPersistente<Posicion, Entrada<T>> arbol = version.vistas().get(vista).entradas();
+                recorrido = desde == null ? arbol.recorrer(orden.isDescendente())
+                        : arbol.recorrerDespuesDe(desde, orden.isDescendente());
+            }
+
+            List<T> pagina = new ArrayList<>(consulta.tamaño());
+            Entrada<T> ultima = null;
+            while (recorrido.hasNext()) {
+                Entrada<T> entrada = recorrido.next().getValue();
+                if (!consulta.acepta(entrada.elemento())) {
+                    continue;
+                }
+                if (pagina.size() == consulta.tamaño()) {
+                    Posicion posicion = vista < 0 ? new Posicion(null, null, ultima.secuencia()) : ultima.posiciones()[vista];
+                    return new Pagina<>(pagina, posicion.codificar(orden));
+                }
+                pagina.add(entrada.elemento());
+                ultima = entrada;
+            }
+            return new Pagina<>(pagina, null);
+        }
+
+        /**
+         * Clave sin vista: se conservan los tamaño + 1 primeros en un montículo acotado
+         */
+        private Pagina<T> paginarSinVista(ConsultaPagina<T> consulta, ClaveOrden<T> orden, Posicion desde) {
+            Comparator<Posicion> comparador = Posicion.comparador(orden);
+            PriorityQueue<Map.Entry<Posicion, T>> mejores =
+                    new PriorityQueue<>(Map.Entry.<Posicion, T>comparingByKey(comparador).reversed());
+            for (Iterator<Map.Entry<Long, Entrada<T>>> it = version.porSecuencia().recorrer(false); it.hasNext(); ) {
+                Entrada<T> entrada = it.next().getValue();
+                T elemento = entrada.elemento();
+                Posicion posicion = new Posicion(orden.getNombre(), orden.valor(elemento), entrada.secuencia());
+                if ((desde != null && comparador.compare(posicion, desde) <= 0) || !consulta.acepta(elemento)) {
+                    continue;
+                }
+                mejores.add(Map.entry(posicion, elemento));
+                if (mejores.size() > consulta.tamaño() + 1) {
+                    mejores.poll();
+                }
+            }
+            List<Map.Entry<Posicion, T>> ordenadas = new ArrayList<>(mejores);
+            ordenadas.sort(Map.Entry.comparingByKey(comparador));
+            boolean hayMas = ordenadas.size() > consulta.tamaño();
+            List<T> pagina = new ArrayList<>(consulta.tamaño());
+            for (int i = 0; i < Math.min(consulta.tamaño(), ordenadas.size()); i++) {
+                pagina.add(ordenadas.get(i).getValue());
+            }
+            return new Pagina<>(pagina, hayMas ? ordenadas.get(consulta.tamaño() - 1).getKey().codificar(orden) : null);
+        }
+    }
+
+    /**
+     * Una versión del almacén. Es inmutable: las escrituras devuelven una versión nueva
+     */
+    private record Version<T>(MapaPersistente<String, Entrada<T>> porId,
+                              ArbolPersistente<Long, Entrada<T>> porSecuencia,
+                              List<Vista<T>> vistas,
+                              long siguienteSecuencia) {
+        static <T> Version<T> vacia() {
+            return new Version<>(MapaPersistente.vacio(), ArbolPersistente.vacio(Comparator.naturalOrder()), List.of(), 0);
+        }
+
+        int indiceVista(String nombre) {
+            for (int i = 0; i < vistas.size(); i++) {
+                if (vistas.get(i).clave().getNombre().equals(nombre)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Version<T> guardar(String id, T elemento) {
+            Entrada<T> anterior = porId.obtener(id);
+            if (anterior == null) {
+                return poner(null, id, siguienteSecuencia, elemento, siguienteSecuencia + 1);
+            }
+            return poner(anterior, id, anterior.secuencia(), elemento, siguienteSecuencia);
+        }
+
+        private Version<T> poner(Entrada<T> anterior, String id, long secuencia, T elemento, long siguiente) {
+            Posicion[] posiciones = new Posicion[vistas.size()];
+            Entrada<T> entrada = new Entrada<>(id, secuencia, elemento, posiciones);
+            List<Vista<T>> nuevasVistas = new ArrayList<>(vistas.size());
+            for (int i = 0; i < vistas.size(); i++) {
+                Vista<T> vista = vistas.get(i);
+                ArbolPersistente<Posicion, Entrada<T>> entradas = vista.entradas();
+                if (anterior != null) {
+                    entradas = entradas.quitar(anterior.posiciones()[i]);
+                }
+                posiciones[i] = new Posicion(vista.clave().getNombre(), vista.clave().valor(elemento), secuencia);
+                nuevasVistas.add(new Vista<>(vista.clave(), entradas.poner(posiciones[i], entrada)));
+            }
+            return new Version<>(porId.poner(id, entrada), porSecuencia.poner(secuencia, entrada),
+                    List.copyOf(nuevasVistas), siguiente);
+        }
+
+        Version<T> quitar(String id) {
+            Entrada<T> anterior = porId.obtener(id);
+            if (anterior == null) {
+                return this;
+            }
+            List<Vista<T>> nuevasVistas = new ArrayList<>(vistas.size());
+            for (int i = 0; i < vistas.size(); i++) {
+                Vista<T> vista = vistas.get(i);
+                nuevasVistas.add(new Vista<>(vista.clave(), vista.entradas().quitar(anterior.posiciones()[i])));
+            }
+            return new Version<>(porId.quitar(id), porSecuencia.quitar(anterior.secuencia()),
+                    List.copyOf(nuevasVistas), siguienteSecuencia);
+        }
+
+        /**
+         * Agrega o reemplaza una vista ordenada; recalcula la posición de cada entrada en todas las vistas
+         */
+        Version<T> conVista(ClaveOrden<T> clave) {
+            List<Vista<T>> nuevasVistas = new ArrayList<>();
+            for (Vista<T> vista : vistas) {
+                if (!vista.clave().getNombre().equals(clave.getNombre())) {
+                    nuevasVistas.add(new Vista<>(vista.clave(), ArbolPersistente.vacio(Posicion.comparador(null))));
+                }
+            }
+            nuevasVistas.add(new Vista<>(clave, ArbolPersistente.vacio(Posicion.comparador(null))));
+            Version<T> nueva = new Version<>(MapaPersistente.vacio(), ArbolPersistente.vacio(Comparator.naturalOrder()),
+                    List.copyOf(nuevasVistas), siguienteSecuencia);
+            for (Iterator<Map.Entry<Long, Entrada<T>>> it = porSecuencia.recorrer(false); it.hasNext(); ) {
+                Entrada<T> entrada = it.next().getValue();
+                nueva = nueva.poner(null, entrada.id(), entrada.secuencia(), entrada.elemento(), siguienteSecuencia);
+            }
+            return nueva;
+        }
+    }
+
+    /**
+     * Elemento con su secuencia de inserción y la posición con la que se indexó en cada vista,
+     * para poder quitarlo aunque su valor haya cambiado
+     */
+    private record Entrada<T>(String id, long secuencia, T elemento, Posicion[] posiciones) {
+    }
+
+    private record Vista<T>(ClaveOrden<T> clave, ArbolPersistente<Posicion, Entrada<T>> entradas) {
+    }
+
+    /**
+     * Lista inmutable sobre el árbol de una versión
+     */
+    private static final class Lista<T> extends AbstractList<T> {
+        private final ArbolPersistente<Long, Entrada<T>> entradas;
+
+        Lista(ArbolPersistente<Long, Entrada<T>> entradas) {
+            this.entradas = entradas;
+        }
+
+        @Override
+        public T get(int indice) {
+            return entradas.enPosicion(indice).getValue().elemento();
+        }
+
+        @Override
+        public int size() {
+            return entradas.tamaño();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            Iterator<Map.Entry<Long, Entrada<T>>> recorrido = entradas.recorrer(false);
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return recorrido.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return recorrido.next().getValue().elemento();
+                }
+            };
+        }
+    }
+
+    /**
+     * Posición de un elemento en un orden: valor de la clave y secuencia de inserción para los empates
+     */
+    private record Posicion(String clave, Comparable<?> valor, long secuencia) {
+        static Comparator<Posicion> comparador(ClaveOrden<?> orden) {
+            Comparator<Posicion> ascendente = Comparator.comparing(Posicion::valor, ClaveOrden.comparadorValores())
+                    .thenComparingLong(Posicion::secuencia);
+            return orden != null && orden.isDescendente() ? ascendente.reversed() : ascendente;
+        }
+
+        <T> String codificar(ClaveOrden<T> orden) {
+            String texto = orden == null
+                    ? secuencia + "\n"
+                    : secuencia + "\n" + orden.getNombre() + "\n" + (valor == null ? "0" : "1" + orden.codificar(valor));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static <T> Posicion decodificar(String cursor, ClaveOrden<T> orden) {
+            String[] partes;
+            long secuencia;
+            try {
+                partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 3);
+                secuencia = Long.parseLong(partes[0]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("El cursor no es válido", e);
+            }
+            String nombre = partes.length > 1 && !partes[1].isEmpty() ? partes[1] : null;
+            if (!Objects.equals(nombre, orden == null ? null : orden.getNombre()) || partes.length != (orden == null ? 2 : 3)) {
+                throw new IllegalArgumentException("El cursor no corresponde al orden de la consulta");
+            }
+            if (orden == null || !partes[2].startsWith("1")) {
+                return new Posicion(nombre, null, secuencia);
+            }
+            try {
+                return new Posicion(nombre, orden.decodificar(partes[2].substring(1)), secuencia);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("El cursor no es válido", e);
+            }
+        }
+    }
+}
@@ -2,84 +2,102 @@ package co.edu.uniquindio.bookyourstay.repositorios;
 
 import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import co.edu.uniquindio.bookyourstay.persistencia.Coleccion;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class AlojamientoRepositorio {
-    private final ObservableList<Alojamiento> alojamientos = FXCollections.observableArrayList();
+    private final AlmacenIndexado<Alojamiento> alojamientos = new AlmacenIndexado<>(Alojamiento::getId);
+
+    public AlojamientoRepositorio() {
+    }
+
+    /**
+     * Repositorio durable: carga los alojamientos guardados en la colección y registra ahí cada cambio posterior
+     * @param coleccion Colección del motor de almacenamiento
+     * @return Repositorio con los alojamientos cargados
+     */
+    public static AlojamientoRepositorio durable(Coleccion<Alojamiento> coleccion) {
+        AlojamientoRepositorio repositorio = new AlojamientoRepositorio();
+        coleccion.cargar().forEach(repositorio::guardarAlojamiento);
+        repositorio.alojamientos.persistirEn(coleccion);
+        return repositorio;
+    }
 
     public void guardarAlojamiento(Alojamiento alojamiento) {
         if (alojamiento == null) {
             throw new IllegalArgumentException("El alojamiento no puede ser nulo");
         }
-        if (existeAlojamiento(alojamiento.getId())) {
+        if (!alojamientos.agregarSiAusente(alojamiento)) {
             throw new IllegalArgumentException("Ya existe un alojamiento con el ID: " + alojamiento.getId());
         }
-        alojamientos.add(alojamiento);
     }
 
     public Optional<Alojamiento> buscarPorId(String id) {
-        return alojamientos.stream()
-                .filter(a -> a.getId().equals(id))
-                .findFirst();
+        return alojamientos.buscar(id);
     }
 
-    public ObservableList<Alojamiento> buscarPorCiudad(String ciudad) {
+    public List<Alojamiento> buscarPorCiudad(String ciudad) {
         return alojamientos.stream()
                 .filter(a -> a.getCiudad().equalsIgnoreCase(ciudad))
-                .collect(Collectors.toCollection(FXCollections::observableArrayList));
+                .collect(Collectors.toList());
     }
 
-    public ObservableList<Alojamiento> buscarPorTipo(TipoAlojamiento tipo) {
+    public List<Alojamiento> buscarPorTipo(TipoAlojamiento tipo) {
         return alojamientos.stream()
                 .filter(a -> a.getClass().getSimpleName().equalsIgnoreCase(tipo.name()))
-                .collect(Collectors.toCollection(FXCollections::observableArrayList));
+                .collect(Collectors.toList());
     }
 
-    public ObservableList<Alojamiento> buscarPorCriterio(Predicate<Alojamiento> filtro) {
+    public List<Alojamiento> buscarPorCriterio(Predicate<Alojamiento> filtro) {
         return alojamientos.stream()
                 .filter(filtro)
-                .collect(Collectors.toCollection(FXCollections::observableArrayList));
+                .collect(Collectors.toList());
     }
 
-    public ObservableList<Alojamiento> listarTodos() {
-        return FXCollections.observableArrayList(alojamientos);
+    public List<Alojamiento> listarTodos() {
+        return alojamientos.listar();
+    }
+
+    /**
+     * @return Vista consistente de los alojamientos en este momento, para recorridos largos
+     */
+    public AlmacenIndexado.Instantanea<Alojamiento> instantanea() {
+        return alojamientos.instantanea();
+    }
+
+    public Pagina<Alojamiento> paginar(ConsultaPagina<Alojamiento> consulta) {
+        return alojamientos.paginar(consulta);
     }
 
     public boolean eliminarAlojamiento(String id) {
-        return alojamientos.removeIf(a -> a.getId().equals(id));
+        return alojamientos.eliminar(id);
     }
 
     public void actualizarAlojamiento(Alojamiento alojamientoActualizado) {
-        Alojamiento existente = buscarPorId(alojamientoActualizado.getId())
-                .orElseThrow(() -> new IllegalArgumentException("Alojamiento no encontrado"));
-
-        int index = alojamientos.indexOf(existente);
-        alojamientos.set(index, alojamientoActualizado);
+        if (!alojamientos.reemplazar(alojamientoActualizado)) {
+            throw new IllegalArgumentException("Alojamiento no encontrado");
+        }
     }
 
     public boolean existeAlojamiento(String id) {
-        return alojamientos.stream()
-                .anyMatch(a -> a.getId().equals(id));
+        return alojamientos.existe(id);
     }
     public Optional<Alojamiento> buscarPorNombre(String nombre) {
         return alojamientos.stream()
                 .filter(a -> a.getNombre().equalsIgnoreCase(nombre))
                 .findFirst();
     }
-    public ObservableList<Alojamiento> buscarPorRangoPrecio(float precioMin, float precioMax) {
+    public List<Alojamiento> buscarPorRangoPrecio(float precioMin, float precioMax) {
         return alojamientos.stream()
-                .filter(a -> a.getPrecioNoche().get() >= precioMin && a.getPrecioNoche().get() <= precioMax)
-                .collect(Collectors.toCollection(FXCollections::observableArrayList));
+                .filter(a -> a.getPrecioNoche() >= precioMin && a.getPrecioNoche() <= precioMax)
+                .collect(Collectors.toList());
     }
 
     public long contarAlojamientos() {
-        return alojamientos.size();
+        return alojamientos.contar();
     }
 }
\ No newline at end of file
@@ -0,0 +1,260 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Mapa ordenado inmutable (árbol AVL persistente).
+ * Poner o quitar una clave devuelve un árbol nuevo que copia solo el camino desde la raíz
+ * (O(log n) nodos) y comparte el resto con el anterior, así una versión vieja sigue siendo válida
+ * mientras alguien la lea. Cada nodo guarda el tamaño de su subárbol para acceder por posición.
+ * @param <K> Tipo de clave
+ * @param <V> Tipo de valor
+ */
+final class ArbolPersistente<K, V> {
+    private final Comparator<? super K> comparador;
+    private final Nodo<K, V> raiz;
+
+    private ArbolPersistente(Comparator<? super K> comparador, Nodo<K, V> raiz) {
+        this.comparador = comparador;
+        this.raiz = raiz;
+    }
+
+    static <K, V> ArbolPersistente<K, V> vacio(Comparator<? super K> comparador) {
+        return new ArbolPersistente<>(comparador, null);
+    }
+
+    int tamaño() {
+        return tamaño(raiz);
+    }
+
+    V obtener(K clave) {
+        Nodo<K, V> nodo = raiz;
+        while (nodo != null) {
+            int comparacion = comparador.compare(clave, nodo.clave);
+            if (comparacion == 0) {
+                return nodo.valor;
+            }
+            nodo = comparacion < 0 ? nodo.izquierdo : nodo.derecho;
+        }
+        return null;
+    }
+
+    ArbolPersistente<K, V> poner(K clave, V valor) {
+        return new ArbolPersistente<>(comparador, poner(raiz, clave, valor));
+    }
+
+    ArbolPersistente<K, V> quitar(K clave) {
+        Nodo<K, V> nueva = quitar(raiz, clave);
+        return nueva == raiz ? this : new ArbolPersistente<>(comparador, nueva);
+    }
+
+    /**
+     * @param posicion Posición en orden ascendente, desde 0
+     * @return Entrada en esa posición
+     * @throws IndexOutOfBoundsException si la posición está fuera del árbol
+     */
+    Map.Entry<K, V> enPosicion(int posicion) {
+        if (posicion < 0 || posicion >= tamaño()) {
+            throw new IndexOutOfBoundsException("Posición: " + posicion + ", tamaño: " + tamaño());
+        }
+        Nodo<K, V> nodo = raiz;
+        while (true) {
+            int izquierdos = tamaño(nodo.izquierdo);
+            if (posicion == izquierdos) {
+                return nodo;
+            }
+            if (posicion < izquierdos) {
+                nodo = nodo.izquierdo;
+            } else {
+                posicion -= izquierdos + 1;
+                nodo = nodo.derecho;
+            }
+        }
+    }
+
+    /**
+     * @param descendente Sentido del recorrido
+     * @return Iterador sobre todas las entradas
+     */
+    Iterator<Map.Entry<K, V>> recorrer(boolean descendente) {
+        return new Recorrido<>(raiz, null, false, comparador, descendente);
+    }
+
+    /**
+     * @param desde Clave de referencia (no se incluye)
+     * @param descendente Sentido del recorrido
+     * @return Iterador sobre las entradas que siguen a la clave en el sentido indicado
+     */
+    Iterator<Map.Entry<K, V>> recorrerDespuesDe(K desde, boolean descendente) {
+        return new Recorrido<>(raiz, desde, true, comparador, descendente);
+    }
+
+    private Nodo<K, V> poner(Nodo<K, V> nodo, K clave, V valor) {
+        if (nodo == null) {
+            return new Nodo<>(clave, valor, null, null);
+        }
+        int comparacion = comparador.compare(clave, nodo.clave);
+        if (comparacion < 0) {
+            return balancear(nodo.clave, nodo.valor, poner(nodo.izquierdo, clave, valor), nodo.derecho);
+        }
+        if (comparacion > 0) {
+            return balancear(nodo.clave, nodo.valor, nodo.izquierdo, poner(nodo.derecho, clave, valor));
+        }
+        return new Nodo<>(clave, valor, nodo.izquierdo, nodo.derecho);
+    }
+
+    private Nodo<K, V> quitar(Nodo<K, V> nodo, K clave) {
+        if (nodo == null) {
+            return null;
+        }
+        int comparacion = comparador.compare(clave, nodo.clave);
+        if (comparacion < 0) {
+            Nodo<K, V> izquierdo = quitar(nodo.izquierdo, clave);
+            return izquierdo == nodo.izquierdo ? nodo : balancear(nodo.clave, nodo.valor, izquierdo, nodo.derecho);
+        }
+        if (comparacion > 0) {
+            Nodo<K, V> derecho = quitar(nodo.derecho, clave);
+            return derecho == nodo.derecho ? nodo : balancear(nodo.clave, nodo.valor, nodo.izquierdo, derecho);
+        }
+        if (nodo.izquierdo == null) {
+            return nodo.derecho;
+        }
+        if (nodo.derecho == null) {
+            return nodo.izquierdo;
+        }
+        Nodo<K, V> sucesor = nodo.derecho;
+        while (sucesor.izquierdo != null) {
+            sucesor = sucesor.izquierdo;
+        }
+        return balancear(sucesor.clave, sucesor.valor, nodo.izquierdo, quitarMinimo(nodo.derecho));
+    }
+
+    private Nodo<K, V> quitarMinimo(Nodo<K, V> nodo) {
+        if (nodo.izquierdo == null) {
+            return nodo.derecho;
+        }
+        return balancear(nodo.clave, nodo.valor, quitarMinimo(nodo.izquierdo), nodo.derecho);
+    }
+
+    /**
+     * Crea el nodo rotando si las alturas de los hijos difieren en dos (un cambio solo mueve la altura en uno)
+     */
+    private static <K, V> Nodo<K, V> balancear(K clave, V valor, Nodo<K, V> izquierdo, Nodo<K, V> derecho) {
+        int alturaIzquierda = altura(izquierdo);
+        int alturaDerecha = altura(derecho);
+        if (alturaIzquierda > alturaDerecha + 1) {
+            if (altura(izquierdo.izquierdo) >= altura(izquierdo.derecho)) {
+                return new Nodo<>(izquierdo.clave, izquierdo.valor, izquierdo.izquierdo,
+                        new Nodo<>(clave, valor, izquierdo.derecho, derecho));
+            }
+            Nodo<K, V> medio = izquierdo.derecho;
+            return new Nodo<>(medio.clave, medio.valor,
+                    new Nodo<>(izquierdo.clave, izquierdo.valor, izquierdo.izquierdo, medio.izquierdo),
+                    new Nodo<>(clave, valor, medio.derecho, derecho));
+        }
+        if (alturaDerecha > alturaIzquierda + 1) {
+            if (altura(derecho.derecho) >= altura(derecho.izquierdo)) {
+                return new Nodo<>(derecho.clave, derecho.valor,
+                        new Nodo<>(clave, valor, izquierdo, derecho.izquierdo), derecho.derecho);
+            }
+            Nodo<K, V> medio = derecho.izquierdo;
+            return new Nodo<>(medio.clave, medio.valor,
+                    new Nodo<>(clave, valor, izquierdo, medio.izquierdo),
+                    new Nodo<>(derecho.clave, derecho.valor, medio.derecho, derecho.derecho));
+        }
+        return new Nodo<>(clave, valor, izquierdo, derecho);
+    }
+
+    private static int altura(Nodo<?, ?> nodo) {
+        return nodo == null ? 0 : nodo.altura;
+    }
+
+    private static int tamaño(Nodo<?, ?> nodo) {
+        return nodo == null ? 0 : nodo.tamaño;
+    }
+
+    private static final class Nodo<K, V> implements Map.Entry<K, V> {
+        final K clave;
+        final V valor;
+        final Nodo<K, V> izquierdo;
+        final Nodo<K, V> derecho;
+        final int altura;
+        final int tamaño;
+
+        Nodo(K clave, V valor, Nodo<K, V> izquierdo, Nodo<K, V> derecho) {
+            this.clave = clave;
+            this.valor = valor;
+            this.izquierdo = izquierdo;
+            this.derecho = derecho;
+            this.altura = Math.max(altura(izquierdo), altura(derecho)) + 1;
+            this.tamaño = tamaño(izquierdo) + tamaño(derecho) + 1;
+        }
+
+        @Override
+        public K getKey() {
+            return clave;
+        }
+
+        @Override
+        public V getValue() {
+            return valor;
+        }
+
+        @Override
+        public V setValue(V valor) {
+            throw new UnsupportedOperationException("El árbol es inmutable");
+        }
+    }
+
+    /**
+     * Recorrido en orden con una pila de los ancestros pendientes; arrancar desde una clave cuesta O(log n)
+     */
+    private static final class Recorrido<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final ArrayDeque<Nodo<K, V>> pendientes = new ArrayDeque<>();
+        private final boolean descendente;
+
+        Recorrido(Nodo<K, V> raiz, K desde, boolean conDesde, Comparator<? super K> comparador, boolean descendente) {
+            this.descendente = descendente;
+            Nodo<K, V> nodo = raiz;
+            if (!conDesde) {
+                apilar(nodo);
+                return;
+            }
+            while (nodo != null) {
+                int comparacion = comparador.compare(desde, nodo.clave);
+                if (descendente ? comparacion > 0 : comparacion < 0) {
+                    pendientes.push(nodo);
+                    nodo = descendente ? nodo.derecho : nodo.izquierdo;
+                } else {
+                    nodo = descendente ? nodo.izquierdo : nodo.derecho;
+                }
+            }
+        }
+
+        private void apilar(Nodo<K, V> nodo) {
+            while (nodo != null) {
+                pendientes.push(nodo);
+                nodo = descendente ? nodo.derecho : nodo.izquierdo;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !pendientes.isEmpty();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (pendientes.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Nodo<K, V> nodo = pendientes.pop();
+            apilar(descendente ? nodo.izquierdo : nodo.derecho);
+            return nodo;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import co.edu.uniquindio.bookyourstay.modelo.Factura;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Almacén de facturas por lotes en un formato binario compacto.
+ * Cada lote es un archivo {@code lote-NNNNNN.fac} con una cabecera (número de lote, cantidad de
+ * facturas y ID de la última reserva incluida), las facturas con sus montos en centavos y una suma
+ * CRC32 al final. El lote se escribe en un archivo temporal, se fuerza a disco y se confirma con un
+ * movimiento atómico, así que tras una caída en el directorio solo quedan lotes completos.
+ * Un lote dañado no se sobrescribe ni impide leer los siguientes: se omite, y sus reservas quedan
+ * como no facturadas.
+ */
+public class ArchivoFacturas {
+    private static final int MAGICO = 0x42595346; // "BYSF"
+    private static final byte VERSION = 1;
+    private static final String PREFIJO_LOTE = "lote-";
+    private static final String EXTENSION = ".fac";
+    private static final String EXTENSION_TEMPORAL = ".tmp";
+    private static final Pattern NOMBRE_LOTE = Pattern.compile("lote-(\\d+)\\.fac");
+
+    private final Path directorio;
+
+    /**
+     * @param directorio Directorio de los lotes; se crea si no existe
+     */
+    public ArchivoFacturas(Path directorio) {
+        this.directorio = directorio;
+        try {
+            Files.createDirectories(directorio);
+            limpiarTemporales();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al preparar el directorio de facturas: " + directorio, e);
+        }
+    }
+
+    /**
+     * Escribe y confirma un lote de facturas
+     * @param numero Número del lote (consecutivo desde 0)
+     * @param facturas Facturas del lote, en el orden de sus reservas
+     * @return Tamaño en bytes del lote escrito
+     */
+    public long escribirLote(int numero, List<Factura> facturas) {
+        if (facturas == null || facturas.isEmpty()) {
+            throw new IllegalArgumentException("El lote debe tener al menos una factura");
+        }
+
+        Path destino = rutaLote(numero);
+        Path temporal = directorio.resolve(destino.getFileName() + EXTENSION_TEMPORAL);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(facturas.size() * 160);
+            DataOutputStream salida = new DataOutputStream(bytes);
+            salida.writeInt(MAGICO);
+            salida.writeByte(VERSION);
+            salida.writeInt(numero);
+            salida.writeInt(facturas.size());
+            salida.writeUTF(facturas.get(facturas.size() - 1).getReserva().getId());
+            for (Factura factura : facturas) {
+                escribirFactura(salida, factura);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            salida.writeLong(crc.getValue());
+
+            try (FileChannel archivo = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                bytes.writeTo(Channels.newOutputStream(archivo));
+                archivo.force(true);
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            sincronizarDirectorio();
+            return bytes.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al escribir el lote de facturas " + numero, e);
+        }
+    }
+
+    /**
+     * Lee todos los lotes del directorio para saber qué reservas ya se facturaron
+     * @return Lotes válidos, reservas que contienen, lotes dañados y el número del siguiente lote
+     */
+    public Resumen resumir() {
+        List<Lote> lotes = new ArrayList<>();
+        List<Integer> dañados = new ArrayList<>();
+        Set<String> reservasFacturadas = new HashSet<>();
+        int siguiente = 0;
+        for (int numero : numerosLote()) {
+            // Un lote dañado conserva su número: el siguiente lote nunca lo reemplaza
+            siguiente = numero + 1;
+            try {
+                Contenido contenido = leerLote(numero);
+                lotes.add(contenido.lote());
+                contenido.facturas().forEach(factura -> reservasFacturadas.add(factura.reservaId()));
+            } catch (UncheckedIOException e) {
+                dañados.add(numero);
+            }
+        }
+        return new Resumen(lotes, reservasFacturadas, dañados, siguiente);
+    }
+
+    /**
+     * Lee un lote completo verificando su suma de control
+     * @param numero Número del lote
+     * @return Cabecera y facturas del lote
+     * @throws UncheckedIOException si el lote no existe o está dañado
+     */
+    public Contenido leerLote(int numero) {
+        Path ruta = rutaLote(numero);
+        try {
+            byte[] datos = Files.readAllBytes(ruta);
+            if (datos.length < Long.BYTES) {
+                throw new IOException("Lote truncado: " + ruta);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(datos, 0, datos.length - Long.BYTES);
+            DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos));
+            if (entrada.readInt() != MAGICO || entrada.readByte() != VERSION) {
+                throw new IOException("Formato de lote no reconocido: " + ruta);
+            }
+            Lote lote = new Lote(entrada.readInt(), entrada.readInt(), entrada.readUTF());
+            List<FacturaCompacta> facturas = new ArrayList<>(lote.cantidad());
+            for (int i = 0; i < lote.cantidad(); i++) {
+                facturas.add(leerFactura(entrada));
+            }
+            if (entrada.readLong() != crc.getValue()) {
+                throw new IOException("Suma de control inválida en " + ruta);
+            }
+            return new Contenido(lote, facturas);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el lote de facturas " + numero, e);
+        }
+    }
+
+    /**
+     * Recorre las facturas de todos los lotes confirmados y válidos, leyendo un lote a la vez
+     * @return Flujo perezoso de facturas
+     */
+    public Stream<FacturaCompacta> leerTodas() {
+        return resumir().lotes().stream()
+                .flatMap(lote -> leerLote(lote.numero()).facturas().stream());
+    }
+
+    private void escribirFactura(DataOutputStream salida, Factura factura) throws IOException {
+        salida.writeUTF(factura.getId());
+        salida.writeUTF(factura.getReserva().getId());
+        salida.writeUTF(factura.getCliente() != null ? factura.getCliente().getId() : "");
+        salida.writeLong(factura.getFecha().toEpochSecond(ZoneOffset.UTC));
+        salida.writeLong(factura.getSubtotalCentavos());
+        salida.writeLong(factura.getDescuentosCentavos());
+        salida.writeLong(factura.getImpuestosCentavos());
+        salida.writeLong(factura.getTotalCentavos());
+        salida.writeUTF(factura.getMetodoPago());
+        salida.writeUTF(factura.getEstado());
+        salida.writeUTF(factura.getCodigoQR());
+    }
+
+    private FacturaCompacta leerFactura(DataInputStream entrada) throws IOException {
+        return new FacturaCompacta(
+                entrada.readUTF(),
+                entrada.readUTF(),
+                entrada.readUTF(),
+                LocalDateTime.ofEpochSecond(entrada.readLong(), 0, ZoneOffset.UTC),
+                entrada.readLong(),
+                entrada.readLong(),
+                entrada.readLong(),
+                entrada.readLong(),
+                entrada.readUTF(),
+                entrada.readUTF(),
+                entrada.readUTF());
+    }
+
+    private Path rutaLote(int numero) {
+        return directorio.resolve(String.format("%s%06d%s", PREFIJO_LOTE, numero, EXTENSION));
+    }
+
+    /**
+     * @return Números de los lotes confirmados en el directorio, en orden
+     */
+    private List<Integer> numerosLote() {
+        List<Integer> numeros = new ArrayList<>();
+        try (DirectoryStream<Path> lotes = Files.newDirectoryStream(directorio, PREFIJO_LOTE + "*" + EXTENSION)) {
+            for (Path lote : lotes) {
+                Matcher nombre = NOMBRE_LOTE.matcher(lote.getFileName().toString());
+                if (nombre.matches()) {
+                    numeros.add(Integer.parseInt(nombre.group(1)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al listar los lotes de facturas: " + directorio, e);
+        }
+        Collections.sort(numeros);
+        return numeros;
+    }
+
+    /**
+     * Hace durable el renombre del lote donde el sistema permite abrir el directorio
+     */
+    private void sincronizarDirectorio() {
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Algunos sistemas (Windows) no permiten abrir un directorio; ahí el renombre ya es durable
+        }
+    }
+
+    private void limpiarTemporales() throws IOException {
+        // Lotes que no alcanzaron a confirmarse antes de una caída
+        try (DirectoryStream<Path> temporales = Files.newDirectoryStream(directorio, "*" + EXTENSION_TEMPORAL)) {
+            for (Path temporal : temporales) {
+                Files.deleteIfExists(temporal);
+            }
+        }
+    }
+
+    /**
+     * Cabecera de un lote confirmado
+     * @param numero Número del lote
+     * @param cantidad Facturas que contiene
+     * @param ultimaReservaId ID de la última reserva facturada en el lote
+     */
+    public record Lote(int numero, int cantidad, String ultimaReservaId) {
+    }
+
+    public record Contenido(Lote lote, List<FacturaCompacta> facturas) {
+    }
+
+    /**
+     * Estado del directorio de lotes
+     * @param lotes Cabeceras de los lotes válidos, en orden
+     * @param reservasFacturadas IDs de las reservas con factura en algún lote válido
+     * @param lotesDañados Números de los lotes que no se pudieron leer
+     * @param siguienteNumero Número del próximo lote a escribir
+     */
+    public record Resumen(List<Lote> lotes, Set<String> reservasFacturadas, List<Integer> lotesDañados,
+                          int siguienteNumero) {
+    }
+
+    /**
+     * Factura tal como se guarda en disco: referencias por ID y montos en centavos
+     */
+    public record FacturaCompacta(String id, String reservaId, String clienteId, LocalDateTime fecha,
+                                  long subtotalCentavos, long descuentosCentavos, long impuestosCentavos,
+                                  long totalCentavos, String metodoPago, String estado, String codigoQR) {
+    }
+}
@@ -15,7 +15,7 @@ public class BilleteraRepositorio extends RepositorioBase<Billetera> {
     private static final String ARCHIVO = "billeteras.json";
 
     private BilleteraRepositorio() {
-        super(ARCHIVO, new TypeToken<List<Billetera>>(){}.getType());
+        super(ARCHIVO, new TypeToken<List<Billetera>>(){}.getType(), BilleteraRepositorio::numeroCuenta);
     }
 
     public static synchronized BilleteraRepositorio getInstancia() {
@@ -51,9 +51,7 @@ public class BilleteraRepositorio extends RepositorioBase<Billetera> {
     }
 
     public Optional<Billetera> buscarPorClienteId(String clienteId) {
-        return listaObjetos.stream()
-                .filter(b -> clienteId.equals(obtenerId(b)))
-                .findFirst();
+        return buscarPorId(clienteId);
     }
 
     public List<Billetera> buscarPorSaldoMinimo(float saldoMinimo) {
@@ -64,7 +62,7 @@ public class BilleteraRepositorio extends RepositorioBase<Billetera> {
 
     public List<Transaccion> obtenerTransaccionesPorCliente(String clienteId) {
         return buscarPorClienteId(clienteId)
-                .map(Billetera::getHistorialTransacciones)
+                .map(Billetera::obtenerHistorial)
                 .orElse(List.of());
     }
 
@@ -79,8 +77,7 @@ public class BilleteraRepositorio extends RepositorioBase<Billetera> {
                 .map(Billetera::getSaldo);
     }
 
-    @Override
-    protected String obtenerId(Billetera billetera) {
+    private static String numeroCuenta(Billetera billetera) {
         if (billetera == null) {
             throw new IllegalArgumentException("La billetera no puede ser nula");
         }
@@ -103,7 +100,6 @@ public class BilleteraRepositorio extends RepositorioBase<Billetera> {
         if (billetera == null) {
             throw new IllegalArgumentException("La billetera no puede ser nula");
         }
-        eliminar(billetera.getNumeroCuenta());
-        guardar(billetera);
+        actualizar(billetera);
     }
 }
\ No newline at end of file
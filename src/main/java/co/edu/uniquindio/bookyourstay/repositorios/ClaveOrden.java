@@ -0,0 +1,80 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Clave de orden para las consultas paginadas.
+ * Sabe extraer el valor de una entidad y convertirlo a texto y de vuelta, para que el cursor
+ * de una página pueda guardar la posición exacta aunque el elemento se elimine después.
+ * Los valores nulos van primero en orden ascendente; los empates se resuelven por orden de inserción.
+ * @param <T> Tipo de entidad
+ */
+public final class ClaveOrden<T> {
+    private final String nombre;
+    private final Function<T, ? extends Comparable<?>> extraer;
+    private final Function<String, ? extends Comparable<?>> decodificar;
+    private final boolean descendente;
+
+    private ClaveOrden(String nombre, Function<T, ? extends Comparable<?>> extraer,
+                       Function<String, ? extends Comparable<?>> decodificar, boolean descendente) {
+        this.nombre = Objects.requireNonNull(nombre);
+        this.extraer = extraer;
+        this.decodificar = decodificar;
+        this.descendente = descendente;
+    }
+
+    public static <T> ClaveOrden<T> texto(String nombre, Function<T, String> extraer) {
+        return new ClaveOrden<>(nombre, extraer, Function.identity(), false);
+    }
+
+    public static <T> ClaveOrden<T> numero(String nombre, Function<T, Long> extraer) {
+        return new ClaveOrden<>(nombre, extraer, Long::valueOf, false);
+    }
+
+    public static <T> ClaveOrden<T> fecha(String nombre, Function<T, LocalDate> extraer) {
+        return new ClaveOrden<>(nombre, extraer, LocalDate::parse, false);
+    }
+
+    public static <T> ClaveOrden<T> fechaHora(String nombre, Function<T, LocalDateTime> extraer) {
+        return new ClaveOrden<>(nombre, extraer, LocalDateTime::parse, false);
+    }
+
+    /**
+     * @return La misma clave en orden inverso
+     */
+    public ClaveOrden<T> invertida() {
+        return new ClaveOrden<>(nombre, extraer, decodificar, !descendente);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public boolean isDescendente() {
+        return descendente;
+    }
+
+    Comparable<?> valor(T elemento) {
+        return extraer.apply(elemento);
+    }
+
+    String codificar(Comparable<?> valor) {
+        return valor == null ? null : valor.toString();
+    }
+
+    Comparable<?> decodificar(String texto) {
+        return texto == null ? null : decodificar.apply(texto);
+    }
+
+    /**
+     * Comparador ascendente de valores de esta clave, con los nulos primero
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Comparator<Comparable<?>> comparadorValores() {
+        return Comparator.nullsFirst((a, b) -> ((Comparable) a).compareTo(b));
+    }
+}
@@ -0,0 +1,47 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import java.util.function.Predicate;
+
+/**
+ * Consulta paginada: filtro, clave de orden, cursor opaco y tamaño de página.
+ * Sin clave de orden se usa el orden de inserción.
+ * @param filtro Criterio que deben cumplir los elementos (null para todos)
+ * @param orden Clave de orden (null para el orden de inserción)
+ * @param cursor Cursor devuelto por la página anterior (null para la primera)
+ * @param tamaño Número máximo de elementos por página
+ * @param <T> Tipo de entidad
+ */
+public record ConsultaPagina<T>(Predicate<T> filtro, ClaveOrden<T> orden, String cursor, int tamaño) {
+    public ConsultaPagina {
+        if (tamaño <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a cero");
+        }
+    }
+
+    /**
+     * @param tamaño Número máximo de elementos por página
+     * @return Consulta de la primera página, sin filtro y en orden de inserción
+     */
+    public static <T> ConsultaPagina<T> de(int tamaño) {
+        return new ConsultaPagina<>(null, null, null, tamaño);
+    }
+
+    /**
+     * @param criterio Criterio adicional; se combina con el filtro actual
+     */
+    public ConsultaPagina<T> filtrando(Predicate<T> criterio) {
+        return new ConsultaPagina<>(filtro == null ? criterio : filtro.and(criterio), orden, cursor, tamaño);
+    }
+
+    public ConsultaPagina<T> ordenadaPor(ClaveOrden<T> clave) {
+        return new ConsultaPagina<>(filtro, clave, cursor, tamaño);
+    }
+
+    public ConsultaPagina<T> despuesDe(String cursorAnterior) {
+        return new ConsultaPagina<>(filtro, orden, cursorAnterior, tamaño);
+    }
+
+    boolean acepta(T elemento) {
+        return filtro == null || filtro.test(elemento);
+    }
+}
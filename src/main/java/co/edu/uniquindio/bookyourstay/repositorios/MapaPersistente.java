@@ -0,0 +1,220 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Mapa hash inmutable (trie de hashes de 32 ramas).
+ * Cada nivel consume 5 bits del hash; una rama guarda un mapa de bits de los hijos presentes y un
+ * arreglo compacto con ellos. Poner o quitar copia solo las ramas del camino (a lo sumo 7 niveles),
+ * de modo que buscar es prácticamente O(1) y las versiones anteriores siguen siendo válidas.
+ * @param <K> Tipo de clave
+ * @param <V> Tipo de valor
+ */
+final class MapaPersistente<K, V> {
+    private static final MapaPersistente<?, ?> VACIO = new MapaPersistente<>(null, 0);
+    private static final int BITS = 5;
+    private static final int MASCARA = (1 << BITS) - 1;
+
+    // Rama, Hoja o Colision; null si el mapa está vacío
+    private final Object raiz;
+    private final int tamaño;
+
+    private MapaPersistente(Object raiz, int tamaño) {
+        this.raiz = raiz;
+        this.tamaño = tamaño;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> MapaPersistente<K, V> vacio() {
+        return (MapaPersistente<K, V>) VACIO;
+    }
+
+    int tamaño() {
+        return tamaño;
+    }
+
+    @SuppressWarnings("unchecked")
+    V obtener(K clave) {
+        int hash = hash(clave);
+        Object nodo = raiz;
+        for (int desplazamiento = 0; ; desplazamiento += BITS) {
+            if (nodo instanceof Rama rama) {
+                int bit = 1 << ((hash >>> desplazamiento) & MASCARA);
+                if ((rama.mapa & bit) == 0) {
+                    return null;
+                }
+                nodo = rama.hijos[rama.indice(bit)];
+            } else if (nodo instanceof Hoja<?, ?> hoja) {
+                return hoja.hash == hash && Objects.equals(hoja.clave, clave) ? (V) hoja.valor : null;
+            } else if (nodo instanceof Colision colision) {
+                int posicion = colision.buscar(hash, clave);
+                return posicion < 0 ? null : (V) colision.hojas[posicion].valor;
+            } else {
+                return null;
+            }
+        }
+    }
+
+    MapaPersistente<K, V> poner(K clave, V valor) {
+        boolean[] agregado = new boolean[1];
+        Object nueva = poner(raiz, 0, new Hoja<>(hash(clave), clave, valor), agregado);
+        return new MapaPersistente<>(nueva, agregado[0] ? tamaño + 1 : tamaño);
+    }
+
+    MapaPersistente<K, V> quitar(K clave) {
+        Object nueva = quitar(raiz, 0, hash(clave), clave);
+        return nueva == raiz ? this : new MapaPersistente<>(nueva, tamaño - 1);
+    }
+
+    private static Object poner(Object nodo, int desplazamiento, Hoja<?, ?> hoja, boolean[] agregado) {
+        if (nodo == null) {
+            agregado[0] = true;
+            return hoja;
+        }
+        if (nodo instanceof Rama rama) {
+            int bit = 1 << ((hoja.hash >>> desplazamiento) & MASCARA);
+            int indice = rama.indice(bit);
+            if ((rama.mapa & bit) == 0) {
+                agregado[0] = true;
+                Object[] hijos = new Object[rama.hijos.length + 1];
+                System.arraycopy(rama.hijos, 0, hijos, 0, indice);
+                hijos[indice] = hoja;
+                System.arraycopy(rama.hijos, indice, hijos, indice + 1, rama.hijos.length - indice);
+                return new Rama(rama.mapa | bit, hijos);
+            }
+            Object hijo = poner(rama.hijos[indice], desplazamiento + BITS, hoja, agregado);
+            return rama.con(indice, hijo);
+        }
+        if (nodo instanceof Hoja<?, ?> existente) {
+            if (existente.hash == hoja.hash) {
+                if (Objects.equals(existente.clave, hoja.clave)) {
+                    return hoja;
+                }
+                agregado[0] = true;
+                return new Colision(hoja.hash, new Hoja<?, ?>[]{existente, hoja});
+            }
+            agregado[0] = true;
+            return fusionar(existente, existente.hash, hoja, desplazamiento);
+        }
+        Colision colision = (Colision) nodo;
+        if (colision.hash != hoja.hash) {
+            agregado[0] = true;
+            return fusionar(colision, colision.hash, hoja, desplazamiento);
+        }
+        int posicion = colision.buscar(hoja.hash, hoja.clave);
+        Hoja<?, ?>[] hojas;
+        if (posicion < 0) {
+            agregado[0] = true;
+            hojas = Arrays.copyOf(colision.hojas, colision.hojas.length + 1);
+            hojas[hojas.length - 1] = hoja;
+        } else {
+            hojas = colision.hojas.clone();
+            hojas[posicion] = hoja;
+        }
+        return new Colision(hoja.hash, hojas);
+    }
+
+    /**
+     * Crea las ramas necesarias para separar dos nodos con hashes distintos
+     */
+    private static Object fusionar(Object nodo, int hashNodo, Hoja<?, ?> hoja, int desplazamiento) {
+        int indiceNodo = (hashNodo >>> desplazamiento) & MASCARA;
+        int indiceHoja = (hoja.hash >>> desplazamiento) & MASCARA;
+        if (indiceNodo == indiceHoja) {
+            return new Rama(1 << indiceNodo, new Object[]{fusionar(nodo, hashNodo, hoja, desplazamiento + BITS)});
+        }
+        Object[] hijos = indiceNodo < indiceHoja ? new Object[]{nodo, hoja} : new Object[]{hoja, nodo};
+        return new Rama((1 << indiceNodo) | (1 << indiceHoja), hijos);
+    }
+
+    private static Object quitar(Object nodo, int desplazamiento, int hash, Object clave) {
+        if (nodo instanceof Rama rama) {
+            int bit = 1 << ((hash >>> desplazamiento) & MASCARA);
+            if ((rama.mapa & bit) == 0) {
+                return rama;
+            }
+            int indice = rama.indice(bit);
+            Object hijo = rama.hijos[indice];
+            Object nuevo = quitar(hijo, desplazamiento + BITS, hash, clave);
+            if (nuevo == hijo) {
+                return rama;
+            }
+            if (nuevo == null) {
+                if (rama.hijos.length == 1) {
+                    return null;
+                }
+                Object[] hijos = new Object[rama.hijos.length - 1];
+                System.arraycopy(rama.hijos, 0, hijos, 0, indice);
+                System.arraycopy(rama.hijos, indice + 1, hijos, indice, hijos.length - indice);
+                // Una rama con una sola hoja se reemplaza por la hoja: las hojas se comparan por hash completo
+                if (hijos.length == 1 && !(hijos[0] instanceof Rama)) {
+                    return hijos[0];
+                }
+                return new Rama(rama.mapa & ~bit, hijos);
+            }
+            if (rama.hijos.length == 1 && !(nuevo instanceof Rama)) {
+                return nuevo;
+            }
+            return rama.con(indice, nuevo);
+        }
+        if (nodo instanceof Hoja<?, ?> hoja) {
+            return hoja.hash == hash && Objects.equals(hoja.clave, clave) ? null : hoja;
+        }
+        if (nodo instanceof Colision colision) {
+            int posicion = colision.buscar(hash, clave);
+            if (posicion < 0) {
+                return colision;
+            }
+            if (colision.hojas.length == 2) {
+                return colision.hojas[1 - posicion];
+            }
+            Hoja<?, ?>[] hojas = new Hoja<?, ?>[colision.hojas.length - 1];
+            System.arraycopy(colision.hojas, 0, hojas, 0, posicion);
+            System.arraycopy(colision.hojas, posicion + 1, hojas, posicion, hojas.length - posicion);
+            return new Colision(hash, hojas);
+        }
+        return null;
+    }
+
+    private static int hash(Object clave) {
+        int hash = Objects.hashCode(clave);
+        // Mezcla los bits altos para que los primeros niveles no dependan solo de los bits bajos
+        return hash ^ (hash >>> 16);
+    }
+
+    private record Hoja<K, V>(int hash, K clave, V valor) {
+    }
+
+    private record Rama(int mapa, Object[] hijos) {
+        int indice(int bit) {
+            return Integer.bitCount(mapa & (bit - 1));
+        }
+
+        Rama con(int indice, Object hijo) {
+            if (hijos[indice] == hijo) {
+                return this;
+            }
+            Object[] copia = hijos.clone();
+            copia[indice] = hijo;
+            return new Rama(mapa, copia);
+        }
+    }
+
+    /**
+     * Claves distintas con el mismo hash completo
+     */
+    private record Colision(int hash, Hoja<?, ?>[] hojas) {
+        int buscar(int hash, Object clave) {
+            if (hash != this.hash) {
+                return -1;
+            }
+            for (int i = 0; i < hojas.length; i++) {
+                if (Objects.equals(hojas[i].clave, clave)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
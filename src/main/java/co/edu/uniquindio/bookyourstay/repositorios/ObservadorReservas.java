@@ -0,0 +1,28 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+
+/**
+ * Recibe los eventos del ciclo de vida de las reservas guardadas en un {@link ReservaRepositorio}.
+ * Las notificaciones llegan después de aplicar el cambio, en el hilo que lo realizó.
+ */
+public interface ObservadorReservas {
+
+    /**
+     * Se guardó una reserva nueva
+     * @param reserva Reserva creada
+     */
+    void reservaCreada(Reserva reserva);
+
+    /**
+     * Se actualizó una reserva existente (cancelación, finalización, cambio de valores)
+     * @param reserva Reserva con su estado actual
+     */
+    void reservaActualizada(Reserva reserva);
+
+    /**
+     * Se eliminó una reserva del repositorio
+     * @param reserva Reserva eliminada
+     */
+    void reservaEliminada(Reserva reserva);
+}
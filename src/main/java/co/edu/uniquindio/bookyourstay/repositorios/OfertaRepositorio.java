@@ -1,32 +1,78 @@
 package co.edu.uniquindio.bookyourstay.repositorios;
 
+import co.edu.uniquindio.bookyourstay.indices.IndiceOfertas;
 import co.edu.uniquindio.bookyourstay.modelo.Oferta;
-import co.edu.uniquindio.bookyourstay.modelo.enums.TipoOferta;
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoOferta;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoOferta;
+import co.edu.uniquindio.bookyourstay.persistencia.Coleccion;
 
+import java.lang.ref.WeakReference;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+/**
+ * Repositorio de ofertas. Además del almacén por ID mantiene un índice por código promocional
+ * y un {@link IndiceOfertas} por alojamiento y vigencia, que un hilo en segundo plano avanza
+ * al cambiar el día.
+ */
 public class OfertaRepositorio {
-    private final List<Oferta> ofertas = new ArrayList<>();
+    // Un único hilo daemon avanza el día de los índices de ofertas de todos los repositorios
+    private static final ScheduledExecutorService PROGRAMADOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "cambio-dia-ofertas");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final AlmacenIndexado<Oferta> ofertas = new AlmacenIndexado<>(Oferta::getId);
+    // Código promocional (en mayúsculas) -> ID de la oferta
+    private final Map<String, String> idsPorCodigo = new ConcurrentHashMap<>();
+    private final IndiceOfertas indice = new IndiceOfertas();
+
+    public OfertaRepositorio() {
+        programarCambioDeDia(new WeakReference<>(indice));
+    }
+
+    /**
+     * Repositorio durable: carga las ofertas guardadas en la colección y registra ahí cada cambio posterior
+     * @param coleccion Colección del motor de almacenamiento
+     * @return Repositorio con las ofertas cargadas
+     */
+    public static OfertaRepositorio durable(Coleccion<Oferta> coleccion) {
+        OfertaRepositorio repositorio = new OfertaRepositorio();
+        coleccion.cargar().forEach(repositorio::guardarOferta);
+        repositorio.ofertas.persistirEn(coleccion);
+        return repositorio;
+    }
 
     /**
      * Guarda una nueva oferta en el repositorio
      * @param oferta La oferta a guardar
-     * @throws IllegalArgumentException si la oferta es nula o ya existe
+     * @throws IllegalArgumentException si la oferta es nula, ya existe o su código promocional está en uso
      */
     public void guardarOferta(Oferta oferta) {
         if (oferta == null) {
             throw new IllegalArgumentException("La oferta no puede ser nula");
         }
-        if (existeOferta(oferta.getId())) {
+        String codigo = oferta.getCodigoPromocional();
+        if (codigo != null && idsPorCodigo.putIfAbsent(normalizarCodigo(codigo), oferta.getId()) != null) {
+            throw new IllegalArgumentException("Ya existe una oferta con el código: " + codigo);
+        }
+        if (!ofertas.agregarSiAusente(oferta)) {
+            desindexarCodigo(oferta);
             throw new IllegalArgumentException("Ya existe una oferta con el ID: " + oferta.getId());
         }
-        ofertas.add(oferta);
+        indice.agregar(oferta);
     }
 
     /**
@@ -35,9 +81,20 @@ public class OfertaRepositorio {
      * @return Optional con la oferta si existe
      */
     public Optional<Oferta> buscarPorId(String id) {
-        return ofertas.stream()
-                .filter(o -> o.getId().equals(id))
-                .findFirst();
+        return ofertas.buscar(id);
+    }
+
+    /**
+     * Busca una oferta por su código promocional, sin distinguir mayúsculas
+     * @param codigo Código promocional
+     * @return Optional con la oferta si existe
+     */
+    public Optional<Oferta> buscarPorCodigo(String codigo) {
+        if (codigo == null) {
+            return Optional.empty();
+        }
+        String id = idsPorCodigo.get(normalizarCodigo(codigo));
+        return id == null ? Optional.empty() : ofertas.buscar(id);
     }
 
     /**
@@ -45,7 +102,16 @@ public class OfertaRepositorio {
      * @return Lista inmutable de todas las ofertas
      */
     public List<Oferta> listarTodas() {
-        return new ArrayList<>(ofertas);
+        return ofertas.listar();
+    }
+
+    /**
+     * Obtiene una página de ofertas
+     * @param consulta Filtro, orden, cursor y tamaño de la página
+     * @return Página de ofertas con el cursor de la siguiente
+     */
+    public Pagina<Oferta> paginar(ConsultaPagina<Oferta> consulta) {
+        return ofertas.paginar(consulta);
     }
 
     /**
@@ -64,12 +130,16 @@ public class OfertaRepositorio {
      * @return Lista de ofertas activas dentro de su periodo de vigencia
      */
     public List<Oferta> listarOfertasVigentes() {
-        LocalDate hoy = LocalDate.now();
-        return ofertas.stream()
-                .filter(o -> o.getFechaInicio().isBefore(hoy) || o.getFechaInicio().isEqual(hoy))
-                .filter(o -> o.getFechaFin().isAfter(hoy) || o.getFechaFin().isEqual(hoy))
-                .filter(Oferta::isActiva)
-                .collect(Collectors.toList());
+        return indice.vigentes(LocalDate.now());
+    }
+
+    /**
+     * Obtiene las ofertas vigentes que aplican a un alojamiento
+     * @param alojamientoId ID del alojamiento
+     * @return Lista de ofertas vigentes del alojamiento
+     */
+    public List<Oferta> buscarOfertasVigentesPorAlojamiento(String alojamientoId) {
+        return indice.vigentesPara(alojamientoId, LocalDate.now());
     }
 
     /**
@@ -83,13 +153,31 @@ public class OfertaRepositorio {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Vuelve a guardar una oferta después de redimirla, para que el contador de usos llegue al almacén.
+     * No toca los índices: el código y las fechas no cambian, y el índice consulta los usos al filtrar
+     * @param oferta Oferta redimida
+     * @throws IllegalArgumentException si la oferta no existe
+     */
+    public void actualizarUsos(Oferta oferta) {
+        if (!ofertas.reemplazar(oferta)) {
+            throw new IllegalArgumentException("Oferta no encontrada");
+        }
+    }
+
     /**
      * Elimina una oferta del repositorio
      * @param id El ID de la oferta a eliminar
      * @return true si se eliminó correctamente, false si no existía
      */
     public boolean eliminarOferta(String id) {
-        return ofertas.removeIf(o -> o.getId().equals(id));
+        Optional<Oferta> oferta = ofertas.buscar(id);
+        if (oferta.isEmpty() || !ofertas.eliminar(id)) {
+            return false;
+        }
+        desindexarCodigo(oferta.get());
+        indice.quitar(id);
+        return true;
     }
 
     /**
@@ -98,11 +186,14 @@ public class OfertaRepositorio {
      * @throws IllegalArgumentException si la oferta no existe
      */
     public void actualizarOferta(Oferta ofertaActualizada) {
-        Oferta existente = buscarPorId(ofertaActualizada.getId())
+        Oferta anterior = ofertas.buscar(ofertaActualizada.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Oferta no encontrada"));
-
-        int index = ofertas.indexOf(existente);
-        ofertas.set(index, ofertaActualizada);
+        if (!ofertas.reemplazar(ofertaActualizada)) {
+            throw new IllegalArgumentException("Oferta no encontrada");
+        }
+        desindexarCodigo(anterior);
+        indexarCodigo(ofertaActualizada);
+        indice.agregar(ofertaActualizada);
     }
 
     /**
@@ -111,8 +202,7 @@ public class OfertaRepositorio {
      * @return true si existe, false si no
      */
     public boolean existeOferta(String id) {
-        return ofertas.stream()
-                .anyMatch(o -> o.getId().equals(id));
+        return ofertas.existe(id);
     }
 
     /**
@@ -121,10 +211,7 @@ public class OfertaRepositorio {
      * @return Lista de ofertas aplicables al alojamiento
      */
     public List<Oferta> buscarOfertasPorAlojamiento(String alojamientoId) {
-        return ofertas.stream()
-                .filter(o -> o.getAlojamientosAplicables().stream()
-                        .anyMatch(a -> a.getId().equals(alojamientoId)))
-                .collect(Collectors.toList());
+        return indice.todasPara(alojamientoId);
     }
 
     /**
@@ -143,6 +230,35 @@ public class OfertaRepositorio {
      * @return El número total de ofertas
      */
     public long contarOfertas() {
-        return ofertas.size();
+        return ofertas.contar();
+    }
+
+    // Se reprograma cada día para respetar los cambios de horario; se detiene cuando el repositorio se descarta
+    private static void programarCambioDeDia(WeakReference<IndiceOfertas> referencia) {
+        LocalDateTime ahora = LocalDateTime.now();
+        long espera = Duration.between(ahora, ahora.toLocalDate().plusDays(1).atStartOfDay()).toMillis();
+        PROGRAMADOR.schedule(() -> {
+            IndiceOfertas indice = referencia.get();
+            if (indice != null) {
+                indice.avanzarA(LocalDate.now());
+                programarCambioDeDia(referencia);
+            }
+        }, espera + 1, TimeUnit.MILLISECONDS);
+    }
+
+    private void indexarCodigo(Oferta oferta) {
+        if (oferta.getCodigoPromocional() != null) {
+            idsPorCodigo.put(normalizarCodigo(oferta.getCodigoPromocional()), oferta.getId());
+        }
+    }
+
+    private void desindexarCodigo(Oferta oferta) {
+        if (oferta.getCodigoPromocional() != null) {
+            idsPorCodigo.remove(normalizarCodigo(oferta.getCodigoPromocional()), oferta.getId());
+        }
+    }
+
+    private static String normalizarCodigo(String codigo) {
+        return codigo.trim().toUpperCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,24 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados de una consulta paginada
+ * @param elementos Elementos de la página, en el orden de la consulta
+ * @param siguienteCursor Cursor para pedir la página siguiente, o null si no hay más
+ * @param <T> Tipo de entidad
+ */
+public record Pagina<T>(List<T> elementos, String siguienteCursor) {
+    public boolean hayMas() {
+        return siguienteCursor != null;
+    }
+
+    /**
+     * @param conversion Conversión de cada elemento (por ejemplo, a una fila de tabla)
+     * @return Página con los elementos convertidos y el mismo cursor
+     */
+    public <R> Pagina<R> convertir(Function<? super T, ? extends R> conversion) {
+        return new Pagina<>(elementos.stream().<R>map(conversion).toList(), siguienteCursor);
+    }
+}
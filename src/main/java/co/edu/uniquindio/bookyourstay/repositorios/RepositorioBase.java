@@ -1,63 +1,145 @@
 package co.edu.uniquindio.bookyourstay.repositorios;
 
 import co.edu.uniquindio.bookyourstay.modelo.Billetera;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.*;
 
 import java.io.*;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
+/**
+ * Repositorio persistente basado en un snapshot JSON más un registro de escritura anticipada (WAL).
+ * Cada mutación se agrega como una sola línea al archivo de registro, de modo que su costo es
+ * proporcional al objeto modificado y no al total de datos. Un hilo en segundo plano compacta
+ * periódicamente el registro en un nuevo snapshot.
+ * <p>
+ * Cada línea del registro se fuerza a disco antes de aplicar el cambio en memoria, de modo que un
+ * cambio que falla al escribirse no queda visible, y el snapshot se fuerza antes de reemplazar al
+ * anterior. El snapshot se escribe con la forma serializada que cada objeto tenía al registrarse,
+ * no con las entidades vivas, que pueden cambiar mientras se escribe. Si una compactación falla, su registro rotado se conserva hasta que otra
+ * compactación lo cubra con un snapshot; los errores de la compactación periódica los lanza la
+ * siguiente llamada a {@link #compactar()} o {@link #cerrar()}.
+ */
 public abstract class RepositorioBase<T> {
-    protected List<T> listaObjetos;
+    private static final int UMBRAL_COMPACTACION = 1000;
+    private static final long INTERVALO_COMPACTACION_MINUTOS = 5;
+    private static final String OPERACION_GUARDAR = "G";
+    private static final String OPERACION_ELIMINAR = "E";
+
+    // Un único hilo daemon compacta los registros de todos los repositorios
+    private static final ScheduledExecutorService COMPACTADOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "compactador-repositorios");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    protected final AlmacenIndexado<T> listaObjetos;
     private final String archivo;
+    private final Path rutaSnapshot;
+    private final Path rutaRegistro;
+    private final Path rutaRegistroAnterior;
     private final Type tipoLista;
+    private final Type tipoElemento;
+    private final Function<T, String> identificador;
     private final Gson gson;
+    private final ScheduledFuture<?> tareaCompactacion;
+    // Error de la compactación periódica que todavía no se ha informado
+    private final AtomicReference<RuntimeException> errorCompactacion = new AtomicReference<>();
+    // Forma serializada de cada objeto tal como quedó en el registro; inmutable, se reemplaza bajo el bloqueo
+    private MapaPersistente<String, JsonElement> serializados = MapaPersistente.vacio();
+    private FileOutputStream salidaRegistro;
+    private Writer registro;
+    private volatile int registrosPendientes;
+    private boolean compactando;
+    private boolean cerrado;
 
-    protected RepositorioBase(String archivo, Type tipoLista) {
+    /**
+     * @param archivo Ruta del snapshot; el registro se guarda al lado con extensión .log
+     * @param tipoLista Tipo de la lista de objetos, para Gson
+     * @param identificador Obtiene el ID de un objeto; no debe depender del estado de la subclase,
+     *                      porque se usa al cargar los datos, antes de que la subclase termine de construirse
+     */
+    protected RepositorioBase(String archivo, Type tipoLista, Function<T, String> identificador) {
         this.archivo = archivo;
+        this.rutaSnapshot = Paths.get(archivo);
+        this.rutaRegistro = Paths.get(archivo + ".log");
+        this.rutaRegistroAnterior = Paths.get(archivo + ".log.1");
         this.tipoLista = tipoLista;
-        this.gson = new Gson();
-        this.listaObjetos = cargarDatos();
+        this.tipoElemento = ((ParameterizedType) tipoLista).getActualTypeArguments()[0];
+        this.gson = crearGson();
+        this.identificador = identificador;
+        this.listaObjetos = new AlmacenIndexado<>(identificador);
+        for (T objeto : cargarDatos()) {
+            listaObjetos.guardar(objeto);
+            serializados = serializados.poner(obtenerId(objeto), gson.toJsonTree(objeto, tipoElemento));
+        }
+        abrirRegistro();
+        this.tareaCompactacion = COMPACTADOR.scheduleWithFixedDelay(this::compactarSiHayPendientes,
+                INTERVALO_COMPACTACION_MINUTOS, INTERVALO_COMPACTACION_MINUTOS, TimeUnit.MINUTES);
     }
 
     public abstract Optional<Billetera> buscarPrimeroQue(BilleteraRepositorio.CriterioBusqueda<Billetera> criterio);
 
-    protected abstract String obtenerId(T objeto);
+    protected final String obtenerId(T objeto) {
+        return identificador.apply(objeto);
+    }
 
-    public void guardar(T objeto) {
+    public synchronized void guardar(T objeto) {
         if (objeto == null) {
             throw new IllegalArgumentException("El objeto no puede ser nulo");
         }
 
-        eliminar(obtenerId(objeto));
-        listaObjetos.add(objeto);
-        guardarDatos();
+        verificarAbierto();
+        String id = obtenerId(objeto);
+        JsonElement dato = gson.toJsonTree(objeto, tipoElemento);
+        registrarOperacion(OPERACION_GUARDAR, id, dato);
+        listaObjetos.guardar(objeto);
+        serializados = serializados.poner(id, dato);
     }
 
     public Optional<T> buscarPorId(String id) {
-        return listaObjetos.stream()
-                .filter(obj -> obtenerId(obj).equals(id))
-                .findFirst();
+        return listaObjetos.buscar(id);
     }
 
-    public boolean eliminar(String id) {
-        boolean eliminado = listaObjetos.removeIf(obj -> obtenerId(obj).equals(id));
-        if (eliminado) {
-            guardarDatos();
+    public synchronized boolean eliminar(String id) {
+        verificarAbierto();
+        if (!listaObjetos.existe(id)) {
+            return false;
         }
-        return eliminado;
+        registrarOperacion(OPERACION_ELIMINAR, id, null);
+        listaObjetos.eliminar(id);
+        serializados = serializados.quitar(id);
+        return true;
     }
 
     public List<T> listarTodos() {
-        return new ArrayList<>(listaObjetos);
+        return listaObjetos.listar();
+    }
+
+    public Pagina<T> paginar(ConsultaPagina<T> consulta) {
+        return listaObjetos.paginar(consulta);
     }
 
     public long contar() {
-        return listaObjetos.size();
+        return listaObjetos.contar();
     }
 
     public Optional<T> buscarPrimeroQue(Predicate<T> criterio) {
@@ -66,31 +148,256 @@ public abstract class RepositorioBase<T> {
                 .findFirst();
     }
 
-    private List<T> cargarDatos() {
-        try (Reader reader = new FileReader(archivo)) {
-            return gson.fromJson(reader, tipoLista);
-        } catch (FileNotFoundException e) {
-            return new ArrayList<>();
+    public void actualizar(T objeto) {
+        if (objeto == null) {
+            throw new IllegalArgumentException("El objeto no puede ser nulo");
+        }
+
+        // guardar ya reemplaza el objeto con el mismo ID con un único registro
+        guardar(objeto);
+    }
+
+    /**
+     * Compacta el registro de escritura en un nuevo snapshot.
+     * El registro se rota mientras se mantiene el bloqueo y el snapshot se escribe fuera de él,
+     * de modo que las mutaciones concurrentes no esperan la escritura completa del archivo.
+     * @throws IllegalStateException si falló una compactación periódica desde la última llamada
+     */
+    public void compactar() {
+        informarErrorCompactacion();
+        compactarRegistro();
+    }
+
+    /**
+     * Cancela la compactación periódica, fuerza el registro a disco y lo cierra. Las escrituras posteriores fallan
+     * @throws IllegalStateException si falló una compactación periódica que no se había informado
+     */
+    public void cerrar() {
+        tareaCompactacion.cancel(false);
+        synchronized (this) {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            try {
+                cerrarRegistro();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error al cerrar el registro del archivo: " + archivo, e);
+            }
+        }
+        informarErrorCompactacion();
+    }
+
+    private void compactarRegistro() {
+        // Versión al rotar el registro: el orden sale del almacén y los datos de su forma serializada,
+        // que no se copian y no cambian mientras se escribe
+        AlmacenIndexado.Instantanea<T> orden;
+        MapaPersistente<String, JsonElement> datos;
+        synchronized (this) {
+            if (compactando || cerrado) {
+                return;
+            }
+            compactando = true;
+            try {
+                // Si la compactación anterior falló, el registro rotado tiene cambios que no están en
+                // ningún snapshot: no se reemplaza. El snapshot nuevo se toma sin rotar y cubre a ambos
+                if (!Files.exists(rutaRegistroAnterior)) {
+                    rotarRegistro();
+                }
+                orden = listaObjetos.instantanea();
+                datos = serializados;
+            } catch (IOException e) {
+                compactando = false;
+                throw new UncheckedIOException("Error al rotar el registro del archivo: " + archivo, e);
+            }
+        }
+
+        try {
+            JsonArray copia = new JsonArray();
+            orden.listar().forEach(objeto -> copia.add(datos.obtener(obtenerId(objeto))));
+            escribirSnapshot(copia);
+            Files.deleteIfExists(rutaRegistroAnterior);
+            sincronizarDirectorio();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al compactar datos en el archivo: " + archivo, e);
+        } finally {
+            synchronized (this) {
+                compactando = false;
+            }
+        }
+    }
+
+    /**
+     * Cierra el registro y lo renombra como registro anterior. Se llama con el bloqueo tomado
+     */
+    private void rotarRegistro() throws IOException {
+        cerrarRegistro();
+        try {
+            Files.move(rutaRegistro, rutaRegistroAnterior, StandardCopyOption.ATOMIC_MOVE);
+            sincronizarDirectorio();
+            registrosPendientes = 0;
+        } finally {
+            // Si el renombre falló se sigue escribiendo al final del mismo archivo
+            abrirRegistro();
+        }
+    }
+
+    private void compactarSiHayPendientes() {
+        try {
+            if (registrosPendientes > 0) {
+                compactarRegistro();
+            }
+        } catch (RuntimeException e) {
+            errorCompactacion.compareAndSet(null, e);
+        }
+    }
+
+    private void informarErrorCompactacion() {
+        RuntimeException error = errorCompactacion.getAndSet(null);
+        if (error != null) {
+            throw new IllegalStateException("Falló la compactación periódica del archivo: " + archivo, error);
+        }
+    }
+
+    private void verificarAbierto() {
+        if (cerrado) {
+            throw new IllegalStateException("El repositorio está cerrado: " + archivo);
+        }
+    }
+
+    private void registrarOperacion(String operacion, String id, JsonElement dato) {
+        JsonObject entrada = new JsonObject();
+        entrada.addProperty("op", operacion);
+        entrada.addProperty("id", id);
+        if (dato != null) {
+            entrada.add("dato", dato);
+        }
+
+        try {
+            registro.write(gson.toJson(entrada));
+            registro.write('\n');
+            registro.flush();
+            salidaRegistro.getChannel().force(false);
         } catch (IOException e) {
+            throw new UncheckedIOException("Error al guardar datos en el archivo: " + archivo, e);
+        }
+
+        if (++registrosPendientes >= UMBRAL_COMPACTACION && !compactando) {
+            COMPACTADOR.execute(this::compactarSiHayPendientes);
+        }
+    }
+
+    /**
+     * Carga el snapshot y reproduce sobre él los registros pendientes, incluido el de una
+     * compactación que no alcanzó a terminar. Las operaciones son idempotentes por ID.
+     */
+    private List<T> cargarDatos() {
+        Map<String, T> objetos = new LinkedHashMap<>();
+
+        try (Reader reader = Files.newBufferedReader(rutaSnapshot, StandardCharsets.UTF_8)) {
+            List<T> snapshot = gson.fromJson(reader, tipoLista);
+            if (snapshot != null) {
+                snapshot.forEach(obj -> objetos.put(obtenerId(obj), obj));
+            }
+        } catch (NoSuchFileException e) {
+            // Sin snapshot previo: se inicia vacío
+        } catch (IOException | JsonParseException e) {
             throw new RuntimeException("Error al cargar datos del archivo: " + archivo, e);
         }
+
+        reproducirRegistro(rutaRegistroAnterior, objetos);
+        reproducirRegistro(rutaRegistro, objetos);
+        return new ArrayList<>(objetos.values());
+    }
+
+    private void reproducirRegistro(Path ruta, Map<String, T> objetos) {
+        if (!Files.exists(ruta)) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(ruta, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+
+                JsonObject entrada;
+                try {
+                    entrada = JsonParser.parseString(linea).getAsJsonObject();
+                } catch (JsonParseException | IllegalStateException e) {
+                    // Última línea truncada por una caída: se descarta el resto del registro
+                    break;
+                }
+
+                String id = entrada.get("id").getAsString();
+                if (OPERACION_ELIMINAR.equals(entrada.get("op").getAsString())) {
+                    objetos.remove(id);
+                } else {
+                    T objeto = gson.fromJson(entrada.get("dato"), tipoElemento);
+                    objetos.remove(id);
+                    objetos.put(id, objeto);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al cargar el registro del archivo: " + archivo, e);
+        }
     }
 
-    private void guardarDatos() {
-        try (Writer writer = new FileWriter(archivo)) {
-            gson.toJson(listaObjetos, writer);
+    /**
+     * Escribe y fuerza un temporal y luego lo renombra, de modo que una caída deja el snapshot anterior o el nuevo completo
+     */
+    private void escribirSnapshot(JsonArray objetos) throws IOException {
+        Path temporal = Paths.get(archivo + ".tmp");
+        try (FileOutputStream salida = new FileOutputStream(temporal.toFile());
+             Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8))) {
+            gson.toJson(objetos, writer);
+            writer.flush();
+            salida.getChannel().force(true);
+        }
+        Files.move(temporal, rutaSnapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        sincronizarDirectorio();
+    }
+
+    private void abrirRegistro() {
+        try {
+            salidaRegistro = new FileOutputStream(rutaRegistro.toFile(), true);
+            registro = new BufferedWriter(new OutputStreamWriter(salidaRegistro, StandardCharsets.UTF_8));
         } catch (IOException e) {
-            throw new RuntimeException("Error al guardar datos en el archivo: " + archivo, e);
+            throw new UncheckedIOException("Error al abrir el registro del archivo: " + archivo, e);
         }
     }
 
-    public void actualizar(T objeto) {
-        if (objeto == null) {
-            throw new IllegalArgumentException("El objeto no puede ser nulo");
+    private void cerrarRegistro() throws IOException {
+        if (registro != null) {
+            registro.flush();
+            salidaRegistro.getChannel().force(false);
+            registro.close();
         }
+    }
 
-        String id = obtenerId(objeto);
-        eliminar(id);
-        guardar(objeto);
+    /**
+     * Hace durable la creación o el renombre de archivos del directorio donde el sistema lo permite
+     */
+    private void sincronizarDirectorio() {
+        Path directorio = rutaSnapshot.toAbsolutePath().getParent();
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Algunos sistemas (Windows) no permiten abrir un directorio; ahí el renombre ya es durable
+        }
+    }
+
+    private static Gson crearGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class,
+                        (JsonSerializer<LocalDate>) (fecha, tipo, contexto) -> new JsonPrimitive(fecha.toString()))
+                .registerTypeAdapter(LocalDate.class,
+                        (JsonDeserializer<LocalDate>) (json, tipo, contexto) -> LocalDate.parse(json.getAsString()))
+                .registerTypeAdapter(LocalDateTime.class,
+                        (JsonSerializer<LocalDateTime>) (fecha, tipo, contexto) -> new JsonPrimitive(fecha.toString()))
+                .registerTypeAdapter(LocalDateTime.class,
+                        (JsonDeserializer<LocalDateTime>) (json, tipo, contexto) -> LocalDateTime.parse(json.getAsString()))
+                .create();
     }
 }
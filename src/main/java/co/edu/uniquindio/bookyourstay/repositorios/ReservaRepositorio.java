@@ -1,32 +1,133 @@
 package co.edu.uniquindio.bookyourstay.repositorios;
 
+import co.edu.uniquindio.bookyourstay.indices.CalendarioOcupacion;
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
 import co.edu.uniquindio.bookyourstay.modelo.Reserva;
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.persistencia.Coleccion;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+/**
+ * Repositorio de reservas. Cada alojamiento tiene su propio {@link CalendarioOcupacion}, que actúa
+ * también como candado: verificar y ocupar fechas es atómico por alojamiento, de modo que dos
+ * reservas del mismo alojamiento se serializan y las de alojamientos distintos no compiten entre sí.
+ * El calendario es el del propio alojamiento ({@link Alojamiento#getCalendario()}), la única fuente de
+ * la ocupación: cancelar o cambiar fechas aquí se ve también en {@link Alojamiento#estaDisponible}.
+ */
 public class ReservaRepositorio {
-    private final List<Reserva> reservas = new ArrayList<>();
+    public static final ClaveOrden<Reserva> POR_FECHA_INICIO = ClaveOrden.fecha("fechaInicio", Reserva::getFechaInicio);
+
+    private final AlmacenIndexado<Reserva> reservas = new AlmacenIndexado<>(Reserva::getId);
+    // Calendario de cada alojamiento por ID, para consultar la disponibilidad sin tener la instancia
+    private final Map<String, CalendarioOcupacion> calendarios = new ConcurrentHashMap<>();
+    private final List<ObservadorReservas> observadores = new CopyOnWriteArrayList<>();
+    // Los cambios (guardar y notificar) toman la lectura y se ejecutan en paralelo;
+    // suscribir toma la escritura para que ningún cambio quede entre la carga del histórico y el registro
+    private final ReadWriteLock cambios = new ReentrantReadWriteLock();
+
+    public ReservaRepositorio() {
+        reservas.indexarOrden(POR_FECHA_INICIO);
+    }
+
+    /**
+     * Repositorio durable: carga las reservas guardadas en la colección y registra ahí cada cambio posterior
+     * @param coleccion Colección del motor de almacenamiento
+     * @return Repositorio con las reservas cargadas
+     */
+    public static ReservaRepositorio durable(Coleccion<Reserva> coleccion) {
+        ReservaRepositorio repositorio = new ReservaRepositorio();
+        // Se cargan por el camino normal para reconstruir los calendarios de ocupación, y se vuelven
+        // a enlazar en las listas del alojamiento y del cliente, que no se guardan
+        for (Reserva reserva : coleccion.cargar()) {
+            repositorio.guardarReserva(reserva);
+            if (reserva.getAlojamiento() != null) {
+                reserva.getAlojamiento().restaurarReserva(reserva);
+            }
+            if (reserva.getCliente() != null) {
+                reserva.getCliente().agregarReserva(reserva);
+            }
+        }
+        repositorio.reservas.persistirEn(coleccion);
+        return repositorio;
+    }
 
     /**
      * Guarda una reserva en el repositorio
      * @param reserva La reserva a guardar
      * @throws IllegalArgumentException si la reserva es nula o ya existe
+     * @throws IllegalStateException si se solapa con otra reserva activa del alojamiento
      */
     public void guardarReserva(Reserva reserva) {
         if (reserva == null) {
             throw new IllegalArgumentException("La reserva no puede ser nula");
         }
-        if (existeReserva(reserva.getId())) {
+        if (reservas.existe(reserva.getId())) {
             throw new IllegalArgumentException("Ya existe una reserva con el ID: " + reserva.getId());
         }
-        reservas.add(reserva);
+        cambios.readLock().lock();
+        try {
+            ocuparFechas(reserva);
+            if (!reservas.agregarSiAusente(reserva)) {
+                liberarFechas(reserva);
+                throw new IllegalArgumentException("Ya existe una reserva con el ID: " + reserva.getId());
+            }
+            observadores.forEach(o -> o.reservaCreada(reserva));
+        } finally {
+            cambios.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registra un observador de los eventos de las reservas
+     * @param observador Observador a notificar
+     */
+    public void agregarObservador(ObservadorReservas observador) {
+        observadores.add(observador);
+    }
+
+    /**
+     * Registra un observador y le entrega cada reserva existente como {@link ObservadorReservas#reservaCreada}.
+     * Ningún cambio concurrente se pierde ni llega antes que la reserva cargada del histórico
+     * @param observador Observador a notificar
+     */
+    public void suscribir(ObservadorReservas observador) {
+        cambios.writeLock().lock();
+        try {
+            reservas.instantanea().listar().forEach(observador::reservaCreada);
+            observadores.add(observador);
+        } finally {
+            cambios.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deja de notificar a un observador
+     * @param observador Observador a quitar
+     */
+    public void quitarObservador(ObservadorReservas observador) {
+        observadores.remove(observador);
+    }
+
+    /**
+     * Verifica si un alojamiento no tiene reservas activas que se solapen con el rango
+     * @param alojamientoId ID del alojamiento
+     * @param fechaInicio Fecha de inicio
+     * @param fechaFin Fecha de fin
+     * @return true si el alojamiento está libre en esas fechas
+     */
+    public boolean estaDisponible(String alojamientoId, LocalDate fechaInicio, LocalDate fechaFin) {
+        CalendarioOcupacion calendario = calendarios.get(alojamientoId);
+        return calendario == null || calendario.estaLibre(fechaInicio, fechaFin);
     }
 
     /**
@@ -35,9 +136,7 @@ public class ReservaRepositorio {
      * @return Optional con la reserva si existe
      */
     public Optional<Reserva> buscarPorId(String id) {
-        return reservas.stream()
-                .filter(r -> r.getId().equals(id))
-                .findFirst();
+        return reservas.buscar(id);
     }
 
     /**
@@ -56,7 +155,23 @@ public class ReservaRepositorio {
      * @return Lista inmutable de todas las reservas
      */
     public List<Reserva> listarTodas() {
-        return new ArrayList<>(reservas);
+        return reservas.listar();
+    }
+
+    /**
+     * @return Vista consistente de las reservas en este momento, para recorridos largos
+     */
+    public AlmacenIndexado.Instantanea<Reserva> instantanea() {
+        return reservas.instantanea();
+    }
+
+    /**
+     * Obtiene una página de reservas; el orden {@link #POR_FECHA_INICIO} (en ambos sentidos) está indexado
+     * @param consulta Filtro, orden, cursor y tamaño de la página
+     * @return Página de reservas con el cursor de la siguiente
+     */
+    public Pagina<Reserva> paginar(ConsultaPagina<Reserva> consulta) {
+        return reservas.paginar(consulta);
     }
 
     /**
@@ -110,20 +225,43 @@ public class ReservaRepositorio {
      * @return true si se eliminó, false si no existía
      */
     public boolean eliminarReserva(String id) {
-        return reservas.removeIf(r -> r.getId().equals(id));
+        cambios.readLock().lock();
+        try {
+            Optional<Reserva> reserva = reservas.buscar(id);
+            if (reserva.isEmpty()) {
+                return false;
+            }
+            liberarFechas(reserva.get());
+            boolean eliminada = reservas.eliminar(id);
+            if (eliminada) {
+                observadores.forEach(o -> o.reservaEliminada(reserva.get()));
+            }
+            return eliminada;
+        } finally {
+            cambios.readLock().unlock();
+        }
     }
 
     /**
      * Actualiza una reserva existente
      * @param reservaActualizada Reserva con datos actualizados
      * @throws IllegalArgumentException si la reserva no existe
+     * @throws IllegalStateException si la reserva activa se solapa con otra del alojamiento
      */
     public void actualizarReserva(Reserva reservaActualizada) {
-        Reserva existente = buscarPorId(reservaActualizada.getId())
-                .orElseThrow(() -> new IllegalArgumentException("Reserva no encontrada"));
+        cambios.readLock().lock();
+        try {
+            Reserva anterior = reservas.buscar(reservaActualizada.getId())
+                    .orElseThrow(() -> new IllegalArgumentException("Reserva no encontrada"));
 
-        int index = reservas.indexOf(existente);
-        reservas.set(index, reservaActualizada);
+            if (!cambiarFechas(anterior, reservaActualizada)) {
+                throw new IllegalStateException("El alojamiento no está disponible para las fechas seleccionadas");
+            }
+            reservas.reemplazar(reservaActualizada);
+            observadores.forEach(o -> o.reservaActualizada(reservaActualizada));
+        } finally {
+            cambios.readLock().unlock();
+        }
     }
 
     /**
@@ -132,8 +270,7 @@ public class ReservaRepositorio {
      * @return true si existe, false si no
      */
     public boolean existeReserva(String id) {
-        return reservas.stream()
-                .anyMatch(r -> r.getId().equals(id));
+        return reservas.existe(id);
     }
 
     /**
@@ -152,7 +289,7 @@ public class ReservaRepositorio {
      * @return Número total de reservas
      */
     public long contarReservas() {
-        return reservas.size();
+        return reservas.contar();
     }
 
     /**
@@ -167,4 +304,54 @@ public class ReservaRepositorio {
                 .collect(Collectors.toList());
     }
 
+    private void ocuparFechas(Reserva reserva) {
+        if (reserva.getAlojamiento() == null || !reserva.estaActiva()) {
+            return;
+        }
+        if (!calendario(reserva.getAlojamiento()).reservarSiDisponible(reserva)) {
+            throw new IllegalStateException("El alojamiento no está disponible para las fechas seleccionadas");
+        }
+    }
+
+    private boolean cambiarFechas(Reserva anterior, Reserva nueva) {
+        if (anterior.getAlojamiento() == null || nueva.getAlojamiento() == null) {
+            liberarFechas(anterior);
+            ocuparFechas(nueva);
+            return true;
+        }
+        String idAnterior = anterior.getAlojamiento().getId();
+        String idNuevo = nueva.getAlojamiento().getId();
+        CalendarioOcupacion calendarioNuevo = calendario(nueva.getAlojamiento());
+        if (idAnterior.equals(idNuevo)) {
+            return calendarioNuevo.reemplazar(anterior, nueva);
+        }
+
+        // La reserva cambia de alojamiento: se toman ambos candados siempre en el mismo orden
+        CalendarioOcupacion calendarioAnterior = calendario(anterior.getAlojamiento());
+        boolean anteriorPrimero = idAnterior.compareTo(idNuevo) < 0;
+        synchronized (anteriorPrimero ? calendarioAnterior : calendarioNuevo) {
+            synchronized (anteriorPrimero ? calendarioNuevo : calendarioAnterior) {
+                if (nueva.estaActiva() && !calendarioNuevo.estaLibre(nueva.getFechaInicio(), nueva.getFechaFin())) {
+                    return false;
+                }
+                calendarioAnterior.liberar(anterior);
+                if (nueva.estaActiva()) {
+                    calendarioNuevo.reservarSiDisponible(nueva);
+                }
+                return true;
+            }
+        }
+    }
+
+    private void liberarFechas(Reserva reserva) {
+        if (reserva.getAlojamiento() == null) {
+            return;
+        }
+        calendario(reserva.getAlojamiento()).liberar(reserva);
+    }
+
+    private CalendarioOcupacion calendario(Alojamiento alojamiento) {
+        return calendarios.computeIfAbsent(alojamiento.getId(), id -> alojamiento.getCalendario());
+    }
+
 }
\ No newline at end of file
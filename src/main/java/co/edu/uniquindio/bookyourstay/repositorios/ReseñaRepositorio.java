@@ -1,16 +1,49 @@
 package co.edu.uniquindio.bookyourstay.repositorios;
 
+import co.edu.uniquindio.bookyourstay.indices.AgregadoCalificaciones;
+import co.edu.uniquindio.bookyourstay.indices.IndiceTextoReseñas;
 import co.edu.uniquindio.bookyourstay.modelo.Reseña;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCalificacion;
+import co.edu.uniquindio.bookyourstay.persistencia.Coleccion;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class ReseñaRepositorio {
-    private final List<Reseña> reseñas = new ArrayList<>();
+    public static final ClaveOrden<Reseña> POR_FECHA = ClaveOrden.fechaHora("fecha", Reseña::getFecha);
+
+    private final AlmacenIndexado<Reseña> reseñas = new AlmacenIndexado<>(Reseña::getId);
+    // Se actualiza en cada escritura para no recorrer las reseñas al consultar promedios
+    private final AgregadoCalificaciones calificaciones = new AgregadoCalificaciones();
+    private final IndiceTextoReseñas indiceTexto = new IndiceTextoReseñas();
+
+    public ReseñaRepositorio() {
+        reseñas.indexarOrden(POR_FECHA);
+    }
+
+    /**
+     * Repositorio durable: carga las reseñas guardadas en la colección y registra ahí cada cambio posterior
+     * @param coleccion Colección del motor de almacenamiento
+     * @return Repositorio con las reseñas cargadas
+     */
+    public static ReseñaRepositorio durable(Coleccion<Reseña> coleccion) {
+        ReseñaRepositorio repositorio = new ReseñaRepositorio();
+        // Las listas de reseñas del alojamiento y del cliente no se guardan: se reconstruyen aquí,
+        // y con ellas el promedio de calificaciones del alojamiento
+        for (Reseña reseña : coleccion.cargar()) {
+            repositorio.guardarResena(reseña);
+            if (reseña.getAlojamiento() != null) {
+                reseña.getAlojamiento().agregarReseña(reseña);
+            }
+            if (reseña.getCliente() != null) {
+                reseña.getCliente().getReseñas().add(reseña);
+            }
+        }
+        repositorio.reseñas.persistirEn(coleccion);
+        return repositorio;
+    }
 
     /**
      * Guarda una reseña en el repositorio
@@ -21,10 +54,11 @@ public class ReseñaRepositorio {
         if (reseña == null) {
             throw new IllegalArgumentException("La reseña no puede ser nula");
         }
-        if (existeReseña(reseña.getId())) {
+        if (!reseñas.agregarSiAusente(reseña)) {
             throw new IllegalArgumentException("Ya existe una reseña con el ID: " + reseña.getId());
         }
-        reseñas.add(reseña);
+        calificaciones.registrar(reseña);
+        indiceTexto.agregar(reseña);
     }
 
     /**
@@ -33,9 +67,7 @@ public class ReseñaRepositorio {
      * @return Optional con la reseña si existe
      */
     public Optional<Reseña> buscarPorId(String id) {
-        return reseñas.stream()
-                .filter(r -> r.getId().equals(id))
-                .findFirst();
+        return reseñas.buscar(id);
     }
 
     /**
@@ -69,7 +101,16 @@ public class ReseñaRepositorio {
      * @return Lista inmutable de todas las reseñas
      */
     public List<Reseña> listarTodas() {
-        return new ArrayList<>(reseñas);
+        return reseñas.listar();
+    }
+
+    /**
+     * Obtiene una página de reseñas; el orden {@link #POR_FECHA} (en ambos sentidos) está indexado
+     * @param consulta Filtro, orden, cursor y tamaño de la página
+     * @return Página de reseñas con el cursor de la siguiente
+     */
+    public Pagina<Reseña> paginar(ConsultaPagina<Reseña> consulta) {
+        return reseñas.paginar(consulta);
     }
 
     /**
@@ -110,10 +151,25 @@ public class ReseñaRepositorio {
      * @return Promedio de calificaciones (0 si no hay reseñas)
      */
     public double calcularPromedioAlojamiento(String alojamientoId) {
-        return buscarPorAlojamiento(alojamientoId).stream()
-                .mapToInt(Reseña::getCalificacion)
-                .average()
-                .orElse(0.0);
+        return calificaciones.de(alojamientoId).promedio();
+    }
+
+    /**
+     * Obtiene las calificaciones agregadas de un alojamiento (cantidad, suma, histograma y puntaje bayesiano)
+     * @param alojamientoId ID del alojamiento
+     * @return Calificaciones del alojamiento
+     */
+    public AgregadoCalificaciones.Calificaciones obtenerCalificaciones(String alojamientoId) {
+        return calificaciones.de(alojamientoId);
+    }
+
+    /**
+     * Obtiene los alojamientos mejor calificados según el puntaje bayesiano
+     * @param limite Número máximo de alojamientos
+     * @return IDs de los alojamientos de mayor a menor puntaje
+     */
+    public List<String> obtenerMejorCalificados(int limite) {
+        return calificaciones.mejores(limite);
     }
 
     /**
@@ -132,7 +188,7 @@ public class ReseñaRepositorio {
      * @return true si se eliminó, false si no existía
      */
     public boolean eliminarReseña(String id) {
-        return reseñas.removeIf(r -> r.getId().equals(id));
+        return eliminar(id);
     }
 
     /**
@@ -141,11 +197,11 @@ public class ReseñaRepositorio {
      * @throws IllegalArgumentException si la reseña no existe
      */
     public void actualizarReseña(Reseña reseñaActualizada) {
-        Reseña existente = buscarPorId(reseñaActualizada.getId())
-                .orElseThrow(() -> new IllegalArgumentException("Reseña no encontrada"));
-
-        int index = reseñas.indexOf(existente);
-        reseñas.set(index, reseñaActualizada);
+        if (!reseñas.reemplazar(reseñaActualizada)) {
+            throw new IllegalArgumentException("Reseña no encontrada");
+        }
+        calificaciones.registrar(reseñaActualizada);
+        indiceTexto.actualizar(reseñaActualizada);
     }
 
     /**
@@ -154,8 +210,7 @@ public class ReseñaRepositorio {
      * @return true si existe, false si no
      */
     public boolean existeReseña(String id) {
-        return reseñas.stream()
-                .anyMatch(r -> r.getId().equals(id));
+        return reseñas.existe(id);
     }
 
     /**
@@ -163,18 +218,40 @@ public class ReseñaRepositorio {
      * @return Número total de reseñas
      */
     public long contarReseñas() {
-        return reseñas.size();
+        return reseñas.contar();
     }
 
     /**
-     * Busca reseñas que contengan texto específico
-     * @param texto Texto a buscar en comentarios
+     * Busca reseñas cuyo comentario contenga todas las palabras del texto
+     * (sin distinguir mayúsculas, tildes ni plurales), de la más reciente a la más antigua
+     * @param texto Palabras a buscar en comentarios
      * @return Lista de reseñas que contienen el texto
      */
     public List<Reseña> buscarPorTexto(String texto) {
-        return reseñas.stream()
-                .filter(r -> r.getComentario().toLowerCase().contains(texto.toLowerCase()))
-                .collect(Collectors.toList());
+        return buscarPorTexto(texto, IndiceTextoReseñas.Orden.RECIENTES, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Busca reseñas en el índice de texto completo
+     * @param consulta Palabras a buscar; las terminadas en * se buscan por prefijo
+     * @param orden Orden de los resultados
+     * @param limite Número máximo de reseñas
+     * @return Reseñas que contienen todas las palabras
+     */
+    public List<Reseña> buscarPorTexto(String consulta, IndiceTextoReseñas.Orden orden, int limite) {
+        return indiceTexto.buscar(consulta, orden, limite);
+    }
+
+    /**
+     * Página de reseñas para moderar, de la más reciente a la más antigua; cada término debe estar en el
+     * comentario, en el nombre del cliente o del alojamiento, o ser la calificación
+     * @param consulta Palabras a buscar; las terminadas en * se buscan por prefijo
+     * @param cursor Cursor de la página anterior, o null para la primera
+     * @param tamaño Número máximo de reseñas de la página
+     * @return Página de reseñas con el cursor de la siguiente
+     */
+    public Pagina<Reseña> paginarModeracion(String consulta, String cursor, int tamaño) {
+        return indiceTexto.paginarModeracion(consulta, cursor, tamaño);
     }
 
     /**
@@ -198,12 +275,18 @@ public class ReseñaRepositorio {
         if (reseña == null) {
             throw new IllegalArgumentException("La reseña no puede ser nula");
         }
-        if (existeReseña(reseña.getId())) {
+        if (!reseñas.agregarSiAusente(reseña)) {
             throw new IllegalArgumentException("Ya existe una reseña con el ID: " + reseña.getId());
         }
-        reseñas.add(reseña);
+        calificaciones.registrar(reseña);
+        indiceTexto.agregar(reseña);
     }
     public boolean eliminar(String id) {
-        return reseñas.removeIf(r -> r.getId().equals(id));
+        if (!reseñas.eliminar(id)) {
+            return false;
+        }
+        calificaciones.quitar(id);
+        indiceTexto.eliminar(id);
+        return true;
     }
 }
\ No newline at end of file
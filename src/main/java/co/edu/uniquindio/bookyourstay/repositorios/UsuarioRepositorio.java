@@ -1,55 +1,123 @@
 package co.edu.uniquindio.bookyourstay.repositorios;
 
+import co.edu.uniquindio.bookyourstay.indices.Normalizacion;
 import co.edu.uniquindio.bookyourstay.modelo.Usuario;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCuenta;
+import co.edu.uniquindio.bookyourstay.persistencia.Coleccion;
+import co.edu.uniquindio.bookyourstay.seguridad.CifradoContraseñas;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+/**
+ * Repositorio de usuarios. Además del almacén por ID mantiene índices únicos por email
+ * (sin distinguir mayúsculas) y por cédula (sin separadores), e índices por tipo de cuenta
+ * y por estado de actividad, de modo que registrar, iniciar sesión y filtrar no recorren
+ * todos los usuarios. Los índices se actualizan en {@link #guardarUsuario} y
+ * {@link #actualizarUsuario}; las escrituras se serializan en el monitor del repositorio.
+ */
 public class UsuarioRepositorio {
-    private final List<Usuario> usuarios = new ArrayList<>();
+    private static final Pattern SEPARADORES_CEDULA = Pattern.compile("[\\s.\\-]");
+    public static final ClaveOrden<Usuario> POR_NOMBRE = ClaveOrden.texto("nombre", u -> Normalizacion.plegar(u.getNombre()));
+
+    private final AlmacenIndexado<Usuario> usuarios = new AlmacenIndexado<>(Usuario::getId);
+    // Claves normalizadas -> ID del usuario; se leen sin bloqueo
+    private final Map<String, String> idsPorEmail = new ConcurrentHashMap<>();
+    private final Map<String, String> idsPorCedula = new ConcurrentHashMap<>();
+    private final Map<TipoCuenta, Set<String>> idsPorTipo = new EnumMap<>(TipoCuenta.class);
+    private final Map<Boolean, Set<String>> idsPorEstado = new HashMap<>();
+    // Claves con las que se indexó cada usuario, para desindexarlo aunque el objeto haya cambiado
+    private final Map<String, Claves> clavesPorId = new HashMap<>();
+
+    public UsuarioRepositorio() {
+        usuarios.indexarOrden(POR_NOMBRE);
+    }
+
+    /**
+     * Repositorio durable: carga los usuarios guardados en la colección y registra ahí cada cambio posterior
+     * @param coleccion Colección del motor de almacenamiento
+     * @return Repositorio con los usuarios cargados
+     */
+    public static UsuarioRepositorio durable(Coleccion<Usuario> coleccion) {
+        UsuarioRepositorio repositorio = new UsuarioRepositorio();
+        repositorio.guardarUsuarios(coleccion.cargar());
+        repositorio.usuarios.persistirEn(coleccion);
+        return repositorio;
+    }
 
     /**
      * Guarda un usuario en el repositorio
      * @param usuario El usuario a guardar
      * @throws IllegalArgumentException si el usuario es nulo, o ya existe por email o cédula
      */
-    public void guardarUsuario(Usuario usuario) {
+    public synchronized void guardarUsuario(Usuario usuario) {
         if (usuario == null) {
             throw new IllegalArgumentException("El usuario no puede ser nulo");
         }
-        if (existePorEmail(usuario.getEmail())) {
-            throw new IllegalArgumentException("Ya existe un usuario con el email: " + usuario.getEmail());
+        Claves claves = Claves.de(usuario);
+        verificarUnicidad(usuario, claves);
+        if (!usuarios.agregarSiAusente(usuario)) {
+            throw new IllegalArgumentException("Ya existe un usuario con el ID: " + usuario.getId());
         }
-        if (existePorCedula(usuario.getCedula())) {
-            throw new IllegalArgumentException("Ya existe un usuario con la cédula: " + usuario.getCedula());
+        indexar(usuario.getId(), claves);
+    }
+
+    /**
+     * Guarda varios usuarios en una sola operación (por ejemplo, una importación masiva).
+     * Se verifican todos antes de guardar el primero: si alguno choca con otro del lote
+     * o con uno existente no se guarda ninguno
+     * @param nuevos Usuarios a guardar
+     * @throws IllegalArgumentException si algún usuario es nulo o está repetido
+     */
+    public synchronized void guardarUsuarios(Collection<? extends Usuario> nuevos) {
+        Set<String> ids = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> cedulas = new HashSet<>();
+        List<Claves> claves = new ArrayList<>(nuevos.size());
+        for (Usuario usuario : nuevos) {
+            if (usuario == null) {
+                throw new IllegalArgumentException("El usuario no puede ser nulo");
+            }
+            Claves clave = Claves.de(usuario);
+            verificarUnicidad(usuario, clave);
+            if (usuarios.existe(usuario.getId()) || !ids.add(usuario.getId())) {
+                throw new IllegalArgumentException("Ya existe un usuario con el ID: " + usuario.getId());
+            }
+            if (clave.email() != null && !emails.add(clave.email())) {
+                throw new IllegalArgumentException("Ya existe un usuario con el email: " + usuario.getEmail());
+            }
+            if (clave.cedula() != null && !cedulas.add(clave.cedula())) {
+                throw new IllegalArgumentException("Ya existe un usuario con la cédula: " + usuario.getCedula());
+            }
+            claves.add(clave);
+        }
+
+        Iterator<Claves> clave = claves.iterator();
+        for (Usuario usuario : nuevos) {
+            usuarios.agregarSiAusente(usuario);
+            indexar(usuario.getId(), clave.next());
         }
-        usuarios.add(usuario);
     }
 
     /**
-     * Busca un usuario por email
+     * Busca un usuario por email, sin distinguir mayúsculas
      * @param email Email a buscar
      * @return Optional con el usuario si existe
      */
     public Optional<Usuario> buscarPorEmail(String email) {
-        return usuarios.stream()
-                .filter(u -> u.getEmail().equalsIgnoreCase(email))
-                .findFirst();
+        return buscarEn(idsPorEmail, normalizarEmail(email));
     }
 
     /**
-     * Busca un usuario por cédula
+     * Busca un usuario por cédula, ignorando espacios, puntos y guiones
      * @param cedula Cédula a buscar
      * @return Optional con el usuario si existe
      */
     public Optional<Usuario> buscarPorCedula(String cedula) {
-        return usuarios.stream()
-                .filter(u -> u.getCedula().equals(cedula))
-                .findFirst();
+        return buscarEn(idsPorCedula, normalizarCedula(cedula));
     }
 
     /**
@@ -57,7 +125,16 @@ public class UsuarioRepositorio {
      * @return Lista inmutable de usuarios
      */
     public List<Usuario> listarTodos() {
-        return new ArrayList<>(usuarios);
+        return usuarios.listar();
+    }
+
+    /**
+     * Obtiene una página de usuarios; el orden {@link #POR_NOMBRE} está indexado
+     * @param consulta Filtro, orden, cursor y tamaño de la página
+     * @return Página de usuarios con el cursor de la siguiente
+     */
+    public Pagina<Usuario> paginar(ConsultaPagina<Usuario> consulta) {
+        return usuarios.paginar(consulta);
     }
 
     /**
@@ -65,10 +142,8 @@ public class UsuarioRepositorio {
      * @param tipo Tipo de usuario (REGULAR, PREMIUM)
      * @return Lista de usuarios del tipo especificado
      */
-    public List<Usuario> buscarPorTipo(TipoCuenta tipo) {
-        return usuarios.stream()
-                .filter(u -> u.getTipoCuenta() == tipo)
-                .collect(Collectors.toList());
+    public synchronized List<Usuario> buscarPorTipo(TipoCuenta tipo) {
+        return resolver(idsPorTipo.getOrDefault(tipo, Set.of()));
     }
 
     /**
@@ -76,10 +151,8 @@ public class UsuarioRepositorio {
      * @param activo Estado de actividad
      * @return Lista de usuarios según estado
      */
-    public List<Usuario> buscarPorEstado(boolean activo) {
-        return usuarios.stream()
-                .filter(u -> u.isActivo() == activo)
-                .collect(Collectors.toList());
+    public synchronized List<Usuario> buscarPorEstado(boolean activo) {
+        return resolver(idsPorEstado.getOrDefault(activo, Set.of()));
     }
 
     /**
@@ -87,8 +160,13 @@ public class UsuarioRepositorio {
      * @param email Email del usuario a eliminar
      * @return true si se eliminó, false si no existía
      */
-    public boolean eliminarUsuario(String email) {
-        return usuarios.removeIf(u -> u.getEmail().equalsIgnoreCase(email));
+    public synchronized boolean eliminarUsuario(String email) {
+        String id = email == null ? null : idsPorEmail.get(normalizarEmail(email));
+        if (id == null || !usuarios.eliminar(id)) {
+            return false;
+        }
+        desindexar(id);
+        return true;
     }
 
     /**
@@ -96,12 +174,15 @@ public class UsuarioRepositorio {
      * @param usuarioActualizado Usuario con datos actualizados
      * @throws IllegalArgumentException si el usuario no existe
      */
-    public void actualizarUsuario(Usuario usuarioActualizado) {
-        Usuario existente = buscarPorId(usuarioActualizado.getId())
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado con ID: " + usuarioActualizado.getId()));
-
-        int index = usuarios.indexOf(existente);
-        usuarios.set(index, usuarioActualizado);
+    public synchronized void actualizarUsuario(Usuario usuarioActualizado) {
+        if (!usuarios.existe(usuarioActualizado.getId())) {
+            throw new IllegalArgumentException("Usuario no encontrado con ID: " + usuarioActualizado.getId());
+        }
+        Claves claves = Claves.de(usuarioActualizado);
+        verificarUnicidad(usuarioActualizado, claves);
+        usuarios.reemplazar(usuarioActualizado);
+        desindexar(usuarioActualizado.getId());
+        indexar(usuarioActualizado.getId(), claves);
     }
 
     /**
@@ -110,8 +191,7 @@ public class UsuarioRepositorio {
      * @return true si existe, false si no
      */
     public boolean existePorEmail(String email) {
-        return usuarios.stream()
-                .anyMatch(u -> u.getEmail().equalsIgnoreCase(email));
+        return email != null && idsPorEmail.containsKey(normalizarEmail(email));
     }
 
     /**
@@ -120,8 +200,7 @@ public class UsuarioRepositorio {
      * @return true si existe, false si no
      */
     public boolean existePorCedula(String cedula) {
-        return usuarios.stream()
-                .anyMatch(u -> u.getCedula().equals(cedula));
+        return cedula != null && idsPorCedula.containsKey(normalizarCedula(cedula));
     }
 
     /**
@@ -140,19 +219,20 @@ public class UsuarioRepositorio {
      * @return Número total de usuarios
      */
     public long contarUsuarios() {
-        return usuarios.size();
+        return usuarios.contar();
     }
 
     /**
-     * Autentica un usuario por email y contraseña
+     * Autentica un usuario por email y contraseña. Verificar el hash es costoso: no llamar desde el hilo de la interfaz
      * @param email Email del usuario
      * @param contraseña Contraseña a verificar
      * @return Optional con el usuario si las credenciales son válidas
      */
     public Optional<Usuario> autenticarUsuario(String email, String contraseña) {
-        return buscarPorEmail(email)
-                .filter(u -> u.getContraseña().equals(contraseña))
-                .filter(Usuario::isActivo);
+        Optional<Usuario> usuario = buscarPorEmail(email);
+        return CifradoContraseñas.verificar(contraseña, usuario.map(Usuario::getContraseña).orElse(null))
+                ? usuario.filter(Usuario::isActivo)
+                : Optional.empty();
     }
 
     /**
@@ -168,8 +248,77 @@ public class UsuarioRepositorio {
     }
 
     public Optional<Usuario> buscarPorId(String id) {
-        return usuarios.stream()
-                .filter(u -> u.getId().equals(id))
-                .findFirst();
+        return usuarios.buscar(id);
+    }
+
+    private void verificarUnicidad(Usuario usuario, Claves claves) {
+        String conEmail = claves.email() == null ? null : idsPorEmail.get(claves.email());
+        if (conEmail != null && !conEmail.equals(usuario.getId())) {
+            throw new IllegalArgumentException("Ya existe un usuario con el email: " + usuario.getEmail());
+        }
+        String conCedula = claves.cedula() == null ? null : idsPorCedula.get(claves.cedula());
+        if (conCedula != null && !conCedula.equals(usuario.getId())) {
+            throw new IllegalArgumentException("Ya existe un usuario con la cédula: " + usuario.getCedula());
+        }
+    }
+
+    private void indexar(String id, Claves claves) {
+        if (claves.email() != null) {
+            idsPorEmail.put(claves.email(), id);
+        }
+        if (claves.cedula() != null) {
+            idsPorCedula.put(claves.cedula(), id);
+        }
+        if (claves.tipo() != null) {
+            idsPorTipo.computeIfAbsent(claves.tipo(), t -> new LinkedHashSet<>()).add(id);
+        }
+        idsPorEstado.computeIfAbsent(claves.activo(), a -> new LinkedHashSet<>()).add(id);
+        clavesPorId.put(id, claves);
+    }
+
+    private void desindexar(String id) {
+        Claves claves = clavesPorId.remove(id);
+        if (claves == null) {
+            return;
+        }
+        if (claves.email() != null) {
+            idsPorEmail.remove(claves.email(), id);
+        }
+        if (claves.cedula() != null) {
+            idsPorCedula.remove(claves.cedula(), id);
+        }
+        if (claves.tipo() != null) {
+            idsPorTipo.get(claves.tipo()).remove(id);
+        }
+        idsPorEstado.get(claves.activo()).remove(id);
+    }
+
+    private Optional<Usuario> buscarEn(Map<String, String> indice, String clave) {
+        if (clave == null) {
+            return Optional.empty();
+        }
+        String id = indice.get(clave);
+        return id == null ? Optional.empty() : usuarios.buscar(id);
+    }
+
+    private List<Usuario> resolver(Set<String> ids) {
+        List<Usuario> resultado = new ArrayList<>(ids.size());
+        ids.forEach(id -> usuarios.buscar(id).ifPresent(resultado::add));
+        return resultado;
+    }
+
+    private static String normalizarEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizarCedula(String cedula) {
+        return cedula == null ? null : SEPARADORES_CEDULA.matcher(cedula).replaceAll("");
+    }
+
+    private record Claves(String email, String cedula, TipoCuenta tipo, boolean activo) {
+        static Claves de(Usuario usuario) {
+            return new Claves(normalizarEmail(usuario.getEmail()), normalizarCedula(usuario.getCedula()),
+                    usuario.getTipoCuenta(), usuario.isActivo());
+        }
     }
 }
\ No newline at end of file
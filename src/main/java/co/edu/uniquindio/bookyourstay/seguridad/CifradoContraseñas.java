@@ -0,0 +1,145 @@
+package co.edu.uniquindio.bookyourstay.seguridad;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Hash de contraseñas con PBKDF2-HMAC-SHA256 y una sal aleatoria por usuario.
+ * El resultado se guarda como texto {@code pbkdf2-sha256$iteraciones$sal$hash} (sal y hash en Base64),
+ * así que cada hash recuerda su costo y se puede subir el número de iteraciones sin invalidar
+ * los existentes: {@link #requiereActualizacion} indica cuándo volver a calcularlo tras un inicio de sesión.
+ * El costo por defecto se configura con la propiedad {@value #PROPIEDAD_ITERACIONES}.
+ */
+public final class CifradoContraseñas {
+    public static final String PROPIEDAD_ITERACIONES = "bookyourstay.pbkdf2.iteraciones";
+
+    private static final String ALGORITMO = "PBKDF2WithHmacSHA256";
+    private static final String PREFIJO = "pbkdf2-sha256";
+    private static final String SEPARADOR = "$";
+    private static final int ITERACIONES_POR_DEFECTO = 310_000;
+    private static final int BYTES_SAL = 16;
+    private static final int BITS_HASH = 256;
+    private static final int ITERACIONES = Integer.getInteger(PROPIEDAD_ITERACIONES, ITERACIONES_POR_DEFECTO);
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    // Hash de referencia para que verificar una cuenta inexistente cueste lo mismo que una existente
+    private static volatile String hashSenuelo;
+
+    private CifradoContraseñas() {
+    }
+
+    /**
+     * @return Iteraciones con las que se generan los hashes nuevos
+     */
+    public static int iteraciones() {
+        return ITERACIONES;
+    }
+
+    /**
+     * @param contraseña Contraseña en texto plano
+     * @return Hash con sal y costo, listo para guardar
+     */
+    public static String generarHash(String contraseña) {
+        return generarHash(contraseña, ITERACIONES);
+    }
+
+    /**
+     * @param contraseña Contraseña en texto plano
+     * @param iteraciones Costo del hash
+     * @return Hash con sal y costo, listo para guardar
+     */
+    public static String generarHash(String contraseña, int iteraciones) {
+        if (contraseña == null) {
+            throw new IllegalArgumentException("La contraseña no puede ser nula");
+        }
+        if (iteraciones <= 0) {
+            throw new IllegalArgumentException("Las iteraciones deben ser mayores a cero");
+        }
+        byte[] sal = new byte[BYTES_SAL];
+        ALEATORIO.nextBytes(sal);
+        byte[] hash = derivar(contraseña, sal, iteraciones, BITS_HASH);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIJO + SEPARADOR + iteraciones + SEPARADOR + base64.encodeToString(sal) + SEPARADOR + base64.encodeToString(hash);
+    }
+
+    /**
+     * Verifica una contraseña en tiempo constante respecto al hash. Si el valor guardado no es un hash
+     * (contraseñas anteriores a este formato) se compara como texto, también en tiempo constante.
+     * Si no hay valor guardado se calcula igualmente un hash, para no revelar qué cuentas existen
+     * @param contraseña Contraseña ingresada
+     * @param almacenado Hash guardado del usuario, o null si la cuenta no existe
+     * @return true si la contraseña corresponde
+     */
+    public static boolean verificar(String contraseña, String almacenado) {
+        if (contraseña == null) {
+            return false;
+        }
+        if (almacenado == null) {
+            verificarHash(contraseña, senuelo());
+            return false;
+        }
+        if (!esHash(almacenado)) {
+            return MessageDigest.isEqual(contraseña.getBytes(StandardCharsets.UTF_8), almacenado.getBytes(StandardCharsets.UTF_8));
+        }
+        return verificarHash(contraseña, almacenado);
+    }
+
+    /**
+     * @param valor Valor guardado como contraseña
+     * @return true si tiene el formato de hash de esta clase
+     */
+    public static boolean esHash(String valor) {
+        return valor != null && valor.startsWith(PREFIJO + SEPARADOR) && valor.split("\\$").length == 4;
+    }
+
+    /**
+     * @param almacenado Valor guardado como contraseña
+     * @return true si está en texto plano o con un costo distinto al configurado
+     */
+    public static boolean requiereActualizacion(String almacenado) {
+        return !esHash(almacenado) || Integer.parseInt(almacenado.split("\\$")[1]) != ITERACIONES;
+    }
+
+    private static boolean verificarHash(String contraseña, String almacenado) {
+        String[] partes = almacenado.split("\\$");
+        int iteraciones = Integer.parseInt(partes[1]);
+        byte[] sal = Base64.getDecoder().decode(partes[2]);
+        byte[] esperado = Base64.getDecoder().decode(partes[3]);
+        byte[] calculado = derivar(contraseña, sal, iteraciones, esperado.length * 8);
+        try {
+            return MessageDigest.isEqual(esperado, calculado);
+        } finally {
+            Arrays.fill(calculado, (byte) 0);
+        }
+    }
+
+    private static byte[] derivar(String contraseña, byte[] sal, int iteraciones, int bits) {
+        char[] caracteres = contraseña.toCharArray();
+        PBEKeySpec especificacion = new PBEKeySpec(caracteres, sal, iteraciones, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(especificacion).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 no está disponible en esta JVM", e);
+        } finally {
+            especificacion.clearPassword();
+            Arrays.fill(caracteres, '\0');
+        }
+    }
+
+    private static String senuelo() {
+        String senuelo = hashSenuelo;
+        if (senuelo == null) {
+            byte[] aleatoria = new byte[BYTES_SAL];
+            ALEATORIO.nextBytes(aleatoria);
+            senuelo = generarHash(Base64.getEncoder().encodeToString(aleatoria));
+            hashSenuelo = senuelo;
+        }
+        return senuelo;
+    }
+}
@@ -0,0 +1,98 @@
+package co.edu.uniquindio.bookyourstay.seguridad;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Límite de intentos fallidos de inicio de sesión por cuenta.
+ * Tras {@code intentosPermitidos} fallos seguidos la cuenta queda bloqueada un tiempo que se
+ * duplica con cada fallo adicional, hasta {@code bloqueoMaximo}. Cada intento se reserva antes de
+ * verificar la contraseña y cuenta como fallo desde ese momento; un inicio exitoso borra el registro.
+ * Solo se guardan el email normalizado, el número de fallos y la hora de desbloqueo.
+ */
+public class LimitadorIntentos {
+    // Por encima de este número de cuentas registradas se descartan las que no están bloqueadas
+    private static final int UMBRAL_PURGA = 10_000;
+
+    private final int intentosPermitidos;
+    private final Duration bloqueoInicial;
+    private final Duration bloqueoMaximo;
+    private final Clock reloj;
+    private final Map<String, Estado> estados = new ConcurrentHashMap<>();
+
+    public LimitadorIntentos() {
+        this(5, Duration.ofSeconds(30), Duration.ofMinutes(15), Clock.systemUTC());
+    }
+
+    public LimitadorIntentos(int intentosPermitidos, Duration bloqueoInicial, Duration bloqueoMaximo, Clock reloj) {
+        if (intentosPermitidos <= 0) {
+            throw new IllegalArgumentException("Los intentos permitidos deben ser mayores a cero");
+        }
+        this.intentosPermitidos = intentosPermitidos;
+        this.bloqueoInicial = bloqueoInicial;
+        this.bloqueoMaximo = bloqueoMaximo;
+        this.reloj = reloj;
+    }
+
+    /**
+     * @param cuenta Email de la cuenta
+     * @return Tiempo que falta para poder intentar de nuevo, o cero si se puede intentar ya
+     */
+    public Duration tiempoRestante(String cuenta) {
+        Estado estado = estados.get(normalizar(cuenta));
+        if (estado == null) {
+            return Duration.ZERO;
+        }
+        Duration restante = Duration.between(reloj.instant(), estado.bloqueadoHasta());
+        return restante.isNegative() ? Duration.ZERO : restante;
+    }
+
+    /**
+     * Reserva un intento antes de la verificación, que es lenta. El intento se cuenta como fallo en el
+     * mismo paso en que se comprueba el bloqueo, así varios intentos en paralelo no pasan todos la
+     * comprobación antes de que se registre alguno. Un intento correcto lo descarta con {@link #registrarExito}
+     * @param cuenta Email de la cuenta
+     * @return Cero si se reservó el intento, o el tiempo que falta para poder intentar de nuevo
+     */
+    public Duration reservarIntento(String cuenta) {
+        Instant ahora = reloj.instant();
+        Instant[] bloqueadaHasta = {null};
+        estados.compute(normalizar(cuenta), (clave, anterior) -> {
+            if (anterior != null && anterior.bloqueadoHasta().isAfter(ahora)) {
+                bloqueadaHasta[0] = anterior.bloqueadoHasta();
+                return anterior;
+            }
+            int fallos = anterior == null ? 1 : anterior.fallos() + 1;
+            Instant hasta = fallos < intentosPermitidos ? ahora : ahora.plus(bloqueo(fallos - intentosPermitidos));
+            return new Estado(fallos, hasta);
+        });
+        if (estados.size() > UMBRAL_PURGA) {
+            estados.values().removeIf(e -> !e.bloqueadoHasta().isAfter(ahora));
+        }
+        return bloqueadaHasta[0] == null ? Duration.ZERO : Duration.between(ahora, bloqueadaHasta[0]);
+    }
+
+    /**
+     * Borra los fallos de una cuenta tras un inicio de sesión correcto
+     * @param cuenta Email de la cuenta
+     */
+    public void registrarExito(String cuenta) {
+        estados.remove(normalizar(cuenta));
+    }
+
+    private Duration bloqueo(int excedidos) {
+        Duration bloqueo = bloqueoInicial.multipliedBy(1L << Math.min(excedidos, 20));
+        return bloqueo.compareTo(bloqueoMaximo) > 0 ? bloqueoMaximo : bloqueo;
+    }
+
+    private static String normalizar(String cuenta) {
+        return cuenta == null ? "" : cuenta.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Estado(int fallos, Instant bloqueadoHasta) {
+    }
+}
@@ -2,24 +2,39 @@ package co.edu.uniquindio.bookyourstay.servicios;
 
 import co.edu.uniquindio.bookyourstay.factory.AlojamientoFactoryProvider;
 import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.Usuario;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
 import co.edu.uniquindio.bookyourstay.repositorios.AlojamientoRepositorio;
 import co.edu.uniquindio.bookyourstay.singleton.GestorAlojamientos;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 public class AlojamientoServicio {
     private static AlojamientoServicio instancia;
     private final AlojamientoRepositorio alojamientoRepositorio;
 
     private AlojamientoServicio() {
-        this.alojamientoRepositorio = new AlojamientoRepositorio();
+        this(PersistenciaServicio.activo()
+                .map(persistencia -> AlojamientoRepositorio.durable(persistencia.alojamientos()))
+                .orElseGet(AlojamientoRepositorio::new));
+    }
+
+    /**
+     * Crea el servicio sobre un repositorio y registra sus alojamientos en el {@link GestorAlojamientos},
+     * de modo que los alojamientos cargados del almacenamiento aparezcan en las búsquedas
+     * @param alojamientoRepositorio Repositorio de alojamientos
+     */
+    public AlojamientoServicio(AlojamientoRepositorio alojamientoRepositorio) {
+        this.alojamientoRepositorio = alojamientoRepositorio;
+        alojamientoRepositorio.listarTodos().forEach(GestorAlojamientos.getInstancia()::agregarAlojamiento);
     }
 
     public static synchronized AlojamientoServicio obtenerInstancia() {
@@ -31,21 +46,48 @@ public class AlojamientoServicio {
     public Alojamiento buscarAlojamientoPorNombre(String nombre) {
         return alojamientoRepositorio.buscarPorNombre(nombre).orElse(null);
     }
-    public ObservableList<Alojamiento> listarTodos() {
-        return FXCollections.observableArrayList(alojamientoRepositorio.listarTodos());
+    public List<Alojamiento> listarTodos() {
+        return alojamientoRepositorio.listarTodos();
     }
     public List<Alojamiento> buscarDisponibles(String ciudad, LocalDate fechaInicio, LocalDate fechaFin,
                                                int huespedes, TipoAlojamiento tipo, ReservaServicio reservaServicio) {
-        return GestorAlojamientos.getInstancia().getAlojamientos().stream()
-                .filter(a -> a.getCiudad().equalsIgnoreCase(ciudad)) // Usar .get() antes de equalsIgnoreCase
-                .filter(a -> tipo == null || a.getTipo().get() == tipo)
-                .filter(a -> a.getCapacidadMax().get() >= huespedes)
-                .filter(a -> reservaServicio.estaDisponible(a, fechaInicio, fechaFin))
-                .collect(Collectors.toList());
+        return buscarDisponibles(ciudad, fechaInicio, fechaFin, huespedes, tipo, null, null, null, reservaServicio);
+    }
+
+    /**
+     * Busca alojamientos disponibles; el índice de búsqueda reduce los candidatos y solo
+     * a ellos se les verifica la disponibilidad en las fechas. Si el hilo se interrumpe (por ejemplo,
+     * porque {@link ServiciosAsync} la reemplazó por una búsqueda nueva) deja de verificar candidatos
+     * @param precioMinimo Precio mínimo por noche (opcional)
+     * @param precioMaximo Precio máximo por noche (opcional)
+     * @param servicios Servicios requeridos (opcional)
+     * @return Alojamientos disponibles que cumplen los criterios
+     */
+    public List<Alojamiento> buscarDisponibles(String ciudad, LocalDate fechaInicio, LocalDate fechaFin,
+                                               int huespedes, TipoAlojamiento tipo,
+                                               Float precioMinimo, Float precioMaximo, List<String> servicios,
+                                               ReservaServicio reservaServicio) throws CancellationException {
+        List<Alojamiento> disponibles = new ArrayList<>();
+        for (Alojamiento alojamiento : GestorAlojamientos.getInstancia()
+                .buscar(ciudad, tipo, huespedes, precioMinimo, precioMaximo, servicios)) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("La búsqueda se canceló");
+            }
+            if (reservaServicio.estaDisponible(alojamiento, fechaInicio, fechaFin)) {
+                disponibles.add(alojamiento);
+            }
+        }
+        return disponibles;
     }
     public Alojamiento crearAlojamiento(TipoAlojamiento tipo, String nombre, String ciudad,
                                         String descripcion, float precioNoche, int capacidadMax,
                                         List<String> servicios) {
+        return crearAlojamiento(tipo, nombre, ciudad, descripcion, precioNoche, capacidadMax, servicios, null);
+    }
+
+    public Alojamiento crearAlojamiento(TipoAlojamiento tipo, String nombre, String ciudad,
+                                        String descripcion, float precioNoche, int capacidadMax,
+                                        List<String> servicios, Usuario propietario) {
         validarDatosAlojamiento(nombre, ciudad, precioNoche, capacidadMax);
 
         if (existeAlojamiento(nombre, ciudad)) {
@@ -54,8 +96,10 @@ public class AlojamientoServicio {
 
         Alojamiento alojamiento = AlojamientoFactoryProvider.getFactory(tipo)
                 .crearAlojamiento(generarId(), nombre, ciudad, descripcion, precioNoche, capacidadMax, servicios);
+        alojamiento.setPropietario(propietario);
 
         alojamientoRepositorio.guardarAlojamiento(alojamiento);
+        GestorAlojamientos.getInstancia().agregarAlojamiento(alojamiento);
         return alojamiento;
     }
 
@@ -69,36 +113,29 @@ public class AlojamientoServicio {
         validarDatosAlojamiento(
                 nuevosDatos.getNombre(),
                 nuevosDatos.getCiudad(),
-                nuevosDatos.getPrecioNoche().get(),
-                nuevosDatos.getCapacidadMax().get()
+                nuevosDatos.getPrecioNoche(),
+                nuevosDatos.getCapacidadMax()
         );
 
         // Obtener el alojamiento existente
         Alojamiento alojamiento = obtenerAlojamiento(id);
 
-        // Actualizar propiedades - usamos los setters de las propiedades
-        if (nuevosDatos.getServicios() != null) {
-            alojamiento.getServicios().setAll(nuevosDatos.getServicios());
-        }
-
+        // Actualizar datos
         if (nuevosDatos.getCiudad() != null) {
-            alojamiento.ciudadProperty().set(nuevosDatos.getCiudad());
+            alojamiento.setCiudad(nuevosDatos.getCiudad());
         }
         if (nuevosDatos.getDescripcion() != null) {
-            alojamiento.descripcionProperty().set(nuevosDatos.getDescripcion());
-        }
-        if (nuevosDatos.getPrecioNoche() != null) {
-            alojamiento.getPrecioNoche().set(nuevosDatos.getPrecioNoche().get());
-        }
-        if (nuevosDatos.getCapacidadMax() != null) {
-            alojamiento.getCapacidadMax().set(nuevosDatos.getCapacidadMax().get());
+            alojamiento.setDescripcion(nuevosDatos.getDescripcion());
         }
+        alojamiento.setPrecioNoche(nuevosDatos.getPrecioNoche());
+        alojamiento.setCapacidadMax(nuevosDatos.getCapacidadMax());
         if (nuevosDatos.getServicios() != null) {
-            alojamiento.getServicios().setAll(nuevosDatos.getServicios());
+            alojamiento.setServicios(nuevosDatos.getServicios());
         }
 
-        // Guardar cambios
+        // Guardar cambios y reindexar: la ciudad, el precio, la capacidad o los servicios pudieron cambiar
         alojamientoRepositorio.actualizarAlojamiento(alojamiento);
+        GestorAlojamientos.getInstancia().actualizarAlojamiento(alojamiento);
         return alojamiento;
     }
 
@@ -109,34 +146,55 @@ public class AlojamientoServicio {
 
     public boolean eliminarAlojamiento(String id) {
         try {
-            return alojamientoRepositorio.eliminarAlojamiento(id);
+            Optional<Alojamiento> alojamiento = alojamientoRepositorio.buscarPorId(id);
+            boolean eliminado = alojamientoRepositorio.eliminarAlojamiento(id);
+            alojamiento.ifPresent(GestorAlojamientos.getInstancia()::eliminarAlojamiento);
+            return eliminado;
         } catch (Exception e) {
             throw new RuntimeException("Error al eliminar alojamiento: " + e.getMessage(), e);
         }
     }
 
-    public ObservableList<Alojamiento> buscarPorCiudad(String ciudad) {
-        return FXCollections.observableArrayList(alojamientoRepositorio.buscarPorCiudad(ciudad));
+    public List<Alojamiento> buscarPorCiudad(String ciudad) {
+        return alojamientoRepositorio.buscarPorCiudad(ciudad);
     }
 
-    public ObservableList<Alojamiento> buscarPorTipo(TipoAlojamiento tipo) {
-        return FXCollections.observableArrayList(alojamientoRepositorio.buscarPorTipo(tipo));
+    public List<Alojamiento> buscarPorTipo(TipoAlojamiento tipo) {
+        return alojamientoRepositorio.buscarPorTipo(tipo);
     }
 
-    public ObservableList<Alojamiento> buscarPorRangoPrecio(float precioMin, float precioMax) {
-        return FXCollections.observableArrayList(alojamientoRepositorio.buscarPorRangoPrecio(precioMin, precioMax));
+    public List<Alojamiento> buscarPorRangoPrecio(float precioMin, float precioMax) {
+        return alojamientoRepositorio.buscarPorRangoPrecio(precioMin, precioMax);
     }
 
-    public ObservableList<Alojamiento> obtenerMejoresAlojamientos(int limite) {
-        return FXCollections.observableArrayList(alojamientoRepositorio.listarTodos().stream()
-                .sorted((a1, a2) -> Float.compare(a2.getCalificacionPromedio().get(), a1.getCalificacionPromedio().get()))
-                .limit(limite)
-                .collect(Collectors.toList()));
+    /**
+     * Alojamientos mejor calificados. Se leen del ranking que mantiene el repositorio de reseñas;
+     * solo si hay menos alojamientos con reseñas que el límite se completa con el resto del catálogo
+     * @param limite Número máximo de alojamientos
+     * @return Alojamientos de mayor a menor puntaje
+     */
+    public List<Alojamiento> obtenerMejoresAlojamientos(int limite) {
+        List<Alojamiento> mejores = new ArrayList<>();
+        Set<String> incluidos = new HashSet<>();
+        for (String id : ReseñaServicio.obtenerInstancia().obtenerMejorCalificados(limite)) {
+            alojamientoRepositorio.buscarPorId(id).ifPresent(alojamiento -> {
+                mejores.add(alojamiento);
+                incluidos.add(id);
+            });
+        }
+        if (mejores.size() < limite) {
+            alojamientoRepositorio.listarTodos().stream()
+                    .filter(a -> !incluidos.contains(a.getId()))
+                    .sorted((a1, a2) -> Float.compare(a2.getCalificacionPromedio(), a1.getCalificacionPromedio()))
+                    .limit(limite - mejores.size())
+                    .forEach(mejores::add);
+        }
+        return mejores;
     }
 
 
     private String generarId() {
-        return "ALO-" + System.currentTimeMillis();
+        return GeneradorIds.getInstancia().generar("ALO");
     }
 
     private boolean existeAlojamiento(String nombre, String ciudad) {
@@ -1,30 +1,38 @@
 package co.edu.uniquindio.bookyourstay.servicios;
 
+import co.edu.uniquindio.bookyourstay.indices.AcumuladorEstadisticas;
+import co.edu.uniquindio.bookyourstay.indices.RankingPopularidad;
 import co.edu.uniquindio.bookyourstay.modelo.*;
-import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
+import co.edu.uniquindio.bookyourstay.repositorios.AlmacenIndexado;
 import co.edu.uniquindio.bookyourstay.repositorios.AlojamientoRepositorio;
 import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
 
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.Year;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class EstadisticaServicio {
     private final ReservaRepositorio reservaRepositorio;
     private final AlojamientoRepositorio alojamientoRepositorio;
+    private final AcumuladorEstadisticas acumulador = new AcumuladorEstadisticas();
+    private final RankingPopularidad rankingPopularidad = new RankingPopularidad();
 
     public EstadisticaServicio(ReservaRepositorio reservaRepositorio, AlojamientoRepositorio alojamientoRepositorio) {
         this.reservaRepositorio = reservaRepositorio;
         this.alojamientoRepositorio = alojamientoRepositorio;
+
+        // El histórico y el registro quedan en un solo paso, sin cambios intermedios perdidos ni duplicados
+        reservaRepositorio.suscribir(acumulador);
+        reservaRepositorio.suscribir(rankingPopularidad);
     }
 
     public Map<String, Double> obtenerOcupacionPorCiudad() {
         try {
-            return alojamientoRepositorio.listarTodos().stream()
+            // Recorre una instantánea: los alojamientos que se registren mientras tanto no bloquean ni alteran el cálculo
+            return alojamientoRepositorio.instantanea().stream()
                     .collect(Collectors.groupingBy(
                             a -> a.getCiudad(),
                             Collectors.averagingDouble(this::calcularOcupacionAlojamiento)
@@ -37,12 +45,7 @@ public class EstadisticaServicio {
 
     public Map<TipoAlojamiento, Double> obtenerGananciasPorTipoAlojamiento() {
         try {
-            return reservaRepositorio.listarTodas().stream()
-                    .filter(r -> r.getAlojamiento() != null) // <-- Error común aquí
-                    .collect(Collectors.groupingBy(
-                            r -> obtenerTipoAlojamiento(r.getAlojamiento()),
-                            Collectors.summingDouble(Reserva::getTotal)
-                    ));
+            return acumulador.gananciasPorTipo();
         } catch (Exception e) {
             System.err.println("Error calculando ganancias por tipo: " + e.getMessage());
             return Collections.emptyMap();
@@ -51,12 +54,7 @@ public class EstadisticaServicio {
 
     public Map<Month, Double> obtenerGananciasMensuales(Year year) {
         try {
-            return reservaRepositorio.listarTodas().stream()
-                    .filter(r -> Year.from(r.getFechaInicio()).equals(year)) // <-- Cierra paréntesis
-                    .collect(Collectors.groupingBy(
-                            r -> r.getFechaInicio().getMonth(),
-                            Collectors.summingDouble(Reserva::getTotal)
-                    ));
+            return acumulador.gananciasMensuales(year);
         } catch (Exception e) {
             System.err.println("Error calculando ganancias mensuales: " + e.getMessage());
             return Collections.emptyMap();
@@ -65,44 +63,42 @@ public class EstadisticaServicio {
 
     public List<Alojamiento> obtenerAlojamientosMasPopulares(int limite) {
         try {
-            return alojamientoRepositorio.listarTodos().stream()
-                    .sorted(Comparator.comparingInt(
-                            (Alojamiento a) -> reservaRepositorio.buscarPorAlojamiento(a.getId()).size()
-                    ).reversed())
-                    .limit(limite)
-                    .collect(Collectors.toList());
+            AlmacenIndexado.Instantanea<Alojamiento> alojamientos = alojamientoRepositorio.instantanea();
+            List<Alojamiento> populares = aAlojamientos(alojamientos, rankingPopularidad.masPopulares(limite));
+
+            // Si no hay suficientes alojamientos con reservas se completa con los que no tienen
+            if (populares.size() < limite) {
+                Set<Alojamiento> incluidos = new HashSet<>(populares);
+                alojamientos.stream()
+                        .filter(a -> !incluidos.contains(a))
+                        .limit(limite - populares.size())
+                        .forEach(populares::add);
+            }
+            return populares;
         } catch (Exception e) {
             System.err.println("Error obteniendo alojamientos populares: " + e.getMessage());
             return Collections.emptyList();
         }
     }
 
-    public Map<Month, Double> calcularTasaCancelacion(Year year) {
+    /**
+     * Alojamientos con más reservas que inician dentro de la ventana indicada o después
+     * @param limite Número máximo de alojamientos
+     * @param ultimosDias Tamaño de la ventana en días (30, 90, 365...)
+     * @return Alojamientos ordenados de mayor a menor número de reservas
+     */
+    public List<Alojamiento> obtenerAlojamientosMasPopulares(int limite, int ultimosDias) {
         try {
-            Map<Month, Long> totalReservas = reservaRepositorio.listarTodas().stream()
-                    .filter(r -> Year.from(r.getFechaInicio()).equals(year))
-                    .collect(Collectors.groupingBy(
-                            r -> r.getFechaInicio().getMonth(),
-                            Collectors.counting()
-                    ));
-
-            Map<Month, Long> cancelaciones = reservaRepositorio.listarTodas().stream()
-                    .filter(r -> Year.from(r.getFechaInicio()).equals(year))
-                    .filter(r -> r.getEstado() == EstadoReserva.CANCELADA)
-                    .collect(Collectors.groupingBy(
-                            r -> r.getFechaInicio().getMonth(),
-                            Collectors.counting()
-                    ));
+            return aAlojamientos(alojamientoRepositorio.instantanea(), rankingPopularidad.masPopulares(limite, ultimosDias));
+        } catch (Exception e) {
+            System.err.println("Error obteniendo alojamientos populares: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
 
-            return totalReservas.keySet().stream()
-                    .collect(Collectors.toMap(
-                            month -> month,
-                            month -> {
-                                long total = totalReservas.getOrDefault(month, 0L);
-                                long canc = cancelaciones.getOrDefault(month, 0L);
-                                return total > 0 ? (canc * 100.0 / total) : 0.0;
-                            }
-                    ));
+    public Map<Month, Double> calcularTasaCancelacion(Year year) {
+        try {
+            return acumulador.tasaCancelacion(year);
         } catch (Exception e) {
             System.err.println("Error calculando tasa de cancelación: " + e.getMessage());
             return Collections.emptyMap();
@@ -111,19 +107,17 @@ public class EstadisticaServicio {
 
     public Map<TipoAlojamiento, Double> obtenerPromedioEstadia() {
         try {
-            return reservaRepositorio.listarTodas().stream()
-                    .filter(r -> r.getAlojamiento() != null)
-                    .collect(Collectors.groupingBy(
-                            r -> obtenerTipoAlojamiento(r.getAlojamiento()),
-                            Collectors.averagingInt(r -> (int) ChronoUnit.DAYS.between(
-                                    r.getFechaInicio(), r.getFechaFin()))
-                    ));
+            return acumulador.promedioEstadia();
         } catch (Exception e) {
             System.err.println("Error calculando promedio de estadía: " + e.getMessage());
             return Collections.emptyMap();
         }
     }
 
+    public Map<String, Double> obtenerGananciasPorCiudad() {
+        return acumulador.gananciasPorCiudad();
+    }
+
     public Map<String, Object> generarReporteConsolidado(Year year) {
         Map<String, Object> reporte = new LinkedHashMap<>();
         reporte.put("gananciasMensuales", obtenerGananciasMensuales(year));
@@ -135,12 +129,16 @@ public class EstadisticaServicio {
         return reporte;
     }
 
+    private List<Alojamiento> aAlojamientos(AlmacenIndexado.Instantanea<Alojamiento> alojamientos, List<String> ids) {
+        return ids.stream()
+                .map(alojamientos::buscar)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
     private double calcularOcupacionAlojamiento(Alojamiento alojamiento) {
         try {
-            long diasOcupados = reservaRepositorio.buscarPorAlojamiento(alojamiento.getId()).stream()
-                    .filter(r -> r.getEstado() == EstadoReserva.COMPLETADA)
-                    .mapToLong(r -> ChronoUnit.DAYS.between(r.getFechaInicio(), r.getFechaFin()))
-                    .sum();
+            long diasOcupados = acumulador.nochesCompletadas(alojamiento.getId());
 
             long diasTotales = LocalDate.now().lengthOfYear();
             return diasTotales > 0 ? (diasOcupados * 100.0 / diasTotales) : 0;
@@ -149,13 +147,4 @@ public class EstadisticaServicio {
             return 0.0;
         }
     }
-
-    private TipoAlojamiento obtenerTipoAlojamiento(Alojamiento alojamiento) {
-        String className = alojamiento.getClass().getSimpleName().toUpperCase();
-        try {
-            return TipoAlojamiento.valueOf(className);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Tipo de alojamiento no soportado: " + className);
-        }
-    }
 }
\ No newline at end of file
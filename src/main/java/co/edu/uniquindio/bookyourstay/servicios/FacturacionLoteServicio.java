@@ -0,0 +1,159 @@
+package co.edu.uniquindio.bookyourstay.servicios;
+
+import co.edu.uniquindio.bookyourstay.modelo.Factura;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.repositorios.ArchivoFacturas;
+import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Facturación por lotes de las reservas completadas de un mes.
+ * Las reservas se recorren ordenadas por ID y se agrupan en lotes; las facturas de cada lote
+ * (totales y código QR) se calculan en paralelo en un grupo acotado de hilos mientras el lote
+ * anterior se escribe en disco con {@link ArchivoFacturas}. Si la ejecución se interrumpe,
+ * volver a llamar a {@link #facturarMes} factura solo las reservas que no están en ningún lote
+ * confirmado, incluidas las que se completaron después de la ejecución anterior.
+ */
+public class FacturacionLoteServicio {
+    public static final int TAMANO_LOTE_POR_DEFECTO = 500;
+    // Lotes calculándose a la vez: uno se escribe mientras el siguiente se calcula
+    private static final int LOTES_EN_VUELO = 2;
+
+    private final ReservaRepositorio reservaRepositorio;
+    private final int hilos;
+    private final int tamanoLote;
+
+    public FacturacionLoteServicio(ReservaRepositorio reservaRepositorio) {
+        this(reservaRepositorio, Runtime.getRuntime().availableProcessors(), TAMANO_LOTE_POR_DEFECTO);
+    }
+
+    public FacturacionLoteServicio(ReservaRepositorio reservaRepositorio, int hilos, int tamanoLote) {
+        if (hilos <= 0 || tamanoLote <= 0) {
+            throw new IllegalArgumentException("Los hilos y el tamaño del lote deben ser mayores a cero");
+        }
+        this.reservaRepositorio = reservaRepositorio;
+        this.hilos = hilos;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Factura las reservas completadas cuyo fin cae en el mes indicado
+     * @param periodo Mes a facturar
+     * @param directorio Directorio base; los lotes del mes quedan en un subdirectorio con su nombre
+     * @param metodoPago Método de pago registrado en las facturas
+     * @return Métricas de la ejecución
+     * @throws IllegalStateException si falla el cálculo de alguna factura; los lotes ya escritos se conservan
+     */
+    public ResultadoFacturacion facturarMes(YearMonth periodo, Path directorio, String metodoPago) {
+        if (periodo == null || directorio == null) {
+            throw new IllegalArgumentException("El periodo y el directorio son requeridos");
+        }
+        if (metodoPago == null || metodoPago.isBlank()) {
+            throw new IllegalArgumentException("El método de pago no puede estar vacío");
+        }
+
+        long inicio = System.nanoTime();
+        ArchivoFacturas archivo = new ArchivoFacturas(directorio.resolve(periodo.toString()));
+        ArchivoFacturas.Resumen resumen = archivo.resumir();
+        int lotesPrevios = resumen.lotes().size();
+        Set<String> facturadas = resumen.reservasFacturadas();
+
+        // Se filtra por reserva facturada y no por el último ID: una reserva con un ID menor puede
+        // completarse después de la ejecución anterior
+        List<Reserva> pendientes = new ArrayList<>(reservaRepositorio.buscarPorCriterio(r ->
+                r.getEstado() == EstadoReserva.COMPLETADA
+                        && r.getFechaFin() != null
+                        && YearMonth.from(r.getFechaFin()).equals(periodo)
+                        && !facturadas.contains(r.getId())));
+        pendientes.sort(Comparator.comparing(Reserva::getId));
+
+        LocalDateTime fechaEmision = periodo.atEndOfMonth().atTime(LocalTime.of(23, 59, 59));
+        ExecutorService grupo = crearGrupo();
+        Deque<List<Future<Factura>>> enVuelo = new ArrayDeque<>();
+        int primerLote = resumen.siguienteNumero();
+        int numeroLote = primerLote;
+        int facturas = 0;
+        long bytes = 0;
+        try {
+            for (int desdeIndice = 0; desdeIndice < pendientes.size(); desdeIndice += tamanoLote) {
+                List<Reserva> lote = pendientes.subList(desdeIndice, Math.min(desdeIndice + tamanoLote, pendientes.size()));
+                List<Future<Factura>> calculos = new ArrayList<>(lote.size());
+                for (Reserva reserva : lote) {
+                    calculos.add(grupo.submit(() -> Factura.generarFactura(reserva, metodoPago, fechaEmision)));
+                }
+                enVuelo.addLast(calculos);
+
+                if (enVuelo.size() >= LOTES_EN_VUELO) {
+                    List<Factura> listas = esperar(enVuelo.removeFirst());
+                    bytes += archivo.escribirLote(numeroLote++, listas);
+                    facturas += listas.size();
+                }
+            }
+            while (!enVuelo.isEmpty()) {
+                List<Factura> listas = esperar(enVuelo.removeFirst());
+                bytes += archivo.escribirLote(numeroLote++, listas);
+                facturas += listas.size();
+            }
+        } finally {
+            enVuelo.forEach(calculos -> calculos.forEach(f -> f.cancel(true)));
+            grupo.shutdownNow();
+        }
+
+        return new ResultadoFacturacion(periodo, facturas, numeroLote - primerLote, lotesPrevios, bytes,
+                Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    private ExecutorService crearGrupo() {
+        AtomicInteger contador = new AtomicInteger();
+        // Cola acotada: si los cálculos se atrasan, el hilo que recorre las reservas calcula él mismo
+        return new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hilos * 4),
+                r -> {
+                    Thread hilo = new Thread(r, "facturacion-lote-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static List<Factura> esperar(List<Future<Factura>> calculos) {
+        List<Factura> facturas = new ArrayList<>(calculos.size());
+        for (Future<Factura> calculo : calculos) {
+            try {
+                facturas.add(calculo.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Facturación interrumpida", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error al calcular una factura: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return facturas;
+    }
+
+    /**
+     * Métricas de una ejecución de facturación
+     * @param periodo Mes facturado
+     * @param facturas Facturas escritas en esta ejecución
+     * @param lotesEscritos Lotes escritos en esta ejecución
+     * @param lotesPrevios Lotes que ya estaban confirmados y se omitieron
+     * @param bytes Bytes escritos en disco
+     * @param duracion Tiempo total de la ejecución
+     */
+    public record ResultadoFacturacion(YearMonth periodo, int facturas, int lotesEscritos, int lotesPrevios,
+                                       long bytes, Duration duracion) {
+        public double facturasPorSegundo() {
+            long nanos = duracion.toNanos();
+            return nanos == 0 ? 0 : facturas * 1_000_000_000.0 / nanos;
+        }
+    }
+}
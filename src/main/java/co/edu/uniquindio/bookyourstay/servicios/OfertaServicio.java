@@ -1,10 +1,12 @@
 package co.edu.uniquindio.bookyourstay.servicios;
 
 import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.Dinero;
 import co.edu.uniquindio.bookyourstay.modelo.Oferta;
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoOferta;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoOferta;
 import co.edu.uniquindio.bookyourstay.repositorios.OfertaRepositorio;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -39,8 +41,9 @@ public class OfertaServicio {
             throw new IllegalArgumentException("Ya existe una oferta con el nombre: " + nombre);
         }
 
+        String id = generarId();
         Oferta oferta = Oferta.builder()
-                .id(generarId())
+                .id(id)
                 .nombre(nombre)
                 .descripcion(descripcion)
                 .tipoOferta(tipo)
@@ -52,7 +55,7 @@ public class OfertaServicio {
                 .alojamientosAplicables(alojamientos)
                 .maximoUsos(0) // 0 = ilimitado
                 .usosActuales(0)
-                .codigoPromocional(generarCodigoPromocional(nombre))
+                .codigoPromocional(generarCodigoPromocional(nombre, id))
                 .build();
 
         ofertaRepositorio.guardarOferta(oferta);
@@ -110,6 +113,17 @@ public class OfertaServicio {
                 .orElseThrow(() -> new NoSuchElementException("Oferta no encontrada con ID: " + id));
     }
 
+    /**
+     * Obtiene una oferta por su código promocional
+     * @param codigo Código promocional
+     * @return Oferta encontrada
+     * @throws NoSuchElementException Si no hay una oferta con ese código
+     */
+    public Oferta obtenerOfertaPorCodigo(String codigo) throws NoSuchElementException {
+        return ofertaRepositorio.buscarPorCodigo(codigo)
+                .orElseThrow(() -> new NoSuchElementException("Oferta no encontrada con código: " + codigo));
+    }
+
     /**
      * Aplica una oferta a un precio base
      * @param ofertaId ID de la oferta
@@ -119,40 +133,52 @@ public class OfertaServicio {
      * @throws IllegalStateException Si la oferta no es aplicable
      */
     public float aplicarOferta(String ofertaId, float precioBase) throws NoSuchElementException, IllegalStateException {
-        Oferta oferta = obtenerOferta(ofertaId);
-
-        if (!oferta.esVigente()) {
-            throw new IllegalStateException("La oferta no está vigente");
-        }
-
-        if (oferta.getMaximoUsos() > 0 && oferta.getUsosActuales() >= oferta.getMaximoUsos()) {
-            throw new IllegalStateException("La oferta ha alcanzado su límite de usos");
-        }
-
-        float precioFinal = oferta.getTipoOferta() == TipoOferta.PORCENTAJE ?
-                precioBase * (1 - oferta.getValor() / 100) :
-                Math.max(0, precioBase - oferta.getValor());
-
-        // Registrar uso
-        oferta.setUsosActuales(oferta.getUsosActuales() + 1);
-        ofertaRepositorio.actualizarOferta(oferta);
+        return redimir(obtenerOferta(ofertaId), precioBase);
+    }
 
-        return precioFinal;
+    /**
+     * Aplica una oferta identificada por su código promocional a un precio base
+     * @param codigo Código promocional
+     * @param precioBase Precio original
+     * @return Precio con descuento aplicado
+     * @throws NoSuchElementException Si no hay una oferta con ese código
+     * @throws IllegalStateException Si la oferta no es aplicable
+     */
+    public float aplicarOfertaPorCodigo(String codigo, float precioBase) throws NoSuchElementException, IllegalStateException {
+        return redimir(obtenerOfertaPorCodigo(codigo), precioBase);
     }
 
     // Métodos que no lanzan excepciones (mantienen su implementación original)
     public List<Oferta> listarOfertasVigentes() {
-        return ofertaRepositorio.listarTodas().stream()
-                .filter(Oferta::esVigente)
-                .collect(Collectors.toList());
+        return ofertaRepositorio.listarOfertasVigentes();
     }
 
     public List<Oferta> listarOfertasParaAlojamiento(String alojamientoId) {
-        return ofertaRepositorio.listarTodas().stream()
-                .filter(Oferta::esVigente)
-                .filter(o -> o.getAlojamientosAplicables().stream()
-                        .anyMatch(a -> a.getId().equals(alojamientoId)))
-                .collect(Collectors.toList());
+        return ofertaRepositorio.buscarOfertasVigentesPorAlojamiento(alojamientoId);
+    }
+
+    /**
+     * Busca la oferta vigente que deja el menor precio para un alojamiento
+     * @param alojamiento Alojamiento a consultar
+     * @return Optional con la mejor oferta, vacío si no tiene ofertas vigentes
+     */
+    public Optional<Oferta> obtenerMejorOferta(Alojamiento alojamiento) {
+        long precio = alojamiento.getPrecioNocheCentavos();
+        return ofertaRepositorio.buscarOfertasVigentesPorAlojamiento(alojamiento.getId()).stream()
+                .min(Comparator.comparingLong(o -> o.calcularPrecioConDescuento(precio)));
+    }
+
+    /**
+     * Mejor oferta de cada alojamiento de un listado (por ejemplo, resultados de búsqueda)
+     * @param alojamientos Alojamientos a consultar
+     * @return Mapa de ID de alojamiento a su mejor oferta; solo incluye los que tienen alguna
+     */
+    public Map<String, Oferta> obtenerMejoresOfertas(List<Alojamiento> alojamientos) {
+        Map<String, Oferta> mejores = new HashMap<>();
+        for (Alojamiento alojamiento : alojamientos) {
+            obtenerMejorOferta(alojamiento).ifPresent(o -> mejores.put(alojamiento.getId(), o));
+        }
+        return mejores;
     }
 
     public Map<String, Object> generarReporteOfertas() {
@@ -174,13 +200,30 @@ public class OfertaServicio {
         return reporte;
     }
 
+    private float redimir(Oferta oferta, float precioBase) throws IllegalStateException {
+        if (!oferta.esVigente()) {
+            throw new IllegalStateException("La oferta no está vigente");
+        }
+        // El uso se consume con CAS sobre el contador de la propia oferta; luego se vuelve a guardar
+        // para que el contador sobreviva a un reinicio. Cada registro lee el contador al escribirse,
+        // así el último siempre incluye todos los usos ya consumidos
+        if (!oferta.registrarUso()) {
+            throw new IllegalStateException("La oferta ha alcanzado su límite de usos");
+        }
+        ofertaRepositorio.actualizarUsos(oferta);
+        return (float) Dinero.aUnidades(oferta.calcularPrecioConDescuento(Dinero.deUnidades(precioBase)));
+    }
+
     private String generarId() {
-        return "OF-" + System.currentTimeMillis();
+        return GeneradorIds.getInstancia().generar("OF");
     }
 
-    private String generarCodigoPromocional(String nombre) {
+    /**
+     * El sufijo es la parte numérica del ID (Snowflake en base32), así dos ofertas nunca comparten código
+     */
+    private String generarCodigoPromocional(String nombre, String id) {
         String codigo = nombre.substring(0, Math.min(3, nombre.length())).toUpperCase();
-        return codigo + "-" + (int)(Math.random() * 1000);
+        return codigo + "-" + id.substring(id.indexOf('-') + 1);
     }
 
     private boolean existeOfertaConNombre(String nombre) {
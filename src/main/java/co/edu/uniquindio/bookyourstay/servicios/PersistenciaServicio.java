@@ -0,0 +1,131 @@
+package co.edu.uniquindio.bookyourstay.servicios;
+
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.Oferta;
+import co.edu.uniquindio.bookyourstay.modelo.Reseña;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.Usuario;
+import co.edu.uniquindio.bookyourstay.persistencia.CodecsModelo;
+import co.edu.uniquindio.bookyourstay.persistencia.Coleccion;
+import co.edu.uniquindio.bookyourstay.persistencia.Durabilidad;
+import co.edu.uniquindio.bookyourstay.persistencia.MotorAlmacenamiento;
+import co.edu.uniquindio.bookyourstay.persistencia.Referencias;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Conecta los repositorios de los servicios con el {@link MotorAlmacenamiento}.
+ * Se activa una vez al iniciar la aplicación, antes de crear los servicios: mientras no se active
+ * (por ejemplo en las pruebas) los servicios usan repositorios solo en memoria.
+ * Las referencias entre entidades se guardan por ID y se resuelven al cargar con los servicios
+ * correspondientes, por eso los usuarios y alojamientos se cargan antes que las reservas y reseñas.
+ */
+public class PersistenciaServicio {
+    private static PersistenciaServicio instancia;
+
+    private final MotorAlmacenamiento motor;
+    private final Coleccion<Usuario> usuarios;
+    private final Coleccion<Alojamiento> alojamientos;
+    private final Coleccion<Reserva> reservas;
+    private final Coleccion<Reseña> reseñas;
+    private final Coleccion<Oferta> ofertas;
+
+    private PersistenciaServicio(MotorAlmacenamiento motor) {
+        Referencias referencias = new ReferenciasServicios();
+        this.motor = motor;
+        this.usuarios = motor.coleccion("usuarios", CodecsModelo.usuarios());
+        this.alojamientos = motor.coleccion("alojamientos", CodecsModelo.alojamientos(referencias));
+        this.reservas = motor.coleccion("reservas", CodecsModelo.reservas(referencias));
+        this.reseñas = motor.coleccion("reseñas", CodecsModelo.reseñas(referencias));
+        this.ofertas = motor.coleccion("ofertas", CodecsModelo.ofertas(referencias));
+    }
+
+    /**
+     * Abre (o crea) el almacenamiento en el directorio
+     * @param directorio Directorio de los segmentos
+     * @param durabilidad Cuándo se confirma una escritura
+     * @throws IllegalStateException si ya estaba activo
+     * @throws UncheckedIOException si no se puede abrir el directorio
+     */
+    public static synchronized PersistenciaServicio activar(Path directorio, Durabilidad durabilidad) {
+        if (instancia != null) {
+            throw new IllegalStateException("El almacenamiento ya está activo");
+        }
+        instancia = new PersistenciaServicio(MotorAlmacenamiento.abrir(directorio, durabilidad));
+        return instancia;
+    }
+
+    /**
+     * @return El almacenamiento activo, o vacío si la aplicación trabaja solo en memoria
+     */
+    public static synchronized Optional<PersistenciaServicio> activo() {
+        return Optional.ofNullable(instancia);
+    }
+
+    /**
+     * Fuerza a disco lo pendiente y cierra el almacenamiento
+     * @throws UncheckedIOException si no se puede forzar a disco
+     */
+    public static synchronized void cerrar() {
+        if (instancia == null) {
+            return;
+        }
+        try {
+            instancia.motor.close();
+        } finally {
+            instancia = null;
+        }
+    }
+
+    public Coleccion<Usuario> usuarios() {
+        return usuarios;
+    }
+
+    public Coleccion<Alojamiento> alojamientos() {
+        return alojamientos;
+    }
+
+    public Coleccion<Reserva> reservas() {
+        return reservas;
+    }
+
+    public Coleccion<Reseña> reseñas() {
+        return reseñas;
+    }
+
+    public Coleccion<Oferta> ofertas() {
+        return ofertas;
+    }
+
+    /**
+     * Resuelve los IDs guardados con los servicios; crear el servicio la primera vez carga su colección
+     */
+    private static class ReferenciasServicios implements Referencias {
+        @Override
+        public Optional<Usuario> usuario(String id) {
+            return buscar(() -> UsuarioServicio.obtenerInstancia().obtenerUsuario(id));
+        }
+
+        @Override
+        public Optional<Alojamiento> alojamiento(String id) {
+            return buscar(() -> AlojamientoServicio.obtenerInstancia().obtenerAlojamiento(id));
+        }
+
+        @Override
+        public Optional<Reserva> reserva(String id) {
+            return buscar(() -> ReservaServicio.obtenerInstancia().obtenerReserva(id));
+        }
+
+        private static <E> Optional<E> buscar(Supplier<E> busqueda) {
+            try {
+                return Optional.of(busqueda.get());
+            } catch (NoSuchElementException e) {
+                return Optional.empty();
+            }
+        }
+    }
+}
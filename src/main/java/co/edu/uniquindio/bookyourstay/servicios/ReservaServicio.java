@@ -2,7 +2,11 @@ package co.edu.uniquindio.bookyourstay.servicios;
 
 import co.edu.uniquindio.bookyourstay.modelo.*;
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.repositorios.ConsultaPagina;
+import co.edu.uniquindio.bookyourstay.repositorios.ObservadorReservas;
+import co.edu.uniquindio.bookyourstay.repositorios.Pagina;
 import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -12,7 +16,6 @@ import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 public class ReservaServicio {
-    private List<Reserva> todasLasReservas;
     private final ReservaRepositorio reservaRepositorio;
     private static ReservaServicio instancia;
 
@@ -21,10 +24,37 @@ public class ReservaServicio {
     }
     public static synchronized ReservaServicio obtenerInstancia() {
         if (instancia == null) {
-            instancia = new ReservaServicio(new ReservaRepositorio());
+            instancia = new ReservaServicio(PersistenciaServicio.activo()
+                    .map(persistencia -> ReservaRepositorio.durable(persistencia.reservas()))
+                    .orElseGet(ReservaRepositorio::new));
         }
         return instancia;
     }
+
+    /**
+     * Registra un observador de los cambios en las reservas de este servicio
+     * @param observador Observador a notificar
+     */
+    public void agregarObservador(ObservadorReservas observador) {
+        reservaRepositorio.agregarObservador(observador);
+    }
+
+    public List<Reserva> listarReservasCliente(String clienteId) {
+        return reservaRepositorio.buscarPorCliente(clienteId);
+    }
+
+    /**
+     * Obtiene una página de las reservas de los alojamientos de un propietario
+     * @param propietarioId ID del propietario
+     * @param consulta Filtro adicional, orden, cursor y tamaño de la página
+     * @return Página de reservas con el cursor de la siguiente
+     */
+    public Pagina<Reserva> paginarReservasPropietario(String propietarioId, ConsultaPagina<Reserva> consulta) {
+        return reservaRepositorio.paginar(consulta.filtrando(r -> r.getAlojamiento() != null
+                && r.getAlojamiento().getPropietario() != null
+                && r.getAlojamiento().getPropietario().getId().equals(propietarioId)));
+    }
+
     public Reserva crearReserva(Cliente cliente, Alojamiento alojamiento, LocalDate fechaInicio,
                                 LocalDate fechaFin, int numHuespedes) throws IllegalArgumentException, IllegalStateException {
 
@@ -33,6 +63,8 @@ public class ReservaServicio {
         validarDisponibilidad(alojamiento, fechaInicio, fechaFin);
         validarSaldoCliente(cliente, alojamiento, fechaInicio, fechaFin);
 
+        // La verificación anterior solo descarta rápido; guardarReserva vuelve a verificar
+        // y ocupa las fechas de forma atómica bajo el candado del alojamiento
         Reserva reserva = construirReserva(cliente, alojamiento, fechaInicio, fechaFin, numHuespedes);
         reservaRepositorio.guardarReserva(reserva);
         return reserva;
@@ -76,8 +108,7 @@ public class ReservaServicio {
     }
 
     public boolean verificarDisponibilidad(Alojamiento alojamiento, LocalDate fechaInicio, LocalDate fechaFin) {
-        return reservaRepositorio.buscarPorAlojamiento(alojamiento.getId()).stream()
-                .noneMatch(r -> r.haySolapamiento(fechaInicio, fechaFin) && r.getEstado() == EstadoReserva.CONFIRMADA);
+        return reservaRepositorio.estaDisponible(alojamiento.getId(), fechaInicio, fechaFin);
     }
 
     public Reserva completarReserva(String reservaId) throws NoSuchElementException {
@@ -90,7 +121,7 @@ public class ReservaServicio {
     private Reserva construirReserva(Cliente cliente, Alojamiento alojamiento,
                                      LocalDate fechaInicio, LocalDate fechaFin, int numHuespedes) {
         int numNoches = (int) ChronoUnit.DAYS.between(fechaInicio, fechaFin);
-        float total = alojamiento.calcularCostoTotal(numNoches);
+        long total = alojamiento.calcularCostoTotal(numNoches);
 
         return Reserva.builder()
                 .conId(generarId())  // Cambiado a conId
@@ -100,7 +131,7 @@ public class ReservaServicio {
                 .conFechaFin(fechaFin)
                 .conNumHuespedes(numHuespedes)
                 .conEstado(EstadoReserva.CONFIRMADA)
-                .conTotal(total)
+                .conTotalCentavos(total)
                 .build();
     }
 
@@ -114,8 +145,8 @@ public class ReservaServicio {
     }
 
     private void validarCapacidad(Alojamiento alojamiento, int numHuespedes) throws IllegalArgumentException {
-        if (numHuespedes > alojamiento.getCapacidadMax().get()) {
-            throw new IllegalArgumentException("Capacidad máxima excedida: " + alojamiento.getCapacidadMax().get());
+        if (numHuespedes > alojamiento.getCapacidadMax()) {
+            throw new IllegalArgumentException("Capacidad máxima excedida: " + alojamiento.getCapacidadMax());
         }
     }
 
@@ -129,10 +160,10 @@ public class ReservaServicio {
     private void validarSaldoCliente(Cliente cliente, Alojamiento alojamiento,
                                      LocalDate fechaInicio, LocalDate fechaFin) throws IllegalStateException {
         int numNoches = (int) ChronoUnit.DAYS.between(fechaInicio, fechaFin);
-        float total = alojamiento.calcularCostoTotal(numNoches);
+        long total = alojamiento.calcularCostoTotal(numNoches);
 
-        if (!cliente.tieneSaldoSuficiente(total)) {
-            throw new IllegalStateException("Saldo insuficiente. Se requiere: " + total);
+        if (!cliente.tieneSaldoSuficienteCentavos(total)) {
+            throw new IllegalStateException("Saldo insuficiente. Se requiere: " + Dinero.formatear(total));
         }
     }
 
@@ -149,12 +180,9 @@ public class ReservaServicio {
             throw new IllegalArgumentException("Parámetros no pueden ser nulos");
         }
 
-        return todasLasReservas.stream()
-                .filter(r -> r.getAlojamiento() != null &&
-                        r.getAlojamiento().getId().equals(alojamiento.getId()))
-                .noneMatch(reserva -> reserva.haySolapamiento(fechaInicio, fechaFin));
+        return reservaRepositorio.estaDisponible(alojamiento.getId(), fechaInicio, fechaFin);
     }
     private String generarId() {
-        return "RES-" + System.currentTimeMillis();
+        return GeneradorIds.getInstancia().generar("RES");
     }
 }
\ No newline at end of file
@@ -1,12 +1,13 @@
 package co.edu.uniquindio.bookyourstay.servicios;
 
+import co.edu.uniquindio.bookyourstay.indices.AgregadoCalificaciones;
+import co.edu.uniquindio.bookyourstay.indices.IndiceTextoReseñas;
 import co.edu.uniquindio.bookyourstay.modelo.*;
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCalificacion;
+import co.edu.uniquindio.bookyourstay.repositorios.Pagina;
 import co.edu.uniquindio.bookyourstay.repositorios.ReseñaRepositorio;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import co.edu.uniquindio.bookyourstay.singleton.GeneradorIds;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,14 +20,11 @@ public class ReseñaServicio {
 
     private final ReseñaRepositorio reseñaRepositorio;
 
-    // ObservableList para UI (JavaFX)
-    private final ObservableList<Reseña> listaReseñas;
-
     // Constructor privado para singleton
     private ReseñaServicio() {
-        this.reseñaRepositorio = new ReseñaRepositorio();
-        // Inicializar la lista observable con todas las reseñas actuales
-        this.listaReseñas = FXCollections.observableArrayList(reseñaRepositorio.listarTodas());
+        this.reseñaRepositorio = PersistenciaServicio.activo()
+                .map(persistencia -> ReseñaRepositorio.durable(persistencia.reseñas()))
+                .orElseGet(ReseñaRepositorio::new);
     }
 
     // Método para obtener la instancia singleton
@@ -37,9 +35,8 @@ public class ReseñaServicio {
         return instancia;
     }
 
-    // Método para obtener la lista observable
-    public ObservableList<Reseña> getListaReseñas() {
-        return listaReseñas;
+    public List<Reseña> listarTodas() {
+        return reseñaRepositorio.listarTodas();
     }
 
     public Reseña crearReseña(Cliente cliente, Alojamiento alojamiento, Reserva reserva,
@@ -53,7 +50,6 @@ public class ReseñaServicio {
         Reseña reseña = construirReseña(cliente, alojamiento, reserva, calificacion, comentario, tipo, recomendaria);
 
         reseñaRepositorio.guardar(reseña);
-        listaReseñas.add(reseña); // Actualizar lista observable
         return reseña;
     }
 
@@ -63,9 +59,6 @@ public class ReseñaServicio {
         reseña.setRespuestaAdministrador(respuestaAdmin);
         reseña.setFechaRespuesta(LocalDateTime.now());
         reseñaRepositorio.actualizarReseña(reseña);
-        // Actualizar lista observable: quitar y volver a agregar para refrescar binding si aplica
-        listaReseñas.removeIf(r -> r.getId().equals(reseñaId));
-        listaReseñas.add(reseña);
         return reseña;
     }
 
@@ -80,13 +73,41 @@ public class ReseñaServicio {
     }
 
     public float calcularPromedioCalificaciones(String alojamientoId) {
-        List<Reseña> reseñas = listarResenasVerificadasPorAlojamiento(alojamientoId);
-        if (reseñas.isEmpty()) return 0;
+        return (float) reseñaRepositorio.obtenerCalificaciones(alojamientoId).promedioVerificadas();
+    }
+
+    public AgregadoCalificaciones.Calificaciones obtenerCalificaciones(String alojamientoId) {
+        return reseñaRepositorio.obtenerCalificaciones(alojamientoId);
+    }
 
-        return (float) reseñas.stream()
-                .mapToInt(Reseña::getCalificacion)
-                .average()
-                .orElse(0);
+    /**
+     * @param limite Número máximo de alojamientos
+     * @return IDs de los alojamientos con reseñas, de mayor a menor puntaje bayesiano
+     */
+    public List<String> obtenerMejorCalificados(int limite) {
+        return reseñaRepositorio.obtenerMejorCalificados(limite);
+    }
+
+    /**
+     * Busca reseñas por las palabras de su comentario
+     * @param consulta Palabras a buscar; las terminadas en * se buscan por prefijo
+     * @param orden Orden de los resultados
+     * @param limite Número máximo de reseñas
+     * @return Reseñas que contienen todas las palabras
+     */
+    public List<Reseña> buscarPorTexto(String consulta, IndiceTextoReseñas.Orden orden, int limite) {
+        return reseñaRepositorio.buscarPorTexto(consulta, orden, limite);
+    }
+
+    /**
+     * Página de reseñas para moderar por comentario, cliente, alojamiento o calificación
+     * @param consulta Palabras a buscar; las terminadas en * se buscan por prefijo
+     * @param cursor Cursor de la página anterior, o null para la primera
+     * @param tamaño Número máximo de reseñas de la página
+     * @return Página de reseñas, de la más reciente a la más antigua
+     */
+    public Pagina<Reseña> paginarModeracion(String consulta, String cursor, int tamaño) {
+        return reseñaRepositorio.paginarModeracion(consulta, cursor, tamaño);
     }
 
     public List<Reseña> obtenerResenasDestacadas(String alojamientoId) {
@@ -154,20 +175,13 @@ public class ReseñaServicio {
      */
     public boolean eliminarReseña(String id) {
         try {
-            // 1. Eliminar del repositorio
-            boolean eliminado = reseñaRepositorio.eliminar(id);
-
-            if (eliminado) {
-                // 2. Actualizar la lista observable
-                listaReseñas.removeIf(r -> r.getId().equals(id));
-            }
-            return eliminado;
+            return reseñaRepositorio.eliminar(id);
         } catch (Exception e) {
             e.printStackTrace();
             return false;
         }
     }
     private String generarId() {
-        return "RESE-" + System.currentTimeMillis();
+        return GeneradorIds.getInstancia().generar("RESE");
     }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package co.edu.uniquindio.bookyourstay.servicios;
+
+import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.Cliente;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.Usuario;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
+import co.edu.uniquindio.bookyourstay.repositorios.ConsultaPagina;
+import co.edu.uniquindio.bookyourstay.repositorios.Pagina;
+import co.edu.uniquindio.bookyourstay.singleton.GestorReservas;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Fachada asíncrona sobre los servicios para la interfaz: cada operación corre en un hilo virtual
+ * y devuelve un {@link CompletableFuture}, así el hilo de JavaFX nunca espera una consulta.
+ * Las operaciones con canal (por ejemplo, la búsqueda mientras se escribe) cancelan la anterior
+ * del mismo canal; cancelar un futuro interrumpe su hilo y sus callbacks reciben una
+ * {@link CancellationException}.
+ */
+public class ServiciosAsync {
+    public static final String CANAL_BUSQUEDA_ALOJAMIENTOS = "busqueda-alojamientos";
+
+    // Un hilo virtual por tarea: las consultas son cortas y muchas pueden estar esperando a la vez
+    private static final ExecutorService EJECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("servicio-async-", 0).factory());
+
+    private static ServiciosAsync instancia;
+
+    private final AlojamientoServicio alojamientoServicio;
+    private final ReservaServicio reservaServicio;
+    private final SesionServicio sesionServicio;
+    private final UsuarioServicio usuarioServicio;
+    // Última operación de cada canal, para cancelarla cuando llega una nueva
+    private final Map<String, CompletableFuture<?>> ultimasPorCanal = new ConcurrentHashMap<>();
+
+    public ServiciosAsync(AlojamientoServicio alojamientoServicio, ReservaServicio reservaServicio,
+                          SesionServicio sesionServicio, UsuarioServicio usuarioServicio) {
+        this.alojamientoServicio = alojamientoServicio;
+        this.reservaServicio = reservaServicio;
+        this.sesionServicio = sesionServicio;
+        this.usuarioServicio = usuarioServicio;
+    }
+
+    public static synchronized ServiciosAsync obtenerInstancia() {
+        if (instancia == null) {
+            instancia = new ServiciosAsync(AlojamientoServicio.obtenerInstancia(), ReservaServicio.obtenerInstancia(),
+                    SesionServicio.obtenerInstancia(), UsuarioServicio.obtenerInstancia());
+        }
+        return instancia;
+    }
+
+    /**
+     * Ejecuta una tarea en un hilo virtual
+     * @param tarea Tarea a ejecutar
+     * @return Futuro con el resultado; cancelarlo interrumpe la tarea
+     */
+    public <T> CompletableFuture<T> ejecutar(Callable<T> tarea) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        Future<?> ejecucion = EJECUTOR.submit(() -> {
+            try {
+                resultado.complete(tarea.call());
+            } catch (Throwable e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        resultado.whenComplete((valor, error) -> {
+            if (resultado.isCancelled()) {
+                ejecucion.cancel(true);
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Ejecuta una tarea cancelando la anterior del mismo canal si aún no terminó
+     * @param canal Nombre del canal (una búsqueda, una tabla)
+     * @param tarea Tarea a ejecutar
+     * @return Futuro con el resultado
+     */
+    public <T> CompletableFuture<T> ejecutarReemplazando(String canal, Callable<T> tarea) {
+        CompletableFuture<T> resultado = ejecutar(tarea);
+        CompletableFuture<?> anterior = ultimasPorCanal.put(canal, resultado);
+        if (anterior != null) {
+            anterior.cancel(true);
+        }
+        resultado.whenComplete((valor, error) -> ultimasPorCanal.remove(canal, resultado));
+        return resultado;
+    }
+
+    /**
+     * Busca alojamientos disponibles; una búsqueda nueva cancela la que esté en curso: la interrupción
+     * detiene la verificación de candidatos en {@link AlojamientoServicio#buscarDisponibles} y su resultado se descarta
+     */
+    public CompletableFuture<List<Alojamiento>> buscarDisponibles(String ciudad, LocalDate fechaInicio, LocalDate fechaFin,
+                                                                  int huespedes, TipoAlojamiento tipo) {
+        return ejecutarReemplazando(CANAL_BUSQUEDA_ALOJAMIENTOS, () -> alojamientoServicio.buscarDisponibles(
+                ciudad, fechaInicio, fechaFin, huespedes, tipo, reservaServicio));
+    }
+
+    public CompletableFuture<Alojamiento> buscarAlojamientoPorNombre(String nombre) {
+        return ejecutar(() -> alojamientoServicio.buscarAlojamientoPorNombre(nombre));
+    }
+
+    public CompletableFuture<Reserva> crearReserva(Cliente cliente, Alojamiento alojamiento, LocalDate fechaInicio,
+                                                   LocalDate fechaFin, int numHuespedes) {
+        return ejecutar(() -> reservaServicio.crearReserva(cliente, alojamiento, fechaInicio, fechaFin, numHuespedes));
+    }
+
+    /**
+     * Reservas del usuario de una sesión
+     * @param token Token de la sesión
+     * @return Futuro con las reservas, o que falla con IllegalStateException si la sesión expiró
+     */
+    public CompletableFuture<List<Reserva>> listarReservasSesion(String token) {
+        return ejecutar(() -> sesionServicio.obtenerReservas(token));
+    }
+
+    public CompletableFuture<List<Reserva>> listarReservasPropietario(String propietarioId) {
+        return ejecutar(() -> GestorReservas.getInstancia().obtenerReservasPorPropietario(propietarioId));
+    }
+
+    /**
+     * Página de las reservas de los alojamientos de un propietario
+     * @param propietarioId ID del propietario
+     * @param consulta Filtro, orden, cursor y tamaño de la página
+     */
+    public CompletableFuture<Pagina<Reserva>> paginarReservasPropietario(String propietarioId,
+                                                                         ConsultaPagina<Reserva> consulta) {
+        return ejecutar(() -> reservaServicio.paginarReservasPropietario(propietarioId, consulta));
+    }
+
+    public CompletableFuture<Pagina<Usuario>> paginarUsuarios(ConsultaPagina<Usuario> consulta) {
+        return ejecutar(() -> usuarioServicio.paginarUsuarios(consulta));
+    }
+
+    public CompletableFuture<Usuario> cambiarEstadoUsuario(String usuarioId, boolean activo) {
+        return ejecutar(() -> usuarioServicio.cambiarEstadoUsuario(usuarioId, activo));
+    }
+
+    public CompletableFuture<Reserva> cancelarReserva(Reserva reserva, String motivo) {
+        return ejecutar(() -> reservaServicio.cancelarReserva(reserva.getId(), motivo));
+    }
+
+    public CompletableFuture<SesionServicio.Sesion> iniciarSesion(String email, String contraseña) {
+        return sesionServicio.iniciarSesionAsync(email, contraseña);
+    }
+}
@@ -0,0 +1,332 @@
+package co.edu.uniquindio.bookyourstay.servicios;
+
+import co.edu.uniquindio.bookyourstay.modelo.Billetera;
+import co.edu.uniquindio.bookyourstay.modelo.Cliente;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.Transaccion;
+import co.edu.uniquindio.bookyourstay.modelo.Usuario;
+import co.edu.uniquindio.bookyourstay.repositorios.ObservadorReservas;
+
+import java.lang.ref.WeakReference;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sesiones de usuario. Cada inicio de sesión recibe un token opaco y aleatorio; las sesiones
+ * activas se guardan en un mapa concurrente y se descartan tras {@code inactividadMaxima} sin uso.
+ * Cada sesión guarda una copia de las reservas del usuario y de su billetera: las reservas se
+ * invalidan con los eventos del repositorio de reservas y la billetera con su número de versión.
+ */
+public class SesionServicio {
+    public static final String PROPIEDAD_INACTIVIDAD_MINUTOS = "bookyourstay.sesion.inactividad.minutos";
+    private static final long INACTIVIDAD_POR_DEFECTO_MINUTOS = 30;
+    private static final int BYTES_TOKEN = 32;
+    private static final Duration INTERVALO_EXPIRACION = Duration.ofMinutes(1);
+
+    // Un único hilo daemon descarta las sesiones inactivas de todos los servicios
+    private static final ScheduledExecutorService EXPIRADOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "expiracion-sesiones");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private static SesionServicio instancia;
+
+    private final UsuarioServicio usuarioServicio;
+    private final ReservaServicio reservaServicio;
+    private final Duration inactividadMaxima;
+    private final Clock reloj;
+    private final SecureRandom aleatorio = new SecureRandom();
+    private final Map<String, Sesion> sesiones = new ConcurrentHashMap<>();
+    // ID de usuario -> tokens de sus sesiones, para invalidar sus copias cuando cambian sus datos
+    private final Map<String, Set<String>> tokensPorUsuario = new ConcurrentHashMap<>();
+
+    private SesionServicio(UsuarioServicio usuarioServicio, ReservaServicio reservaServicio,
+                           Duration inactividadMaxima, Clock reloj) {
+        this.usuarioServicio = usuarioServicio;
+        this.reservaServicio = reservaServicio;
+        this.inactividadMaxima = inactividadMaxima;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Crea el servicio y, ya construido, lo suscribe a los eventos de reservas y programa la expiración
+     * de sus sesiones; el constructor no publica la instancia a otros hilos
+     * @param usuarioServicio Servicio que verifica las credenciales
+     * @param reservaServicio Servicio de reservas, para las copias de cada sesión
+     * @param inactividadMaxima Tiempo sin uso tras el que una sesión expira
+     * @param reloj Reloj para medir la inactividad
+     * @return Servicio listo para usar
+     */
+    public static SesionServicio crear(UsuarioServicio usuarioServicio, ReservaServicio reservaServicio,
+                                       Duration inactividadMaxima, Clock reloj) {
+        SesionServicio servicio = new SesionServicio(usuarioServicio, reservaServicio, inactividadMaxima, reloj);
+        reservaServicio.agregarObservador(servicio.new Invalidador());
+        programarExpiracion(new WeakReference<>(servicio));
+        return servicio;
+    }
+
+    public static synchronized SesionServicio obtenerInstancia() {
+        if (instancia == null) {
+            long minutos = Long.getLong(PROPIEDAD_INACTIVIDAD_MINUTOS, INACTIVIDAD_POR_DEFECTO_MINUTOS);
+            instancia = crear(UsuarioServicio.obtenerInstancia(), ReservaServicio.obtenerInstancia(),
+                    Duration.ofMinutes(minutos), Clock.systemUTC());
+        }
+        return instancia;
+    }
+
+    /**
+     * Verifica las credenciales fuera del hilo actual y abre una sesión
+     * @return Futuro con la sesión, o que falla con las excepciones de {@link UsuarioServicio#iniciarSesion}
+     */
+    public CompletableFuture<Sesion> iniciarSesionAsync(String email, String contraseña) {
+        return usuarioServicio.iniciarSesionAsync(email, contraseña).thenApply(this::abrirSesion);
+    }
+
+    /**
+     * Abre una sesión para un usuario ya autenticado
+     * @param usuario Usuario de la sesión
+     * @return Sesión nueva con su token
+     */
+    public Sesion abrirSesion(Usuario usuario) {
+        if (usuario == null || usuario.getId() == null) {
+            throw new IllegalArgumentException("El usuario de la sesión no puede ser nulo");
+        }
+        byte[] bytes = new byte[BYTES_TOKEN];
+        aleatorio.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Sesion sesion = new Sesion(token, usuario, reloj.instant());
+        sesiones.put(token, sesion);
+        tokensPorUsuario.computeIfAbsent(usuario.getId(), id -> ConcurrentHashMap.newKeySet()).add(token);
+        return sesion;
+    }
+
+    /**
+     * Busca una sesión activa y renueva su tiempo de inactividad
+     * @param token Token de la sesión
+     * @return Optional con la sesión si existe y no ha expirado
+     */
+    public Optional<Sesion> obtenerSesion(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        Sesion sesion = sesiones.get(token);
+        if (sesion == null) {
+            return Optional.empty();
+        }
+        Instant ahora = reloj.instant();
+        if (sesion.expirada(ahora, inactividadMaxima)) {
+            cerrarSesion(token);
+            return Optional.empty();
+        }
+        sesion.ultimoAcceso = ahora;
+        return Optional.of(sesion);
+    }
+
+    /**
+     * @param token Token de la sesión
+     * @return Usuario de la sesión
+     * @throws IllegalStateException si la sesión no existe o expiró
+     */
+    public Usuario obtenerUsuario(String token) throws IllegalStateException {
+        return requerirSesion(token).getUsuario();
+    }
+
+    /**
+     * Reservas del usuario de la sesión; se calculan una vez y se reutilizan hasta que alguna cambie
+     * @param token Token de la sesión
+     * @return Lista inmutable de reservas
+     * @throws IllegalStateException si la sesión no existe o expiró
+     */
+    public List<Reserva> obtenerReservas(String token) throws IllegalStateException {
+        Sesion sesion = requerirSesion(token);
+        CopiaReservas copia = sesion.reservas;
+        long generacion = sesion.generacionReservas.get();
+        if (copia != null && copia.generacion() == generacion) {
+            return copia.reservas();
+        }
+        List<Reserva> reservas = List.copyOf(reservaServicio.listarReservasCliente(sesion.getUsuario().getId()));
+        // Si llegó un evento mientras se calculaba, no se guarda la copia
+        if (sesion.generacionReservas.get() == generacion) {
+            sesion.reservas = new CopiaReservas(generacion, reservas);
+        }
+        return reservas;
+    }
+
+    /**
+     * Saldo e historial de la billetera del usuario de la sesión; se reutilizan mientras la billetera no tenga movimientos
+     * @param token Token de la sesión
+     * @return Copia del estado de la billetera, o vacío si el usuario no es cliente
+     * @throws IllegalStateException si la sesión no existe o expiró
+     */
+    public Optional<EstadoBilletera> obtenerBilletera(String token) throws IllegalStateException {
+        Sesion sesion = requerirSesion(token);
+        if (!(sesion.getUsuario() instanceof Cliente cliente) || cliente.getBilletera() == null) {
+            return Optional.empty();
+        }
+        Billetera billetera = cliente.getBilletera();
+        EstadoBilletera copia = sesion.billetera;
+        long version = billetera.getVersion();
+        if (copia == null || copia.version() != version) {
+            copia = new EstadoBilletera(version, billetera.getSaldoCentavos(), List.copyOf(billetera.obtenerHistorial()));
+            sesion.billetera = copia;
+        }
+        return Optional.of(copia);
+    }
+
+    /**
+     * Cierra una sesión
+     * @param token Token de la sesión
+     * @return true si la sesión existía
+     */
+    public boolean cerrarSesion(String token) {
+        Sesion sesion = token == null ? null : sesiones.remove(token);
+        if (sesion == null) {
+            return false;
+        }
+        tokensPorUsuario.computeIfPresent(sesion.getUsuario().getId(), (id, tokens) -> {
+            tokens.remove(token);
+            return tokens.isEmpty() ? null : tokens;
+        });
+        return true;
+    }
+
+    /**
+     * Cierra todas las sesiones de un usuario (por ejemplo, al desactivarlo o cambiar su contraseña)
+     * @param usuarioId ID del usuario
+     */
+    public void cerrarSesionesDe(String usuarioId) {
+        Set<String> tokens = tokensPorUsuario.remove(usuarioId);
+        if (tokens != null) {
+            tokens.forEach(sesiones::remove);
+        }
+    }
+
+    /**
+     * Descarta las sesiones que superaron el tiempo de inactividad
+     * @return Número de sesiones descartadas
+     */
+    public int expirarInactivas() {
+        Instant ahora = reloj.instant();
+        int expiradas = 0;
+        for (Sesion sesion : sesiones.values()) {
+            if (sesion.expirada(ahora, inactividadMaxima) && cerrarSesion(sesion.getToken())) {
+                expiradas++;
+            }
+        }
+        return expiradas;
+    }
+
+    /**
+     * @return Número de sesiones abiertas (incluye las expiradas que aún no se han descartado)
+     */
+    public int contarSesiones() {
+        return sesiones.size();
+    }
+
+    private Sesion requerirSesion(String token) {
+        return obtenerSesion(token)
+                .orElseThrow(() -> new IllegalStateException("La sesión no existe o expiró"));
+    }
+
+    private void invalidarReservas(Reserva reserva) {
+        if (reserva.getCliente() == null) {
+            return;
+        }
+        Set<String> tokens = tokensPorUsuario.get(reserva.getCliente().getId());
+        if (tokens != null) {
+            tokens.forEach(token -> {
+                Sesion sesion = sesiones.get(token);
+                if (sesion != null) {
+                    sesion.generacionReservas.incrementAndGet();
+                    sesion.reservas = null;
+                }
+            });
+        }
+    }
+
+    private static void programarExpiracion(WeakReference<SesionServicio> referencia) {
+        EXPIRADOR.schedule(() -> {
+            SesionServicio servicio = referencia.get();
+            if (servicio != null) {
+                servicio.expirarInactivas();
+                programarExpiracion(referencia);
+            }
+        }, INTERVALO_EXPIRACION.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sesión abierta de un usuario. El token es la única forma de encontrarla
+     */
+    public static final class Sesion {
+        private final String token;
+        private final Usuario usuario;
+        private final Instant creada;
+        private volatile Instant ultimoAcceso;
+        private final AtomicLong generacionReservas = new AtomicLong();
+        private volatile CopiaReservas reservas;
+        private volatile EstadoBilletera billetera;
+
+        private Sesion(String token, Usuario usuario, Instant creada) {
+            this.token = token;
+            this.usuario = usuario;
+            this.creada = creada;
+            this.ultimoAcceso = creada;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public Usuario getUsuario() {
+            return usuario;
+        }
+
+        public Instant getCreada() {
+            return creada;
+        }
+
+        public Instant getUltimoAcceso() {
+            return ultimoAcceso;
+        }
+
+        private boolean expirada(Instant ahora, Duration inactividadMaxima) {
+            return Duration.between(ultimoAcceso, ahora).compareTo(inactividadMaxima) > 0;
+        }
+    }
+
+    /**
+     * Copia del estado de una billetera
+     * @param version Versión de la billetera cuando se copió
+     * @param saldoCentavos Saldo en centavos
+     * @param historial Movimientos en orden de registro
+     */
+    public record EstadoBilletera(long version, long saldoCentavos, List<Transaccion> historial) {
+    }
+
+    private record CopiaReservas(long generacion, List<Reserva> reservas) {
+    }
+
+    private class Invalidador implements ObservadorReservas {
+        @Override
+        public void reservaCreada(Reserva reserva) {
+            invalidarReservas(reserva);
+        }
+
+        @Override
+        public void reservaActualizada(Reserva reserva) {
+            invalidarReservas(reserva);
+        }
+
+        @Override
+        public void reservaEliminada(Reserva reserva) {
+            invalidarReservas(reserva);
+        }
+    }
+}
@@ -3,27 +3,44 @@ package co.edu.uniquindio.bookyourstay.servicios;
 import co.edu.uniquindio.bookyourstay.modelo.Cliente;
 import co.edu.uniquindio.bookyourstay.modelo.Usuario;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCuenta;
+import co.edu.uniquindio.bookyourstay.repositorios.ConsultaPagina;
+import co.edu.uniquindio.bookyourstay.repositorios.Pagina;
 import co.edu.uniquindio.bookyourstay.repositorios.UsuarioRepositorio;
+import co.edu.uniquindio.bookyourstay.seguridad.CifradoContraseñas;
+import co.edu.uniquindio.bookyourstay.seguridad.LimitadorIntentos;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class UsuarioServicio {
+    // Verificar una contraseña con PBKDF2 toma decenas de milisegundos: se hace en un grupo acotado
+    // de hilos para no bloquear la interfaz, y si la cola se llena se rechaza el intento
+    private static final int HILOS_VERIFICACION = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int COLA_VERIFICACION = 64;
+    private static final ExecutorService VERIFICADOR = crearVerificador();
 
     private static UsuarioServicio instancia;
 
     private final UsuarioRepositorio usuarioRepositorio;
+    private final LimitadorIntentos limitadorIntentos = new LimitadorIntentos();
 
     // Constructor privado para singleton
     private UsuarioServicio() {
-        this.usuarioRepositorio = new UsuarioRepositorio();
+        this.usuarioRepositorio = PersistenciaServicio.activo()
+                .map(persistencia -> UsuarioRepositorio.durable(persistencia.usuarios()))
+                .orElseGet(UsuarioRepositorio::new);
     }
     public Usuario registrarUsuario(Usuario usuario) throws IllegalArgumentException {
         validarDatosUsuario(usuario);
         verificarExistenciaPrevia(usuario.getEmail(), usuario.getCedula());
 
         usuario.setActivo(true);
+        usuario.setContraseña(CifradoContraseñas.generarHash(usuario.getContraseña()));
 
         // Si no tiene tipoCuenta, le asignamos REGULAR por defecto
         if (usuario.getTipoCuenta() == null) {
@@ -49,25 +66,58 @@ public class UsuarioServicio {
 
         cliente.setActivo(true);
         cliente.setTipoCuenta(TipoCuenta.REGULAR);
+        cliente.setContraseña(CifradoContraseñas.generarHash(cliente.getContraseña()));
         usuarioRepositorio.guardarUsuario(cliente);
         return cliente;
     }
 
+    /**
+     * Inicia sesión verificando la contraseña en el hilo actual. Desde la interfaz se debe usar
+     * {@link #iniciarSesionAsync}
+     * @throws IllegalArgumentException si las credenciales no son válidas
+     * @throws IllegalStateException si la cuenta está inactiva o bloqueada por intentos fallidos
+     */
     public Usuario iniciarSesion(String email, String contraseña) throws IllegalArgumentException, IllegalStateException {
-        Usuario usuario = usuarioRepositorio.buscarPorEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("Credenciales incorrectas"));
+        Duration espera = limitadorIntentos.reservarIntento(email);
+        if (!espera.isZero()) {
+            throw new IllegalStateException("Demasiados intentos fallidos. Intente de nuevo en "
+                    + Math.max(1, espera.toSeconds()) + " segundos");
+        }
+
+        Optional<Usuario> encontrado = usuarioRepositorio.buscarPorEmail(email);
+        String almacenado = encontrado.map(Usuario::getContraseña).orElse(null);
+        if (!CifradoContraseñas.verificar(contraseña, almacenado)) {
+            // El intento reservado queda contado como fallo
+            throw new IllegalArgumentException("Credenciales incorrectas");
+        }
+        limitadorIntentos.registrarExito(email);
 
+        Usuario usuario = encontrado.get();
         if (!usuario.isActivo()) {
             throw new IllegalStateException("La cuenta está inactiva");
         }
 
-        if (!usuario.getContraseña().equals(contraseña)) {
-            throw new IllegalArgumentException("Credenciales incorrectas");
+        // Contraseñas en texto plano o con un costo anterior se vuelven a calcular con el actual
+        if (CifradoContraseñas.requiereActualizacion(almacenado)) {
+            usuario.setContraseña(CifradoContraseñas.generarHash(contraseña));
+            usuarioRepositorio.actualizarUsuario(usuario);
         }
-
         return usuario;
     }
 
+    /**
+     * Inicia sesión en el grupo de hilos de verificación
+     * @return Futuro con el usuario, o que falla con las mismas excepciones que {@link #iniciarSesion}
+     */
+    public CompletableFuture<Usuario> iniciarSesionAsync(String email, String contraseña) {
+        try {
+            return CompletableFuture.supplyAsync(() -> iniciarSesion(email, contraseña), VERIFICADOR);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Hay demasiados inicios de sesión en curso. Intente de nuevo"));
+        }
+    }
+
     public Usuario actualizarUsuario(Usuario usuarioActualizado) throws NoSuchElementException, IllegalArgumentException {
         validarDatosUsuario(usuarioActualizado);
         Usuario existente = obtenerUsuario(usuarioActualizado.getId());
@@ -79,10 +129,16 @@ public class UsuarioServicio {
         return usuarioActualizado;
     }
 
+    /**
+     * Activa o desactiva un usuario; al desactivarlo se cierran sus sesiones abiertas
+     */
     public Usuario cambiarEstadoUsuario(String usuarioId, boolean activo) throws NoSuchElementException {
         Usuario usuario = obtenerUsuario(usuarioId);
         usuario.setActivo(activo);
         usuarioRepositorio.actualizarUsuario(usuario);
+        if (!activo) {
+            SesionServicio.obtenerInstancia().cerrarSesionesDe(usuarioId);
+        }
         return usuario;
     }
 
@@ -95,6 +151,18 @@ public class UsuarioServicio {
         return usuarioRepositorio.listarTodos();
     }
 
+    /**
+     * Obtiene una página de usuarios, por defecto ordenados por nombre
+     * @param consulta Filtro, orden, cursor y tamaño de la página
+     * @return Página de usuarios con el cursor de la siguiente
+     */
+    public Pagina<Usuario> paginarUsuarios(ConsultaPagina<Usuario> consulta) {
+        if (consulta.orden() == null) {
+            consulta = consulta.ordenadaPor(UsuarioRepositorio.POR_NOMBRE);
+        }
+        return usuarioRepositorio.paginar(consulta);
+    }
+
     public List<Usuario> listarUsuariosPorTipo(TipoCuenta tipo) {
         return usuarioRepositorio.buscarPorTipo(tipo);
     }
@@ -104,12 +172,14 @@ public class UsuarioServicio {
         validarContraseña(nuevaContraseña);
         Usuario usuario = obtenerUsuario(usuarioId);
 
-        if (!usuario.getContraseña().equals(viejaContraseña)) {
+        if (!CifradoContraseñas.verificar(viejaContraseña, usuario.getContraseña())) {
             throw new IllegalArgumentException("La contraseña actual no es correcta");
         }
 
-        usuario.setContraseña(nuevaContraseña);
+        usuario.setContraseña(CifradoContraseñas.generarHash(nuevaContraseña));
         usuarioRepositorio.actualizarUsuario(usuario);
+        // Las sesiones abiertas con la contraseña anterior dejan de ser válidas
+        SesionServicio.obtenerInstancia().cerrarSesionesDe(usuarioId);
         return usuario;
     }
 
@@ -146,11 +216,22 @@ public class UsuarioServicio {
     }
 
     private void verificarExistenciaPrevia(String email, String cedula) throws IllegalArgumentException {
-        if (usuarioRepositorio.buscarPorEmail(email).isPresent()) {
+        if (usuarioRepositorio.existePorEmail(email)) {
             throw new IllegalArgumentException("El email ya está registrado");
         }
-        if (usuarioRepositorio.buscarPorCedula(cedula).isPresent()) {
+        if (usuarioRepositorio.existePorCedula(cedula)) {
             throw new IllegalArgumentException("La cédula ya está registrada");
         }
     }
-}
\ No newline at end of file
+
+    private static ExecutorService crearVerificador() {
+        AtomicInteger contador = new AtomicInteger();
+        return new ThreadPoolExecutor(HILOS_VERIFICACION, HILOS_VERIFICACION, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(COLA_VERIFICACION),
+                r -> {
+                    Thread hilo = new Thread(r, "verificacion-contraseñas-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+}
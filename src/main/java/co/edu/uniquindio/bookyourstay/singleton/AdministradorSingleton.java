@@ -1,21 +1,39 @@
 package co.edu.uniquindio.bookyourstay.singleton;
 import co.edu.uniquindio.bookyourstay.modelo.Administrador;
+import co.edu.uniquindio.bookyourstay.seguridad.CifradoContraseñas;
+
+import java.security.SecureRandom;
+import java.util.Base64;
 
 public class AdministradorSingleton {
+    // La contraseña del administrador se configura al arrancar; solo se guarda su hash
+    public static final String PROPIEDAD_CONTRASEÑA = "bookyourstay.admin.contrasena";
+
     private static Administrador instancia;
 
     private AdministradorSingleton() {}
 
-    public static Administrador getInstancia() {
+    public static synchronized Administrador getInstancia() {
         if (instancia == null) {
             instancia = new Administrador();
             instancia.setId("admin-001");
             instancia.setNombre("Admin Principal");
             instancia.setEmail("admin@bookyourstay.com");
-            instancia.setContraseña("admin123");
+            instancia.setContraseña(CifradoContraseñas.generarHash(contraseñaConfigurada()));
             instancia.setTelefono("1234567890");
             instancia.setCedula("123456789");
         }
         return instancia;
     }
-}
\ No newline at end of file
+
+    private static String contraseñaConfigurada() {
+        String configurada = System.getProperty(PROPIEDAD_CONTRASEÑA);
+        if (configurada != null && !configurada.isBlank()) {
+            return configurada;
+        }
+        // Sin configuración la cuenta queda con una contraseña aleatoria que nadie conoce
+        byte[] aleatoria = new byte[24];
+        new SecureRandom().nextBytes(aleatoria);
+        return Base64.getEncoder().encodeToString(aleatoria);
+    }
+}
@@ -0,0 +1,109 @@
+package co.edu.uniquindio.bookyourstay.singleton;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador central de identificadores al estilo Snowflake.
+ * Cada ID es un número de 64 bits formado por 41 bits de milisegundos desde {@link #EPOCA},
+ * 10 bits de nodo y 12 bits de secuencia, escrito en 13 caracteres base32 (Crockford) de ancho fijo.
+ * Así los IDs con el mismo prefijo se ordenan por fecha de creación al compararlos como texto,
+ * son únicos aunque se pidan miles en el mismo milisegundo y no dependen de SecureRandom
+ * (solo se usa una vez para elegir el nodo si no se configura con {@value #PROPIEDAD_NODO}).
+ */
+public class GeneradorIds {
+    public static final String PROPIEDAD_NODO = "bookyourstay.nodo";
+
+    private static final long EPOCA = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int BITS_NODO = 10;
+    private static final int BITS_SECUENCIA = 12;
+    private static final long MAX_NODO = (1L << BITS_NODO) - 1;
+    private static final long MAX_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+    private static final int LONGITUD = 13;
+    private static final char[] ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static GeneradorIds instancia;
+
+    private final long nodo;
+    // Último milisegundo usado y su secuencia, empaquetados para actualizarlos con un solo CAS
+    private final AtomicLong ultimo = new AtomicLong();
+
+    private GeneradorIds(long nodo) {
+        if (nodo < 0 || nodo > MAX_NODO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAX_NODO);
+        }
+        this.nodo = nodo;
+    }
+
+    public static synchronized GeneradorIds getInstancia() {
+        if (instancia == null) {
+            String configurado = System.getProperty(PROPIEDAD_NODO);
+            long nodo = configurado != null
+                    ? Long.parseLong(configurado)
+                    : new SecureRandom().nextInt((int) MAX_NODO + 1);
+            instancia = new GeneradorIds(nodo);
+        }
+        return instancia;
+    }
+
+    /**
+     * Genera un nuevo ID con el prefijo de la entidad, por ejemplo {@code RES-0B3T9QK2F0001}
+     * @param prefijo Prefijo de la entidad (RES, ALO, OF...)
+     * @return ID único y ordenable por fecha de creación
+     */
+    public String generar(String prefijo) {
+        char[] texto = new char[prefijo.length() + 1 + LONGITUD];
+        prefijo.getChars(0, prefijo.length(), texto, 0);
+        texto[prefijo.length()] = '-';
+        escribir(siguiente(), texto, prefijo.length() + 1, LONGITUD);
+        return new String(texto);
+    }
+
+    /**
+     * @return Siguiente valor numérico de 64 bits
+     */
+    public long siguiente() {
+        while (true) {
+            long anterior = ultimo.get();
+            long milisAnterior = anterior >>> BITS_SECUENCIA;
+            // Si el reloj retrocede se sigue usando el último milisegundo para no repetir ni desordenar
+            long milis = Math.max(System.currentTimeMillis() - EPOCA, milisAnterior);
+            long secuencia = milis == milisAnterior ? (anterior & MAX_SECUENCIA) + 1 : 0;
+            if (secuencia > MAX_SECUENCIA) {
+                // Secuencia agotada en este milisegundo: esperar al siguiente
+                Thread.onSpinWait();
+                continue;
+            }
+            long actual = (milis << BITS_SECUENCIA) | secuencia;
+            if (ultimo.compareAndSet(anterior, actual)) {
+                return (milis << (BITS_NODO + BITS_SECUENCIA)) | (nodo << BITS_SECUENCIA) | secuencia;
+            }
+        }
+    }
+
+    /**
+     * Código corto y legible derivado de un ID (para códigos de confirmación o promocionales).
+     * No es único: solo sirve para mostrar junto con otros datos
+     * @param id ID de la entidad
+     * @param longitud Cantidad de caracteres del código (máximo 12)
+     * @return Código en base32
+     */
+    public static String codigoCorto(String id, int longitud) {
+        // Mezcla de bits (finalizador de SplitMix64) para que IDs consecutivos den códigos distintos
+        long h = id.hashCode() * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        char[] texto = new char[longitud];
+        escribir(h >>> 4, texto, 0, longitud);
+        return new String(texto);
+    }
+
+    private static void escribir(long valor, char[] destino, int desde, int longitud) {
+        for (int i = desde + longitud - 1; i >= desde; i--) {
+            destino[i] = ALFABETO[(int) (valor & 31)];
+            valor >>>= 5;
+        }
+    }
+}
@@ -1,15 +1,17 @@
 package co.edu.uniquindio.bookyourstay.singleton;
 
+import co.edu.uniquindio.bookyourstay.indices.IndiceBusqueda;
 import co.edu.uniquindio.bookyourstay.modelo.Alojamiento;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import java.util.ArrayList;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
+import co.edu.uniquindio.bookyourstay.repositorios.AlmacenIndexado;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class GestorAlojamientos {
     private static GestorAlojamientos instancia;
-    private final ObservableList<Alojamiento> alojamientos = FXCollections.observableArrayList();
+    // Versionado: getAlojamientos entrega la versión actual sin copiarla
+    private final AlmacenIndexado<Alojamiento> alojamientos = new AlmacenIndexado<>(Alojamiento::getId);
+    private final IndiceBusqueda indiceBusqueda = new IndiceBusqueda();
 
     private GestorAlojamientos() {}
 
@@ -21,16 +23,44 @@ public class GestorAlojamientos {
     }
 
     public void agregarAlojamiento(Alojamiento alojamiento) {
-        alojamientos.add(alojamiento);
+        // El índice valida el alojamiento y su ID antes de guardarlo
+        indiceBusqueda.agregar(alojamiento);
+        alojamientos.guardar(alojamiento);
     }
 
-    public ObservableList<Alojamiento> getAlojamientos() {
-        return FXCollections.observableArrayList(alojamientos);
+    /**
+     * Vuelve a indexar un alojamiento después de modificar sus datos; si no está registrado no hace nada
+     * @param alojamiento Alojamiento modificado (puede ser otra instancia con el mismo ID)
+     */
+    public void actualizarAlojamiento(Alojamiento alojamiento) {
+        if (alojamientos.reemplazar(alojamiento)) {
+            // El índice quita la entrada anterior con sus claves viejas y agrega la nueva
+            indiceBusqueda.actualizar(alojamiento);
+        }
+    }
+
+    public boolean eliminarAlojamiento(Alojamiento alojamiento) {
+        indiceBusqueda.eliminar(alojamiento.getId());
+        return alojamientos.eliminar(alojamiento.getId());
+    }
+
+    /**
+     * @return Lista inmutable con los alojamientos de la versión actual, en orden de registro
+     */
+    public List<Alojamiento> getAlojamientos() {
+        return alojamientos.listar();
     }
 
     public List<Alojamiento> buscarPorCiudad(String ciudad) {
-        return alojamientos.stream()
-                .filter(a -> a.getCiudad().equalsIgnoreCase(ciudad))
-                .collect(Collectors.toList());
+        return indiceBusqueda.buscar(ciudad, null, 0, null, null, null);
+    }
+
+    /**
+     * Busca alojamientos en el índice de búsqueda; los criterios nulos se ignoran
+     * @return Alojamientos que cumplen todos los criterios
+     */
+    public List<Alojamiento> buscar(String ciudad, TipoAlojamiento tipo, int capacidadMinima,
+                                    Float precioMinimo, Float precioMaximo, Collection<String> servicios) {
+        return indiceBusqueda.buscar(ciudad, tipo, capacidadMinima, precioMinimo, precioMaximo, servicios);
     }
 }
\ No newline at end of file
@@ -1,15 +1,17 @@
 package co.edu.uniquindio.bookyourstay.singleton;
 
 import co.edu.uniquindio.bookyourstay.modelo.Reserva;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import java.util.ArrayList;
+import co.edu.uniquindio.bookyourstay.repositorios.AlmacenIndexado;
+import co.edu.uniquindio.bookyourstay.repositorios.ConsultaPagina;
+import co.edu.uniquindio.bookyourstay.repositorios.Pagina;
+
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class GestorReservas {
     private static GestorReservas instancia;
-    private final ObservableList<Reserva> reservas = FXCollections.observableArrayList();
+    // Se consulta desde hilos de fondo (ServiciosAsync); el almacén es seguro para uso concurrente
+    private final AlmacenIndexado<Reserva> reservas = new AlmacenIndexado<>(Reserva::getId);
 
     private GestorReservas() {
         // Aquí podrías cargar reservas de una base de datos
@@ -22,31 +24,46 @@ public class GestorReservas {
         return instancia;
     }
 
-    public ObservableList<Reserva> obtenerReservasPropietario() {
+    public List<Reserva> obtenerReservasPropietario() {
         // Filtrar reservas del propietario actual
-        return FXCollections.observableArrayList(reservas);
+        return reservas.listar();
     }
 
     public void cancelarReserva(Reserva reserva, String motivo) throws Exception {
-        if (!reservas.contains(reserva)) {
+        if (reserva == null || !reservas.existe(reserva.getId())) {
             throw new Exception("Reserva no encontrada");
         }
         reserva.cancelar(motivo);
     }
 
     public void agregarReserva(Reserva reserva) {
-        reservas.add(reserva);
+        reservas.guardar(reserva);
     }
 
-    public ObservableList<Reserva> obtenerReservasPorCiudad(String ciudad) {
+    public List<Reserva> obtenerReservasPorCiudad(String ciudad) {
         return reservas.stream()
                 .filter(r -> r.getCiudadAlojamiento().equalsIgnoreCase(ciudad))
-                .collect(Collectors.toCollection(FXCollections::observableArrayList));
+                .collect(Collectors.toList());
     }
 
-    public ObservableList<Reserva> obtenerReservasPorPropietario(String idPropietario) {
+    public List<Reserva> obtenerReservasPorPropietario(String idPropietario) {
         return reservas.stream()
-                .filter(r -> r.getAlojamiento().getPropietario().getId().equals(idPropietario))
-                .collect(Collectors.toCollection(FXCollections::observableArrayList));
+                .filter(r -> esDelPropietario(r, idPropietario))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Obtiene una página de las reservas de un propietario
+     * @param idPropietario ID del propietario
+     * @param consulta Filtro adicional, orden, cursor y tamaño de la página
+     * @return Página de reservas con el cursor de la siguiente
+     */
+    public Pagina<Reserva> obtenerReservasPorPropietario(String idPropietario, ConsultaPagina<Reserva> consulta) {
+        return reservas.paginar(consulta.filtrando(r -> esDelPropietario(r, idPropietario)));
+    }
+
+    private static boolean esDelPropietario(Reserva reserva, String idPropietario) {
+        return reserva.getAlojamiento().getPropietario() != null
+                && reserva.getAlojamiento().getPropietario().getId().equals(idPropietario);
     }
-}
\ No newline at end of file
+}
@@ -1,28 +1,75 @@
 package co.edu.uniquindio.bookyourstay.singleton;
 import co.edu.uniquindio.bookyourstay.modelo.Usuario;
+import co.edu.uniquindio.bookyourstay.servicios.SesionServicio;
 
+/**
+ * Sesión de la interfaz de escritorio: guarda solo el token de la sesión abierta en esta ventana
+ * y resuelve el usuario a través de {@link SesionServicio}. Los servicios no lo usan; reciben el
+ * usuario o el token explícitamente.
+ */
 public class UsuarioActual {
+    public static final String SESION_EXPIRADA = "La sesión expiró por inactividad. Inicia sesión de nuevo";
+
     private static UsuarioActual instancia;
-    private Usuario usuario;
+    private volatile String token;
 
     private UsuarioActual() {}
 
-    public static UsuarioActual getInstancia() {
+    public static synchronized UsuarioActual getInstancia() {
         if (instancia == null) {
             instancia = new UsuarioActual();
         }
         return instancia;
     }
 
+    /**
+     * Abre una sesión para el usuario (o cierra la actual si es null)
+     */
     public void setUsuario(Usuario usuario) {
-        this.usuario = usuario;
+        SesionServicio sesiones = SesionServicio.obtenerInstancia();
+        String anterior = token;
+        token = usuario != null ? sesiones.abrirSesion(usuario).getToken() : null;
+        if (anterior != null) {
+            sesiones.cerrarSesion(anterior);
+        }
+    }
+
+    /**
+     * Usa una sesión ya abierta, por ejemplo la que devuelve el inicio de sesión
+     */
+    public void setSesion(SesionServicio.Sesion sesion) {
+        String anterior = token;
+        token = sesion != null ? sesion.getToken() : null;
+        if (anterior != null && !anterior.equals(token)) {
+            SesionServicio.obtenerInstancia().cerrarSesion(anterior);
+        }
+    }
+
+    public String getToken() {
+        return token;
     }
 
-    public Usuario getUsuario() {
-        return usuario;
+    /**
+     * @return Usuario de la sesión abierta en esta ventana, o null si no se ha iniciado sesión
+     * @throws IllegalStateException con {@link #SESION_EXPIRADA} si la sesión expiró o se cerró desde
+     *         otro lugar; hay que volver a iniciar sesión
+     */
+    public Usuario getUsuario() throws IllegalStateException {
+        String actual = token;
+        if (actual == null) {
+            return null;
+        }
+        return SesionServicio.obtenerInstancia().obtenerSesion(actual)
+                .map(SesionServicio.Sesion::getUsuario)
+                .orElseThrow(() -> new IllegalStateException(SESION_EXPIRADA));
     }
 
-    public String getId() {
+    /**
+     * @return ID del usuario de la sesión, o null si no se ha iniciado sesión
+     * @throws IllegalStateException si la sesión expiró
+     */
+    public String getId() throws IllegalStateException {
+        Usuario usuario = getUsuario();
         return usuario != null ? usuario.getId() : null;
     }
-}
\ No newline at end of file
+}
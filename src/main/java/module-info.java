@@ -1,4 +1,6 @@
 module co.edu.uniquindio.bookyourstay {
+    // Solo la interfaz (MainApp y los controladores) usa JavaFX; modelo, servicios y repositorios no lo importan,
+    // así que no se reexporta a quien lea este módulo
     requires javafx.controls;
     requires javafx.fxml;
     requires static lombok;
@@ -12,10 +14,6 @@ module co.edu.uniquindio.bookyourstay {
     opens co.edu.uniquindio.bookyourstay.controladores.propietario to javafx.fxml;
     opens co.edu.uniquindio.bookyourstay.controladores.administrador to javafx.fxml;
 
-    // Exportar paquetes necesarios
-    exports co.edu.uniquindio.bookyourstay;
-    exports co.edu.uniquindio.bookyourstay.controladores;
-    exports co.edu.uniquindio.bookyourstay.controladores.cliente;
-    exports co.edu.uniquindio.bookyourstay.controladores.propietario;
-    exports co.edu.uniquindio.bookyourstay.controladores.administrador;
+    // JavaFX lanza MainApp; los controladores solo se crean por reflexión desde FXML (ver opens)
+    exports co.edu.uniquindio.bookyourstay to javafx.graphics;
 }
\ No newline at end of file
@@ -3,13 +3,26 @@ import co.edu.uniquindio.bookyourstay.modelo.*;
 import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
 import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCalificacion;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoOferta;
+import co.edu.uniquindio.bookyourstay.repositorios.OfertaRepositorio;
+import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
 import co.edu.uniquindio.bookyourstay.servicios.*;
+import co.edu.uniquindio.bookyourstay.singleton.GestorAlojamientos;
 import co.edu.uniquindio.bookyourstay.singleton.UsuarioActual;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -83,7 +96,28 @@ public class BookYourStayTest {
         assertNotNull(resultado, "El alojamiento no debería ser nulo");
         assertEquals(nombre, resultado.getNombre(), "El nombre no coincide");
         assertEquals(ciudad, resultado.getCiudad(), "La ciudad no coincide");
-        assertEquals(precioNoche, resultado.getPrecioNoche().get(), "El precio por noche no coincide");
+        assertEquals(precioNoche, resultado.getPrecioNoche(), "El precio por noche no coincide");
+    }
+
+    @Test
+    public void testActualizarAlojamientoReindexaLaBusqueda() {
+        // Arrange
+        Alojamiento alojamiento = alojamientoServicio.crearAlojamiento(
+                TipoAlojamiento.CASA, "Casa Reindexada", "Salento", "Descripción de prueba", 200000, 4, List.of("Wifi"));
+        Casa nuevosDatos = new Casa("Casa Reindexada", "Filandia", "Descripción de prueba", 8, 200000);
+
+        // Act
+        alojamientoServicio.actualizarAlojamiento(alojamiento.getId(), nuevosDatos);
+
+        // Assert
+        assertFalse(GestorAlojamientos.getInstancia().buscarPorCiudad("Salento").contains(alojamiento),
+                "El alojamiento no debe seguir apareciendo en su ciudad anterior");
+        assertTrue(GestorAlojamientos.getInstancia().buscar("Filandia", null, 8, null, null, null).contains(alojamiento),
+                "El alojamiento se debe encontrar con su nueva ciudad y capacidad");
+
+        alojamientoServicio.eliminarAlojamiento(alojamiento.getId());
+        assertFalse(GestorAlojamientos.getInstancia().buscarPorCiudad("Filandia").contains(alojamiento),
+                "Un alojamiento eliminado no debe aparecer en las búsquedas");
     }
 
     @Test
@@ -131,4 +165,131 @@ public class BookYourStayTest {
         assertEquals(clientePrueba, resultado.getCliente(), "El cliente no coincide");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testReservasConcurrentesSinDobleReserva() throws Exception {
+        // Arrange
+        ReservaRepositorio repositorio = new ReservaRepositorio();
+        ReservaServicio servicio = new ReservaServicio(repositorio);
+        clientePrueba.getBilletera().recargarSaldo(1_000_000_000, "Depósito prueba concurrente");
+
+        List<Alojamiento> alojamientos = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Alojamiento alojamiento = new Casa("Casa " + i, "Armenia", "Prueba concurrente", 4, 100000);
+            alojamiento.setId("alo-concurrente-" + i);
+            alojamientos.add(alojamiento);
+        }
+
+        // Cada rango se pide varias veces y se solapa con el siguiente, para forzar conflictos
+        LocalDate base = LocalDate.now().plusDays(10);
+        List<LocalDate> inicios = new ArrayList<>();
+        for (int dia = 0; dia < 40; dia++) {
+            for (int intento = 0; intento < 8; intento++) {
+                inicios.add(base.plusDays(dia));
+            }
+        }
+
+        ExecutorService hilos = Executors.newFixedThreadPool(32);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (Alojamiento alojamiento : alojamientos) {
+            for (LocalDate inicio : inicios) {
+                tareas.add(hilos.submit(() -> {
+                    salida.await();
+                    try {
+                        servicio.crearReserva(clientePrueba, alojamiento, inicio, inicio.plusDays(2), 2);
+                    } catch (IllegalStateException e) {
+                        // Rechazo esperado: fechas ocupadas
+                    }
+                    return null;
+                }));
+            }
+        }
+
+        // Act
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        hilos.shutdown();
+
+        // Assert
+        for (Alojamiento alojamiento : alojamientos) {
+            List<Reserva> confirmadas = repositorio.buscarPorAlojamiento(alojamiento.getId());
+            // Estadías de dos noches que empiezan en 40 días seguidos: caben a lo sumo 20 sin solaparse
+            assertTrue(confirmadas.size() <= 20, "Más reservas de las que caben en el calendario");
+            assertFalse(confirmadas.isEmpty(), "Debería haber reservas para " + alojamiento.getId());
+            for (int i = 0; i < confirmadas.size(); i++) {
+                for (int j = i + 1; j < confirmadas.size(); j++) {
+                    Reserva otra = confirmadas.get(j);
+                    assertFalse(confirmadas.get(i).haySolapamiento(otra.getFechaInicio(), otra.getFechaFin()),
+                            "Doble reserva en " + alojamiento.getId() + ": "
+                                    + confirmadas.get(i).getId() + " y " + otra.getId());
+                }
+            }
+            assertTrue(repositorio.estaDisponible(alojamiento.getId(), base.minusDays(5), base.minusDays(1)));
+        }
+    }
+
+    @Test
+    public void testRedencionConcurrenteNoSuperaMaximoUsos() throws Exception {
+        // Arrange
+        OfertaServicio ofertaServicio = new OfertaServicio(new OfertaRepositorio());
+        Oferta oferta = ofertaServicio.crearOferta("Flash", "Promoción relámpago", TipoOferta.PORCENTAJE,
+                20, LocalDate.now(), LocalDate.now().plusDays(1), List.of());
+        int maximoUsos = 500;
+        oferta.setMaximoUsos(maximoUsos);
+        String codigo = oferta.getCodigoPromocional();
+
+        ExecutorService hilos = Executors.newFixedThreadPool(64);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger exitosas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            boolean porCodigo = i % 2 == 0;
+            tareas.add(hilos.submit(() -> {
+                salida.await();
+                try {
+                    float precio = porCodigo
+                            ? ofertaServicio.aplicarOfertaPorCodigo(codigo.toLowerCase(), 100_000)
+                            : ofertaServicio.aplicarOferta(oferta.getId(), 100_000);
+                    assertEquals(80_000, precio, 0.01);
+                    exitosas.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rechazadas.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        hilos.shutdown();
+
+        // Assert
+        assertEquals(maximoUsos, exitosas.get(), "Se deben vender exactamente los usos disponibles");
+        assertEquals(maximoUsos, oferta.getUsosActuales(), "El contador no debe superar el máximo");
+        assertEquals(20_000 - maximoUsos, rechazadas.get());
+    }
+
+    @Test
+    public void testCodigosPromocionalesNoSeRepiten() {
+        // Arrange
+        OfertaServicio ofertaServicio = new OfertaServicio(new OfertaRepositorio());
+        Set<String> codigos = new HashSet<>();
+
+        // Act
+        for (int i = 0; i < 2_000; i++) {
+            Oferta oferta = ofertaServicio.crearOferta("Oferta " + i, "Descuento de prueba", TipoOferta.PORCENTAJE,
+                    10, LocalDate.now(), LocalDate.now().plusDays(1), List.of());
+            codigos.add(oferta.getCodigoPromocional());
+        }
+
+        // Assert
+        assertEquals(2_000, codigos.size(), "Cada oferta debe recibir un código promocional distinto");
+    }
+
+}
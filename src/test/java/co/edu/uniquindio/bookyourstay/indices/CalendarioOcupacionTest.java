@@ -0,0 +1,93 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Casa;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CalendarioOcupacionTest {
+    private static final LocalDate INICIO = LocalDate.of(2026, 7, 1);
+
+    private final ReservaRepositorio repositorio = new ReservaRepositorio();
+    private final Casa casa = casa();
+
+    @Test
+    public void testLlegadaElDiaDeSalidaDeOtroHuesped() {
+        // Arrange
+        repositorio.guardarReserva(reserva("res-1", INICIO, INICIO.plusDays(3)));
+
+        // Act
+        repositorio.guardarReserva(reserva("res-2", INICIO.plusDays(3), INICIO.plusDays(5)));
+
+        // Assert
+        assertFalse(repositorio.estaDisponible(casa.getId(), INICIO.plusDays(2), INICIO.plusDays(4)));
+        assertTrue(repositorio.estaDisponible(casa.getId(), INICIO.minusDays(2), INICIO),
+                "La salida del día de llegada de la primera reserva no se solapa");
+        assertThrows(IllegalStateException.class,
+                () -> repositorio.guardarReserva(reserva("res-3", INICIO.plusDays(4), INICIO.plusDays(4))),
+                "Una estadía sin noches ocupa su día de llegada");
+    }
+
+    @Test
+    public void testCancelarEnElRepositorioLiberaElCalendarioDelAlojamiento() {
+        // Arrange
+        Reserva reserva = reserva("res-1", INICIO, INICIO.plusDays(3));
+        repositorio.guardarReserva(reserva);
+        assertFalse(casa.estaDisponible(INICIO, INICIO.plusDays(1)));
+
+        // Act
+        reserva.setEstado(EstadoReserva.CANCELADA);
+        repositorio.actualizarReserva(reserva);
+
+        // Assert
+        assertTrue(casa.estaDisponible(INICIO, INICIO.plusDays(3)),
+                "El alojamiento y el repositorio deben compartir el mismo calendario");
+        assertEquals(0, casa.getCalendario().contar());
+    }
+
+    @Test
+    public void testCambiarFechasEnLaMismaInstanciaNoDejaOcupadoElRangoAnterior() {
+        // Arrange
+        Reserva reserva = reserva("res-1", INICIO, INICIO.plusDays(3));
+        repositorio.guardarReserva(reserva);
+        repositorio.guardarReserva(reserva("res-2", INICIO.plusDays(10), INICIO.plusDays(12)));
+
+        // Act
+        reserva.setFechaInicio(INICIO.plusDays(5));
+        reserva.setFechaFin(INICIO.plusDays(7));
+        repositorio.actualizarReserva(reserva);
+        reserva.setFechaInicio(INICIO.plusDays(9));
+        reserva.setFechaFin(INICIO.plusDays(11));
+
+        // Assert
+        assertTrue(repositorio.estaDisponible(casa.getId(), INICIO, INICIO.plusDays(5)),
+                "El rango anterior se busca por el ID de la reserva, no por su fecha actual");
+        assertFalse(repositorio.estaDisponible(casa.getId(), INICIO.plusDays(5), INICIO.plusDays(7)));
+        assertThrows(IllegalStateException.class, () -> repositorio.actualizarReserva(reserva));
+        assertFalse(repositorio.estaDisponible(casa.getId(), INICIO.plusDays(6), INICIO.plusDays(7)),
+                "Si las fechas nuevas no están libres se conserva el rango registrado");
+        assertEquals(2, casa.getCalendario().contar());
+    }
+
+    private static Casa casa() {
+        Casa casa = new Casa("Casa Verde", "Salento", "Casa de prueba", 4, 100000);
+        casa.setId("alo-1");
+        return casa;
+    }
+
+    private Reserva reserva(String id, LocalDate inicio, LocalDate fin) {
+        return Reserva.builder()
+                .conId(id)
+                .conAlojamiento(casa)
+                .conFechaInicio(inicio)
+                .conFechaFin(fin)
+                .conNumHuespedes(2)
+                .conEstado(EstadoReserva.CONFIRMADA)
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Casa;
+import co.edu.uniquindio.bookyourstay.modelo.Cliente;
+import co.edu.uniquindio.bookyourstay.modelo.Reseña;
+import co.edu.uniquindio.bookyourstay.repositorios.Pagina;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndiceTextoReseñasTest {
+    private static final LocalDateTime FECHA = LocalDateTime.of(2026, 5, 1, 12, 0);
+
+    private final IndiceTextoReseñas indice = new IndiceTextoReseñas();
+
+    @Test
+    public void testModeracionBuscaPorClienteAlojamientoYCalificacion() {
+        // Arrange
+        Reseña r1 = reseña("r1", "Ana Gómez", "Casa del Lago", 5, "Excelente atención y buena comida");
+        Reseña r2 = reseña("r2", "Luis Pérez", "Casa del Lago", 2, "La habitación estaba sucia");
+        Reseña r3 = reseña("r3", "Ana Ríos", "Hotel Central", 4, "Buena ubicación cerca del parque");
+        r2.setFecha(FECHA.plusDays(1));
+        r3.setFecha(FECHA.plusDays(2));
+        List.of(r1, r2, r3).forEach(indice::agregar);
+
+        // Act y Assert
+        assertEquals(List.of("r3", "r1"), ids(indice.paginarModeracion("ana", null, 10)),
+                "El nombre del cliente se debe buscar en el índice");
+        assertEquals(List.of("r2", "r1"), ids(indice.paginarModeracion("lag*", null, 10)),
+                "El nombre del alojamiento se debe buscar por prefijo");
+        assertEquals(List.of("r3"), ids(indice.paginarModeracion("4", null, 10)),
+                "Un número busca la calificación");
+        assertEquals(List.of("r1"), ids(indice.paginarModeracion("ana buena comida", null, 10)),
+                "Cada término puede coincidir en un campo distinto");
+        assertEquals(List.of("r3", "r2", "r1"), ids(indice.paginarModeracion("", null, 10)),
+                "Sin términos se paginan todas las reseñas");
+        assertTrue(indice.paginarModeracion("gomez rios", null, 10).elementos().isEmpty());
+    }
+
+    @Test
+    public void testModeracionPaginaSinRepetirNiSaltar() {
+        // Arrange: fechas repetidas para que el cursor desempate por ID
+        List<String> esperados = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            Reseña reseña = reseña("r" + (100 + i), "Cliente " + i, "Casa Sol", 3, "Comentario de prueba " + i);
+            reseña.setFecha(FECHA.minusDays(i / 3));
+            indice.agregar(reseña);
+        }
+        for (int i = 0; i < 23; i++) {
+            esperados.add("r" + (100 + i));
+        }
+
+        // Act
+        List<String> recorridos = new ArrayList<>();
+        Pagina<Reseña> pagina = indice.paginarModeracion("sol", null, 5);
+        recorridos.addAll(ids(pagina));
+        while (pagina.hayMas()) {
+            pagina = indice.paginarModeracion("sol", pagina.siguienteCursor(), 5);
+            assertTrue(pagina.elementos().size() <= 5);
+            recorridos.addAll(ids(pagina));
+        }
+
+        // Assert
+        assertEquals(esperados, recorridos, "Las páginas deben cubrir todas las reseñas en orden, una sola vez");
+        assertThrows(IllegalArgumentException.class, () -> indice.paginarModeracion("sol", "no es un cursor", 5));
+    }
+
+    @Test
+    public void testPrefijoSeComparaConLasPalabrasSinReducir() {
+        // Arrange
+        indice.agregar(reseña("r1", "Ana", "Casa Sol", 5, "Las luces del jardín son preciosas"));
+        indice.agregar(reseña("r2", "Luis", "Casa Sol", 4, "Una habitación amplia y limpia"));
+        indice.agregar(reseña("r3", "Eva", "Casa Sol", 3, "Habitaciones pequeñas"));
+
+        // Act y Assert
+        assertEquals(List.of("r1"), ids(indice.buscar("luce*", IndiceTextoReseñas.Orden.RECIENTES, 10)),
+                "\"luce*\" debe encontrar \"luces\" aunque su raíz sea \"luz\"");
+        assertEquals(List.of("r1"), ids(indice.buscar("luces", IndiceTextoReseñas.Orden.RECIENTES, 10)),
+                "Sin comodín se sigue buscando por raíz");
+        assertEquals(List.of("r2", "r3"), ids(indice.buscar("habitacion*", IndiceTextoReseñas.Orden.RECIENTES, 10)));
+        assertEquals(List.of("r2", "r3"), ids(indice.buscar("habitacione*", IndiceTextoReseñas.Orden.RECIENTES, 10)),
+                "Las palabras con el prefijo se buscan por su raíz, como cualquier otro término");
+        assertEquals(List.of("r1"), ids(indice.paginarModeracion("luce*", null, 10)));
+    }
+
+    private static Reseña reseña(String id, String cliente, String alojamiento, int calificacion, String comentario) {
+        Cliente autor = new Cliente();
+        autor.setNombre(cliente);
+        Casa casa = new Casa(alojamiento, "Armenia", "Casa de prueba", 4, 100000);
+        return Reseña.builder()
+                .id(id)
+                .cliente(autor)
+                .alojamiento(casa)
+                .calificacion(calificacion)
+                .comentario(comentario)
+                .fecha(FECHA)
+                .build();
+    }
+
+    private static List<String> ids(Pagina<Reseña> pagina) {
+        return ids(pagina.elementos());
+    }
+
+    private static List<String> ids(List<Reseña> reseñas) {
+        return reseñas.stream().map(Reseña::getId).toList();
+    }
+}
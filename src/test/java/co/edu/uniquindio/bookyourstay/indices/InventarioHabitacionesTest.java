@@ -0,0 +1,114 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Habitacion;
+import co.edu.uniquindio.bookyourstay.modelo.Hotel;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoHabitacion;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventarioHabitacionesTest {
+    private static final LocalDate INICIO = LocalDate.of(2026, 6, 10);
+
+    @Test
+    public void testReservarLiberarYVolverAReservar() {
+        // Arrange
+        Hotel hotel = new Hotel("Hotel Real", "Cartagena", "Frente al mar", 10, 300000);
+        Habitacion habitacion = new Habitacion();
+        habitacion.setNumero("101");
+        habitacion.setCapacidad(2);
+        habitacion.setTipo(TipoHabitacion.DOBLE);
+        hotel.agregarHabitacion(habitacion);
+        Reserva primera = reserva("res-1");
+        assertSame(habitacion, hotel.reservarHabitacion(TipoHabitacion.DOBLE, primera));
+
+        // Act
+        Habitacion liberada = hotel.liberarHabitacion(primera);
+
+        // Assert
+        assertSame(habitacion, liberada);
+        assertTrue(habitacion.getReservas().isEmpty(), "La reserva liberada no debe quedar en la habitación");
+        assertTrue(habitacion.estaDisponible(INICIO, INICIO.plusDays(2)),
+                "Las fechas liberadas deben quedar libres en el calendario de la habitación");
+        assertEquals(1, hotel.contarHabitacionesDisponibles(TipoHabitacion.DOBLE, INICIO, INICIO.plusDays(2)));
+        assertSame(habitacion, hotel.reservarHabitacion(TipoHabitacion.DOBLE, reserva("res-2")),
+                "La habitación liberada se debe poder asignar otra vez en las mismas fechas");
+        assertEquals(1, habitacion.getReservas().size());
+        assertEquals(0, hotel.contarHabitacionesDisponibles(TipoHabitacion.DOBLE, INICIO, INICIO.plusDays(2)));
+    }
+
+    @Test
+    public void testLiberarReservaSinHabitacionNoHaceNada() {
+        // Arrange
+        InventarioHabitaciones inventario = new InventarioHabitaciones();
+
+        // Act y Assert
+        assertNull(inventario.liberar(reserva("res-1")));
+    }
+
+    @Test
+    public void testHabitacionFueraDeServicioNoCuentaComoDisponible() {
+        // Arrange
+        Hotel hotel = new Hotel("Hotel Real", "Cartagena", "Frente al mar", 10, 300000);
+        Habitacion primera = habitacion("101");
+        Habitacion segunda = habitacion("102");
+        hotel.agregarHabitacion(primera);
+        hotel.agregarHabitacion(segunda);
+        hotel.reservarHabitacion(TipoHabitacion.DOBLE, reserva("res-1"));
+
+        // Act
+        segunda.setDisponible(false);
+
+        // Assert
+        assertEquals(0, hotel.contarHabitacionesDisponibles(TipoHabitacion.DOBLE, INICIO, INICIO.plusDays(2)),
+                "La única libre está fuera de servicio");
+        assertEquals(1, hotel.contarHabitacionesDisponibles(TipoHabitacion.DOBLE, INICIO.plusDays(5), INICIO.plusDays(6)),
+                "Sin reservas esos días solo cuenta la habitación en servicio");
+        assertThrows(IllegalStateException.class, () -> hotel.reservarHabitacion(TipoHabitacion.DOBLE, reserva("res-2")));
+    }
+
+    @Test
+    public void testHabitacionConstruidaConReservasOcupaSuCalendario() {
+        // Arrange
+        Reserva activa = reserva("res-1");
+
+        // Act
+        Habitacion habitacion = Habitacion.builder()
+                .numero("201")
+                .capacidad(2)
+                .tipo(TipoHabitacion.DOBLE)
+                .disponible(true)
+                .reservas(new ArrayList<>(List.of(activa)))
+                .build();
+
+        // Assert
+        assertFalse(habitacion.estaDisponible(INICIO, INICIO.plusDays(1)),
+                "El builder debe registrar las reservas activas en el calendario");
+        assertTrue(habitacion.estaDisponible(INICIO.plusDays(2), INICIO.plusDays(3)));
+        assertTrue(habitacion.getServicios().isEmpty());
+    }
+
+    private static Habitacion habitacion(String numero) {
+        Habitacion habitacion = new Habitacion();
+        habitacion.setNumero(numero);
+        habitacion.setCapacidad(2);
+        habitacion.setTipo(TipoHabitacion.DOBLE);
+        return habitacion;
+    }
+
+    private static Reserva reserva(String id) {
+        return Reserva.builder()
+                .conId(id)
+                .conFechaInicio(INICIO)
+                .conFechaFin(INICIO.plusDays(2))
+                .conNumHuespedes(2)
+                .conEstado(EstadoReserva.CONFIRMADA)
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package co.edu.uniquindio.bookyourstay.indices;
+
+import co.edu.uniquindio.bookyourstay.modelo.Casa;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RankingPopularidadTest {
+    private static final LocalDate HOY = LocalDate.of(2026, 8, 15);
+
+    private final RelojManual reloj = new RelojManual(HOY);
+    private final RankingPopularidad ranking = new RankingPopularidad(reloj);
+
+    @Test
+    public void testVentanaNoCuentaReservasFuturas() {
+        // Arrange
+        ranking.reservaCreada(reserva("r1", "alo-1", HOY.minusDays(3)));
+        ranking.reservaCreada(reserva("r2", "alo-2", HOY.plusDays(1)));
+        ranking.reservaCreada(reserva("r3", "alo-2", HOY.plusDays(20)));
+
+        // Act
+        List<String> recientes = ranking.masPopulares(10, 30);
+
+        // Assert
+        assertEquals(List.of("alo-1"), recientes, "Las reservas que inician después de hoy no son recientes");
+        assertEquals(List.of("alo-2", "alo-1"), ranking.masPopulares(10), "El histórico sí las cuenta");
+    }
+
+    @Test
+    public void testVentanaAvanzaConLosDiasYConLosEventos() {
+        // Arrange
+        ranking.reservaCreada(reserva("r1", "alo-1", HOY.minusDays(30)));
+        ranking.reservaCreada(reserva("r2", "alo-1", HOY.minusDays(29)));
+        ranking.reservaCreada(reserva("r3", "alo-2", HOY.minusDays(1)));
+        ranking.reservaCreada(reserva("r4", "alo-3", HOY.plusDays(1)));
+        assertEquals(List.of("alo-1", "alo-2"), ranking.masPopulares(10, 30));
+
+        // Act
+        reloj.hoy = HOY.plusDays(1);
+        List<String> mañana = ranking.masPopulares(10, 30);
+        ranking.reservaEliminada(reserva("r3", "alo-2", HOY.minusDays(1)));
+        ranking.reservaCreada(reserva("r5", "alo-3", HOY));
+        List<String> despuesDeEventos = ranking.masPopulares(10, 30);
+        reloj.hoy = HOY.plusDays(400);
+        List<String> muchoDespues = ranking.masPopulares(10, 30);
+
+        // Assert
+        assertEquals(List.of("alo-1", "alo-2", "alo-3"), mañana,
+                "Al cambiar de día sale r1 y entra r4: los tres quedan con una reserva");
+        assertEquals(List.of("alo-3", "alo-1"), despuesDeEventos,
+                "Los eventos dentro de la ventana actualizan su conteo");
+        assertTrue(muchoDespues.isEmpty());
+        assertEquals(List.of("alo-1"), ranking.masPopulares(1, 365 * 2),
+                "Cada tamaño de ventana tiene su propio conteo");
+    }
+
+    private static Reserva reserva(String id, String alojamientoId, LocalDate inicio) {
+        Casa casa = new Casa("Casa " + alojamientoId, "Armenia", "Casa de prueba", 4, 100000);
+        casa.setId(alojamientoId);
+        return Reserva.builder()
+                .conId(id)
+                .conAlojamiento(casa)
+                .conFechaInicio(inicio)
+                .conFechaFin(inicio.plusDays(2))
+                .conNumHuespedes(2)
+                .conEstado(EstadoReserva.CONFIRMADA)
+                .build();
+    }
+
+    /**
+     * Reloj cuyo día cambia la prueba
+     */
+    private static final class RelojManual extends Clock {
+        LocalDate hoy;
+
+        RelojManual(LocalDate hoy) {
+            this.hoy = hoy;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zona) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return hoy.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+}
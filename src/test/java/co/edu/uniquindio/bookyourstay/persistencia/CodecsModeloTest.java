@@ -0,0 +1,238 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+import co.edu.uniquindio.bookyourstay.modelo.*;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoOferta;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.RolUsuario;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCalificacion;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoHabitacion;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoOferta;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CodecsModeloTest {
+    private final Map<String, Usuario> usuarios = new HashMap<>();
+    private final Map<String, Alojamiento> alojamientos = new HashMap<>();
+    private final Map<String, Reserva> reservas = new HashMap<>();
+
+    private final Referencias referencias = new Referencias() {
+        @Override
+        public Optional<Usuario> usuario(String id) {
+            return Optional.ofNullable(usuarios.get(id));
+        }
+
+        @Override
+        public Optional<Alojamiento> alojamiento(String id) {
+            return Optional.ofNullable(alojamientos.get(id));
+        }
+
+        @Override
+        public Optional<Reserva> reserva(String id) {
+            return Optional.ofNullable(reservas.get(id));
+        }
+    };
+
+    @Test
+    public void testUsuariosConservanSubclaseYBilletera() {
+        // Arrange
+        Cliente cliente = cliente();
+        cliente.getBilletera().recargarCentavos(5_000_000, "PSE");
+        Administrador administrador = new Administrador();
+        administrador.setId("adm-1");
+        administrador.setNombre("Admin");
+        administrador.setEmail("admin@test.com");
+        administrador.setRol(RolUsuario.ADMINISTRADOR);
+        Usuario usuario = new Usuario("Luis", "222", "luis@test.com", "hash", RolUsuario.CLIENTE);
+        usuario.setId("usu-1");
+
+        // Act
+        Usuario clienteLeido = idaYVuelta(CodecsModelo.usuarios(), cliente);
+        Usuario administradorLeido = idaYVuelta(CodecsModelo.usuarios(), administrador);
+        Usuario usuarioLeido = idaYVuelta(CodecsModelo.usuarios(), usuario);
+
+        // Assert
+        Cliente leido = assertInstanceOf(Cliente.class, clienteLeido);
+        assertEquals(cliente.getEmail(), leido.getEmail());
+        assertEquals(cliente.getContraseña(), leido.getContraseña());
+        assertEquals(cliente.getFechaNacimiento(), leido.getFechaNacimiento());
+        assertEquals(cliente.getBilletera().getNumeroCuenta(), leido.getBilletera().getNumeroCuenta());
+        assertEquals(5_000_000, leido.getBilletera().getSaldoCentavos(), "El saldo se debe conservar");
+        assertEquals(1, leido.getBilletera().obtenerHistorial().size(), "El historial se debe conservar");
+        assertEquals(cliente.getBilletera().obtenerHistorial().get(0).getReferencia(),
+                leido.getBilletera().obtenerHistorial().get(0).getReferencia());
+        assertInstanceOf(Administrador.class, administradorLeido);
+        assertEquals(RolUsuario.ADMINISTRADOR, administradorLeido.getRol());
+        assertSame(Usuario.class, usuarioLeido.getClass());
+        assertEquals("222", usuarioLeido.getCedula());
+    }
+
+    @Test
+    public void testAlojamientosConservanSubclaseYPropietario() {
+        // Arrange
+        Cliente propietario = cliente();
+        Casa casa = new Casa("Casa Sol", "Armenia", "Con piscina", 6, 250000);
+        casa.setId("alo-1");
+        casa.setPropietario(propietario);
+        casa.setTienePiscina(true);
+        casa.setCapacidadParqueadero(2);
+        casa.setServicios(List.of("WiFi", "Piscina"));
+        Apartamento apartamento = new Apartamento("Apto Centro", "Bogotá", "Vista a la ciudad", 3, 180000);
+        apartamento.setId("alo-2");
+        apartamento.setArea(72.5f);
+        apartamento.setPermiteMascotas(true);
+        Hotel hotel = new Hotel("Hotel Real", "Cartagena", "Frente al mar", 40, 300000);
+        hotel.setId("alo-3");
+        hotel.setEstrellas(4);
+        hotel.setNormasInternas(new ArrayList<>(List.of("No fumar")));
+        Habitacion habitacion = new Habitacion();
+        habitacion.setNumero("101");
+        habitacion.setPrecioCentavos(15_000_000);
+        habitacion.setCapacidad(2);
+        habitacion.setTipo(TipoHabitacion.SUITE);
+        hotel.agregarHabitacion(habitacion);
+
+        // Act
+        Alojamiento casaLeida = idaYVuelta(CodecsModelo.alojamientos(referencias), casa);
+        Alojamiento apartamentoLeido = idaYVuelta(CodecsModelo.alojamientos(referencias), apartamento);
+        Alojamiento hotelLeido = idaYVuelta(CodecsModelo.alojamientos(referencias), hotel);
+
+        // Assert
+        Casa casaCargada = assertInstanceOf(Casa.class, casaLeida);
+        assertSame(propietario, casaCargada.getPropietario(), "El propietario se enlaza con la instancia existente");
+        assertEquals(casa.getPrecioNocheCentavos(), casaCargada.getPrecioNocheCentavos());
+        assertTrue(casaCargada.isTienePiscina());
+        assertEquals(2, casaCargada.getCapacidadParqueadero());
+        assertEquals(List.of("WiFi", "Piscina"), casaCargada.getServicios());
+
+        Apartamento apartamentoCargado = assertInstanceOf(Apartamento.class, apartamentoLeido);
+        assertEquals(72.5f, apartamentoCargado.getArea());
+        assertTrue(apartamentoCargado.isPermiteMascotas());
+        assertNull(apartamentoCargado.getPropietario());
+
+        Hotel hotelCargado = assertInstanceOf(Hotel.class, hotelLeido);
+        assertEquals(4, hotelCargado.getEstrellas());
+        assertEquals(List.of("No fumar"), hotelCargado.getNormasInternas());
+        assertEquals(1, hotelCargado.getHabitaciones().size());
+        assertEquals("101", hotelCargado.getHabitaciones().get(0).getNumero());
+        assertEquals(TipoHabitacion.SUITE, hotelCargado.getHabitaciones().get(0).getTipo());
+        assertEquals(15_000_000, hotelCargado.getHabitaciones().get(0).getPrecioCentavos());
+    }
+
+    @Test
+    public void testReservaResenaYOfertaResuelvenReferencias() {
+        // Arrange
+        Cliente cliente = cliente();
+        Casa casa = new Casa("Casa Sol", "Armenia", "Con piscina", 6, 250000);
+        casa.setId("alo-1");
+        alojamientos.put(casa.getId(), casa);
+        Reserva reserva = Reserva.builder()
+                .conId("res-1")
+                .conCliente(cliente)
+                .conAlojamiento(casa)
+                .conFechaInicio(LocalDate.of(2026, 3, 1))
+                .conFechaFin(LocalDate.of(2026, 3, 4))
+                .conNumHuespedes(2)
+                .conEstado(EstadoReserva.CONFIRMADA)
+                .conTotalCentavos(75_000_000)
+                .build();
+        reserva.getHuespedes().add(new Huesped("Ana Gómez", "CC", "111", LocalDate.of(1990, 1, 1),
+                "F", "Colombiana", "Luis", "3000000000", null));
+        reservas.put(reserva.getId(), reserva);
+        Reseña reseña = Reseña.builder()
+                .id("rese-1")
+                .cliente(cliente)
+                .alojamiento(casa)
+                .reserva(reserva)
+                .calificacion(5)
+                .comentario("Excelente")
+                .fecha(LocalDateTime.of(2026, 3, 5, 10, 30))
+                .fotos(new ArrayList<>(List.of("foto.jpg")))
+                .tipoCalificacion(TipoCalificacion.DETALLADA)
+                .build();
+        Oferta oferta = new Oferta();
+        oferta.setId("ofe-1");
+        oferta.setNombre("Temporada");
+        oferta.setTipoOferta(TipoOferta.PORCENTAJE);
+        oferta.setValor(15);
+        oferta.setFechaInicio(LocalDate.of(2026, 1, 1));
+        oferta.setFechaFin(LocalDate.of(2026, 12, 31));
+        oferta.setActiva(true);
+        oferta.setAlojamientosAplicables(List.of(casa));
+        oferta.setMaximoUsos(10);
+        oferta.setUsosActuales(4);
+        oferta.setCodigoPromocional("TEMP15");
+        oferta.setEstado(EstadoOferta.ACTIVA);
+
+        // Act
+        Reserva reservaLeida = idaYVuelta(CodecsModelo.reservas(referencias), reserva);
+        Reseña reseñaLeida = idaYVuelta(CodecsModelo.reseñas(referencias), reseña);
+        Oferta ofertaLeida = idaYVuelta(CodecsModelo.ofertas(referencias), oferta);
+
+        // Assert
+        assertSame(cliente, reservaLeida.getCliente());
+        assertSame(casa, reservaLeida.getAlojamiento());
+        assertEquals(reserva.getFechaInicio(), reservaLeida.getFechaInicio());
+        assertEquals(reserva.getFechaFin(), reservaLeida.getFechaFin());
+        assertEquals(EstadoReserva.CONFIRMADA, reservaLeida.getEstado());
+        assertEquals(75_000_000, reservaLeida.getTotalCentavos());
+        assertEquals("Ana Gómez", reservaLeida.getHuespedes().get(0).getNombreCompleto());
+        assertNull(reservaLeida.getHuespedes().get(0).getNecesidadesEspeciales());
+
+        assertSame(reserva, reseñaLeida.getReserva());
+        assertEquals(5, reseñaLeida.getCalificacion());
+        assertEquals(reseña.getFecha(), reseñaLeida.getFecha());
+        assertEquals(List.of("foto.jpg"), reseñaLeida.getFotos());
+
+        assertEquals(List.of(casa), ofertaLeida.getAlojamientosAplicables());
+        assertEquals(4, ofertaLeida.getUsosActuales(), "Los usos de la oferta se deben conservar");
+        assertEquals("TEMP15", ofertaLeida.getCodigoPromocional());
+        assertTrue(ofertaLeida.getEstado(), "El estado activo se debe conservar");
+    }
+
+    @Test
+    public void testReferenciaInexistenteNoSeCarga() {
+        // Arrange
+        Casa casa = new Casa("Casa Sol", "Armenia", "Con piscina", 6, 250000);
+        casa.setId("alo-borrado");
+        Reserva reserva = Reserva.builder()
+                .conId("res-1")
+                .conCliente(cliente())
+                .conAlojamiento(casa)
+                .conFechaInicio(LocalDate.of(2026, 3, 1))
+                .conFechaFin(LocalDate.of(2026, 3, 4))
+                .conNumHuespedes(1)
+                .build();
+
+        // Act y Assert
+        assertThrows(IllegalStateException.class, () -> idaYVuelta(CodecsModelo.reservas(referencias), reserva),
+                "Una reserva cuyo alojamiento ya no existe no se puede reconstruir");
+    }
+
+    private Cliente cliente() {
+        Cliente cliente = new Cliente();
+        cliente.setId("cli-1");
+        cliente.setNombre("Ana");
+        cliente.setEmail("ana@test.com");
+        cliente.setContraseña("hash");
+        cliente.setCedula("111");
+        cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        usuarios.put(cliente.getId(), cliente);
+        return cliente;
+    }
+
+    private static <T> T idaYVuelta(Codec<T> codec, T elemento) {
+        EscritorBinario salida = new EscritorBinario();
+        codec.escribir(salida, elemento);
+        return codec.leer(new LectorBinario(ByteBuffer.wrap(salida.datos(), 0, salida.tamaño())));
+    }
+}
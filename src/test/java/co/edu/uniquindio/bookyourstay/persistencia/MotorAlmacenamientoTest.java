@@ -0,0 +1,312 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MotorAlmacenamientoTest {
+    private static final int TAMAÑO_SEGMENTO = 4096;
+
+    private static final Codec<String> TEXTO = new Codec<>() {
+        @Override
+        public void escribir(EscritorBinario salida, String elemento) {
+            salida.texto(elemento);
+        }
+
+        @Override
+        public String leer(LectorBinario entrada) {
+            return entrada.texto();
+        }
+    };
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    public void testLecturaRechazaRegistroConCrcInvalido() throws IOException {
+        // Arrange
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+            coleccion.guardar("a", "valor original");
+
+            // Act
+            Path segmento = segmentos().get(0);
+            alterarByte(segmento, Files.size(segmento) - 1);
+
+            // Assert
+            assertThrows(IllegalStateException.class, () -> coleccion.buscar("a"),
+                    "Un registro con CRC inválido no se debe decodificar");
+        }
+    }
+
+    @Test
+    public void testFinalIncompletoSeDescartaAlAbrir() throws IOException {
+        // Arrange
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+            coleccion.guardar("a", "uno");
+            coleccion.guardar("b", "dos");
+            coleccion.guardar("c", "tres");
+        }
+        Path segmento = segmentos().get(0);
+        long tamaño = Files.size(segmento);
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.truncate(tamaño - 3);
+        }
+
+        // Act
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+
+            // Assert
+            assertEquals(List.of("uno", "dos"), coleccion.cargar(), "Solo se debe descartar la escritura incompleta");
+            assertTrue(motor.getBytesDescartados() > 0, "Se deben informar los bytes descartados");
+            coleccion.guardar("d", "cuatro");
+        }
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            assertEquals(List.of("uno", "dos", "cuatro"), motor.coleccion("textos", TEXTO).cargar(),
+                    "Lo escrito después de truncar debe sobrevivir a otro reinicio");
+            assertEquals(0, motor.getBytesDescartados());
+        }
+    }
+
+    @Test
+    public void testUltimoRegistroConCrcInvalidoSeDescarta() throws IOException {
+        // Arrange
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+            coleccion.guardar("a", "uno");
+            coleccion.guardar("b", "dos");
+        }
+        Path segmento = segmentos().get(0);
+        alterarByte(segmento, Files.size(segmento) - 1);
+
+        // Act
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            // Assert
+            assertEquals(List.of("uno"), motor.coleccion("textos", TEXTO).cargar(),
+                    "El último registro dañado no tiene nada válido detrás y se descarta");
+        }
+    }
+
+    @Test
+    public void testDañoEnMedioDelSegmentoActivoImpideAbrir() throws IOException {
+        // Arrange
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+            coleccion.guardar("a", "uno");
+            coleccion.guardar("b", "dos");
+            coleccion.guardar("c", "tres");
+        }
+        Path segmento = segmentos().get(0);
+        long tamaño = Files.size(segmento);
+
+        // Act
+        alterarByte(segmento, Segmento.CABECERA + 12);
+
+        // Assert
+        assertThrows(IllegalStateException.class, () -> MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA),
+                "Truncar en medio del archivo perdería escrituras confirmadas");
+        assertEquals(tamaño, Files.size(segmento), "El segmento no se debe truncar si la apertura falla");
+    }
+
+    @Test
+    public void testSegmentoSelladoDañadoImpideAbrir() throws IOException {
+        // Arrange
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA, TAMAÑO_SEGMENTO)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+            for (int i = 0; i < 100; i++) {
+                coleccion.guardar(clave(i), valor(i, 0));
+            }
+        }
+        List<Path> archivos = segmentos();
+        assertTrue(archivos.size() > 1, "Las escrituras deben ocupar varios segmentos");
+
+        // Act
+        alterarByte(archivos.get(0), Files.size(archivos.get(0)) / 2);
+
+        // Assert
+        assertThrows(IllegalStateException.class,
+                () -> MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA, TAMAÑO_SEGMENTO),
+                "Un segmento sellado nunca tiene un final incompleto legítimo");
+    }
+
+    @Test
+    public void testRotacionDeSegmentos() throws IOException {
+        // Arrange
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.DIFERIDA, TAMAÑO_SEGMENTO)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+
+            // Act
+            for (int i = 0; i < 100; i++) {
+                coleccion.guardar(clave(i), valor(i, 0));
+            }
+        }
+
+        // Assert
+        List<Path> archivos = segmentos();
+        assertTrue(archivos.size() > 2, "Se debe sellar el segmento al llenarse");
+        for (Path archivo : archivos) {
+            assertTrue(Files.size(archivo) <= TAMAÑO_SEGMENTO, "Ningún segmento debe superar el tamaño configurado");
+        }
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA, TAMAÑO_SEGMENTO)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+            assertEquals(100, coleccion.contar());
+            assertEquals(valor(57, 0), coleccion.buscar(clave(57)).orElseThrow());
+        }
+    }
+
+    @Test
+    public void testCompactacionNoResucitaBorrados(@TempDir Path respaldo) throws IOException {
+        // Arrange
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA, TAMAÑO_SEGMENTO)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+            for (int i = 0; i < 60; i++) {
+                coleccion.guardar(clave(i), valor(i, 0));
+            }
+            for (int i = 0; i < 60; i++) {
+                if (i % 2 == 0) {
+                    coleccion.eliminar(clave(i));
+                } else {
+                    coleccion.guardar(clave(i), valor(i, 1));
+                }
+            }
+            List<Path> antes = segmentos();
+            for (Path archivo : antes) {
+                Files.copy(archivo, respaldo.resolve(archivo.getFileName()));
+            }
+
+            // Act
+            motor.compactar();
+
+            // Assert
+            assertTrue(Files.exists(directorio.resolve("manifiesto")), "La compactación debe escribir el manifiesto");
+            assertFalse(Files.exists(antes.get(0)), "Los segmentos compactados se deben borrar");
+        }
+
+        // Una caída después del manifiesto y antes de borrar deja los segmentos viejos en el directorio
+        try (Stream<Path> viejos = Files.list(respaldo)) {
+            for (Path archivo : viejos.toList()) {
+                Path destino = directorio.resolve(archivo.getFileName());
+                if (!Files.exists(destino)) {
+                    Files.copy(archivo, destino);
+                }
+            }
+        }
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA, TAMAÑO_SEGMENTO)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+            assertEquals(30, coleccion.contar(), "Los borrados no deben reaparecer");
+            assertTrue(coleccion.buscar(clave(10)).isEmpty());
+            assertEquals(valor(11, 1), coleccion.buscar(clave(11)).orElseThrow(), "Se conserva la última versión");
+        }
+    }
+
+    @Test
+    public void testEscriturasConcurrentesSonDurablesAlConfirmar(@TempDir Path copia) throws Exception {
+        // Arrange
+        int hilos = 8;
+        int porHilo = 50;
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA, TAMAÑO_SEGMENTO)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+            ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+            List<Future<?>> tareas = new ArrayList<>();
+
+            // Act
+            for (int h = 0; h < hilos; h++) {
+                int hilo = h;
+                tareas.add(ejecutor.submit(() -> {
+                    for (int i = 0; i < porHilo; i++) {
+                        coleccion.guardar(hilo + "-" + i, valor(i, hilo));
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            ejecutor.shutdown();
+
+            // Se copia el directorio sin cerrar el motor, como lo encontraría un proceso tras una caída
+            for (Path archivo : segmentos()) {
+                Files.copy(archivo, copia.resolve(archivo.getFileName()));
+            }
+        }
+
+        // Assert
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(copia, Durabilidad.SINCRONA, TAMAÑO_SEGMENTO)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", TEXTO);
+            assertEquals(hilos * porHilo, coleccion.contar(), "Toda escritura confirmada debe estar en los segmentos");
+            assertEquals(valor(49, 7), coleccion.buscar("7-49").orElseThrow());
+            assertEquals(0, motor.getBytesDescartados());
+        }
+    }
+
+    @Test
+    public void testCargarInformaRegistrosQueNoSePuedenReconstruir() {
+        // Arrange
+        Codec<String> exigente = new Codec<>() {
+            @Override
+            public void escribir(EscritorBinario salida, String elemento) {
+                TEXTO.escribir(salida, elemento);
+            }
+
+            @Override
+            public String leer(LectorBinario entrada) {
+                String valor = entrada.texto();
+                if (valor.startsWith("huérfano")) {
+                    throw new IllegalStateException("No existe el alojamiento de " + valor);
+                }
+                return valor;
+            }
+        };
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            Coleccion<String> coleccion = motor.coleccion("textos", exigente);
+            coleccion.guardar("a", "uno");
+            coleccion.guardar("b", "huérfano");
+
+            // Act
+            IllegalStateException error = assertThrows(IllegalStateException.class, coleccion::cargar,
+                    "Un registro que no se puede reconstruir no se debe omitir en silencio");
+
+            // Assert
+            assertTrue(error.getMessage().contains("b"), "El mensaje debe nombrar el registro afectado");
+            assertNotNull(error.getCause());
+        }
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(ruta -> ruta.getFileName().toString().startsWith("segmento-")).sorted().toList();
+        }
+    }
+
+    private static void alterarByte(Path archivo, long posicion) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer octeto = ByteBuffer.allocate(1);
+            canal.read(octeto, posicion);
+            octeto.put(0, (byte) ~octeto.get(0)).rewind();
+            canal.write(octeto, posicion);
+        }
+    }
+
+    private static String clave(int i) {
+        return String.format("clave-%03d", i);
+    }
+
+    private static String valor(int i, int version) {
+        return "valor " + i + " versión " + version + " " + "x".repeat(80);
+    }
+}
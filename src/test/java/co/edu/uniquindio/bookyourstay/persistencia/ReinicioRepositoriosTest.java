@@ -0,0 +1,227 @@
+package co.edu.uniquindio.bookyourstay.persistencia;
+
+import co.edu.uniquindio.bookyourstay.modelo.*;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoAlojamiento;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoCalificacion;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoHabitacion;
+import co.edu.uniquindio.bookyourstay.modelo.enums.TipoOferta;
+import co.edu.uniquindio.bookyourstay.repositorios.AlojamientoRepositorio;
+import co.edu.uniquindio.bookyourstay.repositorios.OfertaRepositorio;
+import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
+import co.edu.uniquindio.bookyourstay.repositorios.ReseñaRepositorio;
+import co.edu.uniquindio.bookyourstay.repositorios.UsuarioRepositorio;
+import co.edu.uniquindio.bookyourstay.servicios.AlojamientoServicio;
+import co.edu.uniquindio.bookyourstay.servicios.OfertaServicio;
+import co.edu.uniquindio.bookyourstay.singleton.GestorAlojamientos;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReinicioRepositoriosTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    public void testReinicioReconstruyeListasInversas() {
+        // Arrange
+        LocalDate inicio = LocalDate.now().minusDays(10);
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            Repositorios repositorios = new Repositorios(motor);
+            Cliente cliente = new Cliente();
+            cliente.setId("cli-1");
+            cliente.setNombre("Ana");
+            cliente.setEmail("ana@test.com");
+            cliente.setCedula("111");
+            cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+            repositorios.usuarios.guardarUsuario(cliente);
+
+            Casa casa = new Casa("Casa Sol", "Armenia", "Con piscina", 4, 100000);
+            casa.setId("alo-1");
+            casa.setPropietario(cliente);
+            repositorios.alojamientos.guardarAlojamiento(casa);
+
+            Reserva completada = reserva("res-1", cliente, casa, inicio, EstadoReserva.COMPLETADA);
+            Reserva confirmada = reserva("res-2", cliente, casa, LocalDate.now().plusDays(5), EstadoReserva.CONFIRMADA);
+            repositorios.reservas.guardarReserva(completada);
+            repositorios.reservas.guardarReserva(confirmada);
+            repositorios.reseñas.guardarResena(reseña("rese-1", completada, 4));
+        }
+
+        // Act
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            Repositorios repositorios = new Repositorios(motor);
+            Alojamiento casa = repositorios.alojamientos.buscarPorId("alo-1").orElseThrow();
+            Cliente cliente = (Cliente) repositorios.usuarios.buscarPorId("cli-1").orElseThrow();
+
+            // Assert
+            assertEquals(2, casa.getReservas().size(), "Las reservas del alojamiento se deben reconstruir");
+            assertEquals(2, cliente.getReservas().size(), "Las reservas del cliente se deben reconstruir");
+            assertEquals(1, casa.getReseñas().size(), "Las reseñas del alojamiento se deben reconstruir");
+            assertEquals(1, cliente.getReseñas().size(), "Las reseñas del cliente se deben reconstruir");
+            assertSame(casa, casa.getReservas().get(0).getAlojamiento());
+            assertFalse(casa.estaDisponible(LocalDate.now().plusDays(5), LocalDate.now().plusDays(7)),
+                    "La reserva confirmada debe ocupar el calendario del alojamiento");
+
+            Administrador administrador = new Administrador();
+            Administrador.EstadisticasAlojamiento estadisticas =
+                    administrador.generarEstadisticas(casa, inicio.minusDays(1), inicio.plusDays(9));
+            assertEquals(20, estadisticas.getPorcentajeOcupacion(), 0.01);
+            assertTrue(estadisticas.getGananciasTotales() > 0, "Las ganancias salen de las reservas reconstruidas");
+
+            // Una reseña nueva se promedia con la cargada, no la reemplaza
+            casa.agregarReseña(reseña("rese-2", casa.getReservas().get(1), 2));
+            assertEquals(3.0f, casa.getCalificacionPromedio(), 0.001f);
+        }
+    }
+
+    @Test
+    public void testAlojamientoRegistradoDesdeLaInterfazSobreviveAlReinicio() {
+        // Arrange: el mismo camino de RegistrarAlojamientoController, y una reserva con habitación asignada
+        LocalDate inicio = LocalDate.now().plusDays(3);
+        String hotelId;
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            Repositorios repositorios = new Repositorios(motor);
+            Cliente propietario = new Cliente();
+            propietario.setId("cli-1");
+            propietario.setNombre("Ana");
+            propietario.setEmail("ana@test.com");
+            propietario.setCedula("111");
+            propietario.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+            repositorios.usuarios.guardarUsuario(propietario);
+
+            AlojamientoServicio servicio = new AlojamientoServicio(repositorios.alojamientos);
+            Hotel hotel = (Hotel) servicio.crearAlojamiento(TipoAlojamiento.HOTEL, "Hotel Mirador", "Jardín",
+                    "Vista al valle", 250000, 20, List.of("Wifi"), propietario);
+            Habitacion habitacion = new Habitacion();
+            habitacion.setNumero("101");
+            habitacion.setPrecioCentavos(15_000_000);
+            habitacion.setCapacidad(2);
+            habitacion.setTipo(TipoHabitacion.DOBLE);
+            hotel.agregarHabitacion(habitacion);
+            servicio.actualizarAlojamiento(hotel.getId(), hotel);
+            hotelId = hotel.getId();
+
+            Reserva reserva = reserva("res-1", propietario, hotel, inicio, EstadoReserva.CONFIRMADA);
+            hotel.reservarHabitacion(TipoHabitacion.DOBLE, reserva);
+            repositorios.reservas.guardarReserva(reserva);
+        }
+
+        // Act
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            Repositorios repositorios = new Repositorios(motor);
+            new AlojamientoServicio(repositorios.alojamientos);
+            Hotel hotel = (Hotel) repositorios.alojamientos.buscarPorId(hotelId).orElseThrow();
+
+            // Assert
+            assertSame(repositorios.usuarios.buscarPorId("cli-1").orElseThrow(), hotel.getPropietario());
+            assertTrue(GestorAlojamientos.getInstancia().buscarPorCiudad("Jardín").stream().anyMatch(a -> a == hotel),
+                    "El gestor de búsqueda se debe reconstruir con los alojamientos cargados");
+            assertEquals("101", repositorios.reservas.buscarPorId("res-1").orElseThrow().getNumeroHabitacion());
+            assertEquals(1, hotel.buscarHabitacion("101").getReservas().size(),
+                    "La reserva debe volver a la habitación que tenía asignada");
+            assertEquals(0, hotel.contarHabitacionesDisponibles(TipoHabitacion.DOBLE, inicio, inicio.plusDays(2)),
+                    "El inventario del hotel debe descontar la reserva cargada");
+            assertThrows(IllegalStateException.class,
+                    () -> hotel.reservarHabitacion(TipoHabitacion.DOBLE, reserva("res-2", null, hotel, inicio, EstadoReserva.CONFIRMADA)));
+            GestorAlojamientos.getInstancia().eliminarAlojamiento(hotel);
+        }
+    }
+
+    @Test
+    public void testReinicioConservaUsosDeOfertas() {
+        // Arrange
+        String ofertaId;
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            OfertaServicio servicio = new OfertaServicio(OfertaRepositorio.durable(ofertas(motor)));
+            Oferta oferta = servicio.crearOferta("Limitada", "Tres usos", TipoOferta.PORCENTAJE,
+                    10, LocalDate.now(), LocalDate.now().plusDays(1), List.of());
+            oferta.setMaximoUsos(3);
+            ofertaId = oferta.getId();
+
+            // Act
+            for (int i = 0; i < 3; i++) {
+                servicio.aplicarOferta(ofertaId, 100_000);
+            }
+        }
+
+        // Assert
+        try (MotorAlmacenamiento motor = MotorAlmacenamiento.abrir(directorio, Durabilidad.SINCRONA)) {
+            OfertaServicio servicio = new OfertaServicio(OfertaRepositorio.durable(ofertas(motor)));
+            assertEquals(3, servicio.obtenerOferta(ofertaId).getUsosActuales(), "Los usos deben sobrevivir al reinicio");
+            assertThrows(IllegalStateException.class, () -> servicio.aplicarOferta(ofertaId, 100_000),
+                    "Después de reiniciar no se puede superar el máximo de usos");
+        }
+    }
+
+    private static Coleccion<Oferta> ofertas(MotorAlmacenamiento motor) {
+        return motor.coleccion("ofertas", CodecsModelo.ofertas(new Repositorios(motor)));
+    }
+
+    private static Reserva reserva(String id, Cliente cliente, Alojamiento alojamiento, LocalDate inicio,
+                                   EstadoReserva estado) {
+        return Reserva.builder()
+                .conId(id)
+                .conCliente(cliente)
+                .conAlojamiento(alojamiento)
+                .conFechaInicio(inicio)
+                .conFechaFin(inicio.plusDays(2))
+                .conNumHuespedes(2)
+                .conEstado(estado)
+                .conTotalCentavos(20_000_000)
+                .build();
+    }
+
+    private static Reseña reseña(String id, Reserva reserva, int calificacion) {
+        return Reseña.builder()
+                .id(id)
+                .cliente(reserva.getCliente())
+                .alojamiento(reserva.getAlojamiento())
+                .reserva(reserva)
+                .calificacion(calificacion)
+                .comentario("Muy buena estadía")
+                .fecha(LocalDateTime.now())
+                .tipoCalificacion(TipoCalificacion.DETALLADA)
+                .build();
+    }
+
+    /**
+     * Repositorios durables cargados en el orden de la aplicación: las referencias se resuelven con ellos
+     */
+    static final class Repositorios implements Referencias {
+        final UsuarioRepositorio usuarios;
+        final AlojamientoRepositorio alojamientos;
+        final ReservaRepositorio reservas;
+        final ReseñaRepositorio reseñas;
+
+        Repositorios(MotorAlmacenamiento motor) {
+            usuarios = UsuarioRepositorio.durable(motor.coleccion("usuarios", CodecsModelo.usuarios()));
+            alojamientos = AlojamientoRepositorio.durable(motor.coleccion("alojamientos", CodecsModelo.alojamientos(this)));
+            reservas = ReservaRepositorio.durable(motor.coleccion("reservas", CodecsModelo.reservas(this)));
+            reseñas = ReseñaRepositorio.durable(motor.coleccion("reseñas", CodecsModelo.reseñas(this)));
+        }
+
+        @Override
+        public Optional<Usuario> usuario(String id) {
+            return usuarios.buscarPorId(id);
+        }
+
+        @Override
+        public Optional<Alojamiento> alojamiento(String id) {
+            return alojamientos.buscarPorId(id);
+        }
+
+        @Override
+        public Optional<Reserva> reserva(String id) {
+            return reservas.buscarPorId(id);
+        }
+    }
+}
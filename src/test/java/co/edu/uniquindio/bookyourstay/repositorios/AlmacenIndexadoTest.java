@@ -0,0 +1,132 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlmacenIndexadoTest {
+    private static final ClaveOrden<Fila> POR_PUNTOS = ClaveOrden.numero("puntos", Fila::puntos);
+
+    private final AlmacenIndexado<Fila> almacen = new AlmacenIndexado<>(Fila::id);
+
+    @Test
+    public void testCursoresRecorrenTodoElOrdenDeInsercion() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            almacen.guardar(new Fila("f" + i, (long) i));
+        }
+
+        // Act
+        List<List<String>> paginas = paginas(ConsultaPagina.de(4));
+
+        // Assert
+        assertEquals(List.of(List.of("f0", "f1", "f2", "f3"), List.of("f4", "f5", "f6", "f7"), List.of("f8", "f9")),
+                paginas, "Cada página debe seguir a la anterior sin repetir ni saltar elementos");
+        assertFalse(almacen.paginar(ConsultaPagina.<Fila>de(10)).hayMas(),
+                "Una página que contiene el último elemento no debe tener cursor");
+    }
+
+    @Test
+    public void testCursorSigueValidoSiSuElementoSeElimina() {
+        // Arrange
+        for (int i = 0; i < 6; i++) {
+            almacen.guardar(new Fila("f" + i, (long) i));
+        }
+        Pagina<Fila> primera = almacen.paginar(ConsultaPagina.de(3));
+
+        // Act
+        almacen.eliminar("f2");
+        almacen.eliminar("f3");
+        almacen.guardar(new Fila("nueva", 99L));
+        Pagina<Fila> segunda = almacen.paginar(ConsultaPagina.<Fila>de(3).despuesDe(primera.siguienteCursor()));
+
+        // Assert
+        assertEquals(List.of("f4", "f5", "nueva"), ids(segunda),
+                "El cursor guarda la posición aunque el elemento que la marcaba ya no exista");
+    }
+
+    @Test
+    public void testOrdenIndexadoYSinIndexarCoinciden() {
+        // Arrange: puntos repetidos y nulos para probar los empates y los nulos primero
+        Long[] puntos = {5L, null, 3L, 5L, 1L, null, 3L, 8L, 5L};
+        for (int i = 0; i < puntos.length; i++) {
+            almacen.guardar(new Fila("f" + i, puntos[i]));
+        }
+        AlmacenIndexado<Fila> indexado = new AlmacenIndexado<>(Fila::id);
+        indexado.indexarOrden(POR_PUNTOS);
+        almacen.listar().forEach(indexado::guardar);
+        List<String> ascendente = List.of("f1", "f5", "f4", "f2", "f6", "f0", "f3", "f8", "f7");
+
+        // Act y Assert
+        assertEquals(ascendente, aplanar(paginas(ConsultaPagina.<Fila>de(2).ordenadaPor(POR_PUNTOS))),
+                "Sin vista se debe ordenar por valor y desempatar por inserción");
+        assertEquals(ascendente, aplanar(paginasDe(indexado, ConsultaPagina.<Fila>de(2).ordenadaPor(POR_PUNTOS))),
+                "Con vista el orden debe ser el mismo");
+        List<String> descendente = new ArrayList<>(ascendente);
+        Collections.reverse(descendente);
+        assertEquals(descendente, aplanar(paginas(ConsultaPagina.<Fila>de(4).ordenadaPor(POR_PUNTOS.invertida()))));
+        assertEquals(descendente, aplanar(paginasDe(indexado, ConsultaPagina.<Fila>de(4).ordenadaPor(POR_PUNTOS.invertida()))));
+    }
+
+    @Test
+    public void testFiltroSeAplicaAntesDeCortarLaPagina() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            almacen.guardar(new Fila("f" + i, (long) i));
+        }
+
+        // Act
+        List<List<String>> paginas = paginas(ConsultaPagina.<Fila>de(3).filtrando(f -> f.puntos() % 5 == 0));
+
+        // Assert
+        assertEquals(List.of(List.of("f0", "f5", "f10"), List.of("f15")), paginas,
+                "Las páginas deben llenarse solo con elementos que cumplen el filtro");
+    }
+
+    @Test
+    public void testCursorInvalidoOdeOtroOrdenSeRechaza() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            almacen.guardar(new Fila("f" + i, (long) i));
+        }
+        String cursorInsercion = almacen.paginar(ConsultaPagina.de(2)).siguienteCursor();
+
+        // Act y Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> almacen.paginar(ConsultaPagina.<Fila>de(2).despuesDe("no es un cursor")));
+        assertThrows(IllegalArgumentException.class,
+                () -> almacen.paginar(ConsultaPagina.<Fila>de(2).ordenadaPor(POR_PUNTOS).despuesDe(cursorInsercion)),
+                "Un cursor del orden de inserción no sirve para otra clave de orden");
+        assertThrows(IllegalArgumentException.class, () -> ConsultaPagina.<Fila>de(0));
+    }
+
+    private List<List<String>> paginas(ConsultaPagina<Fila> consulta) {
+        return paginasDe(almacen, consulta);
+    }
+
+    private static List<List<String>> paginasDe(AlmacenIndexado<Fila> almacen, ConsultaPagina<Fila> consulta) {
+        List<List<String>> paginas = new ArrayList<>();
+        Pagina<Fila> pagina = almacen.paginar(consulta);
+        paginas.add(ids(pagina));
+        while (pagina.hayMas()) {
+            pagina = almacen.paginar(consulta.despuesDe(pagina.siguienteCursor()));
+            paginas.add(ids(pagina));
+        }
+        return paginas;
+    }
+
+    private static List<String> ids(Pagina<Fila> pagina) {
+        return pagina.elementos().stream().map(Fila::id).toList();
+    }
+
+    private static List<String> aplanar(List<List<String>> paginas) {
+        return paginas.stream().flatMap(List::stream).toList();
+    }
+
+    private record Fila(String id, Long puntos) {
+    }
+}
@@ -0,0 +1,143 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArbolPersistenteTest {
+
+    @Test
+    public void testEnPosicionSigueElOrdenDelComparador() {
+        // Arrange
+        ArbolPersistente<Integer, String> arbol = ArbolPersistente.vacio(Comparator.reverseOrder());
+        for (int clave : new int[]{5, 1, 9, 3, 7}) {
+            arbol = arbol.poner(clave, "v" + clave);
+        }
+
+        // Act
+        List<Integer> claves = new ArrayList<>();
+        for (int i = 0; i < arbol.tamaño(); i++) {
+            claves.add(arbol.enPosicion(i).getKey());
+        }
+
+        // Assert
+        assertEquals(List.of(9, 7, 5, 3, 1), claves, "Las posiciones deben seguir el orden del comparador");
+        assertEquals("v5", arbol.enPosicion(2).getValue());
+        ArbolPersistente<Integer, String> completo = arbol;
+        assertThrows(IndexOutOfBoundsException.class, () -> completo.enPosicion(5));
+        assertThrows(IndexOutOfBoundsException.class, () -> completo.enPosicion(-1));
+    }
+
+    @Test
+    public void testRecorrerDespuesDeExcluyeLaClaveEnAmbosSentidos() {
+        // Arrange
+        ArbolPersistente<Integer, Integer> arbol = ArbolPersistente.vacio(Comparator.naturalOrder());
+        for (int clave = 10; clave <= 50; clave += 10) {
+            arbol = arbol.poner(clave, clave);
+        }
+
+        // Act y Assert
+        assertEquals(List.of(40, 50), claves(arbol.recorrerDespuesDe(30, false)),
+                "Ascendente empieza después de la clave, sin incluirla");
+        assertEquals(List.of(20, 10), claves(arbol.recorrerDespuesDe(30, true)),
+                "Descendente empieza antes de la clave, sin incluirla");
+        assertEquals(List.of(40, 50), claves(arbol.recorrerDespuesDe(35, false)),
+                "Una clave ausente sirve como cursor");
+        assertEquals(List.of(30, 20, 10), claves(arbol.recorrerDespuesDe(35, true)));
+        assertEquals(List.of(10, 20, 30, 40, 50), claves(arbol.recorrerDespuesDe(0, false)));
+        assertEquals(List.of(), claves(arbol.recorrerDespuesDe(50, false)));
+        assertEquals(List.of(), claves(arbol.recorrerDespuesDe(10, true)));
+        assertEquals(List.of(50, 40, 30, 20, 10), claves(arbol.recorrer(true)));
+        Iterator<Map.Entry<Integer, Integer>> vacio = arbol.recorrerDespuesDe(50, false);
+        assertThrows(NoSuchElementException.class, vacio::next);
+    }
+
+    @Test
+    public void testVersionesAnterioresNoCambian() {
+        // Arrange
+        ArbolPersistente<Integer, String> original = ArbolPersistente.vacio(Comparator.naturalOrder());
+        for (int i = 0; i < 100; i++) {
+            original = original.poner(i, "v" + i);
+        }
+
+        // Act
+        ArbolPersistente<Integer, String> modificado = original.poner(50, "cambiado").poner(500, "nuevo").quitar(10);
+
+        // Assert
+        assertEquals(100, original.tamaño());
+        assertEquals("v50", original.obtener(50), "Poner en la versión nueva no debe cambiar la anterior");
+        assertEquals("v10", original.obtener(10), "Quitar en la versión nueva no debe cambiar la anterior");
+        assertNull(original.obtener(500));
+        assertEquals(10, original.enPosicion(10).getKey());
+        assertEquals(100, modificado.tamaño());
+        assertEquals("cambiado", modificado.obtener(50));
+        assertNull(modificado.obtener(10));
+        assertEquals(11, modificado.enPosicion(10).getKey());
+        assertSame(modificado, modificado.quitar(10), "Quitar una clave ausente devuelve el mismo árbol");
+    }
+
+    @Test
+    public void testOperacionesAleatoriasCoincidenConTreeMap() {
+        // Arrange
+        Random aleatorio = new Random(20240101);
+        TreeMap<Integer, Integer> esperado = new TreeMap<>();
+        ArbolPersistente<Integer, Integer> arbol = ArbolPersistente.vacio(Comparator.naturalOrder());
+        List<ArbolPersistente<Integer, Integer>> versiones = new ArrayList<>();
+        List<TreeMap<Integer, Integer>> esperadas = new ArrayList<>();
+
+        // Act y Assert
+        for (int paso = 0; paso < 20_000; paso++) {
+            int clave = aleatorio.nextInt(2_000);
+            if (aleatorio.nextInt(3) == 0) {
+                esperado.remove(clave);
+                arbol = arbol.quitar(clave);
+            } else {
+                esperado.put(clave, paso);
+                arbol = arbol.poner(clave, paso);
+            }
+            assertEquals(esperado.size(), arbol.tamaño(), "El tamaño debe coincidir en el paso " + paso);
+            assertEquals(esperado.get(clave), arbol.obtener(clave), "El valor debe coincidir en el paso " + paso);
+            if (paso % 1_000 == 0) {
+                versiones.add(arbol);
+                esperadas.add(new TreeMap<>(esperado));
+                int cursor = aleatorio.nextInt(2_000);
+                assertEquals(new ArrayList<>(esperado.tailMap(cursor, false).keySet()),
+                        claves(arbol.recorrerDespuesDe(cursor, false)));
+                assertEquals(new ArrayList<>(esperado.headMap(cursor, false).descendingKeySet()),
+                        claves(arbol.recorrerDespuesDe(cursor, true)));
+            }
+        }
+        versiones.add(arbol);
+        esperadas.add(esperado);
+        for (int i = 0; i < versiones.size(); i++) {
+            assertMismoContenido(esperadas.get(i), versiones.get(i));
+        }
+    }
+
+    private static void assertMismoContenido(NavigableMap<Integer, Integer> esperado, ArbolPersistente<Integer, Integer> arbol) {
+        assertEquals(esperado.size(), arbol.tamaño());
+        int posicion = 0;
+        for (Map.Entry<Integer, Integer> entrada : esperado.entrySet()) {
+            Map.Entry<Integer, Integer> real = arbol.enPosicion(posicion++);
+            assertEquals(entrada.getKey(), real.getKey(), "Cada versión guardada debe conservar su orden");
+            assertEquals(entrada.getValue(), real.getValue(), "Cada versión guardada debe conservar sus valores");
+        }
+        assertEquals(new ArrayList<>(esperado.keySet()), claves(arbol.recorrer(false)));
+    }
+
+    private static <K> List<K> claves(Iterator<? extends Map.Entry<K, ?>> iterador) {
+        List<K> claves = new ArrayList<>();
+        iterador.forEachRemaining(entrada -> claves.add(entrada.getKey()));
+        return claves;
+    }
+}
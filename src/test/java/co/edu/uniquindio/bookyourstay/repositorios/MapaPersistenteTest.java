@@ -0,0 +1,172 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MapaPersistenteTest {
+
+    @Test
+    public void testClavesConElMismoHashConvivenEnUnaColision() {
+        // Arrange
+        Clave a = new Clave("a", 7);
+        Clave b = new Clave("b", 7);
+        Clave c = new Clave("c", 7);
+        MapaPersistente<Clave, Integer> mapa = MapaPersistente.<Clave, Integer>vacio()
+                .poner(a, 1).poner(b, 2).poner(c, 3);
+
+        // Act
+        MapaPersistente<Clave, Integer> actualizado = mapa.poner(b, 20);
+        MapaPersistente<Clave, Integer> sinA = actualizado.quitar(a);
+        MapaPersistente<Clave, Integer> soloC = sinA.quitar(b);
+
+        // Assert
+        assertEquals(3, mapa.tamaño());
+        assertEquals(2, mapa.obtener(b));
+        assertEquals(3, actualizado.tamaño(), "Reemplazar un valor en una colisión no cambia el tamaño");
+        assertEquals(20, actualizado.obtener(b));
+        assertNull(sinA.obtener(a));
+        assertEquals(20, sinA.obtener(b));
+        assertEquals(1, soloC.tamaño());
+        assertEquals(3, soloC.obtener(c), "La última clave de la colisión debe quedar como hoja");
+        assertNull(soloC.obtener(new Clave("d", 7)), "Una clave con el mismo hash que no está no se encuentra");
+        assertEquals(0, soloC.quitar(c).tamaño());
+    }
+
+    @Test
+    public void testColisionBajoUnaRamaSeSeparaYSeRecoge() {
+        // Arrange: 32 y 64 comparten los 5 bits bajos con 0, así que cuelgan de ramas anidadas
+        Clave cero = new Clave("cero", 0);
+        Clave otraCero = new Clave("otra", 0);
+        Clave treintaYDos = new Clave("treinta y dos", 32);
+        Clave sesentaYCuatro = new Clave("sesenta y cuatro", 64);
+        MapaPersistente<Clave, String> mapa = MapaPersistente.<Clave, String>vacio()
+                .poner(cero, "0").poner(otraCero, "0'").poner(treintaYDos, "32").poner(sesentaYCuatro, "64");
+
+        // Act
+        MapaPersistente<Clave, String> sinColision = mapa.quitar(otraCero);
+        MapaPersistente<Clave, String> recompuesto = sinColision.quitar(treintaYDos).poner(otraCero, "0''");
+
+        // Assert
+        assertEquals(4, mapa.tamaño());
+        assertEquals("0'", mapa.obtener(otraCero));
+        assertEquals("32", mapa.obtener(treintaYDos));
+        assertEquals(3, sinColision.tamaño());
+        assertEquals("0", sinColision.obtener(cero));
+        assertNull(sinColision.obtener(otraCero));
+        assertEquals(3, recompuesto.tamaño());
+        assertEquals("0", recompuesto.obtener(cero));
+        assertEquals("0''", recompuesto.obtener(otraCero));
+        assertEquals("64", recompuesto.obtener(sesentaYCuatro));
+        assertNull(recompuesto.obtener(treintaYDos));
+    }
+
+    @Test
+    public void testQuitarColapsaLaRamaEnUnaHoja() {
+        // Arrange: los hashes coinciden en los dos primeros niveles y se separan en el tercero
+        Clave primera = new Clave("primera", 1);
+        Clave segunda = new Clave("segunda", 1 | (1 << 10));
+        MapaPersistente<Clave, String> mapa = MapaPersistente.<Clave, String>vacio()
+                .poner(primera, "1").poner(segunda, "2");
+
+        // Act
+        MapaPersistente<Clave, String> colapsado = mapa.quitar(segunda);
+        // Una clave que se separa de la hoja colapsada en el primer nivel y otra que la sigue hasta el tercero
+        Clave vecina = new Clave("vecina", 2);
+        Clave profunda = new Clave("profunda", 1 | (2 << 10));
+        MapaPersistente<Clave, String> ampliado = colapsado.poner(vecina, "v").poner(profunda, "p");
+
+        // Assert
+        assertEquals(1, colapsado.tamaño());
+        assertEquals("1", colapsado.obtener(primera), "La hoja que queda se debe poder encontrar");
+        assertNull(colapsado.obtener(segunda));
+        assertSame(colapsado, colapsado.quitar(segunda), "Quitar una clave ausente devuelve el mismo mapa");
+        assertEquals(3, ampliado.tamaño());
+        assertEquals("1", ampliado.obtener(primera));
+        assertEquals("v", ampliado.obtener(vecina));
+        assertEquals("p", ampliado.obtener(profunda));
+        assertEquals(0, ampliado.quitar(primera).quitar(vecina).quitar(profunda).tamaño());
+    }
+
+    @Test
+    public void testVersionesAnterioresNoCambian() {
+        // Arrange
+        MapaPersistente<String, Integer> original = MapaPersistente.vacio();
+        for (int i = 0; i < 100; i++) {
+            original = original.poner("clave" + i, i);
+        }
+
+        // Act
+        MapaPersistente<String, Integer> modificado = original.poner("clave5", 500).poner("nueva", -1).quitar("clave7");
+
+        // Assert
+        assertEquals(100, original.tamaño());
+        assertEquals(5, original.obtener("clave5"), "Poner en la versión nueva no debe cambiar la anterior");
+        assertEquals(7, original.obtener("clave7"), "Quitar en la versión nueva no debe cambiar la anterior");
+        assertNull(original.obtener("nueva"));
+        assertEquals(100, modificado.tamaño());
+        assertEquals(500, modificado.obtener("clave5"));
+        assertNull(modificado.obtener("clave7"));
+    }
+
+    @Test
+    public void testOperacionesAleatoriasCoincidenConHashMap() {
+        // Arrange: hashes en un rango pequeño para forzar colisiones y ramas profundas
+        Random aleatorio = new Random(20240101);
+        List<Clave> claves = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            claves.add(new Clave("k" + i, aleatorio.nextInt(64) * 1057));
+        }
+        Map<Clave, Integer> esperado = new HashMap<>();
+        MapaPersistente<Clave, Integer> mapa = MapaPersistente.vacio();
+        List<MapaPersistente<Clave, Integer>> versiones = new ArrayList<>();
+        List<Map<Clave, Integer>> esperadas = new ArrayList<>();
+
+        // Act y Assert
+        for (int paso = 0; paso < 20_000; paso++) {
+            Clave clave = claves.get(aleatorio.nextInt(claves.size()));
+            if (aleatorio.nextInt(3) == 0) {
+                esperado.remove(clave);
+                mapa = mapa.quitar(clave);
+            } else {
+                esperado.put(clave, paso);
+                mapa = mapa.poner(clave, paso);
+            }
+            assertEquals(esperado.size(), mapa.tamaño(), "El tamaño debe coincidir en el paso " + paso);
+            assertEquals(esperado.get(clave), mapa.obtener(clave), "El valor debe coincidir en el paso " + paso);
+            if (paso % 1_000 == 0) {
+                versiones.add(mapa);
+                esperadas.add(new HashMap<>(esperado));
+            }
+        }
+        versiones.add(mapa);
+        esperadas.add(esperado);
+        for (int i = 0; i < versiones.size(); i++) {
+            for (Clave clave : claves) {
+                assertEquals(esperadas.get(i).get(clave), versiones.get(i).obtener(clave),
+                        "Cada versión guardada debe conservar su contenido");
+            }
+        }
+    }
+
+    /**
+     * Clave con hash elegido por la prueba
+     */
+    private record Clave(String nombre, int hash) {
+        @Override
+        public boolean equals(Object otro) {
+            return otro instanceof Clave clave && clave.nombre.equals(nombre);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package co.edu.uniquindio.bookyourstay.repositorios;
+
+import co.edu.uniquindio.bookyourstay.modelo.Billetera;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RepositorioBaseTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    public void testCompactacionFallidaNoPierdeElRegistroRotado() throws IOException {
+        // Arrange
+        Path snapshot = directorio.resolve("textos.json");
+        RepositorioTextos repositorio = new RepositorioTextos(snapshot);
+        repositorio.guardar("a");
+        repositorio.guardar("b");
+        // Un directorio con contenido en la ruta del snapshot hace fallar el renombre del temporal
+        Files.createDirectories(snapshot);
+        Files.writeString(snapshot.resolve("obstaculo"), "x");
+
+        // Act
+        assertThrows(UncheckedIOException.class, repositorio::compactar);
+        repositorio.guardar("c");
+        assertThrows(UncheckedIOException.class, repositorio::compactar);
+        repositorio.cerrar();
+        Files.delete(snapshot.resolve("obstaculo"));
+        Files.delete(snapshot);
+
+        // Assert
+        RepositorioTextos recuperado = new RepositorioTextos(snapshot);
+        assertEquals(List.of("a", "b", "c"), recuperado.listarTodos(),
+                "Los cambios del registro rotado no se deben perder cuando la compactación falla");
+        recuperado.compactar();
+        assertFalse(Files.exists(directorio.resolve("textos.json.log.1")),
+                "Una compactación exitosa debe borrar el registro rotado");
+        recuperado.cerrar();
+        assertEquals(List.of("a", "b", "c"), new RepositorioTextos(snapshot).listarTodos());
+    }
+
+    @Test
+    public void testCerrarRechazaEscrituras() {
+        // Arrange
+        RepositorioTextos repositorio = new RepositorioTextos(directorio.resolve("textos.json"));
+        repositorio.guardar("a");
+
+        // Act
+        repositorio.cerrar();
+
+        // Assert
+        assertThrows(IllegalStateException.class, () -> repositorio.guardar("b"),
+                "Un repositorio cerrado no debe aceptar escrituras");
+        assertEquals(List.of("a"), new RepositorioTextos(directorio.resolve("textos.json")).listarTodos());
+    }
+
+    @Test
+    public void testSnapshotUsaLoRegistradoYNoLaEntidadViva() {
+        // Arrange
+        Path snapshot = directorio.resolve("listas.json");
+        RepositorioListas repositorio = new RepositorioListas(snapshot);
+        List<String> lista = new ArrayList<>(List.of("l1", "a"));
+        repositorio.guardar(lista);
+
+        // Act: el cambio en memoria no pasa por guardar, así que no está en el registro
+        lista.add("b");
+        repositorio.compactar();
+        repositorio.cerrar();
+
+        // Assert
+        assertEquals(List.of("l1", "a"), new RepositorioListas(snapshot).buscarPorId("l1").orElseThrow(),
+                "El snapshot debe coincidir con el registro, no con un cambio que nunca se registró");
+    }
+
+    /**
+     * Repositorio de listas mutables identificadas por su primer elemento
+     */
+    private static class RepositorioListas extends RepositorioBase<List<String>> {
+        RepositorioListas(Path archivo) {
+            super(archivo.toString(), new TypeToken<List<List<String>>>(){}.getType(), lista -> lista.get(0));
+        }
+
+        @Override
+        public Optional<Billetera> buscarPrimeroQue(BilleteraRepositorio.CriterioBusqueda<Billetera> criterio) {
+            return Optional.empty();
+        }
+    }
+
+    private static class RepositorioTextos extends RepositorioBase<String> {
+        RepositorioTextos(Path archivo) {
+            super(archivo.toString(), new TypeToken<List<String>>(){}.getType(), texto -> texto);
+        }
+
+        @Override
+        public Optional<Billetera> buscarPrimeroQue(BilleteraRepositorio.CriterioBusqueda<Billetera> criterio) {
+            return Optional.empty();
+        }
+    }
+}
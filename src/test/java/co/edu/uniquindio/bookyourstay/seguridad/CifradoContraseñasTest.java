@@ -0,0 +1,44 @@
+package co.edu.uniquindio.bookyourstay.seguridad;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CifradoContraseñasTest {
+    // Un costo bajo mantiene la prueba rápida; el formato y la verificación no dependen de él
+    private static final int ITERACIONES = 1_000;
+
+    @Test
+    public void testHashVerificaSoloLaContraseñaCorrecta() {
+        // Arrange
+        String hash = CifradoContraseñas.generarHash("clave-secreta", ITERACIONES);
+
+        // Act y Assert
+        assertTrue(CifradoContraseñas.esHash(hash));
+        assertTrue(hash.startsWith("pbkdf2-sha256$" + ITERACIONES + "$"), "El hash debe guardar su costo");
+        assertTrue(CifradoContraseñas.verificar("clave-secreta", hash));
+        assertFalse(CifradoContraseñas.verificar("clave-Secreta", hash));
+        assertFalse(CifradoContraseñas.verificar(null, hash));
+        assertNotEquals(hash, CifradoContraseñas.generarHash("clave-secreta", ITERACIONES),
+                "Cada hash debe usar una sal distinta");
+    }
+
+    @Test
+    public void testTextoPlanoYCuentaInexistente() {
+        // Act y Assert
+        assertTrue(CifradoContraseñas.verificar("antigua", "antigua"), "Las contraseñas anteriores en texto plano se aceptan");
+        assertFalse(CifradoContraseñas.verificar("antigua", "otra"));
+        assertTrue(CifradoContraseñas.requiereActualizacion("antigua"), "El texto plano se debe convertir a hash");
+        assertFalse(CifradoContraseñas.verificar("cualquiera", null), "Una cuenta inexistente nunca se verifica");
+    }
+
+    @Test
+    public void testRequiereActualizacionSiCambiaElCosto() {
+        // Act y Assert
+        assertTrue(CifradoContraseñas.requiereActualizacion(CifradoContraseñas.generarHash("clave", ITERACIONES)),
+                "Un hash con otro costo se debe recalcular");
+        assertFalse(CifradoContraseñas.requiereActualizacion(CifradoContraseñas.generarHash("clave")));
+        assertThrows(IllegalArgumentException.class, () -> CifradoContraseñas.generarHash(null));
+        assertThrows(IllegalArgumentException.class, () -> CifradoContraseñas.generarHash("clave", 0));
+    }
+}
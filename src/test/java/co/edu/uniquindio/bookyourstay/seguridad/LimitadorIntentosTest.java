@@ -0,0 +1,114 @@
+package co.edu.uniquindio.bookyourstay.seguridad;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimitadorIntentosTest {
+    private final RelojManual reloj = new RelojManual();
+    private final LimitadorIntentos limitador =
+            new LimitadorIntentos(3, Duration.ofSeconds(30), Duration.ofMinutes(2), reloj);
+
+    @Test
+    public void testBloqueoCreceHastaElMaximo() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Duration.ZERO, limitador.reservarIntento("Ana@Test.com "), "Los primeros intentos se permiten");
+        }
+
+        // Act y Assert
+        assertEquals(Duration.ofSeconds(30), limitador.reservarIntento("ana@test.com"),
+                "Tras los intentos permitidos la cuenta queda bloqueada, sin importar mayúsculas ni espacios");
+        assertEquals(Duration.ofSeconds(30), limitador.tiempoRestante("ana@test.com"));
+        reloj.avanzar(Duration.ofSeconds(30));
+        assertEquals(Duration.ZERO, limitador.reservarIntento("ana@test.com"));
+        assertEquals(Duration.ofSeconds(60), limitador.tiempoRestante("ana@test.com"), "Cada fallo adicional duplica el bloqueo");
+        reloj.avanzar(Duration.ofSeconds(60));
+        limitador.reservarIntento("ana@test.com");
+        reloj.avanzar(Duration.ofSeconds(120));
+        limitador.reservarIntento("ana@test.com");
+        assertEquals(Duration.ofMinutes(2), limitador.tiempoRestante("ana@test.com"), "El bloqueo no supera el máximo");
+        assertEquals(Duration.ZERO, limitador.tiempoRestante("otra@test.com"), "Las demás cuentas no se afectan");
+    }
+
+    @Test
+    public void testExitoBorraLosFallos() {
+        // Arrange
+        limitador.reservarIntento("ana@test.com");
+        limitador.reservarIntento("ana@test.com");
+
+        // Act
+        limitador.registrarExito("ana@test.com");
+
+        // Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Duration.ZERO, limitador.reservarIntento("ana@test.com"),
+                    "Después de un inicio correcto se vuelven a tener todos los intentos");
+        }
+        assertFalse(limitador.tiempoRestante("ana@test.com").isZero());
+    }
+
+    @Test
+    public void testIntentosParalelosNoSuperanElLimite() throws Exception {
+        // Arrange
+        ExecutorService hilos = Executors.newFixedThreadPool(16);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<Boolean>> intentos = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            intentos.add(hilos.submit(() -> {
+                salida.await();
+                return limitador.reservarIntento("ana@test.com").isZero();
+            }));
+        }
+
+        // Act
+        salida.countDown();
+        int reservados = 0;
+        for (Future<Boolean> intento : intentos) {
+            reservados += intento.get(30, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        hilos.shutdown();
+
+        // Assert
+        assertEquals(3, reservados, "Solo se deben verificar los intentos permitidos aunque lleguen a la vez");
+    }
+
+    /**
+     * Reloj que solo avanza cuando la prueba lo indica
+     */
+    private static final class RelojManual extends Clock {
+        private Instant ahora = Instant.parse("2026-01-01T00:00:00Z");
+
+        void avanzar(Duration duracion) {
+            ahora = ahora.plus(duracion);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zona) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package co.edu.uniquindio.bookyourstay.servicios;
+
+import co.edu.uniquindio.bookyourstay.modelo.Casa;
+import co.edu.uniquindio.bookyourstay.modelo.Cliente;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.repositorios.AlojamientoRepositorio;
+import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EstadisticaServicioTest {
+    private static final LocalDate INICIO = LocalDate.of(2026, 3, 10);
+
+    private final ReservaRepositorio reservaRepositorio = new ReservaRepositorio();
+    private final AlojamientoRepositorio alojamientoRepositorio = new AlojamientoRepositorio();
+    private final Cliente cliente = new Cliente();
+
+    @Test
+    public void testReportesPorMesTipoYCiudad() {
+        // Arrange
+        EstadisticaServicio servicio = new EstadisticaServicio(reservaRepositorio, alojamientoRepositorio);
+        reservaRepositorio.guardarReserva(reserva("res-1", casa("alo-1", "Armenia"), EstadoReserva.CONFIRMADA));
+        reservaRepositorio.guardarReserva(reserva("res-2", casa("alo-2", "Pereira"), EstadoReserva.CANCELADA));
+
+        // Act
+        Map<Month, Double> mensuales = servicio.obtenerGananciasMensuales(Year.of(2026));
+        Map<Month, Double> cancelacion = servicio.calcularTasaCancelacion(Year.of(2026));
+        reservaRepositorio.eliminarReserva("res-2");
+
+        // Assert
+        assertEquals(Map.of(Month.MARCH, 2_000.0), mensuales);
+        assertEquals(Map.of(Month.MARCH, 50.0), cancelacion);
+        assertEquals(Map.of("Armenia", 1_000.0), servicio.obtenerGananciasPorCiudad(),
+                "Una ciudad sin reservas no debe aparecer en el reporte");
+        assertEquals(2.0, servicio.obtenerPromedioEstadia().values().iterator().next(), 0.001);
+        assertTrue(servicio.obtenerGananciasMensuales(Year.of(2025)).isEmpty());
+    }
+
+    @Test
+    public void testHistoricoYCambiosConcurrentesNoSeDuplicanNiSePierden() throws Exception {
+        // Arrange
+        for (int i = 0; i < 500; i++) {
+            reservaRepositorio.guardarReserva(reserva("res-" + i, casa("alo-" + i, "Ciudad " + i % 7),
+                    EstadoReserva.CONFIRMADA));
+        }
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        AtomicBoolean detener = new AtomicBoolean();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            int hilo = h;
+            tareas.add(hilos.submit(() -> {
+                // Cada hilo borra y vuelve a crear sus reservas mientras el servicio se construye
+                for (int vuelta = 0; !detener.get(); vuelta++) {
+                    for (int i = hilo; i < 500; i += 4) {
+                        reservaRepositorio.eliminarReserva("res-" + i);
+                        reservaRepositorio.guardarReserva(reserva("res-" + i, casa("alo-" + i, "Ciudad " + i % 7),
+                                vuelta % 2 == 0 ? EstadoReserva.CANCELADA : EstadoReserva.CONFIRMADA));
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        List<EstadisticaServicio> servicios = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            servicios.add(new EstadisticaServicio(reservaRepositorio, alojamientoRepositorio));
+        }
+        detener.set(true);
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        hilos.shutdown();
+
+        // Assert
+        EstadisticaServicio esperado = new EstadisticaServicio(reservaRepositorio, alojamientoRepositorio);
+        for (EstadisticaServicio servicio : servicios) {
+            assertEquals(esperado.obtenerGananciasPorCiudad(), servicio.obtenerGananciasPorCiudad(),
+                    "Las estadísticas suscritas durante los cambios deben coincidir con las calculadas al final");
+            assertEquals(esperado.calcularTasaCancelacion(Year.of(2026)), servicio.calcularTasaCancelacion(Year.of(2026)));
+        }
+    }
+
+    private Casa casa(String id, String ciudad) {
+        Casa casa = new Casa("Casa " + id, ciudad, "Casa de prueba", 4, 100000);
+        casa.setId(id);
+        return casa;
+    }
+
+    private Reserva reserva(String id, Casa casa, EstadoReserva estado) {
+        cliente.setId("cli-1");
+        return Reserva.builder()
+                .conId(id)
+                .conCliente(cliente)
+                .conAlojamiento(casa)
+                .conFechaInicio(INICIO)
+                .conFechaFin(INICIO.plusDays(2))
+                .conNumHuespedes(2)
+                .conEstado(estado)
+                .conTotalCentavos(100_000)
+                .build();
+    }
+}
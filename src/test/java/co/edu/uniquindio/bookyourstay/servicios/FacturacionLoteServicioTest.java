@@ -0,0 +1,104 @@
+package co.edu.uniquindio.bookyourstay.servicios;
+
+import co.edu.uniquindio.bookyourstay.modelo.Casa;
+import co.edu.uniquindio.bookyourstay.modelo.Cliente;
+import co.edu.uniquindio.bookyourstay.modelo.Reserva;
+import co.edu.uniquindio.bookyourstay.modelo.enums.EstadoReserva;
+import co.edu.uniquindio.bookyourstay.repositorios.ArchivoFacturas;
+import co.edu.uniquindio.bookyourstay.repositorios.ReservaRepositorio;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FacturacionLoteServicioTest {
+    private static final YearMonth PERIODO = YearMonth.of(2026, 6);
+
+    @TempDir
+    Path directorio;
+
+    private final ReservaRepositorio repositorio = new ReservaRepositorio();
+    private final FacturacionLoteServicio servicio = new FacturacionLoteServicio(repositorio, 2, 2);
+    private final Cliente cliente = new Cliente();
+    private final Casa casa = new Casa("Casa Sol", "Armenia", "Con piscina", 4, 100000);
+
+    @Test
+    public void testReanudarFacturaReservasCompletadasDespues() {
+        // Arrange
+        casa.setId("alo-1");
+        cliente.setId("cli-1");
+        for (int i = 1; i <= 5; i++) {
+            repositorio.guardarReserva(reserva("res-" + i, i == 2 ? EstadoReserva.CONFIRMADA : EstadoReserva.COMPLETADA));
+        }
+        FacturacionLoteServicio.ResultadoFacturacion primera = servicio.facturarMes(PERIODO, directorio, "EFECTIVO");
+        assertEquals(4, primera.facturas());
+
+        // Act
+        repositorio.buscarPorId("res-2").orElseThrow().setEstado(EstadoReserva.COMPLETADA);
+        FacturacionLoteServicio.ResultadoFacturacion segunda = servicio.facturarMes(PERIODO, directorio, "EFECTIVO");
+
+        // Assert
+        assertEquals(1, segunda.facturas(), "La reserva con ID menor completada después se debe facturar");
+        assertEquals(2, segunda.lotesPrevios());
+        assertEquals(List.of("res-1", "res-2", "res-3", "res-4", "res-5"), reservasFacturadas(),
+                "Cada reserva se debe facturar una sola vez");
+        assertEquals(0, servicio.facturarMes(PERIODO, directorio, "EFECTIVO").facturas(),
+                "Sin reservas nuevas no se debe facturar nada");
+    }
+
+    @Test
+    public void testLoteDañadoNoDescartaLosSiguientes() throws IOException {
+        // Arrange
+        casa.setId("alo-1");
+        cliente.setId("cli-1");
+        for (int i = 1; i <= 6; i++) {
+            repositorio.guardarReserva(reserva("res-" + i, EstadoReserva.COMPLETADA));
+        }
+        servicio.facturarMes(PERIODO, directorio, "EFECTIVO");
+        Path mes = directorio.resolve(PERIODO.toString());
+        Path primerLote = mes.resolve("lote-000000.fac");
+        byte[] datos = Files.readAllBytes(primerLote);
+        datos[datos.length / 2] ^= 0x7F;
+        Files.write(primerLote, datos);
+        byte[] tercerLote = Files.readAllBytes(mes.resolve("lote-000002.fac"));
+
+        // Act
+        FacturacionLoteServicio.ResultadoFacturacion resultado = servicio.facturarMes(PERIODO, directorio, "EFECTIVO");
+
+        // Assert
+        assertEquals(2, resultado.facturas(), "Solo se deben volver a facturar las reservas del lote dañado");
+        assertArrayEquals(tercerLote, Files.readAllBytes(mes.resolve("lote-000002.fac")),
+                "Los lotes posteriores al dañado no se deben sobrescribir");
+        ArchivoFacturas.Resumen resumen = new ArchivoFacturas(mes).resumir();
+        assertEquals(List.of(0), resumen.lotesDañados());
+        assertEquals(4, resumen.siguienteNumero());
+        assertEquals(List.of("res-1", "res-2", "res-3", "res-4", "res-5", "res-6"), reservasFacturadas());
+    }
+
+    private List<String> reservasFacturadas() {
+        return new ArchivoFacturas(directorio.resolve(PERIODO.toString())).leerTodas()
+                .map(ArchivoFacturas.FacturaCompacta::reservaId)
+                .sorted()
+                .toList();
+    }
+
+    private Reserva reserva(String id, EstadoReserva estado) {
+        LocalDate inicio = PERIODO.atDay(1 + 4 * Integer.parseInt(id.substring(4)));
+        return Reserva.builder()
+                .conId(id)
+                .conCliente(cliente)
+                .conAlojamiento(casa)
+                .conFechaInicio(inicio)
+                .conFechaFin(inicio.plusDays(2))
+                .conNumHuespedes(2)
+                .conEstado(estado)
+                .build();
+    }
+}